@@ -0,0 +1,159 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmark comparing the aggregate operations in {@code IntSequence} with aggregating through
+ * {@code forEach} and a capturing lambda.
+ *<p>
+ * The {@code arraySequence} benchmarks use the sequence returned by
+ * {@link PrimitiveSequences#wrap(int[])}, which has specialized array loops, the
+ * {@code indexedSequence} benchmarks use a sequence that relies on the default, {@code valueAt}
+ * based implementations in {@code IntSequence}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveSequenceAggregateBenchmark
+{
+    @Param({"1000", "1000000"})
+    private int fSize;
+
+    private IntSequence fArraySequence;
+    private IntSequence fOtherArraySequence;
+    private IntSequence fIndexedSequence;
+
+
+    @Setup
+    public void setup()
+    {
+        int[] aValues = new int[fSize];
+        int[] aOtherValues = new int[fSize];
+        for (int i=0; i<fSize; i++)
+        {
+            aValues[i] = ThreadLocalRandom.current().nextInt(1000);
+            aOtherValues[i] = ThreadLocalRandom.current().nextInt(1000);
+        }
+
+        fArraySequence = PrimitiveSequences.wrap(aValues);
+        fOtherArraySequence = PrimitiveSequences.wrap(aOtherValues);
+        fIndexedSequence = new IndexedIntSequence(aValues);
+    }
+
+
+    @Benchmark
+    public long forEachSum()
+    {
+        long[] aSum = new long[1];
+        fArraySequence.forEach((int v) -> aSum[0] += v);
+        return aSum[0];
+    }
+
+
+    @Benchmark
+    public long arraySequenceSum()
+    {
+        return fArraySequence.sum();
+    }
+
+
+    @Benchmark
+    public long indexedSequenceSum()
+    {
+        return fIndexedSequence.sum();
+    }
+
+
+    @Benchmark
+    public int forEachMax()
+    {
+        int[] aMax = {Integer.MIN_VALUE};
+        fArraySequence.forEach((int v) -> aMax[0] = Math.max(aMax[0], v));
+        return aMax[0];
+    }
+
+
+    @Benchmark
+    public int arraySequenceMax()
+    {
+        return fArraySequence.max();
+    }
+
+
+    @Benchmark
+    public long arraySequenceDot()
+    {
+        return fArraySequence.dot(fOtherArraySequence);
+    }
+
+
+    @Benchmark
+    public long indexedSequenceDot()
+    {
+        return fIndexedSequence.dot(fOtherArraySequence);
+    }
+
+
+    /**
+     * An {@code IntSequence} that only implements the abstract methods and thereby uses the default
+     * aggregate implementations.
+     */
+    static private class IndexedIntSequence implements IntSequence
+    {
+        private final int[] fValues;
+
+        IndexedIntSequence(int[] pValues)
+        {
+            fValues = pValues;
+        }
+
+        @Override
+        public int size()
+        {
+            return fValues.length;
+        }
+
+        @Override
+        public int valueAt(int pIndex)
+        {
+            return fValues[pIndex];
+        }
+
+        @Override
+        public void forEach(IntConsumer pAction)
+        {
+            for (int aValue : fValues)
+                pAction.accept(aValue);
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator()
+        {
+            return PrimitiveIterators.arrayIterator(fValues, 0, fValues.length);
+        }
+    }
+}
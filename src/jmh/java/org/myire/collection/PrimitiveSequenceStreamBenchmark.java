@@ -0,0 +1,143 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmark comparing parallel reductions over {@code IntSequence} streams with reductions over
+ * {@code Arrays.stream(int[])}.
+ *<p>
+ * The {@code arraySequence} benchmarks use the sequence returned by
+ * {@link PrimitiveSequences#wrap(int[])}, the {@code indexedSequence} benchmarks use a sequence
+ * that relies on the default, index based spliterator in {@code IntSequence}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrimitiveSequenceStreamBenchmark
+{
+    @Param({"1000000", "10000000"})
+    private int fSize;
+
+    private int[] fValues;
+    private IntSequence fArraySequence;
+    private IntSequence fIndexedSequence;
+
+
+    @Setup
+    public void setup()
+    {
+        fValues = new int[fSize];
+        for (int i=0; i<fSize; i++)
+            fValues[i] = ThreadLocalRandom.current().nextInt(1000);
+
+        fArraySequence = PrimitiveSequences.wrap(fValues);
+        fIndexedSequence = new IndexedIntSequence(fValues);
+    }
+
+
+    @Benchmark
+    public long array()
+    {
+        return Arrays.stream(fValues).asLongStream().sum();
+    }
+
+
+    @Benchmark
+    public long arrayParallel()
+    {
+        return Arrays.stream(fValues).parallel().asLongStream().sum();
+    }
+
+
+    @Benchmark
+    public long arraySequence()
+    {
+        return fArraySequence.intStream().asLongStream().sum();
+    }
+
+
+    @Benchmark
+    public long arraySequenceParallel()
+    {
+        return fArraySequence.intStream().parallel().asLongStream().sum();
+    }
+
+
+    @Benchmark
+    public long indexedSequence()
+    {
+        return fIndexedSequence.intStream().asLongStream().sum();
+    }
+
+
+    @Benchmark
+    public long indexedSequenceParallel()
+    {
+        return fIndexedSequence.intStream().parallel().asLongStream().sum();
+    }
+
+
+    /**
+     * An {@code IntSequence} that only implements the abstract methods and thereby uses the default
+     * spliterator implementation.
+     */
+    static private class IndexedIntSequence implements IntSequence
+    {
+        private final int[] fValues;
+
+        IndexedIntSequence(int[] pValues)
+        {
+            fValues = pValues;
+        }
+
+        @Override
+        public int size()
+        {
+            return fValues.length;
+        }
+
+        @Override
+        public int valueAt(int pIndex)
+        {
+            return fValues[pIndex];
+        }
+
+        @Override
+        public void forEach(IntConsumer pAction)
+        {
+            for (int aValue : fValues)
+                pAction.accept(aValue);
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator()
+        {
+            return PrimitiveIterators.arrayIterator(fValues, 0, fValues.length);
+        }
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * Benchmark comparing the cost of creating, completing and getting the result of a
+ * {@code FutureResult}, a {@code CompletableFuture}, and a {@code LatchFutureResult}, which is the
+ * {@code CountDownLatch} based implementation previously used by {@code FutureResult}.
+ *<p>
+ * Run with {@code -prof gc} to compare the allocation rates, the {@code FutureResult} benchmarks
+ * completing with a null result should not allocate anything beyond the future itself.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FutureResultBenchmark
+{
+    private final Object fValue = new Object();
+
+
+    @Benchmark
+    public Object futureResult() throws InterruptedException, ExecutionException
+    {
+        FutureResult<Object> aFuture = new FutureResult<>();
+        aFuture.setResult(fValue);
+        return aFuture.get();
+    }
+
+
+    @Benchmark
+    public Object futureResultNullResult() throws InterruptedException, ExecutionException
+    {
+        FutureResult<Object> aFuture = new FutureResult<>();
+        aFuture.setResult(null);
+        return aFuture.get();
+    }
+
+
+    @Benchmark
+    public Object futureResultException() throws InterruptedException
+    {
+        FutureResult<Object> aFuture = new FutureResult<>();
+        aFuture.setException(BenchmarkException.INSTANCE);
+        try
+        {
+            return aFuture.get();
+        }
+        catch (ExecutionException e)
+        {
+            return e;
+        }
+    }
+
+
+    @Benchmark
+    public Object completableFuture() throws InterruptedException, ExecutionException
+    {
+        CompletableFuture<Object> aFuture = new CompletableFuture<>();
+        aFuture.complete(fValue);
+        return aFuture.get();
+    }
+
+
+    @Benchmark
+    public Object completableFutureNullResult() throws InterruptedException, ExecutionException
+    {
+        CompletableFuture<Object> aFuture = new CompletableFuture<>();
+        aFuture.complete(null);
+        return aFuture.get();
+    }
+
+
+    @Benchmark
+    public Object latchFutureResult() throws InterruptedException, ExecutionException
+    {
+        LatchFutureResult<Object> aFuture = new LatchFutureResult<>();
+        aFuture.setResult(fValue);
+        return aFuture.get();
+    }
+
+
+    @Benchmark
+    public Object latchFutureResultNullResult() throws InterruptedException, ExecutionException
+    {
+        LatchFutureResult<Object> aFuture = new LatchFutureResult<>();
+        aFuture.setResult(null);
+        return aFuture.get();
+    }
+
+
+    /**
+     * The parts of the previous {@code FutureResult} implementation used when completing
+     * normally, allocating a latch, an atomic reference and a completion per future.
+     */
+    static private class LatchFutureResult<T>
+    {
+        private final CountDownLatch fLatch = new CountDownLatch(1);
+        private final AtomicReference<Completion<T>> fCompletionRef = new AtomicReference<>();
+
+        boolean setResult(T pResult)
+        {
+            if (fCompletionRef.compareAndSet(null, new Completion<>(pResult)))
+            {
+                fLatch.countDown();
+                return true;
+            }
+            else
+                return false;
+        }
+
+        T get() throws InterruptedException
+        {
+            fLatch.await();
+            return fCompletionRef.get().fResult;
+        }
+    }
+
+
+    static private class Completion<T>
+    {
+        final T fResult;
+
+        Completion(T pResult)
+        {
+            fResult = pResult;
+        }
+    }
+
+
+    /**
+     * Exception without a stack trace, to keep the stack walk out of the benchmark.
+     */
+    static private class BenchmarkException extends Exception
+    {
+        static private final long serialVersionUID = 1L;
+
+        static final BenchmarkException INSTANCE = new BenchmarkException();
+
+        BenchmarkException()
+        {
+            super("benchmark", null, false, false);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.function.Consumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+
+import org.myire.util.AlphaCodes;
+
+
+/**
+ * An immutable {@code Sequence} of two-, three-, and four-character alpha codes, such as ISO 3166
+ * country codes or ISO 4217 currency codes, where each code is stored as a 32-bit value encoded
+ * with {@link AlphaCodes}. No dictionary is needed, and two positions hold equal codes if and
+ * only if their encoded values are equal.
+ *<p>
+ * All characters in the codes must have a value in the range 1 to 255. Since no character is
+ * encoded as zero, the length of a code is given by the number of leading zero bytes in its
+ * encoded value, which allows codes of different lengths to be stored in the same sequence.
+ *<p>
+ * The elements are decoded into new {@code String} instances each time they are accessed.
+ */
+@Immutable
+public final class AlphaCodeSequence implements Sequence<String>
+{
+    private final IntSequence fEncodedValues;
+
+
+    /**
+     * Create a new {@code AlphaCodeSequence}.
+     *
+     * @param pEncodedValues    The encoded codes.
+     */
+    private AlphaCodeSequence(@Nonnull IntSequence pEncodedValues)
+    {
+        fEncodedValues = pEncodedValues;
+    }
+
+
+    /**
+     * Create an {@code AlphaCodeSequence} with the codes in another sequence.
+     *
+     * @param pCodes    The codes to encode.
+     *
+     * @return  A new {@code AlphaCodeSequence}, never null.
+     *
+     * @throws NullPointerException if {@code pCodes} is null or contains a null element.
+     * @throws IllegalArgumentException if any of the codes doesn't have a length of 2, 3 or 4, or
+     *                                  contains a character with a value outside of the range 1 to
+     *                                  255.
+     */
+    @Nonnull
+    static public AlphaCodeSequence copyOf(@Nonnull Sequence<? extends CharSequence> pCodes)
+    {
+        int aSize = pCodes.size();
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(aSize);
+        for (int i=0; i<aSize; i++)
+            aBuilder.append(encode(pCodes.elementAt(i)));
+
+        return new AlphaCodeSequence(aBuilder.toSequence());
+    }
+
+
+    /**
+     * Encode an alpha code into the 32-bit value used to store it in an
+     * {@code AlphaCodeSequence}.
+     *
+     * @param pCode The code to encode.
+     *
+     * @return  The encoded value.
+     *
+     * @throws NullPointerException if {@code pCode} is null.
+     * @throws IllegalArgumentException if the code doesn't have a length of 2, 3 or 4, or contains
+     *                                  a character with a value outside of the range 1 to 255.
+     */
+    static public int encode(@Nonnull CharSequence pCode)
+    {
+        int aLength = pCode.length();
+        for (int i=0; i<aLength; i++)
+        {
+            char aChar = pCode.charAt(i);
+            if (aChar == 0 || aChar > 0xff)
+                throw new IllegalArgumentException("Invalid alpha code character: " + (int) aChar);
+        }
+
+        switch (aLength)
+        {
+            case 2:
+                return AlphaCodes.encodeAlpha2(pCode);
+            case 3:
+                return AlphaCodes.encodeAlpha3(pCode);
+            case 4:
+                return AlphaCodes.encodeAlpha4(pCode);
+            default:
+                throw new IllegalArgumentException("Invalid alpha code length: " + aLength);
+        }
+    }
+
+
+    @Override
+    @Nonnegative
+    public int size()
+    {
+        return fEncodedValues.size();
+    }
+
+
+    @Override
+    @Nonnull
+    public String elementAt(@Nonnegative int pIndex)
+    {
+        return decode(fEncodedValues.valueAt(pIndex));
+    }
+
+
+    @Override
+    public void forEach(@Nonnull Consumer<? super String> pAction)
+    {
+        requireNonNull(pAction);
+        fEncodedValues.forEach((int v) -> pAction.accept(decode(v)));
+    }
+
+
+    /**
+     * Get the encoded value of the code at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the code.
+     *
+     * @return  The code's encoded value.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    public int encodedValueAt(@Nonnegative int pIndex)
+    {
+        return fEncodedValues.valueAt(pIndex);
+    }
+
+
+    /**
+     * Get the encoded values of the codes in this sequence.
+     *
+     * @return  An {@code IntSequence} with the encoded values, never null.
+     */
+    @Nonnull
+    public IntSequence getEncodedValues()
+    {
+        return fEncodedValues;
+    }
+
+
+    /**
+     * Decode an encoded alpha code, using the number of leading zero bytes to determine the length
+     * of the code.
+     *
+     * @param pEncodedValue The encoded code.
+     *
+     * @return  The decoded code, never null.
+     */
+    @Nonnull
+    static private String decode(int pEncodedValue)
+    {
+        char[] aChars;
+        if ((pEncodedValue >>> 24) != 0)
+        {
+            aChars = new char[4];
+            AlphaCodes.decodeAlpha4(pEncodedValue, aChars, 0);
+        }
+        else if ((pEncodedValue >>> 16) != 0)
+        {
+            aChars = new char[3];
+            AlphaCodes.decodeAlpha3(pEncodedValue, aChars, 0);
+        }
+        else
+        {
+            aChars = new char[2];
+            AlphaCodes.decodeAlpha2(pEncodedValue, aChars, 0);
+        }
+
+        return new String(aChars);
+    }
+}
@@ -8,6 +8,7 @@ package org.myire.collection;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Iterator;
+import java.util.stream.Stream;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -75,4 +76,19 @@ public class ArrayListSequence<E> extends ArrayList<E> implements Sequence<E>
     {
         return Iterators.unmodifiableIterator(super.iterator());
     }
+
+
+    /**
+     * Create a sequential {@code Stream} with the elements in this list/sequence as its source.
+     * This method is overridden to resolve the conflicting default implementations in
+     * {@code Collection} and {@code Sequence}; the {@code Collection} implementation is used.
+     *
+     * @return  A new {@code Stream}, never null.
+     */
+    @Override
+    @Nonnull
+    public Stream<E> stream()
+    {
+        return super.stream();
+    }
 }
@@ -0,0 +1,99 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.util.BooleanConsumer;
+
+
+/**
+ * A {@code BooleanSequence} provides positional (indexed), read-only access to a sequence of
+ * {@code boolean} values. It is a primitive specialization of {@link Sequence} for {@code boolean}
+ * values. Implementations typically store the values in
+ * bits packed into {@code long} words, using 1/64 of the memory needed for references to
+ * {@code Boolean} instances.
+ */
+public interface BooleanSequence extends PrimitiveSequence<Boolean, BooleanConsumer>
+{
+    /**
+     * Get the {@code boolean} value at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the value to get.
+     *
+     * @return  The {@code boolean} value at the specified position in this sequence.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    boolean valueAt(@Nonnegative int pIndex);
+
+    /**
+     * Get the {@code Boolean} element at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the element to get.
+     *
+     * @return  The value at the specified position in this sequence wrapped in a {@code Boolean},
+     *          never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Nonnull
+    @Override
+    default Boolean elementAt(@Nonnegative int pIndex)
+    {
+        return Boolean.valueOf(valueAt(pIndex));
+    }
+
+    /**
+     * Return a {@code BooleanIterator} for the values in this sequence.
+     *
+     * @return  A {@code BooleanIterator}, never null.
+     */
+    @Override
+    @Nonnull
+    BooleanIterator iterator();
+
+    /**
+     * Get a view of the values in this sequence between {@code pFromIndex}, inclusive, and
+     * {@code pToIndex}, exclusive. The returned sequence is backed by this sequence; no values are
+     * copied.
+     *
+     * @param pFromIndex    The index of the first value in the sub-sequence.
+     * @param pToIndex      The index after the last value in the sub-sequence.
+     *
+     * @return  A {@code BooleanSequence} with the values in the specified range, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than {@link #size()}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Override
+    @Nonnull
+    default BooleanSequence subSequence(@Nonnegative int pFromIndex, @Nonnegative int pToIndex)
+    {
+        return CompactSequences.subSequence(this, pFromIndex, pToIndex);
+    }
+
+    /**
+     * Get the number of {@code true} values in this sequence.
+     *
+     * @return  The number of {@code true} values.
+     */
+    @Nonnegative
+    default int countTrue()
+    {
+        int aCount = 0;
+        int aSize = size();
+        for (int i=0; i<aSize; i++)
+            if (valueAt(i))
+                aCount++;
+
+        return aCount;
+    }
+}
@@ -0,0 +1,199 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.myire.util.Numbers.requireRangeWithinBounds;
+
+
+/**
+ * A {@code LongSequence} that stores its values in direct {@code ByteBuffer} instances
+ * outside of the Java heap. Instances are created through the factory methods in
+ * {@link OffHeapSequences} and {@link MappedSequences}.
+ *<p>
+ * The values can be modified with {@link #setValue(int, long)}, but the size of the sequence is
+ * fixed. The native memory is released by {@link #close()}, after which all methods except
+ * {@code size()}, {@code isClosed()}, and {@code close()} throw an {@code IllegalStateException}.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ */
+@NotThreadSafe
+public class ByteBufferLongSequence extends ByteBufferSequence implements LongSequence
+{
+    // Chunks of 2^27 values, i.e. 1 GiB.
+    static final int DEFAULT_CHUNK_SHIFT = 27;
+
+
+    private final int fChunkMask;
+    private LongBuffer[] fViews;
+
+
+    /**
+     * Create a new {@code ByteBufferLongSequence}.
+     *
+     * @param pChunks       The buffers holding the values. All buffers except the last must hold
+     *                      exactly 2<sup>{@code pChunkShift}</sup> values. The byte order of the
+     *                      buffers determines the byte order of the values.
+     * @param pSize         The number of values in the sequence.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @throws NullPointerException if {@code pChunks} or any of its elements is null.
+     */
+    ByteBufferLongSequence(@Nonnull ByteBuffer[] pChunks, @Nonnegative int pSize, int pChunkShift)
+    {
+        super(pChunks, pSize, pChunkShift);
+        fChunkMask = (1 << pChunkShift) - 1;
+        fViews = new LongBuffer[pChunks.length];
+        for (int i=0; i<pChunks.length; i++)
+            fViews[i] = pChunks[i].asLongBuffer();
+    }
+
+
+    /**
+     * Get the value at a specific index in this sequence.
+     *
+     * @param pIndex    The value's index.
+     *
+     * @return  The value at the specified index.
+     *
+     * @throws IndexOutOfBoundsException    if {@code pIndex} is negative or greater than or equal
+     *                                      to the size of this sequence.
+     * @throws IllegalStateException        if this sequence has been closed.
+     */
+    @Override
+    public long valueAt(int pIndex)
+    {
+        checkIndex(pIndex);
+        return views()[pIndex >>> chunkShift()].get(pIndex & fChunkMask);
+    }
+
+
+    /**
+     * Replace the value at a specific index in this sequence.
+     *
+     * @param pIndex    The value's index.
+     * @param pValue    The new value.
+     *
+     * @throws IndexOutOfBoundsException    if {@code pIndex} is negative or greater than or equal
+     *                                      to the size of this sequence.
+     * @throws IllegalStateException        if this sequence has been closed.
+     * @throws java.nio.ReadOnlyBufferException if this sequence is read-only.
+     */
+    public void setValue(int pIndex, long pValue)
+    {
+        checkIndex(pIndex);
+        views()[pIndex >>> chunkShift()].put(pIndex & fChunkMask, pValue);
+    }
+
+
+    /**
+     * Replace a range of values in this sequence with the values in a range of an array. The
+     * values are written with one bulk put per underlying buffer.
+     *
+     * @param pIndex    The index of the first value to replace.
+     * @param pValues   The array with the new values.
+     * @param pOffset   The offset in the array of the first new value.
+     * @param pLength   The number of values to replace.
+     *
+     * @throws NullPointerException         if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException    if the range is out of bounds of this sequence or of
+     *                                      the array.
+     * @throws IllegalStateException        if this sequence has been closed.
+     * @throws java.nio.ReadOnlyBufferException if this sequence is read-only.
+     */
+    void setValues(int pIndex, @Nonnull long[] pValues, int pOffset, int pLength)
+    {
+        requireRangeWithinBounds(pOffset, pLength, pValues.length);
+        requireRangeWithinBounds(pIndex, pLength, size());
+        LongBuffer[] aViews = views();
+        int aNumWritten = 0;
+        while (aNumWritten < pLength)
+        {
+            int aIndex = pIndex + aNumWritten;
+            LongBuffer aView = aViews[aIndex >>> chunkShift()].duplicate();
+            aView.position(aIndex & fChunkMask);
+            int aNumValues = Math.min(pLength - aNumWritten, aView.remaining());
+            aView.put(pValues, pOffset + aNumWritten, aNumValues);
+            aNumWritten += aNumValues;
+        }
+    }
+
+
+    /**
+     * Perform an action for each value in this sequence. The values are read chunk by chunk
+     * directly from the underlying buffers.
+     *
+     * @param pAction   The action to perform.
+     *
+     * @throws NullPointerException     if {@code pAction} is null.
+     * @throws IllegalStateException    if this sequence has been closed.
+     */
+    @Override
+    public void forEach(@Nonnull LongConsumer pAction)
+    {
+        requireNonNull(pAction);
+        for (LongBuffer aView : views())
+        {
+            int aLimit = aView.limit();
+            for (int i=0; i<aLimit; i++)
+                pAction.accept(aView.get(i));
+        }
+    }
+
+
+    /**
+     * Get an iterator over the values in this sequence. The iterator will throw an
+     * {@code IllegalStateException} if this sequence is closed during the iteration.
+     *
+     * @return  A new {@code PrimitiveIterator.OfLong}, never null.
+     *
+     * @throws IllegalStateException    if this sequence has been closed.
+     */
+    @Override
+    @Nonnull
+    public PrimitiveIterator.OfLong iterator()
+    {
+        views();
+        return PrimitiveIterators.sequenceIterator(this);
+    }
+
+
+    @Override
+    public void close()
+    {
+        // Drop the views before releasing the memory they refer to.
+        fViews = null;
+        super.close();
+    }
+
+
+    /**
+     * Get the typed views of the chunk buffers.
+     *
+     * @return  The views, never null.
+     *
+     * @throws IllegalStateException    if this sequence has been closed.
+     */
+    @Nonnull
+    private LongBuffer[] views()
+    {
+        LongBuffer[] aViews = fViews;
+        if (aViews != null)
+            return aViews;
+        else
+            throw new IllegalStateException("Sequence is closed");
+    }
+}
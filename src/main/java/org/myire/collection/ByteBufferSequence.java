@@ -0,0 +1,164 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.myire.util.Numbers.requireNonNegative;
+
+
+/**
+ * Base class for primitive sequences that store their values in direct {@code ByteBuffer}
+ * instances outside of the Java heap. The values are split into chunks, each chunk being stored
+ * in a separate buffer, which allows a sequence to occupy more than 2<sup>31</sup> bytes.
+ *<p>
+ * The native memory held by a sequence is released when the sequence is closed. Any attempt to
+ * access the values of a closed sequence will throw an {@code IllegalStateException}.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization. In particular, a sequence must not be closed while another thread may be
+ * accessing its values.
+ */
+@NotThreadSafe
+abstract public class ByteBufferSequence implements AutoCloseable
+{
+    private final int fSize;
+    private final int fChunkShift;
+    private ByteBuffer[] fChunks;
+
+
+    /**
+     * Create a new {@code ByteBufferSequence}.
+     *
+     * @param pChunks       The buffers holding the values. All buffers except the last must hold
+     *                      exactly 2<sup>{@code pChunkShift}</sup> values.
+     * @param pSize         The number of values in the sequence.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @throws NullPointerException if {@code pChunks} is null.
+     */
+    ByteBufferSequence(@Nonnull ByteBuffer[] pChunks, @Nonnegative int pSize, int pChunkShift)
+    {
+        fChunks = requireNonNull(pChunks);
+        fSize = pSize;
+        fChunkShift = pChunkShift;
+    }
+
+
+    /**
+     * Get the number of values in this sequence. The size is available also after the sequence
+     * has been closed.
+     *
+     * @return  The number of values in this sequence.
+     */
+    @Nonnegative
+    public int size()
+    {
+        return fSize;
+    }
+
+
+    /**
+     * Check if this sequence has been closed.
+     *
+     * @return  True if {@link #close()} has been called, false if not.
+     */
+    public boolean isClosed()
+    {
+        return fChunks == null;
+    }
+
+
+    /**
+     * Release the native memory held by this sequence, or unmap the file if the sequence is
+     * memory-mapped. Calling this method on a closed sequence has no effect.
+     */
+    @Override
+    public void close()
+    {
+        ByteBuffer[] aChunks = fChunks;
+        if (aChunks != null)
+        {
+            fChunks = null;
+            for (ByteBuffer aChunk : aChunks)
+                DirectBuffers.release(aChunk);
+        }
+    }
+
+
+    /**
+     * Get the base 2 logarithm of the number of values in each chunk of this sequence.
+     *
+     * @return  The chunk shift.
+     */
+    int chunkShift()
+    {
+        return fChunkShift;
+    }
+
+
+    /**
+     * Check that an index is within the bounds of this sequence.
+     *
+     * @param pIndex    The index to check.
+     *
+     * @throws IndexOutOfBoundsException    if {@code pIndex} is negative or greater than or equal
+     *                                      to the size of this sequence.
+     */
+    void checkIndex(int pIndex)
+    {
+        if (pIndex < 0 || pIndex >= fSize)
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+    }
+
+
+    /**
+     * Allocate the direct buffers for a sequence.
+     *
+     * @param pSize         The number of values in the sequence.
+     * @param pValueSize    The number of bytes in each value.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  An array with the allocated buffers, all with native byte order and zero values.
+     *
+     * @throws IllegalArgumentException if {@code pSize} is negative.
+     * @throws OutOfMemoryError if the native memory cannot be allocated.
+     */
+    @Nonnull
+    static ByteBuffer[] allocateChunks(@Nonnegative int pSize, int pValueSize, int pChunkShift)
+    {
+        requireNonNegative(pSize);
+        int aChunkLength = 1 << pChunkShift;
+        int aNumChunks = (int) (((long) pSize + aChunkLength - 1) >>> pChunkShift);
+        ByteBuffer[] aChunks = new ByteBuffer[aNumChunks];
+        try
+        {
+            for (int i=0; i<aNumChunks; i++)
+            {
+                int aNumValues = Math.min(aChunkLength, pSize - (i << pChunkShift));
+                aChunks[i] = ByteBuffer.allocateDirect(aNumValues * pValueSize);
+                aChunks[i].order(ByteOrder.nativeOrder());
+            }
+        }
+        catch (OutOfMemoryError e)
+        {
+            // Don't hang on to the chunks allocated before the failure until the next GC.
+            for (ByteBuffer aChunk : aChunks)
+                if (aChunk != null)
+                    DirectBuffers.release(aChunk);
+
+            throw e;
+        }
+
+        return aChunks;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.util.ByteConsumer;
+
+
+/**
+ * A {@code ByteSequence} provides positional (indexed), read-only access to a sequence of
+ * {@code byte} values. It is a primitive specialization of {@link Sequence} for {@code byte}
+ * values.
+ */
+public interface ByteSequence extends PrimitiveSequence<Byte, ByteConsumer>
+{
+    /**
+     * Get the {@code byte} value at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the value to get.
+     *
+     * @return  The {@code byte} value at the specified position in this sequence.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    byte valueAt(@Nonnegative int pIndex);
+
+    /**
+     * Get the {@code Byte} element at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the element to get.
+     *
+     * @return  The value at the specified position in this sequence wrapped in a {@code Byte},
+     *          never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Nonnull
+    @Override
+    default Byte elementAt(@Nonnegative int pIndex)
+    {
+        return Byte.valueOf(valueAt(pIndex));
+    }
+
+    /**
+     * Return a {@code ByteIterator} for the values in this sequence.
+     *
+     * @return  A {@code ByteIterator}, never null.
+     */
+    @Override
+    @Nonnull
+    ByteIterator iterator();
+
+    /**
+     * Get a view of the values in this sequence between {@code pFromIndex}, inclusive, and
+     * {@code pToIndex}, exclusive. The returned sequence is backed by this sequence; no values are
+     * copied.
+     *
+     * @param pFromIndex    The index of the first value in the sub-sequence.
+     * @param pToIndex      The index after the last value in the sub-sequence.
+     *
+     * @return  A {@code ByteSequence} with the values in the specified range, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than {@link #size()}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Override
+    @Nonnull
+    default ByteSequence subSequence(@Nonnegative int pFromIndex, @Nonnegative int pToIndex)
+    {
+        return CompactSequences.subSequence(this, pFromIndex, pToIndex);
+    }
+}
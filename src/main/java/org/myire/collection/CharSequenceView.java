@@ -0,0 +1,114 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.util.CharConsumer;
+
+
+/**
+ * A {@code CharSequenceView} provides positional (indexed), read-only access to a sequence of
+ * {@code char} values. It is a primitive specialization of {@link Sequence} for {@code char}
+ * values, and is also a {@code java.lang.CharSequence}, which allows it to be passed to e.g.
+ * {@code StringBuilder.append} and regular expression matchers without copying the characters.
+ *<p>
+ * Implementations must return a string with the characters of the sequence from
+ * {@code toString()}, as specified by {@code java.lang.CharSequence}.
+ */
+public interface CharSequenceView extends PrimitiveSequence<Character, CharConsumer>, CharSequence
+{
+    /**
+     * Get the {@code char} value at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the value to get.
+     *
+     * @return  The {@code char} value at the specified position in this sequence.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    char valueAt(@Nonnegative int pIndex);
+
+    /**
+     * Get the {@code Character} element at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the element to get.
+     *
+     * @return  The value at the specified position in this sequence wrapped in a
+     *          {@code Character}, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Nonnull
+    @Override
+    default Character elementAt(@Nonnegative int pIndex)
+    {
+        return Character.valueOf(valueAt(pIndex));
+    }
+
+    /**
+     * Get the {@code char} value at a specific position in this sequence. This method is
+     * equivalent to {@link #valueAt(int)}.
+     *
+     * @param pIndex    The index of the value to get.
+     *
+     * @return  The {@code char} value at the specified position in this sequence.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Override
+    default char charAt(@Nonnegative int pIndex)
+    {
+        return valueAt(pIndex);
+    }
+
+    /**
+     * Get the number of {@code char} values in this sequence. This method is equivalent to
+     * {@link #size()}.
+     *
+     * @return  The number of values in this sequence.
+     */
+    @Override
+    @Nonnegative
+    default int length()
+    {
+        return size();
+    }
+
+    /**
+     * Return a {@code CharIterator} for the values in this sequence.
+     *
+     * @return  A {@code CharIterator}, never null.
+     */
+    @Override
+    @Nonnull
+    CharIterator iterator();
+
+    /**
+     * Get a view of the values in this sequence between {@code pFromIndex}, inclusive, and
+     * {@code pToIndex}, exclusive. The returned sequence is backed by this sequence; no values are
+     * copied.
+     *
+     * @param pFromIndex    The index of the first value in the sub-sequence.
+     * @param pToIndex      The index after the last value in the sub-sequence.
+     *
+     * @return  A {@code CharSequenceView} with the values in the specified range, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than {@link #size()}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Override
+    @Nonnull
+    default CharSequenceView subSequence(@Nonnegative int pFromIndex, @Nonnegative int pToIndex)
+    {
+        return CompactSequences.subSequence(this, pFromIndex, pToIndex);
+    }
+}
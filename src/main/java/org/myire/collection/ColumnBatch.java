@@ -0,0 +1,654 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * A batch of rows stored column by column. Each column has a unique name and is an
+ * {@code IntSequence}, a {@code LongSequence}, a {@code DoubleSequence}, or a general
+ * {@code Sequence}. All columns have the same number of rows.
+ *<p>
+ * A batch can have a <i>selection vector</i>, which is a sequence of indexes of the rows in the
+ * underlying columns that are part of the batch. Filtering a batch with
+ * {@link #select(IntSequence)} creates a new batch that shares the underlying columns and only
+ * holds a new selection vector; no column values are copied. The columns returned by the accessor
+ * methods are views that map their indexes through the selection vector. {@link #compact()}
+ * copies the selected rows into new columns, which is worthwhile when the selected rows will be
+ * accessed many times.
+ *<p>
+ * Projecting a batch with {@link #project(String...)} is equally cheap, it creates a new batch
+ * that refers to a subset of the columns.
+ *<p>
+ * Instances are created with a {@link ColumnBatchBuilder}.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+@Immutable
+public final class ColumnBatch
+{
+    /**
+     * The type of the values in a column.
+     */
+    public enum ColumnType
+    {
+        /** A column that is an {@code IntSequence}. */
+        INT,
+        /** A column that is a {@code LongSequence}. */
+        LONG,
+        /** A column that is a {@code DoubleSequence}. */
+        DOUBLE,
+        /** A column that is a {@code Sequence} of objects. */
+        OBJECT
+    }
+
+
+    private final String[] fNames;
+    private final Sequence<?>[] fColumns;
+    private final ColumnType[] fTypes;
+    private final Map<String, Integer> fIndexesByName;
+
+    // The number of rows in the underlying columns.
+    private final int fColumnSize;
+
+    // The indexes of the rows in the underlying columns that are part of this batch, or null if
+    // all rows are part of the batch.
+    private final int[] fSelection;
+
+
+    /**
+     * Create a new {@code ColumnBatch}. The arrays are not copied and must not be modified after
+     * the call.
+     *
+     * @param pNames        The names of the columns.
+     * @param pColumns      The columns, all with the same size.
+     * @param pTypes        The types of the columns.
+     * @param pColumnSize   The number of rows in the columns.
+     * @param pSelection    The selected rows, or null to select all rows.
+     */
+    ColumnBatch(
+        @Nonnull String[] pNames,
+        @Nonnull Sequence<?>[] pColumns,
+        @Nonnull ColumnType[] pTypes,
+        @Nonnegative int pColumnSize,
+        @Nullable int[] pSelection)
+    {
+        fNames = pNames;
+        fColumns = pColumns;
+        fTypes = pTypes;
+        fColumnSize = pColumnSize;
+        fSelection = pSelection;
+        fIndexesByName = new HashMap<>();
+        for (int i=0; i<pNames.length; i++)
+            fIndexesByName.put(pNames[i], Integer.valueOf(i));
+    }
+
+
+    /**
+     * Get the type of a column.
+     *
+     * @param pColumn   The column.
+     *
+     * @return  The column's type, never null.
+     *
+     * @throws NullPointerException if {@code pColumn} is null.
+     */
+    @Nonnull
+    static ColumnType typeOf(@Nonnull Sequence<?> pColumn)
+    {
+        if (pColumn instanceof IntSequence)
+            return ColumnType.INT;
+        else if (pColumn instanceof LongSequence)
+            return ColumnType.LONG;
+        else if (pColumn instanceof DoubleSequence)
+            return ColumnType.DOUBLE;
+        else
+            return ColumnType.OBJECT;
+    }
+
+
+    /**
+     * Get the number of rows in this batch.
+     *
+     * @return  The number of rows.
+     */
+    @Nonnegative
+    public int getRowCount()
+    {
+        return fSelection != null ? fSelection.length : fColumnSize;
+    }
+
+
+    /**
+     * Get the number of columns in this batch.
+     *
+     * @return  The number of columns.
+     */
+    @Nonnegative
+    public int getColumnCount()
+    {
+        return fNames.length;
+    }
+
+
+    /**
+     * Get the names of the columns in this batch, in the order the columns were added.
+     *
+     * @return  A {@code Sequence} with the column names, never null.
+     */
+    @Nonnull
+    public Sequence<String> getColumnNames()
+    {
+        return Sequences.wrap(fNames);
+    }
+
+
+    /**
+     * Check if this batch contains a column with a specific name.
+     *
+     * @param pName The column name.
+     *
+     * @return  True if this batch has a column with the specified name, false if not.
+     */
+    public boolean hasColumn(@Nullable String pName)
+    {
+        return fIndexesByName.containsKey(pName);
+    }
+
+
+    /**
+     * Get the type of a column.
+     *
+     * @param pName The name of the column.
+     *
+     * @return  The column's type, never null.
+     *
+     * @throws IllegalArgumentException if this batch has no column with the specified name.
+     */
+    @Nonnull
+    public ColumnType getColumnType(@Nonnull String pName)
+    {
+        return fTypes[columnIndex(pName)];
+    }
+
+
+    /**
+     * Get the indexes of the rows in the underlying columns that are part of this batch.
+     *
+     * @return  The selection vector, or null if this batch contains all rows of the underlying
+     *          columns.
+     */
+    @Nullable
+    public IntSequence getSelection()
+    {
+        return fSelection != null ? PrimitiveSequences.wrap(fSelection) : null;
+    }
+
+
+    /**
+     * Get a column.
+     *
+     * @param pName The name of the column.
+     *
+     * @return  The column's values in the rows of this batch, never null. If the column has type
+     *          {@code INT}, {@code LONG}, or {@code DOUBLE}, the returned sequence is an
+     *          {@code IntSequence}, a {@code LongSequence}, or a {@code DoubleSequence},
+     *          respectively.
+     *
+     * @throws IllegalArgumentException if this batch has no column with the specified name.
+     */
+    @Nonnull
+    public Sequence<?> getColumn(@Nonnull String pName)
+    {
+        return column(columnIndex(pName));
+    }
+
+
+    /**
+     * Get a column with type {@code INT}.
+     *
+     * @param pName The name of the column.
+     *
+     * @return  The column's values in the rows of this batch, never null.
+     *
+     * @throws IllegalArgumentException if this batch has no column with the specified name, or if
+     *                                  the column doesn't have type {@code INT}.
+     */
+    @Nonnull
+    public IntSequence getIntColumn(@Nonnull String pName)
+    {
+        return (IntSequence) column(columnIndex(pName, ColumnType.INT));
+    }
+
+
+    /**
+     * Get a column with type {@code LONG}.
+     *
+     * @param pName The name of the column.
+     *
+     * @return  The column's values in the rows of this batch, never null.
+     *
+     * @throws IllegalArgumentException if this batch has no column with the specified name, or if
+     *                                  the column doesn't have type {@code LONG}.
+     */
+    @Nonnull
+    public LongSequence getLongColumn(@Nonnull String pName)
+    {
+        return (LongSequence) column(columnIndex(pName, ColumnType.LONG));
+    }
+
+
+    /**
+     * Get a column with type {@code DOUBLE}.
+     *
+     * @param pName The name of the column.
+     *
+     * @return  The column's values in the rows of this batch, never null.
+     *
+     * @throws IllegalArgumentException if this batch has no column with the specified name, or if
+     *                                  the column doesn't have type {@code DOUBLE}.
+     */
+    @Nonnull
+    public DoubleSequence getDoubleColumn(@Nonnull String pName)
+    {
+        return (DoubleSequence) column(columnIndex(pName, ColumnType.DOUBLE));
+    }
+
+
+    /**
+     * Create a batch with a subset of the columns in this batch. The new batch shares the columns
+     * and the selection vector with this batch.
+     *
+     * @param pNames    The names of the columns to include, in the order they should have in the
+     *                  new batch.
+     *
+     * @return  A new {@code ColumnBatch}, never null.
+     *
+     * @throws NullPointerException if {@code pNames} is null.
+     * @throws IllegalArgumentException if this batch has no column with one of the names, or if a
+     *                                  name occurs more than once.
+     */
+    @Nonnull
+    public ColumnBatch project(@Nonnull String... pNames)
+    {
+        int aNumColumns = pNames.length;
+        String[] aNames = new String[aNumColumns];
+        Sequence<?>[] aColumns = new Sequence<?>[aNumColumns];
+        ColumnType[] aTypes = new ColumnType[aNumColumns];
+        for (int i=0; i<aNumColumns; i++)
+        {
+            int aIndex = columnIndex(pNames[i]);
+            for (int j=0; j<i; j++)
+                if (aNames[j].equals(pNames[i]))
+                    throw new IllegalArgumentException("Duplicate column name: " + pNames[i]);
+
+            aNames[i] = fNames[aIndex];
+            aColumns[i] = fColumns[aIndex];
+            aTypes[i] = fTypes[aIndex];
+        }
+
+        return new ColumnBatch(aNames, aColumns, aTypes, fColumnSize, fSelection);
+    }
+
+
+    /**
+     * Create a batch with a selection of the rows in this batch. The new batch shares the columns
+     * with this batch, and has a selection vector that refers directly to the rows in the
+     * underlying columns, also if this batch already has a selection vector.
+     *
+     * @param pRows The indexes of the rows in this batch to select. The indexes are typically
+     *              ascending, but may be in any order and may contain duplicates.
+     *
+     * @return  A new {@code ColumnBatch} with the selected rows, never null.
+     *
+     * @throws NullPointerException if {@code pRows} is null.
+     * @throws IndexOutOfBoundsException if any of the indexes in {@code pRows} is negative or
+     *                                   greater than or equal to {@link #getRowCount()}.
+     */
+    @Nonnull
+    public ColumnBatch select(@Nonnull IntSequence pRows)
+    {
+        int aRowCount = getRowCount();
+        int aNumSelected = pRows.size();
+        int[] aSelection = new int[aNumSelected];
+        for (int i=0; i<aNumSelected; i++)
+        {
+            int aRow = pRows.valueAt(i);
+            if (aRow < 0 || aRow >= aRowCount)
+                throw new IndexOutOfBoundsException(String.valueOf(aRow));
+
+            aSelection[i] = fSelection != null ? fSelection[aRow] : aRow;
+        }
+
+        return new ColumnBatch(fNames, fColumns, fTypes, fColumnSize, aSelection);
+    }
+
+
+    /**
+     * Create a batch with the same rows and columns as this batch, but where the rows in the
+     * selection vector have been copied into new columns. The returned batch has no selection
+     * vector. If this batch has no selection vector, this batch is returned.
+     *
+     * @return  A {@code ColumnBatch} without a selection vector, never null.
+     */
+    @Nonnull
+    public ColumnBatch compact()
+    {
+        if (fSelection == null)
+            return this;
+
+        int aNumColumns = fColumns.length;
+        Sequence<?>[] aColumns = new Sequence<?>[aNumColumns];
+        for (int i=0; i<aNumColumns; i++)
+            aColumns[i] = copy(column(i), fTypes[i]);
+
+        return new ColumnBatch(fNames, aColumns, fTypes, fSelection.length, null);
+    }
+
+
+    /**
+     * Get the index of a column.
+     *
+     * @param pName The name of the column.
+     *
+     * @return  The column's index in the internal arrays.
+     *
+     * @throws IllegalArgumentException if this batch has no column with the specified name.
+     */
+    private int columnIndex(@Nonnull String pName)
+    {
+        Integer aIndex = fIndexesByName.get(pName);
+        if (aIndex == null)
+            throw new IllegalArgumentException("No such column: " + pName);
+
+        return aIndex.intValue();
+    }
+
+
+    /**
+     * Get the index of a column with a specific type.
+     *
+     * @param pName The name of the column.
+     * @param pType The type the column must have.
+     *
+     * @return  The column's index in the internal arrays.
+     *
+     * @throws IllegalArgumentException if this batch has no column with the specified name, or if
+     *                                  the column doesn't have the specified type.
+     */
+    private int columnIndex(@Nonnull String pName, @Nonnull ColumnType pType)
+    {
+        int aIndex = columnIndex(pName);
+        if (fTypes[aIndex] != pType)
+            throw new IllegalArgumentException(
+                "Column " + pName + " has type " + fTypes[aIndex] + ", not " + pType);
+
+        return aIndex;
+    }
+
+
+    /**
+     * Get a column with the selection vector applied.
+     *
+     * @param pIndex    The column's index in the internal arrays.
+     *
+     * @return  The column, or a view of the selected rows in the column if this batch has a
+     *          selection vector. Never null.
+     */
+    @Nonnull
+    private Sequence<?> column(int pIndex)
+    {
+        Sequence<?> aColumn = fColumns[pIndex];
+        if (fSelection == null)
+            return aColumn;
+
+        switch (fTypes[pIndex])
+        {
+            case INT:
+                return new IntSelectionView((IntSequence) aColumn, fSelection);
+            case LONG:
+                return new LongSelectionView((LongSequence) aColumn, fSelection);
+            case DOUBLE:
+                return new DoubleSelectionView((DoubleSequence) aColumn, fSelection);
+            default:
+                return new SelectionView<>(aColumn, fSelection);
+        }
+    }
+
+
+    /**
+     * Copy the values of a column into a new sequence.
+     *
+     * @param pColumn   The column to copy.
+     * @param pType     The type of the column.
+     *
+     * @return  A new sequence with the same type as the column, never null.
+     */
+    @Nonnull
+    static private Sequence<?> copy(@Nonnull Sequence<?> pColumn, @Nonnull ColumnType pType)
+    {
+        int aSize = pColumn.size();
+        switch (pType)
+        {
+            case INT:
+                return new IntSequenceBuilder(aSize).append((IntSequence) pColumn).toSequence();
+            case LONG:
+                return new LongSequenceBuilder(aSize).append((LongSequence) pColumn).toSequence();
+            case DOUBLE:
+                return new DoubleSequenceBuilder(aSize)
+                    .append((DoubleSequence) pColumn)
+                    .toSequence();
+            default:
+                Object[] aElements = new Object[aSize];
+                for (int i=0; i<aSize; i++)
+                    aElements[i] = pColumn.elementAt(i);
+
+                return Sequences.wrap(aElements);
+        }
+    }
+
+
+    /**
+     * Get the row index in an underlying column that a selection vector maps an index to.
+     *
+     * @param pSelection    The selection vector.
+     * @param pIndex        The index to map.
+     *
+     * @return  The row index in the underlying column.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is negative or greater than or equal to
+     *                                   the length of {@code pSelection}.
+     */
+    static private int selectedRow(@Nonnull int[] pSelection, int pIndex)
+    {
+        if (pIndex >= 0 && pIndex < pSelection.length)
+            return pSelection[pIndex];
+        else
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+    }
+
+
+    /**
+     * A view of the rows in an {@code IntSequence} given by a selection vector.
+     */
+    static private class IntSelectionView implements IntSequence
+    {
+        private final IntSequence fColumn;
+        private final int[] fSelection;
+
+        IntSelectionView(@Nonnull IntSequence pColumn, @Nonnull int[] pSelection)
+        {
+            fColumn = pColumn;
+            fSelection = pSelection;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fSelection.length;
+        }
+
+        @Override
+        public int valueAt(int pIndex)
+        {
+            return fColumn.valueAt(selectedRow(fSelection, pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull IntConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int aRow : fSelection)
+                pAction.accept(fColumn.valueAt(aRow));
+        }
+
+        @Override
+        @Nonnull
+        public PrimitiveIterator.OfInt iterator()
+        {
+            return PrimitiveIterators.sequenceIterator(this);
+        }
+    }
+
+
+    /**
+     * A view of the rows in a {@code LongSequence} given by a selection vector.
+     */
+    static private class LongSelectionView implements LongSequence
+    {
+        private final LongSequence fColumn;
+        private final int[] fSelection;
+
+        LongSelectionView(@Nonnull LongSequence pColumn, @Nonnull int[] pSelection)
+        {
+            fColumn = pColumn;
+            fSelection = pSelection;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fSelection.length;
+        }
+
+        @Override
+        public long valueAt(int pIndex)
+        {
+            return fColumn.valueAt(selectedRow(fSelection, pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull LongConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int aRow : fSelection)
+                pAction.accept(fColumn.valueAt(aRow));
+        }
+
+        @Override
+        @Nonnull
+        public PrimitiveIterator.OfLong iterator()
+        {
+            return PrimitiveIterators.sequenceIterator(this);
+        }
+    }
+
+
+    /**
+     * A view of the rows in a {@code DoubleSequence} given by a selection vector.
+     */
+    static private class DoubleSelectionView implements DoubleSequence
+    {
+        private final DoubleSequence fColumn;
+        private final int[] fSelection;
+
+        DoubleSelectionView(@Nonnull DoubleSequence pColumn, @Nonnull int[] pSelection)
+        {
+            fColumn = pColumn;
+            fSelection = pSelection;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fSelection.length;
+        }
+
+        @Override
+        public double valueAt(int pIndex)
+        {
+            return fColumn.valueAt(selectedRow(fSelection, pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull DoubleConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int aRow : fSelection)
+                pAction.accept(fColumn.valueAt(aRow));
+        }
+
+        @Override
+        @Nonnull
+        public PrimitiveIterator.OfDouble iterator()
+        {
+            return PrimitiveIterators.sequenceIterator(this);
+        }
+    }
+
+
+    /**
+     * A view of the rows in a {@code Sequence} given by a selection vector.
+     */
+    static private class SelectionView<E> implements Sequence<E>
+    {
+        private final Sequence<E> fColumn;
+        private final int[] fSelection;
+
+        SelectionView(@Nonnull Sequence<E> pColumn, @Nonnull int[] pSelection)
+        {
+            fColumn = pColumn;
+            fSelection = pSelection;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fSelection.length;
+        }
+
+        @Override
+        public E elementAt(int pIndex)
+        {
+            return fColumn.elementAt(selectedRow(fSelection, pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull Consumer<? super E> pAction)
+        {
+            requireNonNull(pAction);
+            for (int aRow : fSelection)
+                pAction.accept(fColumn.elementAt(aRow));
+        }
+    }
+}
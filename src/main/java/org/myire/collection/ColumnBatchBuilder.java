@@ -0,0 +1,117 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * A builder of {@link ColumnBatch} instances. Columns are added one at a time, and the first
+ * column added determines the number of rows in the batch. The type of each column is determined
+ * from the type of its sequence; an {@code IntSequence}, a {@code LongSequence}, or a
+ * {@code DoubleSequence} becomes a primitive column, any other {@code Sequence} becomes an object
+ * column.
+ *<p>
+ * The sequences are not copied, a column in a batch refers to the sequence passed to
+ * {@link #addColumn(String, Sequence)}.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+@NotThreadSafe
+public class ColumnBatchBuilder
+{
+    private final List<String> fNames = new ArrayList<>();
+    private final List<Sequence<?>> fColumns = new ArrayList<>();
+    private int fRowCount;
+
+
+    /**
+     * Get the number of rows in the columns added to this instance.
+     *
+     * @return  The number of rows, 0 if no columns have been added.
+     */
+    @Nonnegative
+    public int getRowCount()
+    {
+        return fRowCount;
+    }
+
+
+    /**
+     * Get the number of columns added to this instance.
+     *
+     * @return  The number of columns.
+     */
+    @Nonnegative
+    public int getColumnCount()
+    {
+        return fColumns.size();
+    }
+
+
+    /**
+     * Add a column.
+     *
+     * @param pName     The name of the column.
+     * @param pColumn   The column's values.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     * @throws IllegalArgumentException if a column with the specified name has already been added,
+     *                                  or if the size of {@code pColumn} differs from the size of
+     *                                  the columns already added.
+     */
+    @Nonnull
+    public ColumnBatchBuilder addColumn(@Nonnull String pName, @Nonnull Sequence<?> pColumn)
+    {
+        requireNonNull(pName);
+        int aSize = pColumn.size();
+        if (fNames.contains(pName))
+            throw new IllegalArgumentException("Duplicate column name: " + pName);
+        if (!fColumns.isEmpty() && aSize != fRowCount)
+            throw new IllegalArgumentException(
+                "Column " + pName + " has " + aSize + " rows, expected " + fRowCount);
+
+        fNames.add(pName);
+        fColumns.add(pColumn);
+        fRowCount = aSize;
+        return this;
+    }
+
+
+    /**
+     * Create a {@code ColumnBatch} with the columns added to this instance. The returned batch is
+     * not affected by subsequent calls to this instance.
+     *
+     * @return  A new {@code ColumnBatch} without a selection vector, never null.
+     */
+    @Nonnull
+    public ColumnBatch build()
+    {
+        int aNumColumns = fColumns.size();
+        Sequence<?>[] aColumns = fColumns.toArray(new Sequence<?>[aNumColumns]);
+        ColumnBatch.ColumnType[] aTypes = new ColumnBatch.ColumnType[aNumColumns];
+        for (int i=0; i<aNumColumns; i++)
+            aTypes[i] = ColumnBatch.typeOf(aColumns[i]);
+
+        return new ColumnBatch(
+            fNames.toArray(new String[aNumColumns]),
+            aColumns,
+            aTypes,
+            fRowCount,
+            null);
+    }
+}
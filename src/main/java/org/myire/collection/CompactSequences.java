@@ -0,0 +1,1507 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.NoSuchElementException;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+import org.myire.util.BooleanConsumer;
+import org.myire.util.ByteConsumer;
+import org.myire.util.CharConsumer;
+import org.myire.util.FloatConsumer;
+import org.myire.util.ShortConsumer;
+import static org.myire.util.Numbers.requireNonNegative;
+import static org.myire.util.Numbers.requireRangeWithinBounds;
+
+
+/**
+ * Factory methods for sequences of the primitive types that aren't covered by
+ * {@link PrimitiveSequences}: {@code byte}, {@code short}, {@code char}, {@code float} and
+ * {@code boolean}. The sequences store the values unboxed, which for {@code byte} values uses
+ * a fraction of the memory of a {@code Sequence<Byte>}. {@code boolean} values are packed into
+ * bits, 64 values per {@code long} word.
+ *<p>
+ * The factory methods are kept separate from {@code PrimitiveSequences} to not change the
+ * resolution of calls to its {@code singleton} overloads with {@code byte}, {@code short},
+ * {@code char} and {@code float} arguments.
+ */
+public final class CompactSequences
+{
+    static private final ByteSequence EMPTY_BYTE_SEQUENCE =
+        new ByteArraySequence(new byte[0], 0, 0);
+    static private final ShortSequence EMPTY_SHORT_SEQUENCE =
+        new ShortArraySequence(new short[0], 0, 0);
+    static private final CharSequenceView EMPTY_CHAR_SEQUENCE =
+        new CharArraySequence(new char[0], 0, 0);
+    static private final FloatSequence EMPTY_FLOAT_SEQUENCE =
+        new FloatArraySequence(new float[0], 0, 0);
+    static private final BooleanSequence EMPTY_BOOLEAN_SEQUENCE = new BitSequence(new long[0], 0);
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private CompactSequences()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Get the empty {@code byte} sequence. This is an immutable sequence of size 0.
+     *
+     * @return  The empty {@code ByteSequence}, never null.
+     */
+    @Nonnull
+    static public ByteSequence emptyByteSequence()
+    {
+        return EMPTY_BYTE_SEQUENCE;
+    }
+
+
+    /**
+     * Create an immutable {@code ByteSequence} containing a single value.
+     *
+     * @param pValue    The sequence's single value.
+     *
+     * @return  A new {@code ByteSequence}, never null.
+     */
+    @Nonnull
+    static public ByteSequence singleton(byte pValue)
+    {
+        return new ByteArraySequence(new byte[]{pValue}, 0, 1);
+    }
+
+
+    /**
+     * Wrap a {@code byte} array in a {@code ByteSequence}. The returned sequence is backed by the
+     * array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     *
+     * @return  A new {@code ByteSequence} with the values in {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    @Nonnull
+    static public ByteSequence wrap(@Nonnull byte[] pValues)
+    {
+        return new ByteArraySequence(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Wrap a range of a {@code byte} array in a {@code ByteSequence}. The returned sequence is
+     * backed by the array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+     * @param pLength   The number of values in the sequence, starting at the specified offset.
+     *
+     * @return  A new {@code ByteSequence} with the values in the specified range of
+     *          {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+     *                                   is negative, or if {@code pOffset} is greater than
+     *                                   {@code pValues.length - pLength}.
+     */
+    @Nonnull
+    static public ByteSequence wrap(
+        @Nonnull byte[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength)
+    {
+        return new ByteArraySequence(pValues, pOffset, pLength);
+    }
+
+
+    /**
+     * Get the empty {@code short} sequence. This is an immutable sequence of size 0.
+     *
+     * @return  The empty {@code ShortSequence}, never null.
+     */
+    @Nonnull
+    static public ShortSequence emptyShortSequence()
+    {
+        return EMPTY_SHORT_SEQUENCE;
+    }
+
+
+    /**
+     * Create an immutable {@code ShortSequence} containing a single value.
+     *
+     * @param pValue    The sequence's single value.
+     *
+     * @return  A new {@code ShortSequence}, never null.
+     */
+    @Nonnull
+    static public ShortSequence singleton(short pValue)
+    {
+        return new ShortArraySequence(new short[]{pValue}, 0, 1);
+    }
+
+
+    /**
+     * Wrap a {@code short} array in a {@code ShortSequence}. The returned sequence is backed by the
+     * array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     *
+     * @return  A new {@code ShortSequence} with the values in {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    @Nonnull
+    static public ShortSequence wrap(@Nonnull short[] pValues)
+    {
+        return new ShortArraySequence(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Wrap a range of a {@code short} array in a {@code ShortSequence}. The returned sequence is
+     * backed by the array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+     * @param pLength   The number of values in the sequence, starting at the specified offset.
+     *
+     * @return  A new {@code ShortSequence} with the values in the specified range of
+     *          {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+     *                                   is negative, or if {@code pOffset} is greater than
+     *                                   {@code pValues.length - pLength}.
+     */
+    @Nonnull
+    static public ShortSequence wrap(
+        @Nonnull short[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength)
+    {
+        return new ShortArraySequence(pValues, pOffset, pLength);
+    }
+
+
+    /**
+     * Get the empty {@code char} sequence. This is an immutable sequence of size 0.
+     *
+     * @return  The empty {@code CharSequenceView}, never null.
+     */
+    @Nonnull
+    static public CharSequenceView emptyCharSequence()
+    {
+        return EMPTY_CHAR_SEQUENCE;
+    }
+
+
+    /**
+     * Create an immutable {@code CharSequenceView} containing a single value.
+     *
+     * @param pValue    The sequence's single value.
+     *
+     * @return  A new {@code CharSequenceView}, never null.
+     */
+    @Nonnull
+    static public CharSequenceView singleton(char pValue)
+    {
+        return new CharArraySequence(new char[]{pValue}, 0, 1);
+    }
+
+
+    /**
+     * Wrap a {@code char} array in a {@code CharSequenceView}. The returned sequence is backed by
+     * the array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     *
+     * @return  A new {@code CharSequenceView} with the values in {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    @Nonnull
+    static public CharSequenceView wrap(@Nonnull char[] pValues)
+    {
+        return new CharArraySequence(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Wrap a range of a {@code char} array in a {@code CharSequenceView}. The returned sequence is
+     * backed by the array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+     * @param pLength   The number of values in the sequence, starting at the specified offset.
+     *
+     * @return  A new {@code CharSequenceView} with the values in the specified range of
+     *          {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+     *                                   is negative, or if {@code pOffset} is greater than
+     *                                   {@code pValues.length - pLength}.
+     */
+    @Nonnull
+    static public CharSequenceView wrap(
+        @Nonnull char[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength)
+    {
+        return new CharArraySequence(pValues, pOffset, pLength);
+    }
+
+
+    /**
+     * Get the empty {@code float} sequence. This is an immutable sequence of size 0.
+     *
+     * @return  The empty {@code FloatSequence}, never null.
+     */
+    @Nonnull
+    static public FloatSequence emptyFloatSequence()
+    {
+        return EMPTY_FLOAT_SEQUENCE;
+    }
+
+
+    /**
+     * Create an immutable {@code FloatSequence} containing a single value.
+     *
+     * @param pValue    The sequence's single value.
+     *
+     * @return  A new {@code FloatSequence}, never null.
+     */
+    @Nonnull
+    static public FloatSequence singleton(float pValue)
+    {
+        return new FloatArraySequence(new float[]{pValue}, 0, 1);
+    }
+
+
+    /**
+     * Wrap a {@code float} array in a {@code FloatSequence}. The returned sequence is backed by the
+     * array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     *
+     * @return  A new {@code FloatSequence} with the values in {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    @Nonnull
+    static public FloatSequence wrap(@Nonnull float[] pValues)
+    {
+        return new FloatArraySequence(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Wrap a range of a {@code float} array in a {@code FloatSequence}. The returned sequence is
+     * backed by the array; changes to the array will be visible in the sequence.
+     *
+     * @param pValues   The array to wrap. This reference will be used, no copy will be made.
+     * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+     * @param pLength   The number of values in the sequence, starting at the specified offset.
+     *
+     * @return  A new {@code FloatSequence} with the values in the specified range of
+     *          {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+     *                                   is negative, or if {@code pOffset} is greater than
+     *                                   {@code pValues.length - pLength}.
+     */
+    @Nonnull
+    static public FloatSequence wrap(
+        @Nonnull float[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength)
+    {
+        return new FloatArraySequence(pValues, pOffset, pLength);
+    }
+
+
+    /**
+     * Get the empty {@code boolean} sequence. This is an immutable sequence of size 0.
+     *
+     * @return  The empty {@code BooleanSequence}, never null.
+     */
+    @Nonnull
+    static public BooleanSequence emptyBooleanSequence()
+    {
+        return EMPTY_BOOLEAN_SEQUENCE;
+    }
+
+
+    /**
+     * Create an immutable {@code BooleanSequence} containing a single value.
+     *
+     * @param pValue    The sequence's single value.
+     *
+     * @return  A new {@code BooleanSequence}, never null.
+     */
+    @Nonnull
+    static public BooleanSequence singleton(boolean pValue)
+    {
+        return new BitSequence(new long[]{pValue ? 1L : 0L}, 1);
+    }
+
+
+    /**
+     * Create an immutable {@code BooleanSequence} with the values of a {@code boolean} array. The
+     * values are packed into bits, one bit per value.
+     *
+     * @param pValues   The values.
+     *
+     * @return  A new {@code BooleanSequence} with the values in {@code pValues}, never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    @Nonnull
+    static public BooleanSequence copyOf(@Nonnull boolean[] pValues)
+    {
+        long[] aWords = new long[numWords(pValues.length)];
+        for (int i=0; i<pValues.length; i++)
+            if (pValues[i])
+                aWords[i >>> 6] |= 1L << i;
+
+        return new BitSequence(aWords, pValues.length);
+    }
+
+
+    /**
+     * Wrap an array of bits packed into {@code long} words in a {@code BooleanSequence}. The value
+     * at index {@code i} in the sequence is bit {@code i % 64} of the word at index
+     * {@code i / 64}, where bit 0 is the least significant bit. This is the same layout as the one
+     * used by {@code java.util.BitSet.valueOf(long[])}.
+     *<p>
+     * The returned sequence is backed by the array; changes to the array will be visible in the
+     * sequence.
+     *
+     * @param pWords    The words with the bits. This reference will be used, no copy will be made.
+     * @param pSize     The number of bits in the sequence.
+     *
+     * @return  A new {@code BooleanSequence} with the specified bits, never null.
+     *
+     * @throws NullPointerException if {@code pWords} is null.
+     * @throws IllegalArgumentException if {@code pSize} is negative, or if {@code pWords} has
+     *                                  fewer than {@code pSize} bits.
+     */
+    @Nonnull
+    static public BooleanSequence wrapBits(@Nonnull long[] pWords, @Nonnegative int pSize)
+    {
+        if (numWords(requireNonNegative(pSize)) > pWords.length)
+            throw new IllegalArgumentException(
+                pWords.length + " words cannot hold " + pSize + " bits");
+
+        return new BitSequence(pWords, pSize);
+    }
+
+
+    /**
+     * Create a {@code ByteIterator} that returns the values of a {@code ByteSequence}. The returned
+     * instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over.
+     *
+     * @return  A new {@code ByteIterator} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public ByteIterator sequenceIterator(@Nonnull ByteSequence pSequence)
+    {
+        return new ByteSequenceIterator(pSequence);
+    }
+
+
+    /**
+     * Create a view of a range of the values in a {@code ByteSequence}.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  A {@code ByteSequence} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static ByteSequence subSequence(
+        @Nonnull ByteSequence pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        return new ByteSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+
+    /**
+     * Create a {@code ShortIterator} that returns the values of a {@code ShortSequence}. The
+     * returned instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over.
+     *
+     * @return  A new {@code ShortIterator} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public ShortIterator sequenceIterator(@Nonnull ShortSequence pSequence)
+    {
+        return new ShortSequenceIterator(pSequence);
+    }
+
+
+    /**
+     * Create a view of a range of the values in a {@code ShortSequence}.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  A {@code ShortSequence} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static ShortSequence subSequence(
+        @Nonnull ShortSequence pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        return new ShortSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+
+    /**
+     * Create a {@code CharIterator} that returns the values of a {@code CharSequenceView}. The
+     * returned instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over.
+     *
+     * @return  A new {@code CharIterator} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public CharIterator sequenceIterator(@Nonnull CharSequenceView pSequence)
+    {
+        return new CharSequenceIterator(pSequence);
+    }
+
+
+    /**
+     * Create a view of a range of the values in a {@code CharSequenceView}.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  A {@code CharSequenceView} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static CharSequenceView subSequence(
+        @Nonnull CharSequenceView pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        return new CharSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+
+    /**
+     * Create a {@code FloatIterator} that returns the values of a {@code FloatSequence}. The
+     * returned instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over.
+     *
+     * @return  A new {@code FloatIterator} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public FloatIterator sequenceIterator(@Nonnull FloatSequence pSequence)
+    {
+        return new FloatSequenceIterator(pSequence);
+    }
+
+
+    /**
+     * Create a view of a range of the values in a {@code FloatSequence}.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  A {@code FloatSequence} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static FloatSequence subSequence(
+        @Nonnull FloatSequence pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        return new FloatSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+
+    /**
+     * Create a {@code BooleanIterator} that returns the values of a {@code BooleanSequence}. The
+     * returned instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over.
+     *
+     * @return  A new {@code BooleanIterator} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public BooleanIterator sequenceIterator(@Nonnull BooleanSequence pSequence)
+    {
+        return new BooleanSequenceIterator(pSequence);
+    }
+
+
+    /**
+     * Create a view of a range of the values in a {@code BooleanSequence}.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  A {@code BooleanSequence} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static BooleanSequence subSequence(
+        @Nonnull BooleanSequence pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        return new BooleanSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+
+    /**
+     * Implementation of {@code ByteSequence} backed by (a sub-range of) a {@code byte} array.
+     */
+    static private class ByteArraySequence implements ByteSequence
+    {
+        private final byte[] fValues;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code ByteArraySequence}.
+         *
+         * @param pValues   The underlying array. This reference will be used, no copy will be made.
+         * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+         * @param pLength   The number of values in the sequence, starting at the specified offset.
+         *
+         * @throws NullPointerException if {@code pValues} is null.
+         * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+         *                                   is negative, or if {@code pOffset} is greater than
+         *                                   {@code pValues.length - pLength}.
+         */
+        ByteArraySequence(
+            @Nonnull byte[] pValues,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fValues = requireNonNull(pValues);
+            fOffset = requireRangeWithinBounds(pOffset, pLength, pValues.length);
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public byte valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fValues[fOffset + pIndex];
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull ByteConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fValues[fOffset + i]);
+        }
+
+        @Nonnull
+        @Override
+        public ByteIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public ByteSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new ByteArraySequence(fValues, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code ByteSequence}.
+     */
+    static private class ByteSubSequence implements ByteSequence
+    {
+        private final ByteSequence fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code ByteSubSequence}. The range is assumed to have been checked against
+         * the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         */
+        ByteSubSequence(
+            @Nonnull ByteSequence pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = pSequence;
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public byte valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull ByteConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public ByteIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public ByteSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new ByteSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A {@code ByteIterator} over the values of a {@code ByteSequence}.
+     */
+    static private class ByteSequenceIterator implements ByteIterator
+    {
+        private final ByteSequence fSequence;
+        private int fNextIndex;
+
+        ByteSequenceIterator(@Nonnull ByteSequence pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextIndex < fSequence.size();
+        }
+
+        @Override
+        public byte nextByte()
+        {
+            if (fNextIndex < fSequence.size())
+                return fSequence.valueAt(fNextIndex++);
+            else
+                throw new NoSuchElementException();
+        }
+    }
+
+
+    /**
+     * Implementation of {@code ShortSequence} backed by (a sub-range of) a {@code short} array.
+     */
+    static private class ShortArraySequence implements ShortSequence
+    {
+        private final short[] fValues;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code ShortArraySequence}.
+         *
+         * @param pValues   The underlying array. This reference will be used, no copy will be made.
+         * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+         * @param pLength   The number of values in the sequence, starting at the specified offset.
+         *
+         * @throws NullPointerException if {@code pValues} is null.
+         * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+         *                                   is negative, or if {@code pOffset} is greater than
+         *                                   {@code pValues.length - pLength}.
+         */
+        ShortArraySequence(
+            @Nonnull short[] pValues,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fValues = requireNonNull(pValues);
+            fOffset = requireRangeWithinBounds(pOffset, pLength, pValues.length);
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public short valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fValues[fOffset + pIndex];
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull ShortConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fValues[fOffset + i]);
+        }
+
+        @Nonnull
+        @Override
+        public ShortIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public ShortSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new ShortArraySequence(fValues, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code ShortSequence}.
+     */
+    static private class ShortSubSequence implements ShortSequence
+    {
+        private final ShortSequence fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code ShortSubSequence}. The range is assumed to have been checked against
+         * the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         */
+        ShortSubSequence(
+            @Nonnull ShortSequence pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = pSequence;
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public short valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull ShortConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public ShortIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public ShortSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new ShortSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A {@code ShortIterator} over the values of a {@code ShortSequence}.
+     */
+    static private class ShortSequenceIterator implements ShortIterator
+    {
+        private final ShortSequence fSequence;
+        private int fNextIndex;
+
+        ShortSequenceIterator(@Nonnull ShortSequence pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextIndex < fSequence.size();
+        }
+
+        @Override
+        public short nextShort()
+        {
+            if (fNextIndex < fSequence.size())
+                return fSequence.valueAt(fNextIndex++);
+            else
+                throw new NoSuchElementException();
+        }
+    }
+
+
+    /**
+     * Implementation of {@code CharSequenceView} backed by (a sub-range of) a {@code char} array.
+     */
+    static private class CharArraySequence implements CharSequenceView
+    {
+        private final char[] fValues;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code CharArraySequence}.
+         *
+         * @param pValues   The underlying array. This reference will be used, no copy will be made.
+         * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+         * @param pLength   The number of values in the sequence, starting at the specified offset.
+         *
+         * @throws NullPointerException if {@code pValues} is null.
+         * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+         *                                   is negative, or if {@code pOffset} is greater than
+         *                                   {@code pValues.length - pLength}.
+         */
+        CharArraySequence(
+            @Nonnull char[] pValues,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fValues = requireNonNull(pValues);
+            fOffset = requireRangeWithinBounds(pOffset, pLength, pValues.length);
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public char valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fValues[fOffset + pIndex];
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull CharConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fValues[fOffset + i]);
+        }
+
+        @Nonnull
+        @Override
+        public CharIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public CharSequenceView subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new CharArraySequence(fValues, fOffset + pFromIndex, aLength);
+        }
+
+        @Override
+        @Nonnull
+        public String toString()
+        {
+            return new String(fValues, fOffset, fLength);
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code CharSequenceView}.
+     */
+    static private class CharSubSequence implements CharSequenceView
+    {
+        private final CharSequenceView fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code CharSubSequence}. The range is assumed to have been checked against
+         * the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         */
+        CharSubSequence(
+            @Nonnull CharSequenceView pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = pSequence;
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public char valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull CharConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public CharIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public CharSequenceView subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new CharSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
+
+        @Override
+        @Nonnull
+        public String toString()
+        {
+            return new StringBuilder(fLength).append(this).toString();
+        }
+    }
+
+
+    /**
+     * A {@code CharIterator} over the values of a {@code CharSequenceView}.
+     */
+    static private class CharSequenceIterator implements CharIterator
+    {
+        private final CharSequenceView fSequence;
+        private int fNextIndex;
+
+        CharSequenceIterator(@Nonnull CharSequenceView pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextIndex < fSequence.size();
+        }
+
+        @Override
+        public char nextChar()
+        {
+            if (fNextIndex < fSequence.size())
+                return fSequence.valueAt(fNextIndex++);
+            else
+                throw new NoSuchElementException();
+        }
+    }
+
+
+    /**
+     * Implementation of {@code FloatSequence} backed by (a sub-range of) a {@code float} array.
+     */
+    static private class FloatArraySequence implements FloatSequence
+    {
+        private final float[] fValues;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code FloatArraySequence}.
+         *
+         * @param pValues   The underlying array. This reference will be used, no copy will be made.
+         * @param pOffset   The offset of the first value in the array that belongs to the sequence.
+         * @param pLength   The number of values in the sequence, starting at the specified offset.
+         *
+         * @throws NullPointerException if {@code pValues} is null.
+         * @throws IndexOutOfBoundsException if {@code pOffset} is negative, or if {@code pLength}
+         *                                   is negative, or if {@code pOffset} is greater than
+         *                                   {@code pValues.length - pLength}.
+         */
+        FloatArraySequence(
+            @Nonnull float[] pValues,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fValues = requireNonNull(pValues);
+            fOffset = requireRangeWithinBounds(pOffset, pLength, pValues.length);
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public float valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fValues[fOffset + pIndex];
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull FloatConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fValues[fOffset + i]);
+        }
+
+        @Nonnull
+        @Override
+        public FloatIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public FloatSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new FloatArraySequence(fValues, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code FloatSequence}.
+     */
+    static private class FloatSubSequence implements FloatSequence
+    {
+        private final FloatSequence fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code FloatSubSequence}. The range is assumed to have been checked against
+         * the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         */
+        FloatSubSequence(
+            @Nonnull FloatSequence pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = pSequence;
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public float valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull FloatConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public FloatIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public FloatSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new FloatSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A {@code FloatIterator} over the values of a {@code FloatSequence}.
+     */
+    static private class FloatSequenceIterator implements FloatIterator
+    {
+        private final FloatSequence fSequence;
+        private int fNextIndex;
+
+        FloatSequenceIterator(@Nonnull FloatSequence pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextIndex < fSequence.size();
+        }
+
+        @Override
+        public float nextFloat()
+        {
+            if (fNextIndex < fSequence.size())
+                return fSequence.valueAt(fNextIndex++);
+            else
+                throw new NoSuchElementException();
+        }
+    }
+
+
+    /**
+     * Get the number of {@code long} words needed to hold a number of bits.
+     *
+     * @param pNumBits  The number of bits.
+     *
+     * @return  The number of words.
+     */
+    static private int numWords(@Nonnegative int pNumBits)
+    {
+        return (int) ((pNumBits + 63L) >>> 6);
+    }
+
+
+    /**
+     * Implementation of {@code BooleanSequence} backed by an array of bits packed into
+     * {@code long} words.
+     */
+    static private class BitSequence implements BooleanSequence
+    {
+        private final long[] fWords;
+        private final int fSize;
+
+        /**
+         * Create a new {@code BitSequence}. The array is assumed to have room for the bits.
+         *
+         * @param pWords    The underlying array. This reference will be used, no copy will be made.
+         * @param pSize     The number of bits in the sequence.
+         */
+        BitSequence(@Nonnull long[] pWords, @Nonnegative int pSize)
+        {
+            fWords = pWords;
+            fSize = pSize;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fSize;
+        }
+
+        @Override
+        public boolean valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fSize)
+                return (fWords[pIndex >>> 6] & (1L << pIndex)) != 0;
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull BooleanConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fSize; i++)
+                pAction.accept((fWords[i >>> 6] & (1L << i)) != 0);
+        }
+
+        @Nonnull
+        @Override
+        public BooleanIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Override
+        public int countTrue()
+        {
+            int aNumFullWords = fSize >>> 6;
+            int aCount = 0;
+            for (int i=0; i<aNumFullWords; i++)
+                aCount += Long.bitCount(fWords[i]);
+
+            int aNumRemainingBits = fSize & 63;
+            if (aNumRemainingBits > 0)
+                aCount += Long.bitCount(fWords[aNumFullWords] & ((1L << aNumRemainingBits) - 1));
+
+            return aCount;
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code BooleanSequence}.
+     */
+    static private class BooleanSubSequence implements BooleanSequence
+    {
+        private final BooleanSequence fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code BooleanSubSequence}. The range is assumed to have been checked
+         * against the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         */
+        BooleanSubSequence(
+            @Nonnull BooleanSequence pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = pSequence;
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public boolean valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull BooleanConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public BooleanIterator iterator()
+        {
+            return sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public BooleanSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new BooleanSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A {@code BooleanIterator} over the values of a {@code BooleanSequence}.
+     */
+    static private class BooleanSequenceIterator implements BooleanIterator
+    {
+        private final BooleanSequence fSequence;
+        private int fNextIndex;
+
+        BooleanSequenceIterator(@Nonnull BooleanSequence pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextIndex < fSequence.size();
+        }
+
+        @Override
+        public boolean nextBoolean()
+        {
+            if (fNextIndex < fSequence.size())
+                return fSequence.valueAt(fNextIndex++);
+            else
+                throw new NoSuchElementException();
+        }
+    }
+}
@@ -0,0 +1,1266 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * An immutable set of {@code int} values stored as a compressed bitmap. The values are available
+ * as an {@code IntSequence} in ascending order without duplicates.
+ *<p>
+ * The value space is divided into chunks of 2<sup>16</sup> values sharing the same high 16 bits.
+ * Only chunks that contain at least one value are stored, and each chunk is stored in the most
+ * compact of three representations:
+ *<ul>
+ * <li>a sorted array of the low 16 bits of the values, using 2 bytes per value</li>
+ * <li>a bitmap with one bit for each of the 2<sup>16</sup> possible values, using 8 KiB</li>
+ * <li>a list of runs of consecutive values, using 4 bytes per run</li>
+ *</ul>
+ * This makes the set compact for sparse values as well as for dense ranges of values, a range of
+ * any length being stored in 4 bytes per chunk.
+ *<p>
+ * {@link #contains(int)} and {@link #rank(int)} locate the chunk with a binary search, after which
+ * the lookup in the chunk is a binary search or a bitmap access. {@link #valueAt(int)} is the
+ * select operation, it locates the chunk with a binary search on the chunks' cumulative
+ * cardinalities. The set operations {@link #and(CompressedBitmap)}, {@link #or(CompressedBitmap)}
+ * and {@link #andNot(CompressedBitmap)} only combine chunks present in both operands, and share
+ * chunks that are unaffected by the operation with the result.
+ *<p>
+ * A {@code CompressedBitmap} can contain at most {@code Integer.MAX_VALUE} values, since that is
+ * the maximum size of a sequence.
+ */
+@Immutable
+public final class CompressedBitmap implements IntSequence
+{
+    // The maximum number of values in a chunk stored as an array. Above this size a bitmap is
+    // smaller than an array.
+    static private final int MAX_ARRAY_CARDINALITY = 4096;
+
+    // The number of 64-bit words in a chunk stored as a bitmap.
+    static private final int BITMAP_WORDS = 1 << 10;
+
+    // The number of bytes in a chunk stored as a bitmap.
+    static private final int BITMAP_BYTES = BITMAP_WORDS * Long.BYTES;
+
+    static private final CompressedBitmap EMPTY = new CompressedBitmap(new char[0], new Chunk[0]);
+
+
+    // The high 16 bits of the values in each chunk, with the sign bit flipped to make the keys
+    // sorted in the same order as the signed values.
+    private final char[] fKeys;
+    private final Chunk[] fChunks;
+
+    // The number of values in all chunks before each chunk. The last element is the total number
+    // of values.
+    private final int[] fOffsets;
+
+
+    /**
+     * Create a new {@code CompressedBitmap}.
+     *
+     * @param pKeys     The keys of the chunks, sorted in ascending order.
+     * @param pChunks   The chunks, none of which may be empty.
+     *
+     * @throws IllegalArgumentException if the chunks contain more than {@code Integer.MAX_VALUE}
+     *                                  values.
+     */
+    private CompressedBitmap(@Nonnull char[] pKeys, @Nonnull Chunk[] pChunks)
+    {
+        fKeys = pKeys;
+        fChunks = pChunks;
+        fOffsets = new int[pChunks.length + 1];
+        long aTotal = 0;
+        for (int i=0; i<pChunks.length; i++)
+        {
+            fOffsets[i] = (int) aTotal;
+            aTotal += pChunks[i].cardinality();
+            if (aTotal > Integer.MAX_VALUE)
+                throw new IllegalArgumentException("Too many values for a sequence: " + aTotal);
+        }
+
+        fOffsets[pChunks.length] = (int) aTotal;
+    }
+
+
+    /**
+     * Create a {@code CompressedBitmap} with the values in a sequence.
+     *
+     * @param pValues   The values, in any order. Duplicate values are allowed but will only be
+     *                  contained once in the bitmap.
+     *
+     * @return  A new {@code CompressedBitmap} with the distinct values in {@code pValues}, never
+     *          null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    @Nonnull
+    static public CompressedBitmap copyOf(@Nonnull IntSequence pValues)
+    {
+        int aSize = pValues.size();
+        if (aSize == 0)
+            return EMPTY;
+
+        int[] aValues = new int[aSize];
+        for (int i=0; i<aSize; i++)
+            aValues[i] = pValues.valueAt(i);
+
+        Arrays.sort(aValues);
+
+        // Split the distinct values into chunks.
+        char[] aKeys = new char[Math.min(aSize, 1 << 16)];
+        Chunk[] aChunks = new Chunk[aKeys.length];
+        int aNumChunks = 0;
+        char[] aLowBits = new char[Math.min(aSize, 1 << 16)];
+        int aNumLowBits = 0;
+        char aKey = highBits(aValues[0]);
+        for (int i=0; i<aSize; i++)
+        {
+            int aValue = aValues[i];
+            if (i > 0 && aValue == aValues[i - 1])
+                continue;
+
+            char aValueKey = highBits(aValue);
+            if (aValueKey != aKey)
+            {
+                aKeys[aNumChunks] = aKey;
+                aChunks[aNumChunks++] = Chunk.fromSortedValues(aLowBits, aNumLowBits);
+                aKey = aValueKey;
+                aNumLowBits = 0;
+            }
+
+            aLowBits[aNumLowBits++] = (char) aValue;
+        }
+
+        aKeys[aNumChunks] = aKey;
+        aChunks[aNumChunks++] = Chunk.fromSortedValues(aLowBits, aNumLowBits);
+        return create(aKeys, aChunks, aNumChunks);
+    }
+
+
+    /**
+     * Create a {@code CompressedBitmap} with a range of consecutive values. The range is stored
+     * with 4 bytes per 2<sup>16</sup> values.
+     *
+     * @param pFirst    The first value in the range.
+     * @param pLast     The last value in the range, inclusive.
+     *
+     * @return  A new {@code CompressedBitmap} with all values from {@code pFirst} to
+     *          {@code pLast}, never null.
+     *
+     * @throws IllegalArgumentException if {@code pFirst} is greater than {@code pLast}, or if the
+     *                                  range contains more than {@code Integer.MAX_VALUE} values.
+     */
+    @Nonnull
+    static public CompressedBitmap ofRange(int pFirst, int pLast)
+    {
+        if (pFirst > pLast)
+            throw new IllegalArgumentException(pFirst + " > " + pLast);
+
+        char aFirstKey = highBits(pFirst);
+        char aLastKey = highBits(pLast);
+        int aNumChunks = aLastKey - aFirstKey + 1;
+        char[] aKeys = new char[aNumChunks];
+        Chunk[] aChunks = new Chunk[aNumChunks];
+        for (int i=0; i<aNumChunks; i++)
+        {
+            char aKey = (char) (aFirstKey + i);
+            char aStart = aKey == aFirstKey ? (char) pFirst : 0;
+            char aEnd = aKey == aLastKey ? (char) pLast : Character.MAX_VALUE;
+            aKeys[i] = aKey;
+            aChunks[i] = new RunChunk(new char[]{aStart}, new char[]{(char) (aEnd - aStart)});
+        }
+
+        return new CompressedBitmap(aKeys, aChunks);
+    }
+
+
+    /**
+     * Get the number of values in this bitmap, also known as the bitmap's cardinality.
+     *
+     * @return  The number of values in this bitmap.
+     */
+    @Override
+    @Nonnegative
+    public int size()
+    {
+        return fOffsets[fChunks.length];
+    }
+
+
+    /**
+     * Get the value at a specific position in this bitmap's ascending sequence of values. This is
+     * also known as the select operation, and is the inverse of {@link #rank(int)}.
+     *
+     * @param pIndex    The index of the value to get.
+     *
+     * @return  The value at the specified position.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Override
+    public int valueAt(@Nonnegative int pIndex)
+    {
+        if (pIndex < 0 || pIndex >= size())
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+
+        // The offsets are strictly increasing since no chunk is empty.
+        int aChunk = Arrays.binarySearch(fOffsets, 0, fChunks.length, pIndex);
+        if (aChunk < 0)
+            aChunk = -aChunk - 2;
+
+        return base(fKeys[aChunk]) | fChunks[aChunk].select(pIndex - fOffsets[aChunk]);
+    }
+
+
+    @Override
+    public void forEach(@Nonnull IntConsumer pAction)
+    {
+        requireNonNull(pAction);
+        for (int i=0; i<fChunks.length; i++)
+            fChunks[i].forEach(base(fKeys[i]), pAction);
+    }
+
+
+    @Override
+    @Nonnull
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return new BitmapIterator();
+    }
+
+
+    /**
+     * Check if this bitmap contains a value.
+     *
+     * @param pValue    The value to check.
+     *
+     * @return  True if this bitmap contains the value, false if not.
+     */
+    public boolean contains(int pValue)
+    {
+        int aChunk = Arrays.binarySearch(fKeys, highBits(pValue));
+        return aChunk >= 0 && fChunks[aChunk].contains((char) pValue);
+    }
+
+
+    /**
+     * Get the number of values in this bitmap that are less than or equal to a value.
+     *
+     * @param pValue    The value to get the rank of.
+     *
+     * @return  The number of values less than or equal to {@code pValue}.
+     */
+    @Nonnegative
+    public int rank(int pValue)
+    {
+        int aChunk = Arrays.binarySearch(fKeys, highBits(pValue));
+        if (aChunk >= 0)
+            return fOffsets[aChunk] + fChunks[aChunk].rank((char) pValue);
+        else
+            return fOffsets[-aChunk - 1];
+    }
+
+
+    /**
+     * Get the index of a value in this bitmap's ascending sequence of values.
+     *
+     * @param pValue    The value to search for.
+     *
+     * @return  The index of the value, or -1 if this bitmap doesn't contain the value.
+     */
+    @Override
+    public int indexOf(int pValue)
+    {
+        int aChunk = Arrays.binarySearch(fKeys, highBits(pValue));
+        if (aChunk >= 0 && fChunks[aChunk].contains((char) pValue))
+            return fOffsets[aChunk] + fChunks[aChunk].rank((char) pValue) - 1;
+        else
+            return -1;
+    }
+
+
+    /**
+     * Get the smallest value in this bitmap.
+     *
+     * @return  The smallest value.
+     *
+     * @throws NoSuchElementException if this bitmap is empty.
+     */
+    @Override
+    public int min()
+    {
+        if (fChunks.length == 0)
+            throw new NoSuchElementException();
+
+        return base(fKeys[0]) | fChunks[0].select(0);
+    }
+
+
+    /**
+     * Get the largest value in this bitmap.
+     *
+     * @return  The largest value.
+     *
+     * @throws NoSuchElementException if this bitmap is empty.
+     */
+    @Override
+    public int max()
+    {
+        int aLast = fChunks.length - 1;
+        if (aLast < 0)
+            throw new NoSuchElementException();
+
+        Chunk aChunk = fChunks[aLast];
+        return base(fKeys[aLast]) | aChunk.select(aChunk.cardinality() - 1);
+    }
+
+
+    /**
+     * Get the intersection of this bitmap and another bitmap.
+     *
+     * @param pOther    The other bitmap.
+     *
+     * @return  A bitmap with the values contained in both bitmaps, never null.
+     *
+     * @throws NullPointerException if {@code pOther} is null.
+     */
+    @Nonnull
+    public CompressedBitmap and(@Nonnull CompressedBitmap pOther)
+    {
+        int aMaxChunks = Math.min(fChunks.length, pOther.fChunks.length);
+        char[] aKeys = new char[aMaxChunks];
+        Chunk[] aChunks = new Chunk[aMaxChunks];
+        int aNumChunks = 0;
+        int i = 0, j = 0;
+        while (i < fChunks.length && j < pOther.fChunks.length)
+        {
+            if (fKeys[i] < pOther.fKeys[j])
+                i++;
+            else if (fKeys[i] > pOther.fKeys[j])
+                j++;
+            else
+            {
+                Chunk aChunk = fChunks[i].and(pOther.fChunks[j]);
+                if (aChunk != null)
+                {
+                    aKeys[aNumChunks] = fKeys[i];
+                    aChunks[aNumChunks++] = aChunk;
+                }
+
+                i++;
+                j++;
+            }
+        }
+
+        return create(aKeys, aChunks, aNumChunks);
+    }
+
+
+    /**
+     * Get the union of this bitmap and another bitmap.
+     *
+     * @param pOther    The other bitmap.
+     *
+     * @return  A bitmap with the values contained in any of the bitmaps, never null.
+     *
+     * @throws NullPointerException if {@code pOther} is null.
+     * @throws IllegalArgumentException if the union contains more than {@code Integer.MAX_VALUE}
+     *                                  values.
+     */
+    @Nonnull
+    public CompressedBitmap or(@Nonnull CompressedBitmap pOther)
+    {
+        int aMaxChunks = fChunks.length + pOther.fChunks.length;
+        char[] aKeys = new char[aMaxChunks];
+        Chunk[] aChunks = new Chunk[aMaxChunks];
+        int aNumChunks = 0;
+        int i = 0, j = 0;
+        while (i < fChunks.length || j < pOther.fChunks.length)
+        {
+            if (j == pOther.fChunks.length || (i < fChunks.length && fKeys[i] < pOther.fKeys[j]))
+            {
+                aKeys[aNumChunks] = fKeys[i];
+                aChunks[aNumChunks++] = fChunks[i++];
+            }
+            else if (i == fChunks.length || fKeys[i] > pOther.fKeys[j])
+            {
+                aKeys[aNumChunks] = pOther.fKeys[j];
+                aChunks[aNumChunks++] = pOther.fChunks[j++];
+            }
+            else
+            {
+                aKeys[aNumChunks] = fKeys[i];
+                aChunks[aNumChunks++] = fChunks[i++].or(pOther.fChunks[j++]);
+            }
+        }
+
+        return create(aKeys, aChunks, aNumChunks);
+    }
+
+
+    /**
+     * Get the difference between this bitmap and another bitmap.
+     *
+     * @param pOther    The bitmap with the values to exclude.
+     *
+     * @return  A bitmap with the values in this bitmap that are not contained in {@code pOther},
+     *          never null.
+     *
+     * @throws NullPointerException if {@code pOther} is null.
+     */
+    @Nonnull
+    public CompressedBitmap andNot(@Nonnull CompressedBitmap pOther)
+    {
+        char[] aKeys = new char[fChunks.length];
+        Chunk[] aChunks = new Chunk[fChunks.length];
+        int aNumChunks = 0;
+        int j = 0;
+        for (int i=0; i<fChunks.length; i++)
+        {
+            while (j < pOther.fChunks.length && pOther.fKeys[j] < fKeys[i])
+                j++;
+
+            Chunk aChunk = fChunks[i];
+            if (j < pOther.fChunks.length && pOther.fKeys[j] == fKeys[i])
+                aChunk = aChunk.andNot(pOther.fChunks[j]);
+
+            if (aChunk != null)
+            {
+                aKeys[aNumChunks] = fKeys[i];
+                aChunks[aNumChunks++] = aChunk;
+            }
+        }
+
+        return create(aKeys, aChunks, aNumChunks);
+    }
+
+
+    /**
+     * Get the number of bytes used to store the values of this bitmap, not including object
+     * headers and references.
+     *
+     * @return  The number of bytes used by the chunks' keys and values.
+     */
+    @Nonnegative
+    public long getStoredSize()
+    {
+        long aSize = fKeys.length * (long) (Character.BYTES + Integer.BYTES);
+        for (Chunk aChunk : fChunks)
+            aSize += aChunk.storedSize();
+
+        return aSize;
+    }
+
+
+    /**
+     * Create a {@code CompressedBitmap} from the first chunks in two arrays.
+     *
+     * @param pKeys         The keys of the chunks.
+     * @param pChunks       The chunks.
+     * @param pNumChunks    The number of chunks to use from the arrays.
+     *
+     * @return  A new {@code CompressedBitmap}, or the empty instance if {@code pNumChunks} is 0.
+     */
+    @Nonnull
+    static private CompressedBitmap create(
+        @Nonnull char[] pKeys,
+        @Nonnull Chunk[] pChunks,
+        @Nonnegative int pNumChunks)
+    {
+        if (pNumChunks == 0)
+            return EMPTY;
+        else if (pNumChunks < pKeys.length)
+            return new CompressedBitmap(
+                Arrays.copyOf(pKeys, pNumChunks),
+                Arrays.copyOf(pChunks, pNumChunks));
+        else
+            return new CompressedBitmap(pKeys, pChunks);
+    }
+
+
+    /**
+     * Get the key of the chunk a value belongs to.
+     *
+     * @param pValue    The value.
+     *
+     * @return  The high 16 bits of the value with the sign bit flipped.
+     */
+    static private char highBits(int pValue)
+    {
+        return (char) ((pValue ^ Integer.MIN_VALUE) >>> 16);
+    }
+
+
+    /**
+     * Get the base value of a chunk, i.e. the value to combine with the low 16 bits of the values
+     * in the chunk.
+     *
+     * @param pKey  The chunk's key.
+     *
+     * @return  The chunk's base value, with the low 16 bits set to zero.
+     */
+    static private int base(char pKey)
+    {
+        return (pKey << 16) ^ Integer.MIN_VALUE;
+    }
+
+
+    /**
+     * Set a range of bits in a bitmap.
+     *
+     * @param pWords    The bitmap's words.
+     * @param pFrom     The first bit to set.
+     * @param pTo       The last bit to set, inclusive.
+     */
+    static private void setRange(@Nonnull long[] pWords, int pFrom, int pTo)
+    {
+        int aFromWord = pFrom >>> 6;
+        int aToWord = pTo >>> 6;
+        long aFromMask = -1L << pFrom;
+        long aToMask = -1L >>> (63 - (pTo & 63));
+        if (aFromWord == aToWord)
+            pWords[aFromWord] |= aFromMask & aToMask;
+        else
+        {
+            pWords[aFromWord] |= aFromMask;
+            for (int i=aFromWord+1; i<aToWord; i++)
+                pWords[i] = -1L;
+
+            pWords[aToWord] |= aToMask;
+        }
+    }
+
+
+    /**
+     * The values of a chunk. A chunk holds the low 16 bits of its values, which are treated as
+     * unsigned {@code char} values. Chunks are immutable, the set operations return new chunks.
+     */
+    @Immutable
+    static abstract private class Chunk
+    {
+        /**
+         * Get the number of values in this chunk.
+         *
+         * @return  The number of values, always greater than 0.
+         */
+        abstract int cardinality();
+
+        /**
+         * Get the number of bytes used to store this chunk's values.
+         *
+         * @return  The number of bytes in this chunk's arrays.
+         */
+        abstract int storedSize();
+
+        /**
+         * Check if this chunk contains a value.
+         *
+         * @param pValue    The value to check.
+         *
+         * @return  True if this chunk contains the value, false if not.
+         */
+        abstract boolean contains(char pValue);
+
+        /**
+         * Get the number of values in this chunk that are less than or equal to a value.
+         *
+         * @param pValue    The value to get the rank of.
+         *
+         * @return  The rank of the value.
+         */
+        abstract int rank(char pValue);
+
+        /**
+         * Get the value at a specific position in this chunk's ascending sequence of values.
+         *
+         * @param pIndex    The index of the value, must be less than the cardinality.
+         *
+         * @return  The value at the index.
+         */
+        abstract char select(int pIndex);
+
+        /**
+         * Pass each value in this chunk to an {@code IntConsumer}.
+         *
+         * @param pBase     The chunk's base value to combine with the values.
+         * @param pAction   The consumer to pass the values to.
+         */
+        abstract void forEach(int pBase, @Nonnull IntConsumer pAction);
+
+        /**
+         * Get an iterator over the values of this chunk.
+         *
+         * @param pBase The chunk's base value to combine with the values.
+         *
+         * @return  A new iterator, never null.
+         */
+        @Nonnull
+        abstract PrimitiveIterator.OfInt iterator(int pBase);
+
+        /**
+         * Set the bits corresponding to this chunk's values in a bitmap.
+         *
+         * @param pWords    The bitmap's words.
+         */
+        abstract void addTo(@Nonnull long[] pWords);
+
+        /**
+         * Get a bitmap with the values of this chunk.
+         *
+         * @return  A bitmap with the values of this chunk. The returned array must not be
+         *          modified.
+         */
+        @Nonnull
+        long[] words()
+        {
+            long[] aWords = new long[BITMAP_WORDS];
+            addTo(aWords);
+            return aWords;
+        }
+
+        /**
+         * Get the intersection of this chunk and another chunk.
+         *
+         * @param pOther    The other chunk.
+         *
+         * @return  A chunk with the values in both chunks, or null if the intersection is empty.
+         */
+        @Nullable
+        Chunk and(@Nonnull Chunk pOther)
+        {
+            if (this instanceof ArrayChunk)
+                return ((ArrayChunk) this).filter(pOther, true);
+            else if (pOther instanceof ArrayChunk)
+                return ((ArrayChunk) pOther).filter(this, true);
+
+            long[] aWords = new long[BITMAP_WORDS];
+            addTo(aWords);
+            long[] aOtherWords = pOther.words();
+            for (int i=0; i<BITMAP_WORDS; i++)
+                aWords[i] &= aOtherWords[i];
+
+            return fromWords(aWords);
+        }
+
+        /**
+         * Get the union of this chunk and another chunk.
+         *
+         * @param pOther    The other chunk.
+         *
+         * @return  A chunk with the values in any of the chunks, never null.
+         */
+        @Nonnull
+        Chunk or(@Nonnull Chunk pOther)
+        {
+            if (this instanceof ArrayChunk
+                &&
+                pOther instanceof ArrayChunk
+                &&
+                cardinality() + pOther.cardinality() <= MAX_ARRAY_CARDINALITY)
+                return ((ArrayChunk) this).merge((ArrayChunk) pOther);
+
+            long[] aWords = new long[BITMAP_WORDS];
+            addTo(aWords);
+            pOther.addTo(aWords);
+            return fromWords(aWords);
+        }
+
+        /**
+         * Get the difference between this chunk and another chunk.
+         *
+         * @param pOther    The chunk with the values to exclude.
+         *
+         * @return  A chunk with the values in this chunk that are not in {@code pOther}, or null
+         *          if the difference is empty.
+         */
+        @Nullable
+        Chunk andNot(@Nonnull Chunk pOther)
+        {
+            if (this instanceof ArrayChunk)
+                return ((ArrayChunk) this).filter(pOther, false);
+
+            long[] aWords = new long[BITMAP_WORDS];
+            addTo(aWords);
+            long[] aOtherWords = pOther.words();
+            for (int i=0; i<BITMAP_WORDS; i++)
+                aWords[i] &= ~aOtherWords[i];
+
+            return fromWords(aWords);
+        }
+
+        /**
+         * Create the most compact chunk for a sorted array of distinct values.
+         *
+         * @param pValues       The values.
+         * @param pNumValues    The number of values to use from the array.
+         *
+         * @return  A new chunk, or null if {@code pNumValues} is 0.
+         */
+        @Nullable
+        static Chunk fromSortedValues(@Nonnull char[] pValues, @Nonnegative int pNumValues)
+        {
+            if (pNumValues == 0)
+                return null;
+
+            int aNumRuns = 1;
+            for (int i=1; i<pNumValues; i++)
+                if (pValues[i] != pValues[i - 1] + 1)
+                    aNumRuns++;
+
+            if (preferRuns(pNumValues, aNumRuns))
+            {
+                char[] aStarts = new char[aNumRuns];
+                char[] aLengths = new char[aNumRuns];
+                int aRun = 0;
+                aStarts[0] = pValues[0];
+                for (int i=1; i<pNumValues; i++)
+                {
+                    if (pValues[i] != pValues[i - 1] + 1)
+                    {
+                        aLengths[aRun] = (char) (pValues[i - 1] - aStarts[aRun]);
+                        aStarts[++aRun] = pValues[i];
+                    }
+                }
+
+                aLengths[aRun] = (char) (pValues[pNumValues - 1] - aStarts[aRun]);
+                return new RunChunk(aStarts, aLengths);
+            }
+            else if (pNumValues <= MAX_ARRAY_CARDINALITY)
+                return new ArrayChunk(Arrays.copyOf(pValues, pNumValues));
+            else
+            {
+                long[] aWords = new long[BITMAP_WORDS];
+                for (int i=0; i<pNumValues; i++)
+                    aWords[pValues[i] >>> 6] |= 1L << pValues[i];
+
+                return new BitmapChunk(aWords, pNumValues);
+            }
+        }
+
+        /**
+         * Create the most compact chunk for the values in a bitmap.
+         *
+         * @param pWords    The bitmap's words. The array may be used by the returned chunk.
+         *
+         * @return  A new chunk, or null if no bits are set in the bitmap.
+         */
+        @Nullable
+        static Chunk fromWords(@Nonnull long[] pWords)
+        {
+            // A run starts at each set bit whose preceding bit is clear.
+            int aCardinality = 0;
+            int aNumRuns = 0;
+            long aCarry = 0;
+            for (long aWord : pWords)
+            {
+                aCardinality += Long.bitCount(aWord);
+                aNumRuns += Long.bitCount(aWord & ~((aWord << 1) | aCarry));
+                aCarry = aWord >>> 63;
+            }
+
+            if (aCardinality == 0)
+                return null;
+            else if (preferRuns(aCardinality, aNumRuns))
+            {
+                char[] aStarts = new char[aNumRuns];
+                char[] aLengths = new char[aNumRuns];
+                int aRun = -1;
+                int aPrevious = -2;
+                for (int i=0; i<BITMAP_WORDS; i++)
+                {
+                    for (long aWord = pWords[i]; aWord != 0; aWord &= aWord - 1)
+                    {
+                        int aValue = (i << 6) + Long.numberOfTrailingZeros(aWord);
+                        if (aValue != aPrevious + 1)
+                            aStarts[++aRun] = (char) aValue;
+
+                        aLengths[aRun] = (char) (aValue - aStarts[aRun]);
+                        aPrevious = aValue;
+                    }
+                }
+
+                return new RunChunk(aStarts, aLengths);
+            }
+            else if (aCardinality <= MAX_ARRAY_CARDINALITY)
+            {
+                char[] aValues = new char[aCardinality];
+                int aIndex = 0;
+                for (int i=0; i<BITMAP_WORDS; i++)
+                    for (long aWord = pWords[i]; aWord != 0; aWord &= aWord - 1)
+                        aValues[aIndex++] = (char) ((i << 6) + Long.numberOfTrailingZeros(aWord));
+
+                return new ArrayChunk(aValues);
+            }
+            else
+                return new BitmapChunk(pWords, aCardinality);
+        }
+
+        /**
+         * Check if a run-length encoded chunk is smaller than both an array chunk and a bitmap
+         * chunk.
+         *
+         * @param pCardinality  The number of values in the chunk.
+         * @param pNumRuns      The number of runs of consecutive values in the chunk.
+         *
+         * @return  True if a run-length encoded chunk is the most compact.
+         */
+        static private boolean preferRuns(int pCardinality, int pNumRuns)
+        {
+            int aRunBytes = pNumRuns * 2 * Character.BYTES;
+            int aArrayBytes = pCardinality <= MAX_ARRAY_CARDINALITY ?
+                pCardinality * Character.BYTES : Integer.MAX_VALUE;
+            return aRunBytes < Math.min(aArrayBytes, BITMAP_BYTES);
+        }
+    }
+
+
+    /**
+     * A chunk with its values in a sorted array.
+     */
+    @Immutable
+    static private final class ArrayChunk extends Chunk
+    {
+        private final char[] fValues;
+
+        ArrayChunk(@Nonnull char[] pValues)
+        {
+            fValues = pValues;
+        }
+
+        @Override
+        int cardinality()
+        {
+            return fValues.length;
+        }
+
+        @Override
+        int storedSize()
+        {
+            return fValues.length * Character.BYTES;
+        }
+
+        @Override
+        boolean contains(char pValue)
+        {
+            return Arrays.binarySearch(fValues, pValue) >= 0;
+        }
+
+        @Override
+        int rank(char pValue)
+        {
+            int aIndex = Arrays.binarySearch(fValues, pValue);
+            return aIndex >= 0 ? aIndex + 1 : -aIndex - 1;
+        }
+
+        @Override
+        char select(int pIndex)
+        {
+            return fValues[pIndex];
+        }
+
+        @Override
+        void forEach(int pBase, @Nonnull IntConsumer pAction)
+        {
+            for (char aValue : fValues)
+                pAction.accept(pBase | aValue);
+        }
+
+        @Override
+        @Nonnull
+        PrimitiveIterator.OfInt iterator(int pBase)
+        {
+            return new PrimitiveIterator.OfInt()
+            {
+                private int fNextIndex;
+
+                @Override
+                public boolean hasNext()
+                {
+                    return fNextIndex < fValues.length;
+                }
+
+                @Override
+                public int nextInt()
+                {
+                    if (fNextIndex < fValues.length)
+                        return pBase | fValues[fNextIndex++];
+                    else
+                        throw new NoSuchElementException();
+                }
+            };
+        }
+
+        @Override
+        void addTo(@Nonnull long[] pWords)
+        {
+            for (char aValue : fValues)
+                pWords[aValue >>> 6] |= 1L << aValue;
+        }
+
+        /**
+         * Get the values in this chunk that are or are not contained in another chunk.
+         *
+         * @param pOther      The other chunk.
+         * @param pContained  If true, the values contained in {@code pOther} are kept, if false
+         *                    the values not contained in {@code pOther} are kept.
+         *
+         * @return  A chunk with the kept values, or null if no values are kept.
+         */
+        @Nullable
+        Chunk filter(@Nonnull Chunk pOther, boolean pContained)
+        {
+            char[] aValues = new char[fValues.length];
+            int aNumValues = 0;
+            for (char aValue : fValues)
+                if (pOther.contains(aValue) == pContained)
+                    aValues[aNumValues++] = aValue;
+
+            return fromSortedValues(aValues, aNumValues);
+        }
+
+        /**
+         * Merge the values of this chunk with the values of another array chunk.
+         *
+         * @param pOther    The other chunk.
+         *
+         * @return  A chunk with the values in any of the chunks.
+         */
+        @Nonnull
+        Chunk merge(@Nonnull ArrayChunk pOther)
+        {
+            char[] aFirst = fValues;
+            char[] aSecond = pOther.fValues;
+            char[] aValues = new char[aFirst.length + aSecond.length];
+            int aNumValues = 0;
+            int i = 0, j = 0;
+            while (i < aFirst.length && j < aSecond.length)
+            {
+                if (aFirst[i] < aSecond[j])
+                    aValues[aNumValues++] = aFirst[i++];
+                else if (aFirst[i] > aSecond[j])
+                    aValues[aNumValues++] = aSecond[j++];
+                else
+                {
+                    aValues[aNumValues++] = aFirst[i++];
+                    j++;
+                }
+            }
+
+            while (i < aFirst.length)
+                aValues[aNumValues++] = aFirst[i++];
+            while (j < aSecond.length)
+                aValues[aNumValues++] = aSecond[j++];
+
+            return fromSortedValues(aValues, aNumValues);
+        }
+    }
+
+
+    /**
+     * A chunk with its values as set bits in a bitmap.
+     */
+    @Immutable
+    static private final class BitmapChunk extends Chunk
+    {
+        private final long[] fWords;
+        private final int fCardinality;
+
+        BitmapChunk(@Nonnull long[] pWords, int pCardinality)
+        {
+            fWords = pWords;
+            fCardinality = pCardinality;
+        }
+
+        @Override
+        int cardinality()
+        {
+            return fCardinality;
+        }
+
+        @Override
+        int storedSize()
+        {
+            return BITMAP_BYTES;
+        }
+
+        @Override
+        boolean contains(char pValue)
+        {
+            return (fWords[pValue >>> 6] & (1L << pValue)) != 0;
+        }
+
+        @Override
+        int rank(char pValue)
+        {
+            int aWord = pValue >>> 6;
+            int aRank = 0;
+            for (int i=0; i<aWord; i++)
+                aRank += Long.bitCount(fWords[i]);
+
+            return aRank + Long.bitCount(fWords[aWord] & (-1L >>> (63 - (pValue & 63))));
+        }
+
+        @Override
+        char select(int pIndex)
+        {
+            int aWord = 0;
+            int aBitCount;
+            while (pIndex >= (aBitCount = Long.bitCount(fWords[aWord])))
+            {
+                pIndex -= aBitCount;
+                aWord++;
+            }
+
+            // Clear the lowest bits until the requested bit is the lowest.
+            long aBits = fWords[aWord];
+            for (; pIndex > 0; pIndex--)
+                aBits &= aBits - 1;
+
+            return (char) ((aWord << 6) + Long.numberOfTrailingZeros(aBits));
+        }
+
+        @Override
+        void forEach(int pBase, @Nonnull IntConsumer pAction)
+        {
+            for (int i=0; i<BITMAP_WORDS; i++)
+                for (long aWord = fWords[i]; aWord != 0; aWord &= aWord - 1)
+                    pAction.accept(pBase | ((i << 6) + Long.numberOfTrailingZeros(aWord)));
+        }
+
+        @Override
+        @Nonnull
+        PrimitiveIterator.OfInt iterator(int pBase)
+        {
+            return new PrimitiveIterator.OfInt()
+            {
+                private int fWordIndex;
+                private long fWord = fWords[0];
+
+                @Override
+                public boolean hasNext()
+                {
+                    while (fWord == 0)
+                    {
+                        if (++fWordIndex >= BITMAP_WORDS)
+                        {
+                            fWordIndex = BITMAP_WORDS;
+                            return false;
+                        }
+
+                        fWord = fWords[fWordIndex];
+                    }
+
+                    return true;
+                }
+
+                @Override
+                public int nextInt()
+                {
+                    if (!hasNext())
+                        throw new NoSuchElementException();
+
+                    int aBit = Long.numberOfTrailingZeros(fWord);
+                    fWord &= fWord - 1;
+                    return pBase | ((fWordIndex << 6) + aBit);
+                }
+            };
+        }
+
+        @Override
+        void addTo(@Nonnull long[] pWords)
+        {
+            for (int i=0; i<BITMAP_WORDS; i++)
+                pWords[i] |= fWords[i];
+        }
+
+        @Override
+        @Nonnull
+        long[] words()
+        {
+            return fWords;
+        }
+    }
+
+
+    /**
+     * A chunk with its values as runs of consecutive values.
+     */
+    @Immutable
+    static private final class RunChunk extends Chunk
+    {
+        // The first value of each run and the number of values in each run minus 1.
+        private final char[] fStarts;
+        private final char[] fLengths;
+
+        // The number of values in all runs before each run.
+        private final int[] fOffsets;
+        private final int fCardinality;
+
+        RunChunk(@Nonnull char[] pStarts, @Nonnull char[] pLengths)
+        {
+            fStarts = pStarts;
+            fLengths = pLengths;
+            fOffsets = new int[pStarts.length];
+            int aCardinality = 0;
+            for (int i=0; i<pStarts.length; i++)
+            {
+                fOffsets[i] = aCardinality;
+                aCardinality += pLengths[i] + 1;
+            }
+
+            fCardinality = aCardinality;
+        }
+
+        @Override
+        int cardinality()
+        {
+            return fCardinality;
+        }
+
+        @Override
+        int storedSize()
+        {
+            return fStarts.length * 2 * Character.BYTES;
+        }
+
+        @Override
+        boolean contains(char pValue)
+        {
+            int aRun = runOf(pValue);
+            return aRun >= 0 && pValue - fStarts[aRun] <= fLengths[aRun];
+        }
+
+        @Override
+        int rank(char pValue)
+        {
+            int aRun = runOf(pValue);
+            if (aRun < 0)
+                return 0;
+            else
+                return fOffsets[aRun] + Math.min(pValue - fStarts[aRun], fLengths[aRun]) + 1;
+        }
+
+        @Override
+        char select(int pIndex)
+        {
+            int aRun = Arrays.binarySearch(fOffsets, pIndex);
+            if (aRun < 0)
+                aRun = -aRun - 2;
+
+            return (char) (fStarts[aRun] + pIndex - fOffsets[aRun]);
+        }
+
+        @Override
+        void forEach(int pBase, @Nonnull IntConsumer pAction)
+        {
+            for (int i=0; i<fStarts.length; i++)
+            {
+                int aEnd = fStarts[i] + fLengths[i];
+                for (int aValue=fStarts[i]; aValue<=aEnd; aValue++)
+                    pAction.accept(pBase | aValue);
+            }
+        }
+
+        @Override
+        @Nonnull
+        PrimitiveIterator.OfInt iterator(int pBase)
+        {
+            return new PrimitiveIterator.OfInt()
+            {
+                private int fRun;
+                private int fNextValue = fStarts[0];
+
+                @Override
+                public boolean hasNext()
+                {
+                    return fRun < fStarts.length;
+                }
+
+                @Override
+                public int nextInt()
+                {
+                    if (fRun >= fStarts.length)
+                        throw new NoSuchElementException();
+
+                    int aValue = fNextValue;
+                    if (aValue == fStarts[fRun] + fLengths[fRun] && ++fRun < fStarts.length)
+                        fNextValue = fStarts[fRun];
+                    else
+                        fNextValue++;
+
+                    return pBase | aValue;
+                }
+            };
+        }
+
+        @Override
+        void addTo(@Nonnull long[] pWords)
+        {
+            for (int i=0; i<fStarts.length; i++)
+                setRange(pWords, fStarts[i], fStarts[i] + fLengths[i]);
+        }
+
+        /**
+         * Get the index of the last run that starts at or before a value.
+         *
+         * @param pValue    The value.
+         *
+         * @return  The index of the run, or -1 if all runs start after the value.
+         */
+        private int runOf(char pValue)
+        {
+            int aRun = Arrays.binarySearch(fStarts, pValue);
+            return aRun >= 0 ? aRun : -aRun - 2;
+        }
+    }
+
+
+    /**
+     * An iterator over the values of all chunks.
+     */
+    @NotThreadSafe
+    private class BitmapIterator implements PrimitiveIterator.OfInt
+    {
+        private int fNextChunk;
+        private PrimitiveIterator.OfInt fChunkIterator = PrimitiveIterators.emptyIntIterator();
+
+        @Override
+        public boolean hasNext()
+        {
+            while (!fChunkIterator.hasNext())
+            {
+                if (fNextChunk >= fChunks.length)
+                    return false;
+
+                fChunkIterator = fChunks[fNextChunk].iterator(base(fKeys[fNextChunk]));
+                fNextChunk++;
+            }
+
+            return true;
+        }
+
+        @Override
+        public int nextInt()
+        {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            return fChunkIterator.nextInt();
+        }
+    }
+}
@@ -0,0 +1,413 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.myire.util.ByteArrayBuilder;
+import org.myire.util.LongArrayConsumer;
+
+
+/**
+ * An immutable {@code LongSequence} with values sorted in ascending order, stored in a compressed
+ * form.
+ *<p>
+ * The values are divided into blocks of 64 values. The first value of each block is stored as is,
+ * and each subsequent value in the block is stored as the difference to its predecessor, encoded
+ * as a variable length integer of 1 to 10 bytes. Sequences of densely spaced values, such as
+ * timestamps or increasing identifiers, typically need 1 or 2 bytes per value instead of 8.
+ *<p>
+ * Accessing a value by index decodes at most 63 differences within the value's block. Iterating
+ * over the values with {@code forEach} or an iterator decodes each difference once.
+ * {@link #indexOf(long)} and {@link #contains(long)} use a binary search over the first values of
+ * the blocks followed by a scan of a single block.
+ */
+@Immutable
+public final class DeltaEncodedLongSequence implements LongSequence
+{
+    static private final int BLOCK_SHIFT = 6;
+    static private final int BLOCK_SIZE = 1 << BLOCK_SHIFT;
+    static private final int BLOCK_MASK = BLOCK_SIZE - 1;
+
+
+    private final int fSize;
+
+    // The first value of each block, and the offset in fDeltas of the differences of the block's
+    // subsequent values.
+    private final long[] fBlockBases;
+    private final int[] fBlockOffsets;
+
+    // The variable length encoded differences.
+    private final byte[] fDeltas;
+
+
+    /**
+     * Create a new {@code DeltaEncodedLongSequence}.
+     *
+     * @param pSize         The number of values.
+     * @param pBlockBases   The first value of each block.
+     * @param pBlockOffsets The offset of each block's encoded differences.
+     * @param pDeltas       The encoded differences.
+     */
+    private DeltaEncodedLongSequence(
+        @Nonnegative int pSize,
+        @Nonnull long[] pBlockBases,
+        @Nonnull int[] pBlockOffsets,
+        @Nonnull byte[] pDeltas)
+    {
+        fSize = pSize;
+        fBlockBases = pBlockBases;
+        fBlockOffsets = pBlockOffsets;
+        fDeltas = pDeltas;
+    }
+
+
+    /**
+     * Create a {@code DeltaEncodedLongSequence} from the values in another sequence.
+     *
+     * @param pValues   The values, must be sorted in ascending order. Duplicate values are
+     *                  allowed.
+     *
+     * @return  A new {@code DeltaEncodedLongSequence} with the same values as {@code pValues},
+     *          never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IllegalArgumentException if {@code pValues} isn't sorted in ascending order.
+     */
+    @Nonnull
+    static public DeltaEncodedLongSequence encode(@Nonnull LongSequence pValues)
+    {
+        int aSize = pValues.size();
+        int aNumBlocks = (aSize + BLOCK_MASK) >>> BLOCK_SHIFT;
+        long[] aBlockBases = new long[aNumBlocks];
+        int[] aBlockOffsets = new int[aNumBlocks];
+        ByteArrayBuilder aDeltas = new ByteArrayBuilder(aSize + 16);
+
+        long aPrevious = 0;
+        for (int i=0; i<aSize; i++)
+        {
+            long aValue = pValues.valueAt(i);
+            if (i > 0 && aValue < aPrevious)
+                throw new IllegalArgumentException("Value at index " + i + " is not sorted");
+
+            if ((i & BLOCK_MASK) == 0)
+            {
+                aBlockBases[i >>> BLOCK_SHIFT] = aValue;
+                aBlockOffsets[i >>> BLOCK_SHIFT] = aDeltas.getLength();
+            }
+            else
+                appendVarLong(aDeltas, aValue - aPrevious);
+
+            aPrevious = aValue;
+        }
+
+        return new DeltaEncodedLongSequence(aSize, aBlockBases, aBlockOffsets, aDeltas.getBytes());
+    }
+
+
+    @Override
+    @Nonnegative
+    public int size()
+    {
+        return fSize;
+    }
+
+
+    /**
+     * Get the number of bytes used to store the values of this sequence, not including the object
+     * headers.
+     *
+     * @return  The number of bytes used by the internal arrays' elements.
+     */
+    @Nonnegative
+    public long getEncodedSize()
+    {
+        return fBlockBases.length * (long) (Long.BYTES + Integer.BYTES) + fDeltas.length;
+    }
+
+
+    @Override
+    public long valueAt(int pIndex)
+    {
+        if (pIndex < 0 || pIndex >= fSize)
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+
+        int aBlock = pIndex >>> BLOCK_SHIFT;
+        long aValue = fBlockBases[aBlock];
+        DeltaDecoder aDecoder = new DeltaDecoder(fDeltas, fBlockOffsets[aBlock]);
+        for (int i=pIndex & BLOCK_MASK; i>0; i--)
+            aValue += aDecoder.nextDelta();
+
+        return aValue;
+    }
+
+
+    @Override
+    public void forEach(@Nonnull LongConsumer pAction)
+    {
+        requireNonNull(pAction);
+        DeltaDecoder aDecoder = new DeltaDecoder(fDeltas, 0);
+        long aValue = 0;
+        for (int i=0; i<fSize; i++)
+        {
+            if ((i & BLOCK_MASK) == 0)
+                // The block's offset is always the decoder's current offset since the blocks are
+                // stored consecutively.
+                aValue = fBlockBases[i >>> BLOCK_SHIFT];
+            else
+                aValue += aDecoder.nextDelta();
+
+            pAction.accept(aValue);
+        }
+    }
+
+
+    @Override
+    @Nonnull
+    public PrimitiveIterator.OfLong iterator()
+    {
+        return new DecodingIterator();
+    }
+
+
+    /**
+     * Pass the values in this sequence to an action in chunks of contiguous values. Each block of
+     * values is decoded into a buffer that is reused for all blocks, and passed to the action as
+     * one chunk.
+     *
+     * @param pAction   The action to pass the chunks to.
+     *
+     * @throws NullPointerException if {@code pAction} is null.
+     */
+    @Override
+    public void forEachChunk(@Nonnull LongArrayConsumer pAction)
+    {
+        requireNonNull(pAction);
+        DeltaDecoder aDecoder = new DeltaDecoder(fDeltas, 0);
+        long[] aChunk = new long[Math.min(fSize, BLOCK_SIZE)];
+        for (int aBlockStart=0; aBlockStart<fSize; aBlockStart+=BLOCK_SIZE)
+        {
+            // The block's offset is always the decoder's current offset since the blocks are
+            // stored consecutively.
+            int aLength = Math.min(BLOCK_SIZE, fSize - aBlockStart);
+            long aValue = fBlockBases[aBlockStart >>> BLOCK_SHIFT];
+            aChunk[0] = aValue;
+            for (int i=1; i<aLength; i++)
+            {
+                aValue += aDecoder.nextDelta();
+                aChunk[i] = aValue;
+            }
+
+            pAction.accept(aChunk, 0, aLength);
+        }
+    }
+
+
+    /**
+     * Get the smallest value in this sequence, which is the first value.
+     *
+     * @return  The smallest value.
+     *
+     * @throws NoSuchElementException if this sequence is empty.
+     */
+    @Override
+    public long min()
+    {
+        if (fSize == 0)
+            throw new NoSuchElementException();
+
+        return fBlockBases[0];
+    }
+
+
+    /**
+     * Get the largest value in this sequence, which is the last value.
+     *
+     * @return  The largest value.
+     *
+     * @throws NoSuchElementException if this sequence is empty.
+     */
+    @Override
+    public long max()
+    {
+        if (fSize == 0)
+            throw new NoSuchElementException();
+
+        return valueAt(fSize - 1);
+    }
+
+
+    /**
+     * Get the index of the first occurrence of a value in this sequence. The block that may
+     * contain the value is located with a binary search.
+     *
+     * @param pValue    The value to search for.
+     *
+     * @return  The index of the first occurrence of the value, or -1 if this sequence doesn't
+     *          contain the value.
+     */
+    @Override
+    public int indexOf(long pValue)
+    {
+        // Find the last block with a first value less than the value searched for. If the value
+        // is present, its first occurrence is in that block or is the first value of the next
+        // block.
+        int aLow = 0;
+        int aHigh = fBlockBases.length - 1;
+        int aBlock = 0;
+        while (aLow <= aHigh)
+        {
+            int aMid = (aLow + aHigh) >>> 1;
+            if (fBlockBases[aMid] < pValue)
+            {
+                aBlock = aMid;
+                aLow = aMid + 1;
+            }
+            else
+                aHigh = aMid - 1;
+        }
+
+        int aIndex = aBlock << BLOCK_SHIFT;
+        int aBlockEnd = Math.min(aIndex + BLOCK_SIZE, fSize);
+        if (aIndex < aBlockEnd)
+        {
+            DeltaDecoder aDecoder = new DeltaDecoder(fDeltas, fBlockOffsets[aBlock]);
+            long aValue = fBlockBases[aBlock];
+            while (true)
+            {
+                if (aValue == pValue)
+                    return aIndex;
+                else if (aValue > pValue || ++aIndex == aBlockEnd)
+                    break;
+
+                aValue += aDecoder.nextDelta();
+            }
+        }
+
+        // Not found in the block, check the first value of the next block.
+        aBlock++;
+        if (aBlock < fBlockBases.length && fBlockBases[aBlock] == pValue)
+            return aBlock << BLOCK_SHIFT;
+        else
+            return -1;
+    }
+
+
+    /**
+     * Check if this sequence contains a value.
+     *
+     * @param pValue    The value to check.
+     *
+     * @return  True if this sequence contains the value, false if not.
+     */
+    public boolean contains(long pValue)
+    {
+        return indexOf(pValue) >= 0;
+    }
+
+
+    /**
+     * Append an unsigned variable length encoded {@code long} to a {@code ByteArrayBuilder}. The
+     * value is encoded in groups of 7 bits, least significant group first, with the high bit set
+     * in all bytes except the last.
+     *
+     * @param pBuilder  The builder to append to.
+     * @param pValue    The value to append, interpreted as unsigned.
+     */
+    static private void appendVarLong(@Nonnull ByteArrayBuilder pBuilder, long pValue)
+    {
+        while ((pValue & ~0x7fL) != 0)
+        {
+            pBuilder.append((byte) ((pValue & 0x7f) | 0x80));
+            pValue >>>= 7;
+        }
+
+        pBuilder.append((byte) pValue);
+    }
+
+
+    /**
+     * An iterator that decodes the values sequentially.
+     */
+    @NotThreadSafe
+    private class DecodingIterator implements PrimitiveIterator.OfLong
+    {
+        private final DeltaDecoder fDecoder = new DeltaDecoder(fDeltas, 0);
+        private int fNextIndex;
+        private long fValue;
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextIndex < fSize;
+        }
+
+        @Override
+        public long nextLong()
+        {
+            if (fNextIndex >= fSize)
+                throw new NoSuchElementException();
+
+            if ((fNextIndex & BLOCK_MASK) == 0)
+                fValue = fBlockBases[fNextIndex >>> BLOCK_SHIFT];
+            else
+                fValue += fDecoder.nextDelta();
+
+            fNextIndex++;
+            return fValue;
+        }
+    }
+
+
+    /**
+     * A decoder of the variable length encoded differences, starting at an offset and advancing
+     * past each decoded difference. This is the inverse of {@code appendVarLong}.
+     */
+    @NotThreadSafe
+    static private final class DeltaDecoder
+    {
+        private final byte[] fBytes;
+        private int fOffset;
+
+        DeltaDecoder(@Nonnull byte[] pBytes, @Nonnegative int pOffset)
+        {
+            fBytes = pBytes;
+            fOffset = pOffset;
+        }
+
+        /**
+         * Decode the difference at the current offset and advance the offset past it.
+         *
+         * @return  The decoded difference.
+         */
+        long nextDelta()
+        {
+            byte[] aBytes = fBytes;
+            int aOffset = fOffset;
+            long aDelta = 0;
+            int aShift = 0;
+            byte aByte;
+            do
+            {
+                aByte = aBytes[aOffset++];
+                aDelta |= (long) (aByte & 0x7f) << aShift;
+                aShift += 7;
+            }
+            while (aByte < 0);
+
+            fOffset = aOffset;
+            return aDelta;
+        }
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Map;
+import java.util.function.Consumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * An immutable {@code Sequence} that stores its elements as codes referring to a dictionary of
+ * distinct elements. Each distinct element is stored once in the dictionary, and each position in
+ * the sequence is stored as the {@code int} index of its element in the dictionary. This makes the
+ * sequence compact for elements with few distinct values, such as country codes or status names.
+ *<p>
+ * Two positions in the sequence hold equal elements if and only if they have the same code, which
+ * allows equality tests and grouping to operate on the codes without accessing the elements. The
+ * codes are available through {@link #getCodes()}, and are dense in the range
+ * {@code [0, getDictionary().size())}, which makes them suitable as array indexes.
+ *<p>
+ * Instances are created with a {@link DictionarySequenceBuilder}.
+ *
+ * @param <E>   The sequence's element type. Elements are compared with {@code equals} and
+ *              {@code hashCode} when the dictionary is built.
+ */
+@Immutable
+public final class DictionarySequence<E> implements Sequence<E>
+{
+    private final IntSequence fCodes;
+    private final Object[] fDictionary;
+    private final Map<E, Integer> fCodesByElement;
+
+
+    /**
+     * Create a new {@code DictionarySequence}.
+     *
+     * @param pCodes            The code of each element.
+     * @param pDictionary       The distinct elements, indexed by their codes.
+     * @param pCodesByElement   The code of each distinct element. This map must not be modified
+     *                          after the call.
+     */
+    DictionarySequence(
+        @Nonnull IntSequence pCodes,
+        @Nonnull Object[] pDictionary,
+        @Nonnull Map<E, Integer> pCodesByElement)
+    {
+        fCodes = pCodes;
+        fDictionary = pDictionary;
+        fCodesByElement = pCodesByElement;
+    }
+
+
+    @Override
+    @Nonnegative
+    public int size()
+    {
+        return fCodes.size();
+    }
+
+
+    @Override
+    public E elementAt(@Nonnegative int pIndex)
+    {
+        return dictionaryElement(fCodes.valueAt(pIndex));
+    }
+
+
+    @Override
+    public void forEach(@Nonnull Consumer<? super E> pAction)
+    {
+        requireNonNull(pAction);
+        fCodes.forEach((int c) -> pAction.accept(dictionaryElement(c)));
+    }
+
+
+    /**
+     * Get the code of the element at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the element.
+     *
+     * @return  The element's code, i.e. its index in the dictionary.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    public int codeAt(@Nonnegative int pIndex)
+    {
+        return fCodes.valueAt(pIndex);
+    }
+
+
+    /**
+     * Get the codes of the elements in this sequence.
+     *
+     * @return  An {@code IntSequence} with the same size as this sequence, where each value is the
+     *          dictionary index of the element at the same position in this sequence. Never null.
+     */
+    @Nonnull
+    public IntSequence getCodes()
+    {
+        return fCodes;
+    }
+
+
+    /**
+     * Get the distinct elements in this sequence, in the order they first occurred when the
+     * sequence was built.
+     *
+     * @return  A {@code Sequence} where each element is located at the index equal to its code,
+     *          never null.
+     */
+    @Nonnull
+    public Sequence<E> getDictionary()
+    {
+        return Sequences.map(Sequences.wrap(fDictionary), this::cast);
+    }
+
+
+    /**
+     * Get the code of an element.
+     *
+     * @param pElement  The element, possibly null.
+     *
+     * @return  The code of the element, or -1 if this sequence doesn't contain the element.
+     */
+    public int codeOf(@Nullable E pElement)
+    {
+        Integer aCode = fCodesByElement.get(pElement);
+        return aCode != null ? aCode.intValue() : -1;
+    }
+
+
+    /**
+     * Get the positions in this sequence that hold an element. The positions are found by
+     * comparing the codes, without accessing the elements.
+     *
+     * @param pElement  The element to search for, possibly null.
+     *
+     * @return  A sequence with the indexes of the positions holding the element, in ascending
+     *          order, never null.
+     */
+    @Nonnull
+    public IntSequence indexesOf(@Nullable E pElement)
+    {
+        int aCode = codeOf(pElement);
+        if (aCode < 0)
+            return PrimitiveSequences.emptyIntSequence();
+
+        int aSize = fCodes.size();
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(16);
+        for (int i=0; i<aSize; i++)
+            if (fCodes.valueAt(i) == aCode)
+                aBuilder.append(i);
+
+        return aBuilder.toSequence();
+    }
+
+
+    /**
+     * Count the number of occurrences of each distinct element in this sequence.
+     *
+     * @return  An array with the same length as the dictionary, where each element is the number of
+     *          occurrences of the dictionary element with the same index. Never null.
+     */
+    @Nonnull
+    public int[] countByCode()
+    {
+        int[] aCounts = new int[fDictionary.length];
+        fCodes.forEach((int c) -> aCounts[c]++);
+        return aCounts;
+    }
+
+
+    /**
+     * Get the dictionary element with a specific code.
+     *
+     * @param pCode The element's code.
+     *
+     * @return  The element, possibly null.
+     */
+    private E dictionaryElement(int pCode)
+    {
+        return cast(fDictionary[pCode]);
+    }
+
+
+    /**
+     * Cast a dictionary element to the element type. The dictionary only contains elements
+     * appended through a {@code DictionarySequenceBuilder<E>}, which makes the cast safe.
+     *
+     * @param pElement  The element to cast.
+     *
+     * @return  {@code pElement}.
+     */
+    @SuppressWarnings("unchecked")
+    private E cast(Object pElement)
+    {
+        return (E) pElement;
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * A builder of {@link DictionarySequence} instances. Each appended element is looked up in the
+ * dictionary of distinct elements appended so far, and is added to the dictionary if it isn't
+ * found. The code of the element, i.e. its index in the dictionary, is then appended to an
+ * {@code IntSequenceBuilder}.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ *
+ * @param <E>   The element type.
+ */
+@NotThreadSafe
+public class DictionarySequenceBuilder<E>
+{
+    private final IntSequenceBuilder fCodes;
+    private final List<E> fDictionary = new ArrayList<>();
+    private final Map<E, Integer> fCodesByElement = new HashMap<>();
+
+
+    /**
+     * Create a new {@code DictionarySequenceBuilder}.
+     *
+     * @param pInitialCapacity  The initial capacity of the internal array of codes.
+     *
+     * @throws NegativeArraySizeException   if {@code pInitialCapacity} is negative.
+     */
+    public DictionarySequenceBuilder(@Nonnegative int pInitialCapacity)
+    {
+        fCodes = new IntSequenceBuilder(pInitialCapacity);
+    }
+
+
+    /**
+     * Get the number of elements appended to this instance.
+     *
+     * @return  The number of elements appended to this instance.
+     */
+    @Nonnegative
+    public int getLength()
+    {
+        return fCodes.getLength();
+    }
+
+
+    /**
+     * Get the number of distinct elements appended to this instance.
+     *
+     * @return  The number of elements in the dictionary.
+     */
+    @Nonnegative
+    public int getDictionarySize()
+    {
+        return fDictionary.size();
+    }
+
+
+    /**
+     * Append an element.
+     *
+     * @param pElement  The element to append, possibly null.
+     *
+     * @return  This instance.
+     *
+     * @throws OutOfMemoryError if the internal buffer is full and memory cannot be allocated for
+     *                          the element's code.
+     */
+    @Nonnull
+    public DictionarySequenceBuilder<E> append(@Nullable E pElement)
+    {
+        Integer aCode = fCodesByElement.get(pElement);
+        if (aCode == null)
+        {
+            aCode = Integer.valueOf(fDictionary.size());
+            fDictionary.add(pElement);
+            fCodesByElement.put(pElement, aCode);
+        }
+
+        fCodes.append(aCode.intValue());
+        return this;
+    }
+
+
+    /**
+     * Append all elements in a sequence.
+     *
+     * @param pElements The sequence with the elements to append.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pElements} is null.
+     * @throws OutOfMemoryError if the internal buffer is full and memory cannot be allocated for
+     *                          the elements' codes.
+     */
+    @Nonnull
+    public DictionarySequenceBuilder<E> append(@Nonnull Sequence<? extends E> pElements)
+    {
+        pElements.forEach(this::append);
+        return this;
+    }
+
+
+    /**
+     * Get the elements appended to this instance as a {@code DictionarySequence}. The returned
+     * sequence is not affected by subsequent calls to this instance.
+     *
+     * @return  A {@code DictionarySequence} with the elements appended to this instance, never
+     *          null.
+     */
+    @Nonnull
+    public DictionarySequence<E> toSequence()
+    {
+        return new DictionarySequence<>(
+            fCodes.toSequence(),
+            fDictionary.toArray(),
+            new HashMap<>(fCodesByElement));
+    }
+}
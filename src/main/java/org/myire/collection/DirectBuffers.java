@@ -0,0 +1,153 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+
+
+/**
+ * Utility methods for releasing the native memory of direct {@code ByteBuffer} instances, both
+ * allocated and memory-mapped, without waiting for the buffers to be garbage collected.
+ *<p>
+ * There is no public API for releasing a direct buffer in Java 8, and the mechanisms used by
+ * different JDK versions are accessed through reflection. On Java 9 and later
+ * {@code sun.misc.Unsafe.invokeCleaner} is used, on Java 8 the buffer's cleaner is invoked
+ * directly. If neither mechanism is available, releasing a buffer is a no-op and the memory is
+ * released when the buffer is garbage collected.
+ */
+final class DirectBuffers
+{
+    static private final Releaser RELEASER = createReleaser();
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private DirectBuffers()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Release the native memory of a direct {@code ByteBuffer}. The buffer, and any views of it,
+     * must not be accessed after this method has been called, since doing so may crash the JVM.
+     * Non-direct buffers are ignored.
+     *<p>
+     * The buffer must have been returned from {@code ByteBuffer.allocateDirect} or
+     * {@code FileChannel.map}; passing a slice or a duplicate of such a buffer has no effect.
+     *
+     * @param pBuffer   The buffer to release.
+     *
+     * @throws NullPointerException if {@code pBuffer} is null.
+     */
+    static void release(@Nonnull ByteBuffer pBuffer)
+    {
+        if (pBuffer.isDirect())
+        {
+            try
+            {
+                RELEASER.release(pBuffer);
+            }
+            catch (ReflectiveOperationException | RuntimeException ignore)
+            {
+                // The buffer will be released when it is garbage collected.
+            }
+        }
+    }
+
+
+    /**
+     * Create the {@code Releaser} to use in the current JVM.
+     *
+     * @return  A new {@code Releaser}, never null.
+     */
+    @Nonnull
+    static private Releaser createReleaser()
+    {
+        try
+        {
+            // Java 9 and later.
+            Class<?> aUnsafeClass = Class.forName("sun.misc.Unsafe");
+            Method aInvokeCleaner = aUnsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+            Field aTheUnsafe = aUnsafeClass.getDeclaredField("theUnsafe");
+            aTheUnsafe.setAccessible(true);
+            Object aUnsafe = aTheUnsafe.get(null);
+            return pBuffer -> invoke(aInvokeCleaner, aUnsafe, pBuffer);
+        }
+        catch (ReflectiveOperationException | RuntimeException ignore)
+        {
+            // Not available, try the Java 8 approach.
+        }
+
+        try
+        {
+            // Java 8.
+            Method aGetCleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+            Method aClean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+            return pBuffer ->
+            {
+                Object aCleaner = invoke(aGetCleaner, pBuffer);
+                if (aCleaner != null)
+                    invoke(aClean, aCleaner);
+            };
+        }
+        catch (ReflectiveOperationException | RuntimeException ignore)
+        {
+            // Releasing buffers explicitly is not supported.
+            return pBuffer -> {};
+        }
+    }
+
+
+    /**
+     * Invoke a method reflectively, unwrapping any unchecked exception thrown by the method.
+     *
+     * @param pMethod   The method to invoke.
+     * @param pTarget   The instance to invoke the method on, or null for static methods.
+     * @param pArgs     The arguments to pass to the method.
+     *
+     * @return  The method's return value.
+     *
+     * @throws ReflectiveOperationException if the method cannot be invoked, or if it throws a
+     *                                      checked exception.
+     */
+    static private Object invoke(
+        @Nonnull Method pMethod,
+        Object pTarget,
+        Object... pArgs) throws ReflectiveOperationException
+    {
+        try
+        {
+            return pMethod.invoke(pTarget, pArgs);
+        }
+        catch (InvocationTargetException e)
+        {
+            if (e.getCause() instanceof RuntimeException)
+                throw (RuntimeException) e.getCause();
+            else
+                throw e;
+        }
+    }
+
+
+    /**
+     * Function that releases the native memory of a direct buffer.
+     */
+    @FunctionalInterface
+    private interface Releaser
+    {
+        void release(@Nonnull ByteBuffer pBuffer) throws ReflectiveOperationException;
+    }
+}
@@ -0,0 +1,378 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.DoubleConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.myire.util.DoubleArrayConsumer;
+
+
+/**
+ * A fixed-capacity circular buffer of {@code double} values, accessible as a
+ * {@code DoubleSequence}. When the buffer is full, adding a value evicts the oldest value. The
+ * value at index 0 is always the oldest value in the buffer, and the value at index
+ * {@code size() - 1} is the most recently added value.
+ *<p>
+ * Adding a value takes amortized constant time and never allocates. The sum, the minimum and the
+ * maximum of the values in the buffer are maintained incrementally when values are added and
+ * evicted, which means that {@link #sum()}, {@link #min()} and {@link #max()} take constant time
+ * (unless the sum overflows, see {@link #sum()}). The minimum and maximum are tracked with
+ * monotonic queues of buffer positions, which are allocated together with the buffer.
+ *<p>
+ * The running sum of the finite values is compensated for rounding errors, both when values are
+ * added and when they are evicted, to prevent the errors from accumulating over the lifetime of
+ * the buffer. The sum may therefore differ slightly from the sum calculated by adding the values
+ * in index order. NaN and infinite values are counted separately, which means that a NaN or
+ * infinite sum, minimum or maximum doesn't persist after the values causing it have been evicted.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization. Sub-sequences, iterators and spliterators reflect subsequent additions to the
+ * buffer.
+ */
+@NotThreadSafe
+public class DoubleRingBuffer implements DoubleSequence
+{
+    private final double[] fValues;
+
+    // The position in fValues of the oldest value, and the number of values in the buffer.
+    private int fHead;
+    private int fSize;
+
+    // The compensated sum of the finite values, and the number of non-finite values.
+    private double fSum;
+    private double fCompensation;
+    private int fNumNaNs;
+    private int fNumPositiveInfinities;
+    private int fNumNegativeInfinities;
+
+    // True if the sum of the finite values has overflowed, in which case it isn't maintained.
+    private boolean fSumOverflowed;
+
+    // Positions in fValues of the candidates for the minimum and maximum, ordered from oldest to
+    // newest. The values at the positions are increasing in fMinQueue and decreasing in
+    // fMaxQueue, which means that the head of each queue is the position of the current minimum
+    // and maximum, respectively.
+    private final PositionQueue fMinQueue;
+    private final PositionQueue fMaxQueue;
+
+
+    /**
+     * Create a new {@code DoubleRingBuffer}.
+     *
+     * @param pCapacity The maximum number of values in the buffer.
+     *
+     * @throws IllegalArgumentException if {@code pCapacity} is less than 1.
+     */
+    public DoubleRingBuffer(@Nonnegative int pCapacity)
+    {
+        if (pCapacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive: " + pCapacity);
+
+        fValues = new double[pCapacity];
+        fMinQueue = new PositionQueue(pCapacity);
+        fMaxQueue = new PositionQueue(pCapacity);
+    }
+
+
+    /**
+     * Get the maximum number of values this buffer can hold.
+     *
+     * @return  The capacity of this buffer.
+     */
+    @Nonnegative
+    public int getCapacity()
+    {
+        return fValues.length;
+    }
+
+
+    /**
+     * Check if this buffer is full, meaning that the next call to {@link #add(double)} will
+     * evict the oldest value.
+     *
+     * @return  True if this buffer is full, false if not.
+     */
+    public boolean isFull()
+    {
+        return fSize == fValues.length;
+    }
+
+
+    /**
+     * Add a value to this buffer, evicting the oldest value if the buffer is full.
+     *
+     * @param pValue    The value to add.
+     */
+    public void add(double pValue)
+    {
+        int aPosition;
+        if (fSize == fValues.length)
+        {
+            // Evict the oldest value, its position is reused for the new value.
+            aPosition = fHead;
+            updateSum(fValues[aPosition], -1);
+            fMinQueue.evict(aPosition);
+            fMaxQueue.evict(aPosition);
+            fHead = next(fHead);
+        }
+        else
+        {
+            aPosition = position(fSize);
+            fSize++;
+        }
+
+        fValues[aPosition] = pValue;
+        updateSum(pValue, 1);
+
+        // NaN values are not candidates for the minimum or maximum, they are handled through
+        // fNumNaNs.
+        if (Double.isNaN(pValue))
+            return;
+
+        while (!fMinQueue.isEmpty() && Double.compare(fValues[fMinQueue.last()], pValue) >= 0)
+            fMinQueue.removeLast();
+        fMinQueue.add(aPosition);
+
+        while (!fMaxQueue.isEmpty() && Double.compare(fValues[fMaxQueue.last()], pValue) <= 0)
+            fMaxQueue.removeLast();
+        fMaxQueue.add(aPosition);
+    }
+
+
+    /**
+     * Remove all values from this buffer.
+     */
+    public void clear()
+    {
+        fHead = 0;
+        fSize = 0;
+        fSum = 0;
+        fCompensation = 0;
+        fSumOverflowed = false;
+        fNumNaNs = 0;
+        fNumPositiveInfinities = 0;
+        fNumNegativeInfinities = 0;
+        fMinQueue.clear();
+        fMaxQueue.clear();
+    }
+
+
+    @Override
+    @Nonnegative
+    public int size()
+    {
+        return fSize;
+    }
+
+
+    @Override
+    public double valueAt(int pIndex)
+    {
+        if (pIndex >= 0 && pIndex < fSize)
+            return fValues[position(pIndex)];
+        else
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+    }
+
+
+    @Override
+    public void forEach(@Nonnull DoubleConsumer pAction)
+    {
+        requireNonNull(pAction);
+        double[] aValues = fValues;
+        int aFirstEnd = Math.min(fHead + fSize, aValues.length);
+        for (int i=fHead; i<aFirstEnd; i++)
+            pAction.accept(aValues[i]);
+
+        int aSecondEnd = fSize - (aFirstEnd - fHead);
+        for (int i=0; i<aSecondEnd; i++)
+            pAction.accept(aValues[i]);
+    }
+
+
+    /**
+     * Pass the values in this buffer to an action in at most two chunks, which are the ranges of
+     * the internal array that hold the values before and after the wrap-around point.
+     *
+     * @param pAction   The action to pass the chunks to.
+     *
+     * @throws NullPointerException if {@code pAction} is null.
+     */
+    @Override
+    public void forEachChunk(@Nonnull DoubleArrayConsumer pAction)
+    {
+        requireNonNull(pAction);
+        int aFirstLength = Math.min(fSize, fValues.length - fHead);
+        if (aFirstLength > 0)
+            pAction.accept(fValues, fHead, aFirstLength);
+        if (fSize > aFirstLength)
+            pAction.accept(fValues, 0, fSize - aFirstLength);
+    }
+
+
+    @Nonnull
+    @Override
+    public PrimitiveIterator.OfDouble iterator()
+    {
+        return PrimitiveIterators.sequenceIterator(this);
+    }
+
+
+    /**
+     * Get the sum of the values in this buffer. The sum is maintained incrementally and this
+     * method takes constant time. If any value is NaN, or if the buffer contains both positive
+     * and negative infinity, the result is NaN. Otherwise, if the buffer contains an infinite
+     * value, the result is that infinity.
+     *<p>
+     * If the sum of the finite values overflows, it is recalculated from the values in the buffer
+     * when this method is called, until the overflowing values have been evicted.
+     *
+     * @return  The sum of the values, 0 if this buffer is empty.
+     */
+    @Override
+    public double sum()
+    {
+        if (fNumNaNs > 0 || (fNumPositiveInfinities > 0 && fNumNegativeInfinities > 0))
+            return Double.NaN;
+        else if (fNumPositiveInfinities > 0)
+            return Double.POSITIVE_INFINITY;
+        else if (fNumNegativeInfinities > 0)
+            return Double.NEGATIVE_INFINITY;
+
+        if (fSumOverflowed)
+            recalculateSum();
+
+        return fSumOverflowed ? fSum : fSum + fCompensation;
+    }
+
+
+    /**
+     * Get the smallest value in this buffer. The minimum is maintained incrementally and this
+     * method takes constant time. If any value is NaN, the result is NaN.
+     *
+     * @return  The smallest value.
+     *
+     * @throws NoSuchElementException if this buffer is empty.
+     */
+    @Override
+    public double min()
+    {
+        if (fSize == 0)
+            throw new NoSuchElementException();
+
+        return fNumNaNs > 0 ? Double.NaN : fValues[fMinQueue.first()];
+    }
+
+
+    /**
+     * Get the largest value in this buffer. The maximum is maintained incrementally and this
+     * method takes constant time. If any value is NaN, the result is NaN.
+     *
+     * @return  The largest value.
+     *
+     * @throws NoSuchElementException if this buffer is empty.
+     */
+    @Override
+    public double max()
+    {
+        if (fSize == 0)
+            throw new NoSuchElementException();
+
+        return fNumNaNs > 0 ? Double.NaN : fValues[fMaxQueue.first()];
+    }
+
+
+    /**
+     * Add a value to or remove a value from the running sum. Non-finite values are counted, finite
+     * values are added to the sum unless it has overflowed.
+     *
+     * @param pValue    The value.
+     * @param pSign     1 to add the value, -1 to remove it.
+     */
+    private void updateSum(double pValue, int pSign)
+    {
+        if (Double.isNaN(pValue))
+            fNumNaNs += pSign;
+        else if (pValue == Double.POSITIVE_INFINITY)
+            fNumPositiveInfinities += pSign;
+        else if (pValue == Double.NEGATIVE_INFINITY)
+            fNumNegativeInfinities += pSign;
+        else if (!fSumOverflowed)
+            addToSum(pSign * pValue);
+    }
+
+
+    /**
+     * Add a finite value to the running sum with Neumaier's variant of Kahan summation. If the sum
+     * overflows, it is flagged as such.
+     *
+     * @param pValue    The value to add.
+     */
+    private void addToSum(double pValue)
+    {
+        double aSum = fSum + pValue;
+        if (Double.isInfinite(aSum))
+            fSumOverflowed = true;
+        else if (Math.abs(fSum) >= Math.abs(pValue))
+            fCompensation += (fSum - aSum) + pValue;
+        else
+            fCompensation += (pValue - aSum) + fSum;
+
+        fSum = aSum;
+    }
+
+
+    /**
+     * Recalculate the running sum from the finite values in this buffer.
+     */
+    private void recalculateSum()
+    {
+        fSum = 0;
+        fCompensation = 0;
+        fSumOverflowed = false;
+        for (int i=0; i<fSize && !fSumOverflowed; i++)
+        {
+            double aValue = fValues[position(i)];
+            if (Double.isFinite(aValue))
+                addToSum(aValue);
+        }
+    }
+
+
+    /**
+     * Get the position in the internal array of the value at an index in the sequence.
+     *
+     * @param pIndex    The index, between 0 and the capacity, exclusive.
+     *
+     * @return  The position of the value.
+     */
+    private int position(int pIndex)
+    {
+        int aPosition = fHead + pIndex;
+        return aPosition < fValues.length ? aPosition : aPosition - fValues.length;
+    }
+
+
+    /**
+     * Get the position following another position in the internal array, wrapping around at the
+     * end.
+     *
+     * @param pPosition The position.
+     *
+     * @return  The next position.
+     */
+    private int next(int pPosition)
+    {
+        return pPosition + 1 < fValues.length ? pPosition + 1 : 0;
+    }
+}
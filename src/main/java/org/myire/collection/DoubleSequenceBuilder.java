@@ -0,0 +1,292 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.myire.util.Numbers.requireRangeWithinBounds;
+
+
+/**
+ * A sequence of {@code double} values that can be appended to. The appended values are stored in an
+ * internal array that grows as needed, and can be frozen into a {@code DoubleSequence} without
+ * copying the array by calling {@link #toSequence()}.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ */
+@NotThreadSafe
+public class DoubleSequenceBuilder
+{
+    // The maximum length of an array. Some JVMs store state in the last few bytes.
+    static private final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+
+    private double[] fValues;
+    private int fLength;
+
+    // The number of values at the start of fValues that are visible through a sequence returned by
+    // toSequence(). These values must not be overwritten.
+    private int fFrozenLength;
+
+
+    /**
+     * Create a new {@code DoubleSequenceBuilder}.
+     *
+     * @param pInitialCapacity  The initial capacity of the internal array.
+     *
+     * @throws NegativeArraySizeException   if {@code pInitialCapacity} is negative.
+     */
+    public DoubleSequenceBuilder(@Nonnegative int pInitialCapacity)
+    {
+        fValues = new double[pInitialCapacity];
+    }
+
+
+    /**
+     * Get the number of values appended to this instance.
+     *
+     * @return  The number of values appended to this instance.
+     */
+    @Nonnegative
+    public int getLength()
+    {
+        return fLength;
+    }
+
+
+    /**
+     * Discard all values appended to this instance. The next call to one of the {@code append}
+     * methods will append values at the beginning of the internal buffer. Sequences previously
+     * returned by {@link #toSequence()} are not affected.
+     *
+     * @return  This instance.
+     */
+    @Nonnull
+    public DoubleSequenceBuilder reset()
+    {
+        fLength = 0;
+        return this;
+    }
+
+
+    /**
+     * Discard all values appended to this instance. The next call to one of the {@code append}
+     * methods will append values at the beginning of the internal buffer. Sequences previously
+     * returned by {@link #toSequence()} are not affected.
+     *<p>
+     * This method allows a maximum capacity to be specified. If the internal buffer is larger than
+     * this value, that buffer will be replaced with a buffer of the specified capacity, which can
+     * avoid having long-lived instances hang on to large buffers that no longer are needed.
+     *
+     * @param pMaxCapacity  The maximum capacity the internal buffer should have after the reset.
+     *
+     * @return  This instance.
+     *
+     * @throws NegativeArraySizeException   if {@code pMaxCapacity} is negative.
+     */
+    @Nonnull
+    public DoubleSequenceBuilder reset(@Nonnegative int pMaxCapacity)
+    {
+        fLength = 0;
+        if (fValues.length > pMaxCapacity)
+        {
+            fValues = new double[pMaxCapacity];
+            fFrozenLength = 0;
+        }
+
+        return this;
+    }
+
+
+    /**
+     * Append a value to this instance.
+     *
+     * @param pValue    The value to append.
+     *
+     * @return  This instance.
+     *
+     * @throws OutOfMemoryError if the internal buffer is full and memory cannot be allocated.
+     */
+    @Nonnull
+    public DoubleSequenceBuilder append(double pValue)
+    {
+        ensureWritable(1);
+        fValues[fLength++] = pValue;
+        return this;
+    }
+
+
+    /**
+     * Append the values in an array to this instance.
+     *
+     * @param pValues   The values to append.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws OutOfMemoryError if the internal buffer is full and memory cannot be allocated for
+     *                          the number of values in the array.
+     */
+    @Nonnull
+    public DoubleSequenceBuilder append(@Nonnull double[] pValues)
+    {
+        return append(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Append the values in a subrange of an array to this instance.
+     *
+     * @param pValues   The array to append values from.
+     * @param pOffset   The offset in the array of the first value to append.
+     * @param pLength   The number of values to append.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} is less than 0 or if {@code pLength} is
+     *                                   less than 0 or if {@code pOffset+pLength} is greater than
+     *                                   {@code pValues.length}.
+     * @throws OutOfMemoryError if the internal buffer is full and memory cannot be allocated for
+     *                          the specified number of values.
+     */
+    @Nonnull
+    public DoubleSequenceBuilder append(@Nonnull double[] pValues, int pOffset, int pLength)
+    {
+        requireRangeWithinBounds(pOffset, pLength, pValues.length);
+        ensureWritable(pLength);
+        System.arraycopy(pValues, pOffset, fValues, fLength, pLength);
+        fLength += pLength;
+        return this;
+    }
+
+
+    /**
+     * Append the values in a sequence to this instance. The internal buffer is grown at most once,
+     * and the values are copied in chunks with {@code forEachChunk}, which lets array based
+     * sequences have their values copied in bulk.
+     *
+     * @param pValues   The sequence with the values to append.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws OutOfMemoryError if the internal buffer is full and memory cannot be allocated for
+     *                          the number of values in the sequence.
+     */
+    @Nonnull
+    public DoubleSequenceBuilder append(@Nonnull DoubleSequence pValues)
+    {
+        int aNumValues = pValues.size();
+        ensureWritable(aNumValues);
+        pValues.forEachChunk(
+            (pChunk, pOffset, pLength) ->
+            {
+                System.arraycopy(pChunk, pOffset, fValues, fLength, pLength);
+                fLength += pLength;
+            });
+
+        return this;
+    }
+
+
+    /**
+     * Get the values appended to this instance.
+     *
+     * @return  A new array with the appended values copied, possibly empty, never null.
+     */
+    @Nonnull
+    public double[] getValues()
+    {
+        return Arrays.copyOf(fValues, fLength);
+    }
+
+
+    /**
+     * Get the values appended to this instance as a {@code DoubleSequence}. The returned sequence
+     * wraps the internal buffer, no values are copied. The sequence is not affected by subsequent
+     * calls to this instance; values appended after this call will not be visible in the
+     * sequence, and a call to {@code reset} will cause new values to be appended to a new internal
+     * buffer.
+     *
+     * @return  A {@code DoubleSequence} with the values appended to this instance, never null.
+     */
+    @Nonnull
+    public DoubleSequence toSequence()
+    {
+        if (fLength > fFrozenLength)
+            fFrozenLength = fLength;
+
+        return PrimitiveSequences.wrap(fValues, 0, fLength);
+    }
+
+
+    /**
+     * Make sure the internal buffer has room for a number of values to be appended at the current
+     * length, and that appending those values will not overwrite any values visible through a
+     * sequence returned by {@link #toSequence()}.
+     *
+     * @param pNumValues    The number of values to append.
+     *
+     * @throws OutOfMemoryError if the required capacity is greater than the maximum array size,
+     *                          or if allocating a new array failed.
+     */
+    private void ensureWritable(@Nonnegative int pNumValues)
+    {
+        int aRequiredCapacity = fLength + pNumValues;
+        if (aRequiredCapacity > fValues.length)
+            expandBuffer(aRequiredCapacity);
+        else if (fLength < fFrozenLength)
+        {
+            // The values to append would overwrite frozen values, move the current values to a
+            // new buffer.
+            replaceBuffer(fValues.length);
+        }
+    }
+
+
+    /**
+     * Expand the internal buffer.
+     *
+     * @param pRequiredCapacity The minimum new capacity.
+     *
+     * @throws OutOfMemoryError if {@code pRequiredCapacity} is less than 0 or greater than the
+     *                          maximum array size, or if allocating a new array failed.
+     */
+    private void expandBuffer(int pRequiredCapacity)
+    {
+        if (pRequiredCapacity < 0 || pRequiredCapacity > MAX_ARRAY_SIZE)
+            throw new OutOfMemoryError("Array length " + pRequiredCapacity);
+
+        // Increase the capacity with 50%, or to the required capacity if that is greater.
+        long aNewCapacity = fValues.length + (fValues.length >> 1);
+        if (aNewCapacity < pRequiredCapacity)
+            aNewCapacity = pRequiredCapacity;
+        else if (aNewCapacity > MAX_ARRAY_SIZE)
+            aNewCapacity = MAX_ARRAY_SIZE;
+
+        replaceBuffer((int) aNewCapacity);
+    }
+
+
+    /**
+     * Replace the internal buffer with a new buffer and copy the current values to that buffer.
+     *
+     * @param pCapacity The capacity of the new buffer.
+     */
+    private void replaceBuffer(@Nonnegative int pCapacity)
+    {
+        double[] aValues = new double[pCapacity];
+        System.arraycopy(fValues, 0, aValues, 0, fLength);
+        fValues = aValues;
+        fFrozenLength = 0;
+    }
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.util.FloatConsumer;
+
+
+/**
+ * A {@code FloatSequence} provides positional (indexed), read-only access to a sequence of
+ * {@code float} values. It is a primitive specialization of {@link Sequence} for {@code float}
+ * values.
+ */
+public interface FloatSequence extends PrimitiveSequence<Float, FloatConsumer>
+{
+    /**
+     * Get the {@code float} value at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the value to get.
+     *
+     * @return  The {@code float} value at the specified position in this sequence.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    float valueAt(@Nonnegative int pIndex);
+
+    /**
+     * Get the {@code Float} element at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the element to get.
+     *
+     * @return  The value at the specified position in this sequence wrapped in a {@code Float},
+     *          never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Nonnull
+    @Override
+    default Float elementAt(@Nonnegative int pIndex)
+    {
+        return Float.valueOf(valueAt(pIndex));
+    }
+
+    /**
+     * Return a {@code FloatIterator} for the values in this sequence.
+     *
+     * @return  A {@code FloatIterator}, never null.
+     */
+    @Override
+    @Nonnull
+    FloatIterator iterator();
+
+    /**
+     * Get a view of the values in this sequence between {@code pFromIndex}, inclusive, and
+     * {@code pToIndex}, exclusive. The returned sequence is backed by this sequence; no values are
+     * copied.
+     *
+     * @param pFromIndex    The index of the first value in the sub-sequence.
+     * @param pToIndex      The index after the last value in the sub-sequence.
+     *
+     * @return  A {@code FloatSequence} with the values in the specified range, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than {@link #size()}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Override
+    @Nonnull
+    default FloatSequence subSequence(@Nonnegative int pFromIndex, @Nonnegative int pToIndex)
+    {
+        return CompactSequences.subSequence(this, pFromIndex, pToIndex);
+    }
+}
@@ -0,0 +1,282 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.function.IntConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import org.myire.util.IntArrayConsumer;
+
+
+/**
+ * A fixed-capacity circular buffer of {@code int} values, accessible as an {@code IntSequence}.
+ * When the buffer is full, adding a value evicts the oldest value. The value at index 0 is always
+ * the oldest value in the buffer, and the value at index {@code size() - 1} is the most recently
+ * added value.
+ *<p>
+ * Adding a value takes amortized constant time and never allocates. The sum, the minimum and the
+ * maximum of the values in the buffer are maintained incrementally when values are added and
+ * evicted, which means that {@link #sum()}, {@link #min()} and {@link #max()} take constant time.
+ * The minimum and maximum are tracked with monotonic queues of buffer positions, which are
+ * allocated together with the buffer.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization. Sub-sequences, iterators and spliterators reflect subsequent additions to the
+ * buffer.
+ */
+@NotThreadSafe
+public class IntRingBuffer implements IntSequence
+{
+    private final int[] fValues;
+
+    // The position in fValues of the oldest value, and the number of values in the buffer.
+    private int fHead;
+    private int fSize;
+
+    private long fSum;
+
+    // Positions in fValues of the candidates for the minimum and maximum, ordered from oldest to
+    // newest. The values at the positions are increasing in fMinQueue and decreasing in
+    // fMaxQueue, which means that the head of each queue is the position of the current minimum
+    // and maximum, respectively.
+    private final PositionQueue fMinQueue;
+    private final PositionQueue fMaxQueue;
+
+
+    /**
+     * Create a new {@code IntRingBuffer}.
+     *
+     * @param pCapacity The maximum number of values in the buffer.
+     *
+     * @throws IllegalArgumentException if {@code pCapacity} is less than 1.
+     */
+    public IntRingBuffer(@Nonnegative int pCapacity)
+    {
+        if (pCapacity < 1)
+            throw new IllegalArgumentException("Capacity must be positive: " + pCapacity);
+
+        fValues = new int[pCapacity];
+        fMinQueue = new PositionQueue(pCapacity);
+        fMaxQueue = new PositionQueue(pCapacity);
+    }
+
+
+    /**
+     * Get the maximum number of values this buffer can hold.
+     *
+     * @return  The capacity of this buffer.
+     */
+    @Nonnegative
+    public int getCapacity()
+    {
+        return fValues.length;
+    }
+
+
+    /**
+     * Check if this buffer is full, meaning that the next call to {@link #add(int)} will evict the
+     * oldest value.
+     *
+     * @return  True if this buffer is full, false if not.
+     */
+    public boolean isFull()
+    {
+        return fSize == fValues.length;
+    }
+
+
+    /**
+     * Add a value to this buffer, evicting the oldest value if the buffer is full.
+     *
+     * @param pValue    The value to add.
+     */
+    public void add(int pValue)
+    {
+        int aPosition;
+        if (fSize == fValues.length)
+        {
+            // Evict the oldest value, its position is reused for the new value.
+            aPosition = fHead;
+            fSum -= fValues[aPosition];
+            fMinQueue.evict(aPosition);
+            fMaxQueue.evict(aPosition);
+            fHead = next(fHead);
+        }
+        else
+        {
+            aPosition = position(fSize);
+            fSize++;
+        }
+
+        fValues[aPosition] = pValue;
+        fSum += pValue;
+
+        while (!fMinQueue.isEmpty() && fValues[fMinQueue.last()] >= pValue)
+            fMinQueue.removeLast();
+        fMinQueue.add(aPosition);
+
+        while (!fMaxQueue.isEmpty() && fValues[fMaxQueue.last()] <= pValue)
+            fMaxQueue.removeLast();
+        fMaxQueue.add(aPosition);
+    }
+
+
+    /**
+     * Remove all values from this buffer.
+     */
+    public void clear()
+    {
+        fHead = 0;
+        fSize = 0;
+        fSum = 0;
+        fMinQueue.clear();
+        fMaxQueue.clear();
+    }
+
+
+    @Override
+    @Nonnegative
+    public int size()
+    {
+        return fSize;
+    }
+
+
+    @Override
+    public int valueAt(int pIndex)
+    {
+        if (pIndex >= 0 && pIndex < fSize)
+            return fValues[position(pIndex)];
+        else
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+    }
+
+
+    @Override
+    public void forEach(@Nonnull IntConsumer pAction)
+    {
+        requireNonNull(pAction);
+        int[] aValues = fValues;
+        int aFirstEnd = Math.min(fHead + fSize, aValues.length);
+        for (int i=fHead; i<aFirstEnd; i++)
+            pAction.accept(aValues[i]);
+
+        int aSecondEnd = fSize - (aFirstEnd - fHead);
+        for (int i=0; i<aSecondEnd; i++)
+            pAction.accept(aValues[i]);
+    }
+
+
+    /**
+     * Pass the values in this buffer to an action in at most two chunks, which are the ranges of
+     * the internal array that hold the values before and after the wrap-around point.
+     *
+     * @param pAction   The action to pass the chunks to.
+     *
+     * @throws NullPointerException if {@code pAction} is null.
+     */
+    @Override
+    public void forEachChunk(@Nonnull IntArrayConsumer pAction)
+    {
+        requireNonNull(pAction);
+        int aFirstLength = Math.min(fSize, fValues.length - fHead);
+        if (aFirstLength > 0)
+            pAction.accept(fValues, fHead, aFirstLength);
+        if (fSize > aFirstLength)
+            pAction.accept(fValues, 0, fSize - aFirstLength);
+    }
+
+
+    @Nonnull
+    @Override
+    public PrimitiveIterator.OfInt iterator()
+    {
+        return PrimitiveIterators.sequenceIterator(this);
+    }
+
+
+    /**
+     * Get the sum of the values in this buffer. The sum is maintained incrementally and this
+     * method takes constant time.
+     *
+     * @return  The sum of the values, 0 if this buffer is empty.
+     */
+    @Override
+    public long sum()
+    {
+        return fSum;
+    }
+
+
+    /**
+     * Get the smallest value in this buffer. The minimum is maintained incrementally and this
+     * method takes constant time.
+     *
+     * @return  The smallest value.
+     *
+     * @throws NoSuchElementException if this buffer is empty.
+     */
+    @Override
+    public int min()
+    {
+        if (fSize == 0)
+            throw new NoSuchElementException();
+
+        return fValues[fMinQueue.first()];
+    }
+
+
+    /**
+     * Get the largest value in this buffer. The maximum is maintained incrementally and this
+     * method takes constant time.
+     *
+     * @return  The largest value.
+     *
+     * @throws NoSuchElementException if this buffer is empty.
+     */
+    @Override
+    public int max()
+    {
+        if (fSize == 0)
+            throw new NoSuchElementException();
+
+        return fValues[fMaxQueue.first()];
+    }
+
+
+    /**
+     * Get the position in the internal array of the value at an index in the sequence.
+     *
+     * @param pIndex    The index, between 0 and the capacity, exclusive.
+     *
+     * @return  The position of the value.
+     */
+    private int position(int pIndex)
+    {
+        int aPosition = fHead + pIndex;
+        return aPosition < fValues.length ? aPosition : aPosition - fValues.length;
+    }
+
+
+    /**
+     * Get the position following another position in the internal array, wrapping around at the
+     * end.
+     *
+     * @param pPosition The position.
+     *
+     * @return  The next position.
+     */
+    private int next(int pPosition)
+    {
+        return pPosition + 1 < fValues.length ? pPosition + 1 : 0;
+    }
+}
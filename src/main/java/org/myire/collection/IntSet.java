@@ -0,0 +1,334 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.myire.collection.OpenHashing.DEFAULT_EXPECTED_SIZE;
+import static org.myire.collection.OpenHashing.DEFAULT_LOAD_FACTOR;
+import static org.myire.collection.OpenHashing.MAX_CAPACITY;
+import static org.myire.collection.OpenHashing.hash;
+import static org.myire.collection.OpenHashing.requireValidLoadFactor;
+import static org.myire.collection.OpenHashing.tableCapacity;
+import static org.myire.collection.OpenHashing.threshold;
+
+
+/**
+ * A set of {@code int} values. The values are stored in an array without boxing, using open
+ * addressing with linear probing to resolve collisions. The capacity of the array is always a
+ * power of two, and the array is expanded when the number of values exceeds the capacity
+ * multiplied by the set's load factor.
+ *<p>
+ * The value 0 is used internally to mark free slots and is tracked separately, but can be added
+ * to the set as any other value.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ */
+@NotThreadSafe
+public class IntSet
+{
+    private final float fLoadFactor;
+
+    // The values. A value equal to 0 marks a free slot.
+    private int[] fValues;
+
+    // The number of values in fValues, and the number of values that will cause the array to
+    // expand.
+    private int fTableSize;
+    private int fThreshold;
+
+    // The value 0 cannot be stored in fValues.
+    private boolean fContainsZero;
+
+
+    /**
+     * Create a new {@code IntSet} with the default expected size and load factor.
+     */
+    public IntSet()
+    {
+        this(DEFAULT_EXPECTED_SIZE, DEFAULT_LOAD_FACTOR);
+    }
+
+
+    /**
+     * Create a new {@code IntSet} with the default load factor.
+     *
+     * @param pExpectedSize The number of values the set should be able to hold without expanding.
+     *
+     * @throws IllegalArgumentException if {@code pExpectedSize} is negative.
+     */
+    public IntSet(@Nonnegative int pExpectedSize)
+    {
+        this(pExpectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+
+    /**
+     * Create a new {@code IntSet}.
+     *
+     * @param pExpectedSize The number of values the set should be able to hold without expanding.
+     * @param pLoadFactor   The maximum ratio between the number of values and the capacity of the
+     *                      internal array. A lower load factor gives shorter probe sequences at
+     *                      the expense of more memory.
+     *
+     * @throws IllegalArgumentException if {@code pExpectedSize} is negative, or if
+     *                                  {@code pLoadFactor} isn't greater than 0 and less than 1.
+     */
+    public IntSet(@Nonnegative int pExpectedSize, float pLoadFactor)
+    {
+        fLoadFactor = requireValidLoadFactor(pLoadFactor);
+        allocateTable(tableCapacity(pExpectedSize, fLoadFactor));
+    }
+
+
+    /**
+     * Get the number of values in this set.
+     *
+     * @return  The number of values in this set.
+     */
+    @Nonnegative
+    public int size()
+    {
+        return fContainsZero ? fTableSize + 1 : fTableSize;
+    }
+
+
+    /**
+     * Check if this set is empty.
+     *
+     * @return  True if this set contains no values, false if it contains at least one value.
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+
+    /**
+     * Check if this set contains a value.
+     *
+     * @param pValue    The value to check.
+     *
+     * @return  True if this set contains the value, false if not.
+     */
+    public boolean contains(int pValue)
+    {
+        if (pValue == 0)
+            return fContainsZero;
+
+        int[] aValues = fValues;
+        int aMask = aValues.length - 1;
+        int aSlot = hash(pValue) & aMask;
+        int aValue;
+        while ((aValue = aValues[aSlot]) != 0)
+        {
+            if (aValue == pValue)
+                return true;
+
+            aSlot = (aSlot + 1) & aMask;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Add a value to this set.
+     *
+     * @param pValue    The value to add.
+     *
+     * @return  True if the value was added, false if this set already contained the value.
+     *
+     * @throws IllegalStateException    if the value is new and the set has reached its maximum
+     *                                  capacity.
+     */
+    public boolean add(int pValue)
+    {
+        if (pValue == 0)
+        {
+            boolean aIsNew = !fContainsZero;
+            fContainsZero = true;
+            return aIsNew;
+        }
+
+        int[] aValues = fValues;
+        int aMask = aValues.length - 1;
+        int aSlot = hash(pValue) & aMask;
+        int aValue;
+        while ((aValue = aValues[aSlot]) != 0)
+        {
+            if (aValue == pValue)
+                return false;
+
+            aSlot = (aSlot + 1) & aMask;
+        }
+
+        // The value is new, aSlot is the first free slot in its probe sequence.
+        if (fTableSize >= fThreshold)
+        {
+            expand();
+            aSlot = freeSlotOf(pValue);
+        }
+
+        fValues[aSlot] = pValue;
+        fTableSize++;
+        return true;
+    }
+
+
+    /**
+     * Remove a value from this set.
+     *
+     * @param pValue    The value to remove.
+     *
+     * @return  True if the value was removed, false if this set didn't contain the value.
+     */
+    public boolean remove(int pValue)
+    {
+        if (pValue == 0)
+        {
+            boolean aWasPresent = fContainsZero;
+            fContainsZero = false;
+            return aWasPresent;
+        }
+
+        int[] aValues = fValues;
+        int aMask = aValues.length - 1;
+        int aSlot = hash(pValue) & aMask;
+        int aValue;
+        while ((aValue = aValues[aSlot]) != 0)
+        {
+            if (aValue == pValue)
+            {
+                removeSlot(aSlot);
+                fTableSize--;
+                return true;
+            }
+
+            aSlot = (aSlot + 1) & aMask;
+        }
+
+        return false;
+    }
+
+
+    /**
+     * Remove all values from this set. The capacity of the internal array is retained.
+     */
+    public void clear()
+    {
+        Arrays.fill(fValues, 0);
+        fTableSize = 0;
+        fContainsZero = false;
+    }
+
+
+    /**
+     * Get the values in this set. The returned sequence is a snapshot; it is not affected by
+     * subsequent modifications of this set. The values are returned in an unspecified order.
+     *
+     * @return  A new {@code IntSequence} with the values in this set, never null.
+     */
+    @Nonnull
+    public IntSequence values()
+    {
+        int[] aValues = new int[size()];
+        int aIndex = 0;
+        if (fContainsZero)
+            aValues[aIndex++] = 0;
+
+        for (int aValue : fValues)
+            if (aValue != 0)
+                aValues[aIndex++] = aValue;
+
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Get the first free slot in the probe sequence of a non-zero value that isn't in the table.
+     *
+     * @param pValue    The value.
+     *
+     * @return  The index in {@code fValues} where the value should be stored.
+     */
+    private int freeSlotOf(int pValue)
+    {
+        int[] aValues = fValues;
+        int aMask = aValues.length - 1;
+        int aSlot = hash(pValue) & aMask;
+        while (aValues[aSlot] != 0)
+            aSlot = (aSlot + 1) & aMask;
+
+        return aSlot;
+    }
+
+
+    /**
+     * Remove the value in a slot and shift any subsequent values in the same probe sequence
+     * backwards to fill the gap. This keeps all probe sequences unbroken without using tombstones.
+     *
+     * @param pSlot The slot to remove the value from.
+     */
+    private void removeSlot(int pSlot)
+    {
+        int[] aValues = fValues;
+        int aMask = aValues.length - 1;
+        int aFree = pSlot;
+        int aSlot = (pSlot + 1) & aMask;
+        int aValue;
+        while ((aValue = aValues[aSlot]) != 0)
+        {
+            // The value can be moved to the free slot if that slot isn't before the value's home
+            // slot in the probe sequence.
+            int aHome = hash(aValue) & aMask;
+            if (((aSlot - aHome) & aMask) >= ((aSlot - aFree) & aMask))
+            {
+                aValues[aFree] = aValue;
+                aFree = aSlot;
+            }
+
+            aSlot = (aSlot + 1) & aMask;
+        }
+
+        aValues[aFree] = 0;
+    }
+
+
+    /**
+     * Double the capacity of the internal array and rehash the values into the new array.
+     *
+     * @throws IllegalStateException    if the array already has the maximum capacity.
+     */
+    private void expand()
+    {
+        int[] aValues = fValues;
+        if (aValues.length >= MAX_CAPACITY)
+            throw new IllegalStateException("Maximum capacity reached");
+
+        allocateTable(aValues.length << 1);
+        for (int aValue : aValues)
+            if (aValue != 0)
+                fValues[freeSlotOf(aValue)] = aValue;
+    }
+
+
+    /**
+     * Allocate a new internal array.
+     *
+     * @param pCapacity The capacity of the new array, must be a power of two.
+     */
+    private void allocateTable(@Nonnegative int pCapacity)
+    {
+        fValues = new int[pCapacity];
+        fThreshold = threshold(pCapacity, fLoadFactor);
+    }
+}
@@ -0,0 +1,402 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.myire.collection.OpenHashing.DEFAULT_EXPECTED_SIZE;
+import static org.myire.collection.OpenHashing.DEFAULT_LOAD_FACTOR;
+import static org.myire.collection.OpenHashing.MAX_CAPACITY;
+import static org.myire.collection.OpenHashing.hash;
+import static org.myire.collection.OpenHashing.requireValidLoadFactor;
+import static org.myire.collection.OpenHashing.tableCapacity;
+import static org.myire.collection.OpenHashing.threshold;
+
+
+/**
+ * A map from {@code long} keys to {@code long} values. The keys and values are stored in arrays
+ * without boxing, using open addressing with linear probing to resolve collisions. The capacity of
+ * the arrays is always a power of two, and the arrays are expanded when the number of keys
+ * exceeds the capacity multiplied by the map's load factor.
+ *<p>
+ * The key 0 is used internally to mark free slots and is stored separately, but can be used as
+ * any other key.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ */
+@NotThreadSafe
+public class LongLongMap
+{
+    private final float fLoadFactor;
+
+    // The keys and values. A key equal to 0 marks a free slot.
+    private long[] fKeys;
+    private long[] fValues;
+
+    // The number of keys in fKeys, and the number of keys that will cause the arrays to expand.
+    private int fTableSize;
+    private int fThreshold;
+
+    // The mapping for the key 0, which cannot be stored in fKeys.
+    private boolean fHasZeroKey;
+    private long fZeroKeyValue;
+
+
+    /**
+     * Create a new {@code LongLongMap} with the default expected size and load factor.
+     */
+    public LongLongMap()
+    {
+        this(DEFAULT_EXPECTED_SIZE, DEFAULT_LOAD_FACTOR);
+    }
+
+
+    /**
+     * Create a new {@code LongLongMap} with the default load factor.
+     *
+     * @param pExpectedSize The number of keys the map should be able to hold without expanding.
+     *
+     * @throws IllegalArgumentException if {@code pExpectedSize} is negative.
+     */
+    public LongLongMap(@Nonnegative int pExpectedSize)
+    {
+        this(pExpectedSize, DEFAULT_LOAD_FACTOR);
+    }
+
+
+    /**
+     * Create a new {@code LongLongMap}.
+     *
+     * @param pExpectedSize The number of keys the map should be able to hold without expanding.
+     * @param pLoadFactor   The maximum ratio between the number of keys and the capacity of the
+     *                      internal arrays. A lower load factor gives shorter probe sequences at
+     *                      the expense of more memory.
+     *
+     * @throws IllegalArgumentException if {@code pExpectedSize} is negative, or if
+     *                                  {@code pLoadFactor} isn't greater than 0 and less than 1.
+     */
+    public LongLongMap(@Nonnegative int pExpectedSize, float pLoadFactor)
+    {
+        fLoadFactor = requireValidLoadFactor(pLoadFactor);
+        allocateTable(tableCapacity(pExpectedSize, fLoadFactor));
+    }
+
+
+    /**
+     * Get the number of keys in this map.
+     *
+     * @return  The number of keys in this map.
+     */
+    @Nonnegative
+    public int size()
+    {
+        return fHasZeroKey ? fTableSize + 1 : fTableSize;
+    }
+
+
+    /**
+     * Check if this map is empty.
+     *
+     * @return  True if this map contains no keys, false if it contains at least one key.
+     */
+    public boolean isEmpty()
+    {
+        return size() == 0;
+    }
+
+
+    /**
+     * Check if this map contains a key.
+     *
+     * @param pKey  The key to check.
+     *
+     * @return  True if this map contains the key, false if not.
+     */
+    public boolean containsKey(long pKey)
+    {
+        if (pKey == 0)
+            return fHasZeroKey;
+        else
+            return slotOf(pKey) >= 0;
+    }
+
+
+    /**
+     * Get the value mapped to a key.
+     *
+     * @param pKey          The key to get the value for.
+     * @param pAbsentValue  The value to return if the map doesn't contain the key.
+     *
+     * @return  The value mapped to the key, or {@code pAbsentValue} if the map doesn't contain the
+     *          key.
+     */
+    public long get(long pKey, long pAbsentValue)
+    {
+        if (pKey == 0)
+            return fHasZeroKey ? fZeroKeyValue : pAbsentValue;
+
+        int aSlot = slotOf(pKey);
+        return aSlot >= 0 ? fValues[aSlot] : pAbsentValue;
+    }
+
+
+    /**
+     * Map a key to a value, replacing any value the key currently is mapped to.
+     *
+     * @param pKey      The key.
+     * @param pValue    The value to map the key to.
+     *
+     * @return  True if the key was added to the map, false if it already was present and its
+     *          value was replaced.
+     *
+     * @throws IllegalStateException    if the key is new and the map has reached its maximum
+     *                                  capacity.
+     */
+    public boolean put(long pKey, long pValue)
+    {
+        if (pKey == 0)
+        {
+            boolean aIsNew = !fHasZeroKey;
+            fHasZeroKey = true;
+            fZeroKeyValue = pValue;
+            return aIsNew;
+        }
+
+        long[] aKeys = fKeys;
+        int aMask = aKeys.length - 1;
+        int aSlot = hash(pKey) & aMask;
+        long aKey;
+        while ((aKey = aKeys[aSlot]) != 0)
+        {
+            if (aKey == pKey)
+            {
+                fValues[aSlot] = pValue;
+                return false;
+            }
+
+            aSlot = (aSlot + 1) & aMask;
+        }
+
+        // The key is new, aSlot is the first free slot in its probe sequence.
+        if (fTableSize >= fThreshold)
+        {
+            expand();
+            aSlot = freeSlotOf(pKey);
+        }
+
+        fKeys[aSlot] = pKey;
+        fValues[aSlot] = pValue;
+        fTableSize++;
+        return true;
+    }
+
+
+    /**
+     * Remove a key and its value from this map.
+     *
+     * @param pKey  The key to remove.
+     *
+     * @return  True if the key was removed, false if this map didn't contain the key.
+     */
+    public boolean remove(long pKey)
+    {
+        if (pKey == 0)
+        {
+            boolean aWasPresent = fHasZeroKey;
+            fHasZeroKey = false;
+            fZeroKeyValue = 0;
+            return aWasPresent;
+        }
+
+        int aSlot = slotOf(pKey);
+        if (aSlot < 0)
+            return false;
+
+        removeSlot(aSlot);
+        fTableSize--;
+        return true;
+    }
+
+
+    /**
+     * Remove all keys and values from this map. The capacity of the internal arrays is retained.
+     */
+    public void clear()
+    {
+        Arrays.fill(fKeys, 0);
+        Arrays.fill(fValues, 0);
+        fTableSize = 0;
+        fHasZeroKey = false;
+        fZeroKeyValue = 0;
+    }
+
+
+    /**
+     * Get the keys in this map. The returned sequence is a snapshot; it is not affected by
+     * subsequent modifications of this map. The keys are returned in an unspecified order, which
+     * is the same order as the values are returned by {@link #values()} as long as the map isn't
+     * modified between the calls.
+     *
+     * @return  A new {@code LongSequence} with the keys in this map, never null.
+     */
+    @Nonnull
+    public LongSequence keys()
+    {
+        long[] aKeys = new long[size()];
+        int aIndex = 0;
+        if (fHasZeroKey)
+            aKeys[aIndex++] = 0;
+
+        for (long aKey : fKeys)
+            if (aKey != 0)
+                aKeys[aIndex++] = aKey;
+
+        return PrimitiveSequences.wrap(aKeys);
+    }
+
+
+    /**
+     * Get the values in this map. The returned sequence is a snapshot; it is not affected by
+     * subsequent modifications of this map. The values are returned in the same order as the
+     * keys are returned by {@link #keys()} as long as the map isn't modified between the calls.
+     *
+     * @return  A new {@code LongSequence} with the values in this map, never null.
+     */
+    @Nonnull
+    public LongSequence values()
+    {
+        long[] aValues = new long[size()];
+        int aIndex = 0;
+        if (fHasZeroKey)
+            aValues[aIndex++] = fZeroKeyValue;
+
+        for (int i=0; i<fKeys.length; i++)
+            if (fKeys[i] != 0)
+                aValues[aIndex++] = fValues[i];
+
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Get the slot of a non-zero key.
+     *
+     * @param pKey  The key.
+     *
+     * @return  The index in {@code fKeys} of the key, or -1 if this map doesn't contain the key.
+     */
+    private int slotOf(long pKey)
+    {
+        long[] aKeys = fKeys;
+        int aMask = aKeys.length - 1;
+        int aSlot = hash(pKey) & aMask;
+        long aKey;
+        while ((aKey = aKeys[aSlot]) != 0)
+        {
+            if (aKey == pKey)
+                return aSlot;
+
+            aSlot = (aSlot + 1) & aMask;
+        }
+
+        return -1;
+    }
+
+
+    /**
+     * Get the first free slot in the probe sequence of a non-zero key that isn't in the table.
+     *
+     * @param pKey  The key.
+     *
+     * @return  The index in {@code fKeys} where the key should be stored.
+     */
+    private int freeSlotOf(long pKey)
+    {
+        long[] aKeys = fKeys;
+        int aMask = aKeys.length - 1;
+        int aSlot = hash(pKey) & aMask;
+        while (aKeys[aSlot] != 0)
+            aSlot = (aSlot + 1) & aMask;
+
+        return aSlot;
+    }
+
+
+    /**
+     * Remove the key and value in a slot and shift any subsequent keys in the same probe sequence
+     * backwards to fill the gap. This keeps all probe sequences unbroken without using tombstones.
+     *
+     * @param pSlot The slot to remove the key and value from.
+     */
+    private void removeSlot(int pSlot)
+    {
+        long[] aKeys = fKeys;
+        int aMask = aKeys.length - 1;
+        int aFree = pSlot;
+        int aSlot = (pSlot + 1) & aMask;
+        long aKey;
+        while ((aKey = aKeys[aSlot]) != 0)
+        {
+            // The key can be moved to the free slot if that slot isn't before the key's home slot
+            // in the probe sequence.
+            int aHome = hash(aKey) & aMask;
+            if (((aSlot - aHome) & aMask) >= ((aSlot - aFree) & aMask))
+            {
+                aKeys[aFree] = aKey;
+                fValues[aFree] = fValues[aSlot];
+                aFree = aSlot;
+            }
+
+            aSlot = (aSlot + 1) & aMask;
+        }
+
+        aKeys[aFree] = 0;
+        fValues[aFree] = 0;
+    }
+
+
+    /**
+     * Double the capacity of the internal arrays and rehash the keys into the new arrays.
+     *
+     * @throws IllegalStateException    if the arrays already have the maximum capacity.
+     */
+    private void expand()
+    {
+        long[] aKeys = fKeys;
+        long[] aValues = fValues;
+        if (aKeys.length >= MAX_CAPACITY)
+            throw new IllegalStateException("Maximum capacity reached");
+
+        allocateTable(aKeys.length << 1);
+        for (int i=0; i<aKeys.length; i++)
+        {
+            if (aKeys[i] != 0)
+            {
+                int aSlot = freeSlotOf(aKeys[i]);
+                fKeys[aSlot] = aKeys[i];
+                fValues[aSlot] = aValues[i];
+            }
+        }
+    }
+
+
+    /**
+     * Allocate new internal arrays.
+     *
+     * @param pCapacity The capacity of the new arrays, must be a power of two.
+     */
+    private void allocateTable(@Nonnegative int pCapacity)
+    {
+        fKeys = new long[pCapacity];
+        fValues = new long[pCapacity];
+        fThreshold = threshold(pCapacity, fLoadFactor);
+    }
+}
@@ -1,16 +1,24 @@
 /*
- * Copyright 2021-2022 Peter Franzen. All rights reserved.
+ * Copyright 2021-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
 package org.myire.collection;
 
+import java.util.NoSuchElementException;
 import java.util.PrimitiveIterator;
+import java.util.Spliterator;
 import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
+import java.util.stream.LongStream;
+import java.util.stream.StreamSupport;
+import static java.util.Objects.requireNonNull;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
+import org.myire.util.LongArrayConsumer;
+
 
 /**
  * A {@code LongSequence} provides positional (indexed), read-only access to a sequence of
@@ -57,4 +65,205 @@ public interface LongSequence extends PrimitiveSequence<Long, LongConsumer>
     @Override
     @Nonnull
     PrimitiveIterator.OfLong iterator();
+
+    /**
+     * Pass the values in this sequence to an action in chunks of contiguous values. The chunks are
+     * passed in ascending index order, and each chunk is a range of an array. Processing the
+     * values of a chunk in a loop over the array avoids the per-value call overhead of
+     * {@link #forEach(Object)}, which can be significant when the action can't be inlined.
+     *<p>
+     * Implementations backed by arrays pass ranges of the backing arrays to the action. The
+     * default implementation copies the values into a buffer that is reused for all chunks. In
+     * both cases the action must not modify the array, and must not retain a reference to it
+     * after returning.
+     *<p>
+     * If the action throws an exception the process is aborted and the exception is relayed to
+     * the caller. The action is not called for an empty sequence.
+     *
+     * @param pAction   The action to pass the chunks to.
+     *
+     * @throws NullPointerException if {@code pAction} is null.
+     */
+    default void forEachChunk(@Nonnull LongArrayConsumer pAction)
+    {
+        requireNonNull(pAction);
+        int aSize = size();
+        long[] aChunk = new long[Math.min(aSize, PrimitiveSequences.CHUNK_SIZE)];
+        for (int aOffset=0; aOffset<aSize; aOffset+=aChunk.length)
+        {
+            int aLength = Math.min(aChunk.length, aSize - aOffset);
+            for (int i=0; i<aLength; i++)
+                aChunk[i] = valueAt(aOffset + i);
+
+            pAction.accept(aChunk, 0, aLength);
+        }
+    }
+
+    /**
+     * Create a {@code Spliterator.OfLong} over the values in this sequence. The returned
+     * {@code Spliterator} reports the characteristics {@code ORDERED}, {@code SIZED}, and
+     * {@code SUBSIZED}, and splits on index ranges.
+     *
+     * @return  A new {@code Spliterator.OfLong}, never null.
+     */
+    @Override
+    @Nonnull
+    default Spliterator.OfLong spliterator()
+    {
+        return SequenceSpliterators.spliterator(this);
+    }
+
+    /**
+     * Get a view of the values in this sequence between {@code pFromIndex}, inclusive, and
+     * {@code pToIndex}, exclusive. The returned sequence is backed by this sequence; no values are
+     * copied. Taking a sub-sequence of a sub-sequence returns a view of the original sequence.
+     *
+     * @param pFromIndex    The index of the first value in the sub-sequence.
+     * @param pToIndex      The index after the last value in the sub-sequence.
+     *
+     * @return  A {@code LongSequence} with the values in the specified range, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than {@link #size()}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Override
+    @Nonnull
+    default LongSequence subSequence(@Nonnegative int pFromIndex, @Nonnegative int pToIndex)
+    {
+        return PrimitiveSequences.subSequence(this, pFromIndex, pToIndex);
+    }
+
+    /**
+     * Create a sequential {@code LongStream} with the values in this sequence as its source. Call
+     * {@code parallel()} on the returned stream to process the values in parallel.
+     *
+     * @return  A new {@code LongStream}, never null.
+     */
+    @Nonnull
+    default LongStream longStream()
+    {
+        return StreamSupport.longStream(spliterator(), false);
+    }
+
+    /**
+     * Get the sum of the values in this sequence. The sum will silently overflow if it doesn't
+     * fit in a {@code long}.
+     *
+     * @return  The sum of the values, 0 if this sequence is empty.
+     */
+    default long sum()
+    {
+        long aSum = 0;
+        int aSize = size();
+        for (int i=0; i<aSize; i++)
+            aSum += valueAt(i);
+
+        return aSum;
+    }
+
+    /**
+     * Get the smallest value in this sequence.
+     *
+     * @return  The smallest value.
+     *
+     * @throws NoSuchElementException if this sequence is empty.
+     */
+    default long min()
+    {
+        int aSize = size();
+        if (aSize == 0)
+            throw new NoSuchElementException();
+
+        long aMin = valueAt(0);
+        for (int i=1; i<aSize; i++)
+            aMin = Math.min(aMin, valueAt(i));
+
+        return aMin;
+    }
+
+    /**
+     * Get the largest value in this sequence.
+     *
+     * @return  The largest value.
+     *
+     * @throws NoSuchElementException if this sequence is empty.
+     */
+    default long max()
+    {
+        int aSize = size();
+        if (aSize == 0)
+            throw new NoSuchElementException();
+
+        long aMax = valueAt(0);
+        for (int i=1; i<aSize; i++)
+            aMax = Math.max(aMax, valueAt(i));
+
+        return aMax;
+    }
+
+    /**
+     * Count the values in this sequence that match a predicate.
+     *
+     * @param pPredicate    The predicate to test the values with.
+     *
+     * @return  The number of values for which the predicate returns true.
+     *
+     * @throws NullPointerException if {@code pPredicate} is null.
+     */
+    @Nonnegative
+    default int count(@Nonnull LongPredicate pPredicate)
+    {
+        requireNonNull(pPredicate);
+        int aCount = 0;
+        int aSize = size();
+        for (int i=0; i<aSize; i++)
+            if (pPredicate.test(valueAt(i)))
+                aCount++;
+
+        return aCount;
+    }
+
+    /**
+     * Get the index of the first occurrence of a value in this sequence.
+     *
+     * @param pValue    The value to search for.
+     *
+     * @return  The index of the first occurrence of the value, or -1 if this sequence doesn't
+     *          contain the value.
+     */
+    default int indexOf(long pValue)
+    {
+        int aSize = size();
+        for (int i=0; i<aSize; i++)
+            if (valueAt(i) == pValue)
+                return i;
+
+        return -1;
+    }
+
+    /**
+     * Get the dot product of this sequence and another sequence, i.e. the sum of the products of
+     * the values at the same index in the two sequences. The sum will silently overflow if it
+     * doesn't fit in a {@code long}.
+     *
+     * @param pOther    The other sequence.
+     *
+     * @return  The dot product, 0 if the sequences are empty.
+     *
+     * @throws NullPointerException if {@code pOther} is null.
+     * @throws IllegalArgumentException if the two sequences have different sizes.
+     */
+    default long dot(@Nonnull LongSequence pOther)
+    {
+        int aSize = size();
+        if (pOther.size() != aSize)
+            throw new IllegalArgumentException("Sizes differ: " + aSize + " != " + pOther.size());
+
+        long aSum = 0;
+        for (int i=0; i<aSize; i++)
+            aSum += valueAt(i) * pOther.valueAt(i);
+
+        return aSum;
+    }
 }
@@ -0,0 +1,425 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+
+
+/**
+ * Factory methods for primitive sequences backed by memory-mapped files, and methods for writing
+ * primitive sequences to such files.
+ *<p>
+ * A file holding a primitive sequence is a flat binary file where the values are stored
+ * consecutively without any header, in either little-endian or big-endian byte order. The number
+ * of values in the sequence is given by the size of the file.
+ *<p>
+ * Mapping a file doesn't read or copy its contents; the values are paged in by the operating
+ * system when they are accessed, and the pages are shared with other processes mapping the same
+ * file. Files larger than 1 GiB are split into several mappings. The mapped sequences are
+ * read-only, calling {@code setValue} on them throws a {@code ReadOnlyBufferException}. They
+ * should be closed when no longer needed to unmap the file without waiting for the sequence to be
+ * garbage collected.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public final class MappedSequences
+{
+    // The size of the buffer used when writing sequences to files.
+    static private final int WRITE_BUFFER_SIZE = 64 * 1024;
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private MappedSequences()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Map a file containing {@code int} values into memory and return the values as an
+     * {@code IntSequence}.
+     *
+     * @param pFile         The file to map.
+     * @param pByteOrder    The byte order of the values in the file.
+     *
+     * @return  A new read-only {@code ByteBufferIntSequence} with the values in the file, never
+     *          null.
+     *
+     * @throws IOException  if the file cannot be mapped, or if its size isn't a multiple of
+     *                      {@code Integer.BYTES}, or if it contains more than
+     *                      {@code Integer.MAX_VALUE} values.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public ByteBufferIntSequence mapIntSequence(
+        @Nonnull Path pFile,
+        @Nonnull ByteOrder pByteOrder) throws IOException
+    {
+        return mapIntSequence(pFile, pByteOrder, ByteBufferIntSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Write the values of an {@code IntSequence} to a file that can be mapped with
+     * {@link #mapIntSequence(Path, ByteOrder)}. An existing file will be overwritten.
+     *
+     * @param pFile         The file to write to.
+     * @param pValues       The values to write.
+     * @param pByteOrder    The byte order to write the values with.
+     *
+     * @throws IOException  if writing to the file fails.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void write(
+        @Nonnull Path pFile,
+        @Nonnull IntSequence pValues,
+        @Nonnull ByteOrder pByteOrder) throws IOException
+    {
+        requireNonNull(pValues);
+        ByteBuffer aBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(pByteOrder);
+        try (FileChannel aChannel = openForWriting(pFile))
+        {
+            int aSize = pValues.size();
+            for (int i=0; i<aSize; i++)
+            {
+                if (aBuffer.remaining() < Integer.BYTES)
+                    flush(aBuffer, aChannel);
+
+                aBuffer.putInt(pValues.valueAt(i));
+            }
+
+            flush(aBuffer, aChannel);
+        }
+    }
+
+
+    /**
+     * Map a file containing {@code long} values into memory and return the values as a
+     * {@code LongSequence}.
+     *
+     * @param pFile         The file to map.
+     * @param pByteOrder    The byte order of the values in the file.
+     *
+     * @return  A new read-only {@code ByteBufferLongSequence} with the values in the file, never
+     *          null.
+     *
+     * @throws IOException  if the file cannot be mapped, or if its size isn't a multiple of
+     *                      {@code Long.BYTES}, or if it contains more than
+     *                      {@code Integer.MAX_VALUE} values.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public ByteBufferLongSequence mapLongSequence(
+        @Nonnull Path pFile,
+        @Nonnull ByteOrder pByteOrder) throws IOException
+    {
+        return mapLongSequence(pFile, pByteOrder, ByteBufferLongSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Write the values of a {@code LongSequence} to a file that can be mapped with
+     * {@link #mapLongSequence(Path, ByteOrder)}. An existing file will be overwritten.
+     *
+     * @param pFile         The file to write to.
+     * @param pValues       The values to write.
+     * @param pByteOrder    The byte order to write the values with.
+     *
+     * @throws IOException  if writing to the file fails.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void write(
+        @Nonnull Path pFile,
+        @Nonnull LongSequence pValues,
+        @Nonnull ByteOrder pByteOrder) throws IOException
+    {
+        requireNonNull(pValues);
+        ByteBuffer aBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(pByteOrder);
+        try (FileChannel aChannel = openForWriting(pFile))
+        {
+            int aSize = pValues.size();
+            for (int i=0; i<aSize; i++)
+            {
+                if (aBuffer.remaining() < Long.BYTES)
+                    flush(aBuffer, aChannel);
+
+                aBuffer.putLong(pValues.valueAt(i));
+            }
+
+            flush(aBuffer, aChannel);
+        }
+    }
+
+
+    /**
+     * Map a file containing {@code double} values into memory and return the values as a
+     * {@code DoubleSequence}.
+     *
+     * @param pFile         The file to map.
+     * @param pByteOrder    The byte order of the values in the file.
+     *
+     * @return  A new read-only {@code ByteBufferDoubleSequence} with the values in the file, never
+     *          null.
+     *
+     * @throws IOException  if the file cannot be mapped, or if its size isn't a multiple of
+     *                      {@code Double.BYTES}, or if it contains more than
+     *                      {@code Integer.MAX_VALUE} values.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public ByteBufferDoubleSequence mapDoubleSequence(
+        @Nonnull Path pFile,
+        @Nonnull ByteOrder pByteOrder) throws IOException
+    {
+        return mapDoubleSequence(pFile, pByteOrder, ByteBufferDoubleSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Write the values of a {@code DoubleSequence} to a file that can be mapped with
+     * {@link #mapDoubleSequence(Path, ByteOrder)}. An existing file will be overwritten.
+     *
+     * @param pFile         The file to write to.
+     * @param pValues       The values to write.
+     * @param pByteOrder    The byte order to write the values with.
+     *
+     * @throws IOException  if writing to the file fails.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void write(
+        @Nonnull Path pFile,
+        @Nonnull DoubleSequence pValues,
+        @Nonnull ByteOrder pByteOrder) throws IOException
+    {
+        requireNonNull(pValues);
+        ByteBuffer aBuffer = ByteBuffer.allocate(WRITE_BUFFER_SIZE).order(pByteOrder);
+        try (FileChannel aChannel = openForWriting(pFile))
+        {
+            int aSize = pValues.size();
+            for (int i=0; i<aSize; i++)
+            {
+                if (aBuffer.remaining() < Double.BYTES)
+                    flush(aBuffer, aChannel);
+
+                aBuffer.putDouble(pValues.valueAt(i));
+            }
+
+            flush(aBuffer, aChannel);
+        }
+    }
+
+
+    /**
+     * Map a file containing {@code int} values into memory with a specific chunk size.
+     *
+     * @param pFile         The file to map.
+     * @param pByteOrder    The byte order of the values in the file.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each mapping.
+     *
+     * @return  A new read-only {@code ByteBufferIntSequence}, never null.
+     *
+     * @throws IOException  if the file cannot be mapped or has an invalid size.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static ByteBufferIntSequence mapIntSequence(
+        @Nonnull Path pFile,
+        @Nonnull ByteOrder pByteOrder,
+        int pChunkShift) throws IOException
+    {
+        try (FileChannel aChannel = FileChannel.open(pFile, StandardOpenOption.READ))
+        {
+            int aSize = numValues(aChannel.size(), Integer.BYTES);
+            ByteBuffer[] aChunks =
+                mapChunks(aChannel, aSize, Integer.BYTES, pByteOrder, pChunkShift);
+            return new ByteBufferIntSequence(aChunks, aSize, pChunkShift);
+        }
+    }
+
+
+    /**
+     * Map a file containing {@code long} values into memory with a specific chunk size.
+     *
+     * @param pFile         The file to map.
+     * @param pByteOrder    The byte order of the values in the file.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each mapping.
+     *
+     * @return  A new read-only {@code ByteBufferLongSequence}, never null.
+     *
+     * @throws IOException  if the file cannot be mapped or has an invalid size.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static ByteBufferLongSequence mapLongSequence(
+        @Nonnull Path pFile,
+        @Nonnull ByteOrder pByteOrder,
+        int pChunkShift) throws IOException
+    {
+        try (FileChannel aChannel = FileChannel.open(pFile, StandardOpenOption.READ))
+        {
+            int aSize = numValues(aChannel.size(), Long.BYTES);
+            ByteBuffer[] aChunks =
+                mapChunks(aChannel, aSize, Long.BYTES, pByteOrder, pChunkShift);
+            return new ByteBufferLongSequence(aChunks, aSize, pChunkShift);
+        }
+    }
+
+
+    /**
+     * Map a file containing {@code double} values into memory with a specific chunk size.
+     *
+     * @param pFile         The file to map.
+     * @param pByteOrder    The byte order of the values in the file.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each mapping.
+     *
+     * @return  A new read-only {@code ByteBufferDoubleSequence}, never null.
+     *
+     * @throws IOException  if the file cannot be mapped or has an invalid size.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static ByteBufferDoubleSequence mapDoubleSequence(
+        @Nonnull Path pFile,
+        @Nonnull ByteOrder pByteOrder,
+        int pChunkShift) throws IOException
+    {
+        try (FileChannel aChannel = FileChannel.open(pFile, StandardOpenOption.READ))
+        {
+            int aSize = numValues(aChannel.size(), Double.BYTES);
+            ByteBuffer[] aChunks =
+                mapChunks(aChannel, aSize, Double.BYTES, pByteOrder, pChunkShift);
+            return new ByteBufferDoubleSequence(aChunks, aSize, pChunkShift);
+        }
+    }
+
+
+    /**
+     * Get the number of values in a file.
+     *
+     * @param pFileSize     The size of the file in bytes.
+     * @param pValueSize    The number of bytes in each value.
+     *
+     * @return  The number of values in the file.
+     *
+     * @throws IOException  if the file size isn't a multiple of the value size, or if the file
+     *                      contains more than {@code Integer.MAX_VALUE} values.
+     */
+    static private int numValues(long pFileSize, int pValueSize) throws IOException
+    {
+        if (pFileSize % pValueSize != 0)
+            throw new IOException(
+                "File size " + pFileSize + " is not a multiple of the value size " + pValueSize);
+
+        long aNumValues = pFileSize / pValueSize;
+        if (aNumValues > Integer.MAX_VALUE)
+            throw new IOException("File contains too many values: " + aNumValues);
+
+        return (int) aNumValues;
+    }
+
+
+    /**
+     * Map the contents of a file into memory as a number of read-only chunks.
+     *
+     * @param pChannel      The channel to map the file through.
+     * @param pSize         The number of values in the file.
+     * @param pValueSize    The number of bytes in each value.
+     * @param pByteOrder    The byte order of the values in the file.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  An array with the mapped buffers, never null.
+     *
+     * @throws IOException  if mapping the file fails.
+     */
+    @Nonnull
+    static private ByteBuffer[] mapChunks(
+        @Nonnull FileChannel pChannel,
+        int pSize,
+        int pValueSize,
+        @Nonnull ByteOrder pByteOrder,
+        int pChunkShift) throws IOException
+    {
+        requireNonNull(pByteOrder);
+        int aChunkLength = 1 << pChunkShift;
+        int aNumChunks = (int) (((long) pSize + aChunkLength - 1) >>> pChunkShift);
+        ByteBuffer[] aChunks = new ByteBuffer[aNumChunks];
+        try
+        {
+            for (int i=0; i<aNumChunks; i++)
+            {
+                long aPosition = ((long) i << pChunkShift) * pValueSize;
+                int aNumValues = Math.min(aChunkLength, pSize - (i << pChunkShift));
+                long aNumBytes = (long) aNumValues * pValueSize;
+                aChunks[i] = pChannel.map(FileChannel.MapMode.READ_ONLY, aPosition, aNumBytes);
+                aChunks[i].order(pByteOrder);
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            // Unmap the chunks mapped before the failure.
+            for (ByteBuffer aChunk : aChunks)
+                if (aChunk != null)
+                    DirectBuffers.release(aChunk);
+
+            throw e;
+        }
+
+        return aChunks;
+    }
+
+
+    /**
+     * Open a file for writing, creating it if it doesn't exist and truncating it if it does.
+     *
+     * @param pFile The file to open.
+     *
+     * @return  A new {@code FileChannel}, never null.
+     *
+     * @throws IOException  if the file cannot be opened.
+     */
+    @Nonnull
+    static private FileChannel openForWriting(@Nonnull Path pFile) throws IOException
+    {
+        return FileChannel.open(
+            pFile,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+
+    /**
+     * Write the contents of a buffer to a channel and clear the buffer.
+     *
+     * @param pBuffer   The buffer to write the contents of, ready for putting more values.
+     * @param pChannel  The channel to write to.
+     *
+     * @throws IOException  if writing to the channel fails.
+     */
+    static private void flush(
+        @Nonnull ByteBuffer pBuffer,
+        @Nonnull FileChannel pChannel) throws IOException
+    {
+        pBuffer.flip();
+        while (pBuffer.hasRemaining())
+            pChannel.write(pBuffer);
+
+        pBuffer.clear();
+    }
+}
@@ -0,0 +1,272 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.nio.ByteBuffer;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+
+
+/**
+ * Factory methods for primitive sequences that store their values outside of the Java heap, in
+ * direct {@code ByteBuffer} instances. Large off-heap sequences don't add to the heap size and
+ * are never scanned or copied by the garbage collector.
+ *<p>
+ * The native memory held by the returned sequences must be released by calling
+ * {@link ByteBufferSequence#close()} when the sequence no longer is needed. Sequences that aren't
+ * closed will have their memory released when they are garbage collected, which may be much later
+ * than desired since the sequence objects themselves are small.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public final class OffHeapSequences
+{
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private OffHeapSequences()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Allocate an off-heap {@code IntSequence} with all values set to 0.
+     *
+     * @param pSize The number of values in the sequence.
+     *
+     * @return  A new {@code ByteBufferIntSequence}, never null.
+     *
+     * @throws IllegalArgumentException if {@code pSize} is negative.
+     * @throws OutOfMemoryError if the native memory cannot be allocated.
+     */
+    @Nonnull
+    static public ByteBufferIntSequence allocateIntSequence(@Nonnegative int pSize)
+    {
+        return allocateIntSequence(pSize, ByteBufferIntSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Create an off-heap copy of an {@code IntSequence}.
+     *
+     * @param pValues   The sequence with the values to copy.
+     *
+     * @return  A new {@code ByteBufferIntSequence} with the same values as {@code pValues},
+     *          never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws OutOfMemoryError if the native memory cannot be allocated.
+     */
+    @Nonnull
+    static public ByteBufferIntSequence copyOf(@Nonnull IntSequence pValues)
+    {
+        return copyOf(pValues, ByteBufferIntSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Allocate a off-heap {@code LongSequence} with all values set to 0.
+     *
+     * @param pSize The number of values in the sequence.
+     *
+     * @return  A new {@code ByteBufferLongSequence}, never null.
+     *
+     * @throws IllegalArgumentException if {@code pSize} is negative.
+     * @throws OutOfMemoryError if the native memory cannot be allocated.
+     */
+    @Nonnull
+    static public ByteBufferLongSequence allocateLongSequence(@Nonnegative int pSize)
+    {
+        return allocateLongSequence(pSize, ByteBufferLongSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Create an off-heap copy of a {@code LongSequence}.
+     *
+     * @param pValues   The sequence with the values to copy.
+     *
+     * @return  A new {@code ByteBufferLongSequence} with the same values as {@code pValues},
+     *          never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws OutOfMemoryError if the native memory cannot be allocated.
+     */
+    @Nonnull
+    static public ByteBufferLongSequence copyOf(@Nonnull LongSequence pValues)
+    {
+        return copyOf(pValues, ByteBufferLongSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Allocate a off-heap {@code DoubleSequence} with all values set to 0.
+     *
+     * @param pSize The number of values in the sequence.
+     *
+     * @return  A new {@code ByteBufferDoubleSequence}, never null.
+     *
+     * @throws IllegalArgumentException if {@code pSize} is negative.
+     * @throws OutOfMemoryError if the native memory cannot be allocated.
+     */
+    @Nonnull
+    static public ByteBufferDoubleSequence allocateDoubleSequence(@Nonnegative int pSize)
+    {
+        return allocateDoubleSequence(pSize, ByteBufferDoubleSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Create an off-heap copy of a {@code DoubleSequence}.
+     *
+     * @param pValues   The sequence with the values to copy.
+     *
+     * @return  A new {@code ByteBufferDoubleSequence} with the same values as {@code pValues},
+     *          never null.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws OutOfMemoryError if the native memory cannot be allocated.
+     */
+    @Nonnull
+    static public ByteBufferDoubleSequence copyOf(@Nonnull DoubleSequence pValues)
+    {
+        return copyOf(pValues, ByteBufferDoubleSequence.DEFAULT_CHUNK_SHIFT);
+    }
+
+
+    /**
+     * Allocate an off-heap {@code IntSequence} with a specific chunk size.
+     *
+     * @param pSize         The number of values in the sequence.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  A new {@code ByteBufferIntSequence}, never null.
+     */
+    @Nonnull
+    static ByteBufferIntSequence allocateIntSequence(@Nonnegative int pSize, int pChunkShift)
+    {
+        ByteBuffer[] aChunks = ByteBufferSequence.allocateChunks(pSize, Integer.BYTES, pChunkShift);
+        return new ByteBufferIntSequence(aChunks, pSize, pChunkShift);
+    }
+
+
+    /**
+     * Create an off-heap copy of an {@code IntSequence} with a specific chunk size. The values
+     * are copied in chunks with {@code forEachChunk}, and each chunk is written to the off-heap
+     * memory with bulk puts.
+     *
+     * @param pValues       The sequence with the values to copy.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  A new {@code ByteBufferIntSequence}, never null.
+     */
+    @Nonnull
+    static ByteBufferIntSequence copyOf(@Nonnull IntSequence pValues, int pChunkShift)
+    {
+        int aSize = pValues.size();
+        ByteBufferIntSequence aCopy = allocateIntSequence(aSize, pChunkShift);
+        int[] aPosition = new int[1];
+        pValues.forEachChunk(
+            (pChunk, pOffset, pLength) ->
+            {
+                aCopy.setValues(aPosition[0], pChunk, pOffset, pLength);
+                aPosition[0] += pLength;
+            });
+
+        return aCopy;
+    }
+
+
+    /**
+     * Allocate a off-heap {@code LongSequence} with a specific chunk size.
+     *
+     * @param pSize         The number of values in the sequence.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  A new {@code ByteBufferLongSequence}, never null.
+     */
+    @Nonnull
+    static ByteBufferLongSequence allocateLongSequence(@Nonnegative int pSize, int pChunkShift)
+    {
+        ByteBuffer[] aChunks = ByteBufferSequence.allocateChunks(pSize, Long.BYTES, pChunkShift);
+        return new ByteBufferLongSequence(aChunks, pSize, pChunkShift);
+    }
+
+
+    /**
+     * Create an off-heap copy of a {@code LongSequence} with a specific chunk size. The values
+     * are copied in chunks with {@code forEachChunk}, and each chunk is written to the off-heap
+     * memory with bulk puts.
+     *
+     * @param pValues       The sequence with the values to copy.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  A new {@code ByteBufferLongSequence}, never null.
+     */
+    @Nonnull
+    static ByteBufferLongSequence copyOf(@Nonnull LongSequence pValues, int pChunkShift)
+    {
+        int aSize = pValues.size();
+        ByteBufferLongSequence aCopy = allocateLongSequence(aSize, pChunkShift);
+        int[] aPosition = new int[1];
+        pValues.forEachChunk(
+            (pChunk, pOffset, pLength) ->
+            {
+                aCopy.setValues(aPosition[0], pChunk, pOffset, pLength);
+                aPosition[0] += pLength;
+            });
+
+        return aCopy;
+    }
+
+
+    /**
+     * Allocate a off-heap {@code DoubleSequence} with a specific chunk size.
+     *
+     * @param pSize         The number of values in the sequence.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  A new {@code ByteBufferDoubleSequence}, never null.
+     */
+    @Nonnull
+    static ByteBufferDoubleSequence allocateDoubleSequence(@Nonnegative int pSize, int pChunkShift)
+    {
+        ByteBuffer[] aChunks = ByteBufferSequence.allocateChunks(pSize, Double.BYTES, pChunkShift);
+        return new ByteBufferDoubleSequence(aChunks, pSize, pChunkShift);
+    }
+
+
+    /**
+     * Create an off-heap copy of a {@code DoubleSequence} with a specific chunk size. The values
+     * are copied in chunks with {@code forEachChunk}, and each chunk is written to the off-heap
+     * memory with bulk puts.
+     *
+     * @param pValues       The sequence with the values to copy.
+     * @param pChunkShift   The base 2 logarithm of the number of values in each chunk.
+     *
+     * @return  A new {@code ByteBufferDoubleSequence}, never null.
+     */
+    @Nonnull
+    static ByteBufferDoubleSequence copyOf(@Nonnull DoubleSequence pValues, int pChunkShift)
+    {
+        int aSize = pValues.size();
+        ByteBufferDoubleSequence aCopy = allocateDoubleSequence(aSize, pChunkShift);
+        int[] aPosition = new int[1];
+        pValues.forEachChunk(
+            (pChunk, pOffset, pLength) ->
+            {
+                aCopy.setValues(aPosition[0], pChunk, pOffset, pLength);
+                aPosition[0] += pLength;
+            });
+
+        return aCopy;
+    }
+}
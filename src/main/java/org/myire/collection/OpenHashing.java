@@ -0,0 +1,131 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+
+import org.myire.annotation.Unreachable;
+import static org.myire.util.Numbers.requireNonNegative;
+import static org.myire.util.Numbers.roundUpToPowerOf2;
+
+
+/**
+ * Utility methods for the primitive hash tables that use open addressing with linear probing,
+ * such as {@link IntIntMap} and {@link LongSet}.
+ *<p>
+ * The tables have a capacity that is a power of two, which allows the slot of a key to be
+ * calculated by masking the key's hash code. Since the low bits of many key distributions are
+ * poorly spread, e.g. keys that are multiples of a power of two, the hash codes are calculated by
+ * multiplying the key with the golden ratio constant and folding the high bits into the low.
+ */
+final class OpenHashing
+{
+    /** The load factor used when none is specified. */
+    static final float DEFAULT_LOAD_FACTOR = 0.75f;
+
+    /** The expected size used when none is specified. */
+    static final int DEFAULT_EXPECTED_SIZE = 16;
+
+    /** The largest table capacity. */
+    static final int MAX_CAPACITY = 1 << 30;
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private OpenHashing()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Check that a load factor is valid for an open addressing hash table.
+     *
+     * @param pLoadFactor   The load factor to check.
+     *
+     * @return  {@code pLoadFactor}.
+     *
+     * @throws IllegalArgumentException if {@code pLoadFactor} is not greater than 0 and less than
+     *                                  1.
+     */
+    static float requireValidLoadFactor(float pLoadFactor)
+    {
+        // Written to also catch NaN.
+        if (pLoadFactor > 0 && pLoadFactor < 1)
+            return pLoadFactor;
+        else
+            throw new IllegalArgumentException("Invalid load factor: " + pLoadFactor);
+    }
+
+
+    /**
+     * Get the table capacity needed to hold a number of keys without exceeding a load factor.
+     *
+     * @param pExpectedSize The number of keys the table should be able to hold.
+     * @param pLoadFactor   The table's load factor.
+     *
+     * @return  The table capacity, a power of two.
+     *
+     * @throws IllegalArgumentException if {@code pExpectedSize} is negative.
+     */
+    @Nonnegative
+    static int tableCapacity(@Nonnegative int pExpectedSize, float pLoadFactor)
+    {
+        requireNonNegative(pExpectedSize);
+        double aCapacity = Math.ceil(pExpectedSize / (double) pLoadFactor);
+        if (aCapacity >= MAX_CAPACITY)
+            return MAX_CAPACITY;
+        else
+            return Math.max(2, roundUpToPowerOf2((int) aCapacity));
+    }
+
+
+    /**
+     * Get the number of keys a table can hold before it should be expanded.
+     *
+     * @param pCapacity     The table's capacity.
+     * @param pLoadFactor   The table's load factor.
+     *
+     * @return  The table's threshold. This is always less than the capacity, guaranteeing that
+     *          the table always has at least one free slot, which terminates probe sequences.
+     */
+    @Nonnegative
+    static int threshold(@Nonnegative int pCapacity, float pLoadFactor)
+    {
+        return Math.min((int) (pCapacity * (double) pLoadFactor), pCapacity - 1);
+    }
+
+
+    /**
+     * Get the hash code of an {@code int} key.
+     *
+     * @param pKey  The key.
+     *
+     * @return  The key's hash code.
+     */
+    static int hash(int pKey)
+    {
+        int aHash = pKey * 0x9E3779B9;
+        return aHash ^ (aHash >>> 16);
+    }
+
+
+    /**
+     * Get the hash code of a {@code long} key.
+     *
+     * @param pKey  The key.
+     *
+     * @return  The key's hash code.
+     */
+    static int hash(long pKey)
+    {
+        long aHash = pKey * 0x9E3779B97F4A7C15L;
+        aHash ^= aHash >>> 32;
+        return (int) (aHash ^ (aHash >>> 16));
+    }
+}
@@ -0,0 +1,503 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+import static org.myire.util.Numbers.requireNonNegative;
+import static org.myire.util.Numbers.requireRangeWithinBounds;
+
+
+/**
+ * Selection of the largest values and of the value with a specific rank in primitive sequences,
+ * without sorting the values.
+ *<p>
+ * The top-K methods keep the K largest values seen so far in a binary min-heap of size K, which
+ * makes their time complexity <i>n</i>&nbsp;log(<i>K</i>) and their memory usage proportional to
+ * K. The variants that take a result array allocate no memory at all.
+ *<p>
+ * The {@code nthValue} methods use quickselect, which has an expected time complexity linear in
+ * the number of values. Quickselect rearranges the values it selects from; the array variants
+ * rearrange the array range passed to them, and the sequence variants copy the values into a
+ * temporary array.
+ *<p>
+ * {@code double} values are ordered as by {@link Double#compare(double, double)}, i.e.
+ * {@code -0.0} is less than {@code 0.0}, and {@code NaN} is greater than all other values.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public final class OrderStatistics
+{
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private OrderStatistics()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Get the largest values in a {@code LongSequence}.
+     *
+     * @param pSequence The sequence to get the largest values from.
+     * @param pK        The number of values to get.
+     *
+     * @return  A new {@code LongSequence} with the {@code pK} largest values in descending order,
+     *          or all values in descending order if the sequence has fewer than {@code pK}
+     *          values. Never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IllegalArgumentException if {@code pK} is negative.
+     */
+    @Nonnull
+    static public LongSequence topK(@Nonnull LongSequence pSequence, @Nonnegative int pK)
+    {
+        long[] aResult = new long[Math.min(requireNonNegative(pK), pSequence.size())];
+        topK(pSequence, aResult);
+        return PrimitiveSequences.wrap(aResult);
+    }
+
+
+    /**
+     * Get the largest values in a {@code LongSequence} into an array. The number of values to get
+     * is the length of the array.
+     *
+     * @param pSequence The sequence to get the largest values from.
+     * @param pResult   The array to store the largest values in, in descending order. This array
+     *                  is also used as the heap during the selection.
+     *
+     * @return  The number of values stored in {@code pResult}, which is the smaller of the length
+     *          of {@code pResult} and the size of {@code pSequence}.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public int topK(@Nonnull LongSequence pSequence, @Nonnull long[] pResult)
+    {
+        int aK = pResult.length;
+        int aSize = pSequence.size();
+        int aHeapSize = 0;
+        for (int i=0; i<aSize; i++)
+        {
+            long aValue = pSequence.valueAt(i);
+            if (aHeapSize < aK)
+            {
+                // Sift the new value up from the end of the heap.
+                int aPosition = aHeapSize++;
+                while (aPosition > 0)
+                {
+                    int aParent = (aPosition - 1) >>> 1;
+                    if (pResult[aParent] <= aValue)
+                        break;
+
+                    pResult[aPosition] = pResult[aParent];
+                    aPosition = aParent;
+                }
+
+                pResult[aPosition] = aValue;
+            }
+            else if (aK > 0 && aValue > pResult[0])
+                siftDown(pResult, aValue, aK);
+        }
+
+        // Sort the heap in descending order by repeatedly moving the smallest value to the end.
+        for (int aEnd=aHeapSize-1; aEnd>0; aEnd--)
+        {
+            long aSmallest = pResult[0];
+            siftDown(pResult, pResult[aEnd], aEnd);
+            pResult[aEnd] = aSmallest;
+        }
+
+        return aHeapSize;
+    }
+
+
+    /**
+     * Get the largest values in a {@code DoubleSequence}.
+     *
+     * @param pSequence The sequence to get the largest values from.
+     * @param pK        The number of values to get.
+     *
+     * @return  A new {@code DoubleSequence} with the {@code pK} largest values in descending
+     *          order, or all values in descending order if the sequence has fewer than {@code pK}
+     *          values. Never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IllegalArgumentException if {@code pK} is negative.
+     */
+    @Nonnull
+    static public DoubleSequence topK(@Nonnull DoubleSequence pSequence, @Nonnegative int pK)
+    {
+        double[] aResult = new double[Math.min(requireNonNegative(pK), pSequence.size())];
+        topK(pSequence, aResult);
+        return PrimitiveSequences.wrap(aResult);
+    }
+
+
+    /**
+     * Get the largest values in a {@code DoubleSequence} into an array. The number of values to
+     * get is the length of the array.
+     *
+     * @param pSequence The sequence to get the largest values from.
+     * @param pResult   The array to store the largest values in, in descending order. This array
+     *                  is also used as the heap during the selection.
+     *
+     * @return  The number of values stored in {@code pResult}, which is the smaller of the length
+     *          of {@code pResult} and the size of {@code pSequence}.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public int topK(@Nonnull DoubleSequence pSequence, @Nonnull double[] pResult)
+    {
+        int aK = pResult.length;
+        int aSize = pSequence.size();
+        int aHeapSize = 0;
+        for (int i=0; i<aSize; i++)
+        {
+            double aValue = pSequence.valueAt(i);
+            if (aHeapSize < aK)
+            {
+                int aPosition = aHeapSize++;
+                while (aPosition > 0)
+                {
+                    int aParent = (aPosition - 1) >>> 1;
+                    if (Double.compare(pResult[aParent], aValue) <= 0)
+                        break;
+
+                    pResult[aPosition] = pResult[aParent];
+                    aPosition = aParent;
+                }
+
+                pResult[aPosition] = aValue;
+            }
+            else if (aK > 0 && Double.compare(aValue, pResult[0]) > 0)
+                siftDown(pResult, aValue, aK);
+        }
+
+        for (int aEnd=aHeapSize-1; aEnd>0; aEnd--)
+        {
+            double aSmallest = pResult[0];
+            siftDown(pResult, pResult[aEnd], aEnd);
+            pResult[aEnd] = aSmallest;
+        }
+
+        return aHeapSize;
+    }
+
+
+    /**
+     * Get the value with a specific rank in a {@code LongSequence}, i.e. the value that would be
+     * at a specific index if the sequence was sorted in ascending order. The values are copied
+     * into a temporary array.
+     *
+     * @param pSequence The sequence to select the value from.
+     * @param pN        The rank of the value, where 0 is the rank of the smallest value.
+     *
+     * @return  The value with the specified rank.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pN} is negative or greater than or equal to the
+     *                                   size of {@code pSequence}.
+     */
+    static public long nthValue(@Nonnull LongSequence pSequence, @Nonnegative int pN)
+    {
+        int aSize = pSequence.size();
+        if (pN < 0 || pN >= aSize)
+            throw new IndexOutOfBoundsException(String.valueOf(pN));
+
+        long[] aValues = PrimitiveSequences.toArray(pSequence);
+        return select(aValues, 0, aSize - 1, pN);
+    }
+
+
+    /**
+     * Get the value with a specific rank in a range of a {@code long} array, i.e. the value that
+     * would be at a specific index in the range if the range was sorted in ascending order. The
+     * values in the range are rearranged so that the selected value is at index
+     * {@code pOffset + pN}, the values before it are less than or equal to it, and the values
+     * after it are greater than or equal to it.
+     *
+     * @param pValues   The array to select the value from.
+     * @param pOffset   The index of the first value in the range.
+     * @param pLength   The number of values in the range.
+     * @param pN        The rank of the value within the range, where 0 is the rank of the
+     *                  smallest value.
+     *
+     * @return  The value with the specified rank.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if the range is not within the bounds of the array, or if
+     *                                   {@code pN} is negative or greater than or equal to
+     *                                   {@code pLength}.
+     */
+    static public long nthValue(
+        @Nonnull long[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength,
+        @Nonnegative int pN)
+    {
+        requireRangeWithinBounds(pOffset, pLength, pValues.length);
+        if (pN < 0 || pN >= pLength)
+            throw new IndexOutOfBoundsException(String.valueOf(pN));
+
+        return select(pValues, pOffset, pOffset + pLength - 1, pOffset + pN);
+    }
+
+
+    /**
+     * Get the value with a specific rank in a {@code DoubleSequence}, i.e. the value that would
+     * be at a specific index if the sequence was sorted in ascending order. The values are copied
+     * into a temporary array.
+     *
+     * @param pSequence The sequence to select the value from.
+     * @param pN        The rank of the value, where 0 is the rank of the smallest value.
+     *
+     * @return  The value with the specified rank.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pN} is negative or greater than or equal to the
+     *                                   size of {@code pSequence}.
+     */
+    static public double nthValue(@Nonnull DoubleSequence pSequence, @Nonnegative int pN)
+    {
+        int aSize = pSequence.size();
+        if (pN < 0 || pN >= aSize)
+            throw new IndexOutOfBoundsException(String.valueOf(pN));
+
+        double[] aValues = PrimitiveSequences.toArray(pSequence);
+        return select(aValues, 0, aSize - 1, pN);
+    }
+
+
+    /**
+     * Get the value with a specific rank in a range of a {@code double} array, i.e. the value
+     * that would be at a specific index in the range if the range was sorted in ascending order.
+     * The values in the range are rearranged so that the selected value is at index
+     * {@code pOffset + pN}, the values before it are less than or equal to it, and the values
+     * after it are greater than or equal to it.
+     *
+     * @param pValues   The array to select the value from.
+     * @param pOffset   The index of the first value in the range.
+     * @param pLength   The number of values in the range.
+     * @param pN        The rank of the value within the range, where 0 is the rank of the
+     *                  smallest value.
+     *
+     * @return  The value with the specified rank.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if the range is not within the bounds of the array, or if
+     *                                   {@code pN} is negative or greater than or equal to
+     *                                   {@code pLength}.
+     */
+    static public double nthValue(
+        @Nonnull double[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength,
+        @Nonnegative int pN)
+    {
+        requireRangeWithinBounds(pOffset, pLength, pValues.length);
+        if (pN < 0 || pN >= pLength)
+            throw new IndexOutOfBoundsException(String.valueOf(pN));
+
+        return select(pValues, pOffset, pOffset + pLength - 1, pOffset + pN);
+    }
+
+
+    /**
+     * Sift a value down from the root of a min-heap, replacing the root.
+     *
+     * @param pHeap     The heap.
+     * @param pValue    The value to put in the heap.
+     * @param pHeapSize The number of values in the heap.
+     */
+    static private void siftDown(@Nonnull long[] pHeap, long pValue, int pHeapSize)
+    {
+        int aPosition = 0;
+        int aChild;
+        while ((aChild = 2 * aPosition + 1) < pHeapSize)
+        {
+            if (aChild + 1 < pHeapSize && pHeap[aChild + 1] < pHeap[aChild])
+                aChild++;
+            if (pValue <= pHeap[aChild])
+                break;
+
+            pHeap[aPosition] = pHeap[aChild];
+            aPosition = aChild;
+        }
+
+        pHeap[aPosition] = pValue;
+    }
+
+
+    /**
+     * Sift a value down from the root of a min-heap, replacing the root.
+     *
+     * @param pHeap     The heap.
+     * @param pValue    The value to put in the heap.
+     * @param pHeapSize The number of values in the heap.
+     */
+    static private void siftDown(@Nonnull double[] pHeap, double pValue, int pHeapSize)
+    {
+        int aPosition = 0;
+        int aChild;
+        while ((aChild = 2 * aPosition + 1) < pHeapSize)
+        {
+            if (aChild + 1 < pHeapSize && Double.compare(pHeap[aChild + 1], pHeap[aChild]) < 0)
+                aChild++;
+            if (Double.compare(pValue, pHeap[aChild]) <= 0)
+                break;
+
+            pHeap[aPosition] = pHeap[aChild];
+            aPosition = aChild;
+        }
+
+        pHeap[aPosition] = pValue;
+    }
+
+
+    /**
+     * Select the value with a specific rank in a range of an array with quickselect, using the
+     * median of the first, middle, and last values in the range as pivot.
+     *
+     * @param pValues   The array.
+     * @param pLow      The index of the first value in the range.
+     * @param pHigh     The index of the last value in the range.
+     * @param pIndex    The index the selected value would have if the range was sorted.
+     *
+     * @return  The selected value.
+     */
+    static private long select(@Nonnull long[] pValues, int pLow, int pHigh, int pIndex)
+    {
+        int aLow = pLow, aHigh = pHigh;
+        while (aLow < aHigh)
+        {
+            long aPivot = medianOf3(pValues[aLow], pValues[(aLow + aHigh) >>> 1], pValues[aHigh]);
+            int i = aLow, j = aHigh;
+            while (i <= j)
+            {
+                while (pValues[i] < aPivot)
+                    i++;
+                while (pValues[j] > aPivot)
+                    j--;
+                if (i <= j)
+                {
+                    long aTemp = pValues[i];
+                    pValues[i++] = pValues[j];
+                    pValues[j--] = aTemp;
+                }
+            }
+
+            // The values in [aLow, j] are <= the pivot, the values in [i, aHigh] are >= the pivot,
+            // and any values between j and i are equal to the pivot.
+            if (pIndex <= j)
+                aHigh = j;
+            else if (pIndex >= i)
+                aLow = i;
+            else
+                break;
+        }
+
+        return pValues[pIndex];
+    }
+
+
+    /**
+     * Select the value with a specific rank in a range of an array with quickselect, using the
+     * median of the first, middle, and last values in the range as pivot.
+     *
+     * @param pValues   The array.
+     * @param pLow      The index of the first value in the range.
+     * @param pHigh     The index of the last value in the range.
+     * @param pIndex    The index the selected value would have if the range was sorted.
+     *
+     * @return  The selected value.
+     */
+    static private double select(@Nonnull double[] pValues, int pLow, int pHigh, int pIndex)
+    {
+        int aLow = pLow, aHigh = pHigh;
+        while (aLow < aHigh)
+        {
+            double aPivot = medianOf3(pValues[aLow], pValues[(aLow + aHigh) >>> 1], pValues[aHigh]);
+            int i = aLow, j = aHigh;
+            while (i <= j)
+            {
+                while (Double.compare(pValues[i], aPivot) < 0)
+                    i++;
+                while (Double.compare(pValues[j], aPivot) > 0)
+                    j--;
+                if (i <= j)
+                {
+                    double aTemp = pValues[i];
+                    pValues[i++] = pValues[j];
+                    pValues[j--] = aTemp;
+                }
+            }
+
+            if (pIndex <= j)
+                aHigh = j;
+            else if (pIndex >= i)
+                aLow = i;
+            else
+                break;
+        }
+
+        return pValues[pIndex];
+    }
+
+
+    /**
+     * Get the median of three values.
+     *
+     * @param pFirst    The first value.
+     * @param pSecond   The second value.
+     * @param pThird    The third value.
+     *
+     * @return  The value that is neither the smallest nor the largest of the three.
+     */
+    static private long medianOf3(long pFirst, long pSecond, long pThird)
+    {
+        if (pFirst < pSecond)
+            return pSecond < pThird ? pSecond : Math.max(pFirst, pThird);
+        else
+            return pFirst < pThird ? pFirst : Math.max(pSecond, pThird);
+    }
+
+
+    /**
+     * Get the median of three values.
+     *
+     * @param pFirst    The first value.
+     * @param pSecond   The second value.
+     * @param pThird    The third value.
+     *
+     * @return  The value that is neither the smallest nor the largest of the three.
+     */
+    static private double medianOf3(double pFirst, double pSecond, double pThird)
+    {
+        if (Double.compare(pFirst, pSecond) < 0)
+            return Double.compare(pSecond, pThird) < 0 ? pSecond : max(pFirst, pThird);
+        else
+            return Double.compare(pFirst, pThird) < 0 ? pFirst : max(pSecond, pThird);
+    }
+
+
+    /**
+     * Get the larger of two {@code double} values as ordered by
+     * {@link Double#compare(double, double)}.
+     *
+     * @param pFirst    The first value.
+     * @param pSecond   The second value.
+     *
+     * @return  The larger value.
+     */
+    static private double max(double pFirst, double pSecond)
+    {
+        return Double.compare(pFirst, pSecond) >= 0 ? pFirst : pSecond;
+    }
+}
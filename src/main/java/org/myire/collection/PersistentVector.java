@@ -0,0 +1,444 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Consumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * A persistent vector is an immutable {@code Sequence} where the methods that modify the vector
+ * return a new vector and leave the original unmodified. The new vector shares all of its
+ * structure with the original except the path to the modified element, which makes modifications
+ * cheap both in time and memory.
+ *<p>
+ * The elements are stored in the leaves of a trie with a branching factor of 32, which makes the
+ * depth of the trie, and thereby the time complexity of {@link #elementAt(int)},
+ * {@link #with(int, Object)}, and {@link #append(Object)}, proportional to
+ * log<sub>32</sub>(<i>n</i>). A trie with 2<sup>20</sup> elements has a depth of 4. The last
+ * (up to) 32 elements are kept in a separate tail array outside of the trie, which makes
+ * {@code append} and access to the last elements operate in constant time in most cases.
+ *<p>
+ * A vector can be shared freely between threads without synchronization. Readers always see a
+ * consistent snapshot, while a writer only pays for copying the path to the modified element.
+ *<p>
+ * Many elements are most efficiently added through a {@link PersistentVectorBuilder}, which
+ * modifies the nodes it owns in place instead of copying them.
+ *
+ * @param <E>   The type of the vector's elements.
+ */
+@Immutable
+public final class PersistentVector<E> implements Sequence<E>
+{
+    static final int BITS = 5;
+    static final int WIDTH = 1 << BITS;
+    static final int MASK = WIDTH - 1;
+
+    static final Node EMPTY_NODE = new Node(null, new Object[WIDTH]);
+    static private final Object[] EMPTY_TAIL = new Object[0];
+    static private final PersistentVector<?> EMPTY =
+        new PersistentVector<>(0, BITS, EMPTY_NODE, EMPTY_TAIL);
+
+
+    // The state is package private to allow PersistentVectorBuilder to create a builder from a
+    // vector.
+    final int fSize;
+    final int fShift;
+    final Node fRoot;
+    final Object[] fTail;
+
+
+    /**
+     * Create a new {@code PersistentVector}.
+     *
+     * @param pSize     The number of elements.
+     * @param pShift    The number of bits to shift an index to get the index in the root node.
+     * @param pRoot     The root node of the trie.
+     * @param pTail     The elements after the last element in the trie. The length of this
+     *                  array must be equal to the number of elements in the tail.
+     */
+    PersistentVector(int pSize, int pShift, @Nonnull Node pRoot, @Nonnull Object[] pTail)
+    {
+        fSize = pSize;
+        fShift = pShift;
+        fRoot = pRoot;
+        fTail = pTail;
+    }
+
+
+    /**
+     * Get an empty {@code PersistentVector}.
+     *
+     * @param <E>   The element type.
+     *
+     * @return  An empty vector, never null.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static public <E> PersistentVector<E> empty()
+    {
+        return (PersistentVector<E>) EMPTY;
+    }
+
+
+    /**
+     * Create a {@code PersistentVector} with the elements of a {@code Sequence}.
+     *
+     * @param pElements The sequence with the elements.
+     *
+     * @param <E>   The element type.
+     *
+     * @return  A new {@code PersistentVector} with the elements of {@code pElements} in the same
+     *          order, never null.
+     *
+     * @throws NullPointerException if {@code pElements} is null.
+     */
+    @Nonnull
+    static public <E> PersistentVector<E> copyOf(@Nonnull Sequence<? extends E> pElements)
+    {
+        return new PersistentVectorBuilder<E>().append(pElements).toVector();
+    }
+
+
+    @Override
+    @Nonnegative
+    public int size()
+    {
+        return fSize;
+    }
+
+
+    @Override
+    @Nullable
+    public E elementAt(@Nonnegative int pIndex)
+    {
+        return cast(leafFor(pIndex)[pIndex & MASK]);
+    }
+
+
+    @Override
+    public void forEach(@Nonnull Consumer<? super E> pAction)
+    {
+        requireNonNull(pAction);
+        for (int i=0; i<fSize; i+=WIDTH)
+        {
+            Object[] aLeaf = leafFor(i);
+            int aLength = Math.min(WIDTH, fSize - i);
+            for (int j=0; j<aLength; j++)
+                pAction.accept(cast(aLeaf[j]));
+        }
+    }
+
+
+    @Override
+    @Nonnull
+    public Iterator<E> iterator()
+    {
+        return new VectorIterator();
+    }
+
+
+    /**
+     * Create a vector where the element at a specific position has been replaced.
+     *
+     * @param pIndex    The index of the element to replace.
+     * @param pElement  The new element.
+     *
+     * @return  A new {@code PersistentVector}, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Nonnull
+    public PersistentVector<E> with(@Nonnegative int pIndex, @Nullable E pElement)
+    {
+        checkIndex(pIndex);
+        if (pIndex >= tailOffset())
+        {
+            Object[] aTail = fTail.clone();
+            aTail[pIndex & MASK] = pElement;
+            return new PersistentVector<>(fSize, fShift, fRoot, aTail);
+        }
+
+        Node aRoot = with(fShift, fRoot, pIndex, pElement);
+        return new PersistentVector<>(fSize, fShift, aRoot, fTail);
+    }
+
+
+    /**
+     * Create a vector with an element appended to the elements of this vector.
+     *
+     * @param pElement  The element to append.
+     *
+     * @return  A new {@code PersistentVector}, never null.
+     *
+     * @throws IllegalStateException if this vector has {@code Integer.MAX_VALUE} elements.
+     */
+    @Nonnull
+    public PersistentVector<E> append(@Nullable E pElement)
+    {
+        if (fSize == Integer.MAX_VALUE)
+            throw new IllegalStateException("Vector is full");
+
+        int aTailLength = fSize - tailOffset();
+        if (aTailLength < WIDTH)
+        {
+            // Room in the tail.
+            Object[] aTail = new Object[aTailLength + 1];
+            System.arraycopy(fTail, 0, aTail, 0, aTailLength);
+            aTail[aTailLength] = pElement;
+            return new PersistentVector<>(fSize + 1, fShift, fRoot, aTail);
+        }
+
+        // The tail is full, push it into the trie.
+        Node aTailNode = new Node(null, fTail);
+        Node aRoot;
+        int aShift = fShift;
+        if ((fSize >>> BITS) > (1 << fShift))
+        {
+            // The trie is full, add a new root level.
+            aRoot = new Node(null, new Object[WIDTH]);
+            aRoot.fArray[0] = fRoot;
+            aRoot.fArray[1] = newPath(null, fShift, aTailNode);
+            aShift += BITS;
+        }
+        else
+            aRoot = pushTail(fSize, fShift, fRoot, aTailNode);
+
+        return new PersistentVector<>(fSize + 1, aShift, aRoot, new Object[]{pElement});
+    }
+
+
+    /**
+     * Create a builder that initially contains the elements of this vector. The builder shares the
+     * structure of this vector, and copies the nodes it modifies. This vector is not affected by
+     * calls to the builder.
+     *
+     * @return  A new {@code PersistentVectorBuilder}, never null.
+     */
+    @Nonnull
+    public PersistentVectorBuilder<E> toBuilder()
+    {
+        return new PersistentVectorBuilder<>(this);
+    }
+
+
+    /**
+     * Get the index of the first element in the tail of a vector.
+     *
+     * @param pSize The size of the vector.
+     *
+     * @return  The index of the first element in the tail.
+     */
+    static int tailOffset(int pSize)
+    {
+        return pSize < WIDTH ? 0 : ((pSize - 1) >>> BITS) << BITS;
+    }
+
+
+    /**
+     * Create a path of nodes from a level in a trie down to a leaf node.
+     *
+     * @param pEdit     The edit token of the new nodes, null for persistent nodes.
+     * @param pLevel    The shift of the level to create the path from.
+     * @param pLeaf     The leaf node.
+     *
+     * @return  The node at the top of the path, never null.
+     */
+    @Nonnull
+    static Node newPath(@Nullable Object pEdit, int pLevel, @Nonnull Node pLeaf)
+    {
+        Node aNode = pLeaf;
+        for (int aLevel=pLevel; aLevel>0; aLevel-=BITS)
+        {
+            Node aParent = new Node(pEdit, new Object[WIDTH]);
+            aParent.fArray[0] = aNode;
+            aNode = aParent;
+        }
+
+        return aNode;
+    }
+
+
+    /**
+     * Get the index of the first element in the tail of this vector.
+     *
+     * @return  The index of the first element in the tail.
+     */
+    private int tailOffset()
+    {
+        return tailOffset(fSize);
+    }
+
+
+    /**
+     * Get the array that holds the element at a specific index.
+     *
+     * @param pIndex    The index of the element.
+     *
+     * @return  The tail or the leaf array that holds the element.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Nonnull
+    private Object[] leafFor(int pIndex)
+    {
+        checkIndex(pIndex);
+        if (pIndex >= tailOffset())
+            return fTail;
+
+        Node aNode = fRoot;
+        for (int aLevel=fShift; aLevel>0; aLevel-=BITS)
+            aNode = (Node) aNode.fArray[(pIndex >>> aLevel) & MASK];
+
+        return aNode.fArray;
+    }
+
+
+    /**
+     * Check that an index is within the bounds of this vector.
+     *
+     * @param pIndex    The index to check.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    private void checkIndex(int pIndex)
+    {
+        if (pIndex < 0 || pIndex >= fSize)
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+    }
+
+
+    /**
+     * Copy the path to an element in the trie and replace the element in the copied leaf.
+     *
+     * @param pLevel    The shift of the node's level.
+     * @param pNode     The node to copy.
+     * @param pIndex    The index of the element.
+     * @param pElement  The new element.
+     *
+     * @return  The copy of {@code pNode}, never null.
+     */
+    @Nonnull
+    static private Node with(int pLevel, @Nonnull Node pNode, int pIndex, @Nullable Object pElement)
+    {
+        Node aCopy = new Node(null, pNode.fArray.clone());
+        if (pLevel == 0)
+            aCopy.fArray[pIndex & MASK] = pElement;
+        else
+        {
+            int aSubIndex = (pIndex >>> pLevel) & MASK;
+            aCopy.fArray[aSubIndex] =
+                with(pLevel - BITS, (Node) pNode.fArray[aSubIndex], pIndex, pElement);
+        }
+
+        return aCopy;
+    }
+
+
+    /**
+     * Copy the path to the position of a full tail in a trie that isn't full, and put the tail at
+     * the end of the path.
+     *
+     * @param pSize     The size of the vector.
+     * @param pLevel    The shift of the node's level.
+     * @param pParent   The node to copy.
+     * @param pTail     The tail node.
+     *
+     * @return  The copy of {@code pParent}, never null.
+     */
+    @Nonnull
+    static private Node pushTail(int pSize, int pLevel, @Nonnull Node pParent, @Nonnull Node pTail)
+    {
+        Node aCopy = new Node(null, pParent.fArray.clone());
+        int aSubIndex = ((pSize - 1) >>> pLevel) & MASK;
+        Node aChild;
+        if (pLevel == BITS)
+            aChild = pTail;
+        else
+        {
+            Node aExisting = (Node) pParent.fArray[aSubIndex];
+            aChild = aExisting != null
+                ? pushTail(pSize, pLevel - BITS, aExisting, pTail)
+                : newPath(null, pLevel - BITS, pTail);
+        }
+
+        aCopy.fArray[aSubIndex] = aChild;
+        return aCopy;
+    }
+
+
+    /**
+     * Cast an element to the element type. The vector only contains elements added through
+     * methods that take elements of type {@code E}, which makes the cast safe.
+     *
+     * @param pElement  The element to cast.
+     *
+     * @return  {@code pElement}.
+     */
+    @SuppressWarnings("unchecked")
+    private E cast(Object pElement)
+    {
+        return (E) pElement;
+    }
+
+
+    /**
+     * A node in the trie. The array of an internal node holds child nodes, the array of a leaf
+     * node holds elements. A builder may modify the nodes that have its current edit token in
+     * place. Persistent vectors create nodes without an edit token, and a builder replaces its
+     * token when it creates a vector, which means that no builder will modify a node reachable
+     * from a persistent vector.
+     */
+    static final class Node
+    {
+        final Object fEdit;
+        final Object[] fArray;
+
+        Node(@Nullable Object pEdit, @Nonnull Object[] pArray)
+        {
+            fEdit = pEdit;
+            fArray = pArray;
+        }
+    }
+
+
+    /**
+     * An iterator that fetches one leaf array at a time.
+     */
+    private class VectorIterator implements Iterator<E>
+    {
+        private int fNextIndex;
+        private Object[] fLeaf;
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextIndex < fSize;
+        }
+
+        @Override
+        public E next()
+        {
+            if (fNextIndex >= fSize)
+                throw new NoSuchElementException();
+
+            if ((fNextIndex & MASK) == 0)
+                fLeaf = leafFor(fNextIndex);
+
+            return cast(fLeaf[fNextIndex++ & MASK]);
+        }
+    }
+}
@@ -0,0 +1,257 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.NotThreadSafe;
+
+import static org.myire.collection.PersistentVector.BITS;
+import static org.myire.collection.PersistentVector.MASK;
+import static org.myire.collection.PersistentVector.WIDTH;
+
+
+/**
+ * A builder of {@link PersistentVector} instances, also known as a <i>transient</i> vector. The
+ * builder has the same trie structure as a persistent vector, but modifies the nodes it has
+ * created in place instead of copying them. Nodes shared with a persistent vector are copied the
+ * first time they are modified, after which the copy is owned by the builder.
+ *<p>
+ * {@link #toVector()} creates a persistent vector that shares all nodes with the builder in
+ * constant time (apart from copying the tail). The builder then gives up the ownership of its
+ * nodes, which means that subsequent modifications to the builder will copy the nodes before
+ * modifying them, and the returned vector will not be affected.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ *
+ * @param <E>   The type of the elements.
+ */
+@NotThreadSafe
+public class PersistentVectorBuilder<E>
+{
+    private int fSize;
+    private int fShift;
+    private PersistentVector.Node fRoot;
+
+    // The tail always has room for WIDTH elements.
+    private Object[] fTail;
+
+    // The token identifying the nodes owned by this builder.
+    private Object fEdit = new Object();
+
+
+    /**
+     * Create a new empty {@code PersistentVectorBuilder}.
+     */
+    public PersistentVectorBuilder()
+    {
+        fShift = BITS;
+        fRoot = PersistentVector.EMPTY_NODE;
+        fTail = new Object[WIDTH];
+    }
+
+
+    /**
+     * Create a new {@code PersistentVectorBuilder} with the elements of a vector.
+     *
+     * @param pVector   The vector with the initial elements.
+     */
+    PersistentVectorBuilder(@Nonnull PersistentVector<E> pVector)
+    {
+        fSize = pVector.fSize;
+        fShift = pVector.fShift;
+        fRoot = pVector.fRoot;
+        fTail = new Object[WIDTH];
+        System.arraycopy(pVector.fTail, 0, fTail, 0, pVector.fTail.length);
+    }
+
+
+    /**
+     * Get the number of elements in this builder.
+     *
+     * @return  The number of elements.
+     */
+    @Nonnegative
+    public int getLength()
+    {
+        return fSize;
+    }
+
+
+    /**
+     * Append an element.
+     *
+     * @param pElement  The element to append.
+     *
+     * @return  This instance.
+     *
+     * @throws IllegalStateException if this builder has {@code Integer.MAX_VALUE} elements.
+     */
+    @Nonnull
+    public PersistentVectorBuilder<E> append(@Nullable E pElement)
+    {
+        if (fSize == Integer.MAX_VALUE)
+            throw new IllegalStateException("Vector is full");
+
+        int aTailOffset = PersistentVector.tailOffset(fSize);
+        if (fSize - aTailOffset < WIDTH)
+        {
+            fTail[fSize & MASK] = pElement;
+            fSize++;
+            return this;
+        }
+
+        // The tail is full, push it into the trie. The builder owns its tail array, which can be
+        // used as the leaf without copying.
+        PersistentVector.Node aTailNode = new PersistentVector.Node(fEdit, fTail);
+        fTail = new Object[WIDTH];
+        fTail[0] = pElement;
+        if ((fSize >>> BITS) > (1 << fShift))
+        {
+            PersistentVector.Node aRoot = new PersistentVector.Node(fEdit, new Object[WIDTH]);
+            aRoot.fArray[0] = fRoot;
+            aRoot.fArray[1] = PersistentVector.newPath(fEdit, fShift, aTailNode);
+            fRoot = aRoot;
+            fShift += BITS;
+        }
+        else
+            fRoot = pushTail(fShift, fRoot, aTailNode);
+
+        fSize++;
+        return this;
+    }
+
+
+    /**
+     * Append all elements in a sequence.
+     *
+     * @param pElements The sequence with the elements to append.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pElements} is null.
+     * @throws IllegalStateException if this builder becomes full.
+     */
+    @Nonnull
+    public PersistentVectorBuilder<E> append(@Nonnull Sequence<? extends E> pElements)
+    {
+        pElements.forEach(e -> append(e));
+        return this;
+    }
+
+
+    /**
+     * Replace the element at a specific position.
+     *
+     * @param pIndex    The index of the element to replace.
+     * @param pElement  The new element.
+     *
+     * @return  This instance.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #getLength()}.
+     */
+    @Nonnull
+    public PersistentVectorBuilder<E> set(@Nonnegative int pIndex, @Nullable E pElement)
+    {
+        if (pIndex < 0 || pIndex >= fSize)
+            throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+
+        if (pIndex >= PersistentVector.tailOffset(fSize))
+        {
+            fTail[pIndex & MASK] = pElement;
+            return this;
+        }
+
+        PersistentVector.Node aNode = fRoot = editable(fRoot);
+        for (int aLevel=fShift; aLevel>0; aLevel-=BITS)
+        {
+            int aSubIndex = (pIndex >>> aLevel) & MASK;
+            PersistentVector.Node aChild =
+                editable((PersistentVector.Node) aNode.fArray[aSubIndex]);
+            aNode.fArray[aSubIndex] = aChild;
+            aNode = aChild;
+        }
+
+        aNode.fArray[pIndex & MASK] = pElement;
+        return this;
+    }
+
+
+    /**
+     * Create a {@code PersistentVector} with the elements in this builder. The returned vector is
+     * not affected by subsequent calls to this instance.
+     *
+     * @return  A new {@code PersistentVector}, never null.
+     */
+    @Nonnull
+    public PersistentVector<E> toVector()
+    {
+        if (fSize == 0)
+            return PersistentVector.empty();
+
+        int aTailLength = fSize - PersistentVector.tailOffset(fSize);
+        Object[] aTail = new Object[aTailLength];
+        System.arraycopy(fTail, 0, aTail, 0, aTailLength);
+
+        // Give up ownership of the nodes now shared with the vector.
+        fEdit = new Object();
+        return new PersistentVector<>(fSize, fShift, fRoot, aTail);
+    }
+
+
+    /**
+     * Get a node that this builder can modify in place, copying it if it isn't owned by this
+     * builder.
+     *
+     * @param pNode The node.
+     *
+     * @return  {@code pNode} if it is owned by this builder, otherwise a copy of it, never null.
+     */
+    @Nonnull
+    private PersistentVector.Node editable(@Nonnull PersistentVector.Node pNode)
+    {
+        if (pNode.fEdit == fEdit)
+            return pNode;
+        else
+            return new PersistentVector.Node(fEdit, pNode.fArray.clone());
+    }
+
+
+    /**
+     * Put a full tail at the end of the trie, modifying the nodes on the path in place.
+     *
+     * @param pLevel    The shift of the node's level.
+     * @param pParent   The node to put the tail below.
+     * @param pTail     The tail node.
+     *
+     * @return  The editable version of {@code pParent}, never null.
+     */
+    @Nonnull
+    private PersistentVector.Node pushTail(
+        int pLevel,
+        @Nonnull PersistentVector.Node pParent,
+        @Nonnull PersistentVector.Node pTail)
+    {
+        PersistentVector.Node aParent = editable(pParent);
+        int aSubIndex = ((fSize - 1) >>> pLevel) & MASK;
+        PersistentVector.Node aChild;
+        if (pLevel == BITS)
+            aChild = pTail;
+        else
+        {
+            PersistentVector.Node aExisting = (PersistentVector.Node) aParent.fArray[aSubIndex];
+            aChild = aExisting != null
+                ? pushTail(pLevel - BITS, aExisting, pTail)
+                : PersistentVector.newPath(fEdit, pLevel - BITS, pTail);
+        }
+
+        aParent.fArray[aSubIndex] = aChild;
+        return aParent;
+    }
+}
@@ -0,0 +1,132 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * A double-ended queue of positions in the array of a ring buffer, with a fixed capacity. The ring
+ * buffers use this queue to track the positions of the candidates for the minimum or maximum of
+ * their values, see {@link IntRingBuffer}.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ */
+@NotThreadSafe
+final class PositionQueue
+{
+    private final int[] fPositions;
+    private int fHead;
+    private int fSize;
+
+
+    /**
+     * Create a new {@code PositionQueue}.
+     *
+     * @param pCapacity The maximum number of positions in the queue.
+     */
+    PositionQueue(@Nonnegative int pCapacity)
+    {
+        fPositions = new int[pCapacity];
+    }
+
+
+    /**
+     * Check if this queue is empty.
+     *
+     * @return  True if this queue has no positions, false if it has.
+     */
+    boolean isEmpty()
+    {
+        return fSize == 0;
+    }
+
+
+    /**
+     * Get the first (oldest) position in this queue. The queue must not be empty.
+     *
+     * @return  The first position.
+     */
+    int first()
+    {
+        return fPositions[fHead];
+    }
+
+
+    /**
+     * Get the last (newest) position in this queue. The queue must not be empty.
+     *
+     * @return  The last position.
+     */
+    int last()
+    {
+        return fPositions[index(fSize - 1)];
+    }
+
+
+    /**
+     * Add a position to the end of this queue. The queue must not be full.
+     *
+     * @param pPosition The position to add.
+     */
+    void add(int pPosition)
+    {
+        fPositions[index(fSize)] = pPosition;
+        fSize++;
+    }
+
+
+    /**
+     * Remove the last position from this queue. The queue must not be empty.
+     */
+    void removeLast()
+    {
+        fSize--;
+    }
+
+
+    /**
+     * Remove the first position in this queue if it is equal to a position that is evicted from
+     * the ring buffer. Since the evicted position is the ring buffer's oldest, it can only be the
+     * first position in this queue.
+     *
+     * @param pPosition The evicted position.
+     */
+    void evict(int pPosition)
+    {
+        if (fSize > 0 && fPositions[fHead] == pPosition)
+        {
+            fHead = index(1);
+            fSize--;
+        }
+    }
+
+
+    /**
+     * Remove all positions from this queue.
+     */
+    void clear()
+    {
+        fHead = 0;
+        fSize = 0;
+    }
+
+
+    /**
+     * Get the index in the internal array of a position in this queue.
+     *
+     * @param pOffset   The offset from the first position, between 0 and the capacity, exclusive.
+     *
+     * @return  The index of the position.
+     */
+    private int index(int pOffset)
+    {
+        int aIndex = fHead + pOffset;
+        return aIndex < fPositions.length ? aIndex : aIndex - fPositions.length;
+    }
+}
@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2022 Peter Franzen. All rights reserved.
+ * Copyright 2021-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
@@ -197,6 +197,63 @@ public final class PrimitiveIterators
         return new DoubleArrayIterator(pValues, pOffset, pLength);
     }
 
+    /**
+     * Create a {@code PrimitiveIterator.OfInt} that returns the values of an
+     * {@code IntSequence}. The returned instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over. The iterator will reflect changes made to the
+     *                  values in the sequence. Replacing a value in the sequence will also cause
+     *                  the iterator to return the new value (unless the replaced value already has
+     *                  been returned by the iteration).
+     *
+     * @return  A new {@code PrimitiveIterator.OfInt} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public PrimitiveIterator.OfInt sequenceIterator(@Nonnull IntSequence pSequence)
+    {
+        return new IntSequenceIterator(pSequence);
+    }
+
+    /**
+     * Create a {@code PrimitiveIterator.OfLong} that returns the values of a
+     * {@code LongSequence}. The returned instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over. The iterator will reflect changes made to the
+     *                  values in the sequence. Replacing a value in the sequence will also cause
+     *                  the iterator to return the new value (unless the replaced value already has
+     *                  been returned by the iteration).
+     *
+     * @return  A new {@code PrimitiveIterator.OfLong} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public PrimitiveIterator.OfLong sequenceIterator(@Nonnull LongSequence pSequence)
+    {
+        return new LongSequenceIterator(pSequence);
+    }
+
+    /**
+     * Create a {@code PrimitiveIterator.OfDouble} that returns the values of a
+     * {@code DoubleSequence}. The returned instance doesn't support the {@code remove} operation.
+     *
+     * @param pSequence The sequence to iterate over. The iterator will reflect changes made to the
+     *                  values in the sequence. Replacing a value in the sequence will also cause
+     *                  the iterator to return the new value (unless the replaced value already has
+     *                  been returned by the iteration).
+     *
+     * @return  A new {@code PrimitiveIterator.OfDouble} for the specified sequence.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public PrimitiveIterator.OfDouble sequenceIterator(@Nonnull DoubleSequence pSequence)
+    {
+        return new DoubleSequenceIterator(pSequence);
+    }
+
 
     /**
      * An iterator for empty collections of {@code int} values.
@@ -583,4 +640,145 @@ public final class PrimitiveIterators
                 pAction.accept(fValues[fNextPos++]);
         }
     }
+
+
+    /**
+     * Implementation of {@code PrimitiveIterator.OfInt} backed by an {@code IntSequence}. This
+     * implementation does <b>not</b> support the {@code remove} operation; that method always
+     * throws an {@code UnsupportedOperationException} (by falling back to the default
+     * implementation in {@code java.util.Iterator}).
+     */
+    static private class IntSequenceIterator implements PrimitiveIterator.OfInt
+    {
+        private final IntSequence fSequence;
+        private int fNextPos;
+
+        /**
+         * Create a new {@code IntSequenceIterator}.
+         *
+         * @param pSequence The sequence to iterate over.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        IntSequenceIterator(@Nonnull IntSequence pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextPos < fSequence.size();
+        }
+
+        @Override
+        public int nextInt()
+        {
+            if (fNextPos < fSequence.size())
+                return fSequence.valueAt(fNextPos++);
+            else
+                throw new NoSuchElementException();
+        }
+
+        @Override
+        public void forEachRemaining(@Nonnull IntConsumer pAction)
+        {
+            while (fNextPos < fSequence.size())
+                pAction.accept(fSequence.valueAt(fNextPos++));
+        }
+    }
+
+
+    /**
+     * Implementation of {@code PrimitiveIterator.OfLong} backed by a {@code LongSequence}. This
+     * implementation does <b>not</b> support the {@code remove} operation; that method always
+     * throws an {@code UnsupportedOperationException} (by falling back to the default
+     * implementation in {@code java.util.Iterator}).
+     */
+    static private class LongSequenceIterator implements PrimitiveIterator.OfLong
+    {
+        private final LongSequence fSequence;
+        private int fNextPos;
+
+        /**
+         * Create a new {@code LongSequenceIterator}.
+         *
+         * @param pSequence The sequence to iterate over.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        LongSequenceIterator(@Nonnull LongSequence pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextPos < fSequence.size();
+        }
+
+        @Override
+        public long nextLong()
+        {
+            if (fNextPos < fSequence.size())
+                return fSequence.valueAt(fNextPos++);
+            else
+                throw new NoSuchElementException();
+        }
+
+        @Override
+        public void forEachRemaining(@Nonnull LongConsumer pAction)
+        {
+            while (fNextPos < fSequence.size())
+                pAction.accept(fSequence.valueAt(fNextPos++));
+        }
+    }
+
+
+    /**
+     * Implementation of {@code PrimitiveIterator.OfDouble} backed by a {@code DoubleSequence}. This
+     * implementation does <b>not</b> support the {@code remove} operation; that method always
+     * throws an {@code UnsupportedOperationException} (by falling back to the default
+     * implementation in {@code java.util.Iterator}).
+     */
+    static private class DoubleSequenceIterator implements PrimitiveIterator.OfDouble
+    {
+        private final DoubleSequence fSequence;
+        private int fNextPos;
+
+        /**
+         * Create a new {@code DoubleSequenceIterator}.
+         *
+         * @param pSequence The sequence to iterate over.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        DoubleSequenceIterator(@Nonnull DoubleSequence pSequence)
+        {
+            fSequence = requireNonNull(pSequence);
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return fNextPos < fSequence.size();
+        }
+
+        @Override
+        public double nextDouble()
+        {
+            if (fNextPos < fSequence.size())
+                return fSequence.valueAt(fNextPos++);
+            else
+                throw new NoSuchElementException();
+        }
+
+        @Override
+        public void forEachRemaining(@Nonnull DoubleConsumer pAction)
+        {
+            while (fNextPos < fSequence.size())
+                pAction.accept(fSequence.valueAt(fNextPos++));
+        }
+    }
 }
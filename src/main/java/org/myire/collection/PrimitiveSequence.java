@@ -1,5 +1,5 @@
 /*
- * Copyright 2021-2022 Peter Franzen. All rights reserved.
+ * Copyright 2021-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
@@ -21,7 +21,7 @@ import javax.annotation.Nonnull;
  *              values to, must be a primitive specialization of {@code Consumer}, for example
  *              {@code IntConsumer} for sequences of {@code int} values.
  */
-public interface PrimitiveSequence<T extends Number, C> extends Sequence<T>
+public interface PrimitiveSequence<T, C> extends Sequence<T>
 {
     /**
      * Pass each value in the sequence to the specified action. The values are passed in ascending
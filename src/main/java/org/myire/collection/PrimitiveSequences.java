@@ -1,19 +1,28 @@
 /*
- * Copyright 2021-2022 Peter Franzen. All rights reserved.
+ * Copyright 2021-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
 package org.myire.collection;
 
+import java.util.NoSuchElementException;
 import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.DoubleConsumer;
+import java.util.function.DoublePredicate;
 import java.util.function.IntConsumer;
+import java.util.function.IntPredicate;
 import java.util.function.LongConsumer;
+import java.util.function.LongPredicate;
 import static java.util.Objects.requireNonNull;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
 
+import org.myire.util.DoubleArrayConsumer;
+import org.myire.util.IntArrayConsumer;
+import org.myire.util.LongArrayConsumer;
 import static org.myire.util.Numbers.requireRangeWithinBounds;
 
 
@@ -22,6 +31,10 @@ import static org.myire.util.Numbers.requireRangeWithinBounds;
  */
 public final class PrimitiveSequences
 {
+    // The number of values in the chunks created by the default forEachChunk implementations.
+    static final int CHUNK_SIZE = 256;
+
+
     private PrimitiveSequences()
     {
         // Don't allow instantiations of utility classes.
@@ -253,6 +266,174 @@ public final class PrimitiveSequences
             return new DoubleArraySequence(pValues, pOffset, pLength);
     }
 
+    /**
+     * Create a view of a range of the values in an {@code IntSequence}. If the sequence is a
+     * view created by this method, the returned view will refer directly to the underlying
+     * sequence of that view.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  An {@code IntSequence} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static IntSequence subSequence(
+        @Nonnull IntSequence pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        if (aLength == 0)
+            return emptyIntSequence();
+        else
+            return new IntSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+    /**
+     * Create a view of a range of the values in a {@code LongSequence}. If the sequence is a
+     * view created by this method, the returned view will refer directly to the underlying
+     * sequence of that view.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  A {@code LongSequence} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static LongSequence subSequence(
+        @Nonnull LongSequence pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        if (aLength == 0)
+            return emptyLongSequence();
+        else
+            return new LongSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+    /**
+     * Create a view of a range of the values in a {@code DoubleSequence}. If the sequence is a
+     * view created by this method, the returned view will refer directly to the underlying
+     * sequence of that view.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first value in the view.
+     * @param pToIndex      The index after the last value in the view.
+     *
+     * @return  A {@code DoubleSequence} with the values in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static DoubleSequence subSequence(
+        @Nonnull DoubleSequence pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        if (aLength == 0)
+            return emptyDoubleSequence();
+        else
+            return new DoubleSubSequence(pSequence, pFromIndex, aLength);
+    }
+
+    /**
+     * Copy the values of an {@code IntSequence} into a new array. The values are copied in
+     * chunks with {@code forEachChunk}, which lets array based sequences copy their values in
+     * bulk.
+     *
+     * @param pSequence The sequence to copy the values of.
+     *
+     * @return  A new array with the values of {@code pSequence}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static int[] toArray(@Nonnull IntSequence pSequence)
+    {
+        int[] aValues = new int[pSequence.size()];
+        int[] aPosition = new int[1];
+        pSequence.forEachChunk(
+            (pChunk, pOffset, pLength) ->
+            {
+                System.arraycopy(pChunk, pOffset, aValues, aPosition[0], pLength);
+                aPosition[0] += pLength;
+            });
+
+        return aValues;
+    }
+
+    /**
+     * Copy the values of a {@code LongSequence} into a new array. The values are copied in
+     * chunks with {@code forEachChunk}, which lets array based sequences copy their values in
+     * bulk.
+     *
+     * @param pSequence The sequence to copy the values of.
+     *
+     * @return  A new array with the values of {@code pSequence}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static long[] toArray(@Nonnull LongSequence pSequence)
+    {
+        long[] aValues = new long[pSequence.size()];
+        int[] aPosition = new int[1];
+        pSequence.forEachChunk(
+            (pChunk, pOffset, pLength) ->
+            {
+                System.arraycopy(pChunk, pOffset, aValues, aPosition[0], pLength);
+                aPosition[0] += pLength;
+            });
+
+        return aValues;
+    }
+
+    /**
+     * Copy the values of a {@code DoubleSequence} into a new array. The values are copied in
+     * chunks with {@code forEachChunk}, which lets array based sequences copy their values in
+     * bulk.
+     *
+     * @param pSequence The sequence to copy the values of.
+     *
+     * @return  A new array with the values of {@code pSequence}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static double[] toArray(@Nonnull DoubleSequence pSequence)
+    {
+        double[] aValues = new double[pSequence.size()];
+        int[] aPosition = new int[1];
+        pSequence.forEachChunk(
+            (pChunk, pOffset, pLength) ->
+            {
+                System.arraycopy(pChunk, pOffset, aValues, aPosition[0], pLength);
+                aPosition[0] += pLength;
+            });
+
+        return aValues;
+    }
+
 
     /**
      * Immutable implementation of an empty {@code IntSequence}.
@@ -287,6 +468,21 @@ public final class PrimitiveSequences
         {
             return PrimitiveIterators.emptyIntIterator();
         }
+
+        @Override
+        @Nonnull
+        public Spliterator.OfInt spliterator()
+        {
+            return Spliterators.emptyIntSpliterator();
+        }
+
+        @Override
+        @Nonnull
+        public IntSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 0);
+            return this;
+        }
     }
 
 
@@ -323,6 +519,21 @@ public final class PrimitiveSequences
         {
             return PrimitiveIterators.emptyLongIterator();
         }
+
+        @Override
+        @Nonnull
+        public Spliterator.OfLong spliterator()
+        {
+            return Spliterators.emptyLongSpliterator();
+        }
+
+        @Override
+        @Nonnull
+        public LongSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 0);
+            return this;
+        }
     }
 
 
@@ -359,6 +570,21 @@ public final class PrimitiveSequences
         {
             return PrimitiveIterators.emptyDoubleIterator();
         }
+
+        @Override
+        @Nonnull
+        public Spliterator.OfDouble spliterator()
+        {
+            return Spliterators.emptyDoubleSpliterator();
+        }
+
+        @Override
+        @Nonnull
+        public DoubleSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 0);
+            return this;
+        }
     }
 
 
@@ -402,6 +628,14 @@ public final class PrimitiveSequences
         {
             return PrimitiveIterators.singletonIterator(fValue);
         }
+
+        @Nonnull
+        @Override
+        public IntSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 1);
+            return pFromIndex < pToIndex ? this : emptyIntSequence();
+        }
     }
 
 
@@ -445,6 +679,14 @@ public final class PrimitiveSequences
         {
             return PrimitiveIterators.singletonIterator(fValue);
         }
+
+        @Nonnull
+        @Override
+        public LongSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 1);
+            return pFromIndex < pToIndex ? this : emptyLongSequence();
+        }
     }
 
 
@@ -488,6 +730,14 @@ public final class PrimitiveSequences
         {
             return PrimitiveIterators.singletonIterator(fValue);
         }
+
+        @Nonnull
+        @Override
+        public DoubleSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 1);
+            return pFromIndex < pToIndex ? this : emptyDoubleSequence();
+        }
     }
 
 
@@ -542,12 +792,129 @@ public final class PrimitiveSequences
                 pAction.accept(fValues[fOffset + i]);
         }
 
+        @Override
+        public void forEachChunk(@Nonnull IntArrayConsumer pAction)
+        {
+            requireNonNull(pAction);
+            if (fLength > 0)
+                pAction.accept(fValues, fOffset, fLength);
+        }
+
         @Nonnull
         @Override
         public PrimitiveIterator.OfInt iterator()
         {
             return PrimitiveIterators.arrayIterator(fValues, fOffset, fLength);
         }
+
+        @Nonnull
+        @Override
+        public Spliterator.OfInt spliterator()
+        {
+            return Spliterators.spliterator(
+                fValues,
+                fOffset,
+                fOffset + fLength,
+                Spliterator.ORDERED);
+        }
+
+        @Nonnull
+        @Override
+        public IntSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new IntArraySequence(fValues, fOffset + pFromIndex, aLength);
+        }
+
+        @Override
+        public long sum()
+        {
+            int[] aValues = fValues;
+            long aSum = 0;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                aSum += aValues[i];
+
+            return aSum;
+        }
+
+        @Override
+        public int min()
+        {
+            if (fLength == 0)
+                throw new NoSuchElementException();
+
+            int[] aValues = fValues;
+            int aMin = aValues[fOffset];
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset+1; i<aEnd; i++)
+                aMin = Math.min(aMin, aValues[i]);
+
+            return aMin;
+        }
+
+        @Override
+        public int max()
+        {
+            if (fLength == 0)
+                throw new NoSuchElementException();
+
+            int[] aValues = fValues;
+            int aMax = aValues[fOffset];
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset+1; i<aEnd; i++)
+                aMax = Math.max(aMax, aValues[i]);
+
+            return aMax;
+        }
+
+        @Override
+        public int count(@Nonnull IntPredicate pPredicate)
+        {
+            requireNonNull(pPredicate);
+            int[] aValues = fValues;
+            int aCount = 0;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                if (pPredicate.test(aValues[i]))
+                    aCount++;
+
+            return aCount;
+        }
+
+        @Override
+        public int indexOf(int pValue)
+        {
+            int[] aValues = fValues;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                if (aValues[i] == pValue)
+                    return i - fOffset;
+
+            return -1;
+        }
+
+        @Override
+        public long dot(@Nonnull IntSequence pOther)
+        {
+            if (!(pOther instanceof IntArraySequence))
+                return IntSequence.super.dot(pOther);
+
+            IntArraySequence aOther = (IntArraySequence) pOther;
+            if (aOther.fLength != fLength)
+                throw new IllegalArgumentException(
+                    "Sizes differ: " + fLength + " != " + aOther.fLength);
+
+            int[] aValues = fValues;
+            int[] aOtherValues = aOther.fValues;
+            int aOtherOffset = aOther.fOffset;
+            long aSum = 0;
+            for (int i=0; i<fLength; i++)
+                aSum += (long) aValues[fOffset + i] * aOtherValues[aOtherOffset + i];
+
+            return aSum;
+        }
     }
 
 
@@ -602,12 +969,129 @@ public final class PrimitiveSequences
                 pAction.accept(fValues[fOffset + i]);
         }
 
+        @Override
+        public void forEachChunk(@Nonnull LongArrayConsumer pAction)
+        {
+            requireNonNull(pAction);
+            if (fLength > 0)
+                pAction.accept(fValues, fOffset, fLength);
+        }
+
         @Nonnull
         @Override
         public PrimitiveIterator.OfLong iterator()
         {
             return PrimitiveIterators.arrayIterator(fValues, fOffset, fLength);
         }
+
+        @Nonnull
+        @Override
+        public Spliterator.OfLong spliterator()
+        {
+            return Spliterators.spliterator(
+                fValues,
+                fOffset,
+                fOffset + fLength,
+                Spliterator.ORDERED);
+        }
+
+        @Nonnull
+        @Override
+        public LongSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new LongArraySequence(fValues, fOffset + pFromIndex, aLength);
+        }
+
+        @Override
+        public long sum()
+        {
+            long[] aValues = fValues;
+            long aSum = 0;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                aSum += aValues[i];
+
+            return aSum;
+        }
+
+        @Override
+        public long min()
+        {
+            if (fLength == 0)
+                throw new NoSuchElementException();
+
+            long[] aValues = fValues;
+            long aMin = aValues[fOffset];
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset+1; i<aEnd; i++)
+                aMin = Math.min(aMin, aValues[i]);
+
+            return aMin;
+        }
+
+        @Override
+        public long max()
+        {
+            if (fLength == 0)
+                throw new NoSuchElementException();
+
+            long[] aValues = fValues;
+            long aMax = aValues[fOffset];
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset+1; i<aEnd; i++)
+                aMax = Math.max(aMax, aValues[i]);
+
+            return aMax;
+        }
+
+        @Override
+        public int count(@Nonnull LongPredicate pPredicate)
+        {
+            requireNonNull(pPredicate);
+            long[] aValues = fValues;
+            int aCount = 0;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                if (pPredicate.test(aValues[i]))
+                    aCount++;
+
+            return aCount;
+        }
+
+        @Override
+        public int indexOf(long pValue)
+        {
+            long[] aValues = fValues;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                if (aValues[i] == pValue)
+                    return i - fOffset;
+
+            return -1;
+        }
+
+        @Override
+        public long dot(@Nonnull LongSequence pOther)
+        {
+            if (!(pOther instanceof LongArraySequence))
+                return LongSequence.super.dot(pOther);
+
+            LongArraySequence aOther = (LongArraySequence) pOther;
+            if (aOther.fLength != fLength)
+                throw new IllegalArgumentException(
+                    "Sizes differ: " + fLength + " != " + aOther.fLength);
+
+            long[] aValues = fValues;
+            long[] aOtherValues = aOther.fValues;
+            int aOtherOffset = aOther.fOffset;
+            long aSum = 0;
+            for (int i=0; i<fLength; i++)
+                aSum += aValues[fOffset + i] * aOtherValues[aOtherOffset + i];
+
+            return aSum;
+        }
     }
 
 
@@ -662,11 +1146,351 @@ public final class PrimitiveSequences
                 pAction.accept(fValues[fOffset + i]);
         }
 
+        @Override
+        public void forEachChunk(@Nonnull DoubleArrayConsumer pAction)
+        {
+            requireNonNull(pAction);
+            if (fLength > 0)
+                pAction.accept(fValues, fOffset, fLength);
+        }
+
         @Nonnull
         @Override
         public PrimitiveIterator.OfDouble iterator()
         {
             return PrimitiveIterators.arrayIterator(fValues, fOffset, fLength);
         }
+
+        @Nonnull
+        @Override
+        public Spliterator.OfDouble spliterator()
+        {
+            return Spliterators.spliterator(
+                fValues,
+                fOffset,
+                fOffset + fLength,
+                Spliterator.ORDERED);
+        }
+
+        @Nonnull
+        @Override
+        public DoubleSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new DoubleArraySequence(fValues, fOffset + pFromIndex, aLength);
+        }
+
+        @Override
+        public double sum()
+        {
+            double[] aValues = fValues;
+            double aSum = 0;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                aSum += aValues[i];
+
+            return aSum;
+        }
+
+        @Override
+        public double min()
+        {
+            if (fLength == 0)
+                throw new NoSuchElementException();
+
+            double[] aValues = fValues;
+            double aMin = aValues[fOffset];
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset+1; i<aEnd; i++)
+                aMin = Math.min(aMin, aValues[i]);
+
+            return aMin;
+        }
+
+        @Override
+        public double max()
+        {
+            if (fLength == 0)
+                throw new NoSuchElementException();
+
+            double[] aValues = fValues;
+            double aMax = aValues[fOffset];
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset+1; i<aEnd; i++)
+                aMax = Math.max(aMax, aValues[i]);
+
+            return aMax;
+        }
+
+        @Override
+        public int count(@Nonnull DoublePredicate pPredicate)
+        {
+            requireNonNull(pPredicate);
+            double[] aValues = fValues;
+            int aCount = 0;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                if (pPredicate.test(aValues[i]))
+                    aCount++;
+
+            return aCount;
+        }
+
+        @Override
+        public int indexOf(double pValue)
+        {
+            long aBits = Double.doubleToLongBits(pValue);
+            double[] aValues = fValues;
+            int aEnd = fOffset + fLength;
+            for (int i=fOffset; i<aEnd; i++)
+                if (Double.doubleToLongBits(aValues[i]) == aBits)
+                    return i - fOffset;
+
+            return -1;
+        }
+
+        @Override
+        public double dot(@Nonnull DoubleSequence pOther)
+        {
+            if (!(pOther instanceof DoubleArraySequence))
+                return DoubleSequence.super.dot(pOther);
+
+            DoubleArraySequence aOther = (DoubleArraySequence) pOther;
+            if (aOther.fLength != fLength)
+                throw new IllegalArgumentException(
+                    "Sizes differ: " + fLength + " != " + aOther.fLength);
+
+            double[] aValues = fValues;
+            double[] aOtherValues = aOther.fValues;
+            int aOtherOffset = aOther.fOffset;
+            double aSum = 0;
+            for (int i=0; i<fLength; i++)
+                aSum += aValues[fOffset + i] * aOtherValues[aOtherOffset + i];
+
+            return aSum;
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code IntSequence}.
+     */
+    static private class IntSubSequence implements IntSequence
+    {
+        private final IntSequence fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code IntSubSequence}. The range is assumed to have been checked against
+         * the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        IntSubSequence(
+            @Nonnull IntSequence pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = requireNonNull(pSequence);
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public int valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull IntConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public PrimitiveIterator.OfInt iterator()
+        {
+            return PrimitiveIterators.sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public IntSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            if (aLength == 0)
+                return emptyIntSequence();
+            else
+                return new IntSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code LongSequence}.
+     */
+    static private class LongSubSequence implements LongSequence
+    {
+        private final LongSequence fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code LongSubSequence}. The range is assumed to have been checked against
+         * the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        LongSubSequence(
+            @Nonnull LongSequence pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = requireNonNull(pSequence);
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public long valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull LongConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public PrimitiveIterator.OfLong iterator()
+        {
+            return PrimitiveIterators.sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public LongSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            if (aLength == 0)
+                return emptyLongSequence();
+            else
+                return new LongSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A view of a range of the values in another {@code DoubleSequence}.
+     */
+    static private class DoubleSubSequence implements DoubleSequence
+    {
+        private final DoubleSequence fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code DoubleSubSequence}. The range is assumed to have been checked against
+         * the bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first value.
+         * @param pLength   The number of values in the view.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        DoubleSubSequence(
+            @Nonnull DoubleSequence pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = requireNonNull(pSequence);
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public double valueAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.valueAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull DoubleConsumer pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.valueAt(fOffset + i));
+        }
+
+        @Nonnull
+        @Override
+        public PrimitiveIterator.OfDouble iterator()
+        {
+            return PrimitiveIterators.sequenceIterator(this);
+        }
+
+        @Nonnull
+        @Override
+        public DoubleSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            if (aLength == 0)
+                return emptyDoubleSequence();
+            else
+                return new DoubleSubSequence(fSequence, fOffset + pFromIndex, aLength);
+        }
     }
 }
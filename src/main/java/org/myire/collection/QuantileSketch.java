@@ -0,0 +1,474 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.NotThreadSafe;
+
+
+/**
+ * A mergeable sketch that estimates quantiles of a stream of {@code double} values with a
+ * guaranteed relative accuracy. The sketch maps each value to a bucket with logarithmically
+ * growing bounds and only stores the number of values in each bucket, which makes its size
+ * independent of the number of values added to it.
+ *<p>
+ * A quantile estimate {@code e} for a value {@code v} with the requested rank satisfies
+ * {@code |e - v| <= a * |v|}, where {@code a} is the relative accuracy the sketch was created
+ * with. For values in the range 1 to 10<sup>9</sup>, e.g. latencies in nanoseconds, a sketch with
+ * a relative accuracy of 1% uses around a thousand buckets.
+ *<p>
+ * The number of buckets is limited to {@value #MAX_NUM_BUCKETS} for the positive values and the
+ * same number for the magnitudes of the negative values. If the values of either sign span more
+ * buckets than that, the buckets with the smallest magnitudes are collapsed into one, and the
+ * relative accuracy is only guaranteed for quantiles of values in the remaining buckets. At the
+ * lowest supported relative accuracy, {@value #MIN_RELATIVE_ACCURACY}, the buckets cover values
+ * within a factor of 10<sup>9</sup>, at a relative accuracy of 1% they cover all {@code double}
+ * values.
+ *<p>
+ * Two sketches with the same relative accuracy can be merged, and the result is the same as if
+ * all values had been added to one sketch. This allows sketches to be built per time interval or
+ * per thread and combined when reporting.
+ *<p>
+ * Instances of this class are <b>not</b> safe for use by multiple threads without external
+ * synchronization.
+ */
+@NotThreadSafe
+public class QuantileSketch
+{
+    /** The lowest relative accuracy a sketch can be created with. */
+    static public final double MIN_RELATIVE_ACCURACY = 1e-5;
+
+    /** The maximum number of buckets for the values of each sign. */
+    static public final int MAX_NUM_BUCKETS = 1 << 20;
+
+    private final double fRelativeAccuracy;
+    private final double fGamma;
+    private final double fLogGamma;
+
+    // Values with a magnitude less than this value are counted as zero.
+    private final double fMinIndexableValue;
+
+    private final BucketStore fPositiveValues = new BucketStore();
+    private final BucketStore fNegativeValues = new BucketStore();
+    private long fZeroCount;
+    private long fCount;
+    private double fMin = Double.POSITIVE_INFINITY;
+    private double fMax = Double.NEGATIVE_INFINITY;
+
+
+    /**
+     * Create a new empty {@code QuantileSketch}.
+     *
+     * @param pRelativeAccuracy The relative accuracy of the quantile estimates, e.g. 0.01 for 1%.
+     *
+     * @throws IllegalArgumentException if {@code pRelativeAccuracy} is less than
+     *                                  {@link #MIN_RELATIVE_ACCURACY} or not less than 1.
+     */
+    public QuantileSketch(double pRelativeAccuracy)
+    {
+        if (!(pRelativeAccuracy >= MIN_RELATIVE_ACCURACY && pRelativeAccuracy < 1))
+            throw new IllegalArgumentException("Invalid relative accuracy: " + pRelativeAccuracy);
+
+        fRelativeAccuracy = pRelativeAccuracy;
+        fGamma = (1 + pRelativeAccuracy) / (1 - pRelativeAccuracy);
+        fLogGamma = Math.log(fGamma);
+        fMinIndexableValue = Math.max(
+            Math.exp((Integer.MIN_VALUE + 1) * fLogGamma),
+            Double.MIN_NORMAL * fGamma);
+    }
+
+
+    /**
+     * Get the relative accuracy of this sketch's quantile estimates.
+     *
+     * @return  The relative accuracy.
+     */
+    public double getRelativeAccuracy()
+    {
+        return fRelativeAccuracy;
+    }
+
+
+    /**
+     * Get the number of values added to this sketch.
+     *
+     * @return  The number of values.
+     */
+    @Nonnegative
+    public long getCount()
+    {
+        return fCount;
+    }
+
+
+    /**
+     * Get the smallest value added to this sketch.
+     *
+     * @return  The smallest value.
+     *
+     * @throws NoSuchElementException if this sketch is empty.
+     */
+    public double getMin()
+    {
+        if (fCount == 0)
+            throw new NoSuchElementException();
+
+        return fMin;
+    }
+
+
+    /**
+     * Get the largest value added to this sketch.
+     *
+     * @return  The largest value.
+     *
+     * @throws NoSuchElementException if this sketch is empty.
+     */
+    public double getMax()
+    {
+        if (fCount == 0)
+            throw new NoSuchElementException();
+
+        return fMax;
+    }
+
+
+    /**
+     * Add a value to this sketch.
+     *
+     * @param pValue    The value to add.
+     *
+     * @return  This instance.
+     *
+     * @throws IllegalArgumentException if {@code pValue} is {@code NaN} or infinite.
+     */
+    @Nonnull
+    public QuantileSketch add(double pValue)
+    {
+        if (Double.isNaN(pValue) || Double.isInfinite(pValue))
+            throw new IllegalArgumentException("Cannot add " + pValue + " to a quantile sketch");
+
+        if (pValue >= fMinIndexableValue)
+            fPositiveValues.add(index(pValue), 1);
+        else if (pValue <= -fMinIndexableValue)
+            fNegativeValues.add(index(-pValue), 1);
+        else
+            fZeroCount++;
+
+        fCount++;
+        fMin = Math.min(fMin, pValue);
+        fMax = Math.max(fMax, pValue);
+        return this;
+    }
+
+
+    /**
+     * Add all values in a {@code LongSequence} to this sketch.
+     *
+     * @param pValues   The values to add.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    @Nonnull
+    public QuantileSketch addAll(@Nonnull LongSequence pValues)
+    {
+        pValues.forEach((long v) -> add(v));
+        return this;
+    }
+
+
+    /**
+     * Add all values in a {@code DoubleSequence} to this sketch.
+     *
+     * @param pValues   The values to add.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IllegalArgumentException if any of the values is {@code NaN} or infinite. The values
+     *                                  preceding the invalid value will have been added.
+     */
+    @Nonnull
+    public QuantileSketch addAll(@Nonnull DoubleSequence pValues)
+    {
+        pValues.forEach((double v) -> add(v));
+        return this;
+    }
+
+
+    /**
+     * Add the values of another sketch to this sketch. The other sketch is not modified.
+     *
+     * @param pOther    The sketch to merge into this sketch.
+     *
+     * @return  This instance.
+     *
+     * @throws NullPointerException if {@code pOther} is null.
+     * @throws IllegalArgumentException if {@code pOther} has another relative accuracy than this
+     *                                  sketch.
+     */
+    @Nonnull
+    public QuantileSketch merge(@Nonnull QuantileSketch pOther)
+    {
+        if (Double.compare(pOther.fRelativeAccuracy, fRelativeAccuracy) != 0)
+            throw new IllegalArgumentException(
+                "Cannot merge sketch with relative accuracy " + pOther.fRelativeAccuracy
+                + " into sketch with relative accuracy " + fRelativeAccuracy);
+
+        if (pOther.fCount == 0)
+            return this;
+
+        fPositiveValues.merge(pOther.fPositiveValues);
+        fNegativeValues.merge(pOther.fNegativeValues);
+        fZeroCount += pOther.fZeroCount;
+        fCount += pOther.fCount;
+        fMin = Math.min(fMin, pOther.fMin);
+        fMax = Math.max(fMax, pOther.fMax);
+        return this;
+    }
+
+
+    /**
+     * Estimate the value at a quantile of the values added to this sketch.
+     *
+     * @param pQuantile The quantile, where 0 is the smallest value, 0.5 the median, and 1 the
+     *                  largest value.
+     *
+     * @return  The estimated value at the quantile, within the relative accuracy of this sketch
+     *          and within the range of the values added. The smallest and largest values are
+     *          returned exactly.
+     *
+     * @throws IllegalArgumentException if {@code pQuantile} is less than 0 or greater than 1.
+     * @throws NoSuchElementException if this sketch is empty.
+     */
+    public double quantile(double pQuantile)
+    {
+        if (!(pQuantile >= 0 && pQuantile <= 1))
+            throw new IllegalArgumentException("Invalid quantile: " + pQuantile);
+        if (fCount == 0)
+            throw new NoSuchElementException();
+
+        // The rank of the value at the quantile, where 0 is the rank of the smallest value.
+        long aRank = (long) (pQuantile * (fCount - 1));
+        if (aRank == 0)
+            return fMin;
+        else if (aRank == fCount - 1)
+            return fMax;
+
+        double aEstimate;
+        long aNegativeCount = fNegativeValues.getTotalCount();
+        if (aRank < aNegativeCount)
+            // The negative values are stored by magnitude, the largest magnitude has the lowest
+            // rank.
+            aEstimate = -value(fNegativeValues.indexOfRank(aNegativeCount - 1 - aRank));
+        else if (aRank < aNegativeCount + fZeroCount)
+            aEstimate = 0;
+        else
+            aEstimate = value(fPositiveValues.indexOfRank(aRank - aNegativeCount - fZeroCount));
+
+        return Math.max(fMin, Math.min(fMax, aEstimate));
+    }
+
+
+    /**
+     * Remove all values from this sketch.
+     *
+     * @return  This instance.
+     */
+    @Nonnull
+    public QuantileSketch clear()
+    {
+        fPositiveValues.clear();
+        fNegativeValues.clear();
+        fZeroCount = 0;
+        fCount = 0;
+        fMin = Double.POSITIVE_INFINITY;
+        fMax = Double.NEGATIVE_INFINITY;
+        return this;
+    }
+
+
+    /**
+     * Get the index of the bucket for a positive value. The bucket with index {@code i} contains
+     * the values in the range <tt>(gamma<sup>i-1</sup>, gamma<sup>i</sup>]</tt>.
+     *
+     * @param pValue    The value, must be greater than or equal to the minimum indexable value.
+     *
+     * @return  The bucket index.
+     */
+    private int index(double pValue)
+    {
+        return (int) Math.ceil(Math.log(pValue) / fLogGamma);
+    }
+
+
+    /**
+     * Get the value representing a bucket. The value is chosen to have the same relative distance
+     * to the lower and upper bounds of the bucket.
+     *
+     * @param pIndex    The bucket index.
+     *
+     * @return  The bucket's value.
+     */
+    private double value(int pIndex)
+    {
+        return 2 * Math.exp(pIndex * fLogGamma) / (fGamma + 1);
+    }
+
+
+    /**
+     * The counts of the values in a contiguous range of buckets, stored in an array that grows as
+     * needed up to {@link #MAX_NUM_BUCKETS} buckets. When the counts need more buckets than that,
+     * the buckets with the lowest indexes are collapsed into the lowest remaining bucket.
+     */
+    static private class BucketStore
+    {
+        static private final long[] NO_COUNTS = new long[0];
+
+        private long[] fCounts = NO_COUNTS;
+
+        // The bucket index of the first element in fCounts.
+        private int fOffset;
+
+        private long fTotalCount;
+
+        /**
+         * Get the total number of values in this store's buckets.
+         *
+         * @return  The number of values.
+         */
+        long getTotalCount()
+        {
+            return fTotalCount;
+        }
+
+        /**
+         * Add a count to a bucket.
+         *
+         * @param pIndex    The bucket index. An index below the lowest bucket is counted in that
+         *                  bucket.
+         * @param pCount    The count to add.
+         */
+        void add(int pIndex, long pCount)
+        {
+            ensureRange(pIndex, pIndex);
+            fCounts[Math.max(pIndex, fOffset) - fOffset] += pCount;
+            fTotalCount += pCount;
+        }
+
+        /**
+         * Add the counts of another store to this store.
+         *
+         * @param pOther    The store to add the counts of.
+         */
+        void merge(@Nonnull BucketStore pOther)
+        {
+            requireNonNull(pOther);
+            if (pOther.fTotalCount == 0)
+                return;
+
+            long[] aOtherCounts = pOther.fCounts;
+            ensureRange(pOther.fOffset, pOther.fOffset + aOtherCounts.length - 1);
+            for (int i=0; i<aOtherCounts.length; i++)
+                fCounts[Math.max(pOther.fOffset + i, fOffset) - fOffset] += aOtherCounts[i];
+
+            fTotalCount += pOther.fTotalCount;
+        }
+
+        /**
+         * Get the index of the bucket containing the value with a specific rank.
+         *
+         * @param pRank The rank, where 0 is the rank of the value in the lowest bucket. Must be
+         *              less than the total count.
+         *
+         * @return  The bucket index.
+         */
+        int indexOfRank(long pRank)
+        {
+            long aCumulativeCount = 0;
+            for (int i=0; i<fCounts.length; i++)
+            {
+                aCumulativeCount += fCounts[i];
+                if (aCumulativeCount > pRank)
+                    return fOffset + i;
+            }
+
+            // Not reached if the rank is less than the total count.
+            return fOffset + fCounts.length - 1;
+        }
+
+        /**
+         * Remove all counts from this store.
+         */
+        void clear()
+        {
+            Arrays.fill(fCounts, 0);
+            fTotalCount = 0;
+        }
+
+        /**
+         * Make sure the counts array covers a range of bucket indexes. If the range and the
+         * currently covered range together span more than {@link #MAX_NUM_BUCKETS} buckets, only
+         * the highest buckets are covered, and the counts of the lower buckets are moved to the
+         * lowest covered bucket.
+         *
+         * @param pMinIndex The smallest index to cover.
+         * @param pMaxIndex The largest index to cover.
+         */
+        private void ensureRange(int pMinIndex, int pMaxIndex)
+        {
+            if (fCounts.length == 0)
+            {
+                fOffset = (int) Math.max(pMinIndex, (long) pMaxIndex - MAX_NUM_BUCKETS + 1);
+                fCounts = new long[pMaxIndex - fOffset + 1];
+                return;
+            }
+
+            long aMaxIndex = (long) fOffset + fCounts.length - 1;
+            if (pMinIndex >= fOffset && pMaxIndex <= aMaxIndex)
+                return;
+
+            long aNewMin = Math.min(pMinIndex, fOffset);
+            long aNewMax = Math.max(pMaxIndex, aMaxIndex);
+
+            // Grow the array with some slack on the extended side to avoid frequent copying, but
+            // not beyond the maximum number of buckets.
+            long aSpan = aNewMax - aNewMin + 1;
+            long aSlack = Math.min(Math.max(16, aSpan / 4), MAX_NUM_BUCKETS - aSpan);
+            if (aSlack > 0)
+            {
+                if (aNewMax > aMaxIndex)
+                    aNewMax = Math.min(Integer.MAX_VALUE, aNewMax + aSlack);
+                else
+                    aNewMin = Math.max(Integer.MIN_VALUE, aNewMin - aSlack);
+            }
+
+            // Collapse the lowest buckets if the range is too wide.
+            aNewMin = Math.max(aNewMin, aNewMax - MAX_NUM_BUCKETS + 1);
+            if (aNewMin == fOffset && aNewMax == aMaxIndex)
+                return;
+
+            long[] aNewCounts = new long[(int) (aNewMax - aNewMin + 1)];
+            if (aNewMin <= fOffset)
+                System.arraycopy(fCounts, 0, aNewCounts, (int) (fOffset - aNewMin), fCounts.length);
+            else
+            {
+                for (int i=0; i<fCounts.length; i++)
+                    aNewCounts[(int) (Math.max(fOffset + i, aNewMin) - aNewMin)] += fCounts[i];
+            }
+
+            fCounts = aNewCounts;
+            fOffset = (int) aNewMin;
+        }
+    }
+}
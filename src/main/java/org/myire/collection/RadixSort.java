@@ -0,0 +1,825 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.IntConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+import static org.myire.util.Numbers.requireRangeWithinBounds;
+
+
+/**
+ * Least significant digit (LSD) radix sort for primitive arrays and sequences. The values are
+ * sorted one byte at a time, starting with the least significant byte, with a counting sort that
+ * is stable. The time complexity is linear in the number of values, and no values are boxed.
+ *<p>
+ * The counts of all bytes are collected in one pass before the sorting starts, and a byte is
+ * skipped if it has the same value in all values to sort. Sorting values that only use the lower
+ * bits of their type, e.g. {@code long} timestamps or small {@code int} identifiers, therefore
+ * requires fewer passes than the width of the type.
+ *<p>
+ * The in-place methods sort arrays, including arrays wrapped in sequences by
+ * {@link PrimitiveSequences#wrap(int[])} and its siblings. The out-of-place methods sort the values
+ * of any primitive sequence into a new sequence. The permutation methods return the indexes of the
+ * values in sorted order, which can be used to reorder other sequences to match, e.g. through
+ * {@link ColumnBatch#select(IntSequence)}.
+ *<p>
+ * {@code double} values are sorted in the same order as {@link Arrays#sort(double[])} sorts them:
+ * {@code -0.0} is less than {@code 0.0}, and {@code NaN} is greater than all other values.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public final class RadixSort
+{
+    static private final int RADIX = 256;
+    static private final int DIGIT_BITS = 8;
+    static private final int DIGIT_MASK = RADIX - 1;
+
+    // Arrays shorter than this are sorted with Arrays.sort, which is faster for small arrays.
+    static private final int RADIX_THRESHOLD = 64;
+
+    // Arrays shorter than this are sorted sequentially by the parallel sort methods.
+    static private final int PARALLEL_THRESHOLD = 1 << 16;
+
+    // The minimum number of values in a chunk processed by a parallel task.
+    static private final int MIN_CHUNK_SIZE = 1 << 13;
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private RadixSort()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Sort an array of {@code int} values in ascending order.
+     *
+     * @param pValues   The array to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    static public void sort(@Nonnull int[] pValues)
+    {
+        sort(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Sort a range of an array of {@code int} values in ascending order.
+     *
+     * @param pValues   The array to sort.
+     * @param pOffset   The index of the first value to sort.
+     * @param pLength   The number of values to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} or {@code pLength} is negative, or if
+     *                                   {@code pOffset + pLength} is greater than the length of
+     *                                   {@code pValues}.
+     */
+    static public void sort(
+        @Nonnull int[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength)
+    {
+        requireRangeWithinBounds(pOffset, pLength, pValues.length);
+        if (pLength < RADIX_THRESHOLD)
+            Arrays.sort(pValues, pOffset, pOffset + pLength);
+        else
+            radixSort(pValues, pOffset, pLength, new int[pLength], null, null);
+    }
+
+
+    /**
+     * Sort an array of {@code long} values in ascending order.
+     *
+     * @param pValues   The array to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    static public void sort(@Nonnull long[] pValues)
+    {
+        sort(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Sort a range of an array of {@code long} values in ascending order.
+     *
+     * @param pValues   The array to sort.
+     * @param pOffset   The index of the first value to sort.
+     * @param pLength   The number of values to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} or {@code pLength} is negative, or if
+     *                                   {@code pOffset + pLength} is greater than the length of
+     *                                   {@code pValues}.
+     */
+    static public void sort(
+        @Nonnull long[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength)
+    {
+        requireRangeWithinBounds(pOffset, pLength, pValues.length);
+        if (pLength < RADIX_THRESHOLD)
+            Arrays.sort(pValues, pOffset, pOffset + pLength);
+        else
+            radixSort(pValues, pOffset, pLength, new long[pLength], null, null);
+    }
+
+
+    /**
+     * Sort an array of {@code double} values in ascending order. The values are converted to
+     * {@code long} keys that are sorted in a temporary array, which requires additional memory
+     * of 16 bytes per value.
+     *
+     * @param pValues   The array to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    static public void sort(@Nonnull double[] pValues)
+    {
+        sort(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Sort a range of an array of {@code double} values in ascending order. The values are
+     * converted to {@code long} keys that are sorted in a temporary array, which requires
+     * additional memory of 16 bytes per value.
+     *
+     * @param pValues   The array to sort.
+     * @param pOffset   The index of the first value to sort.
+     * @param pLength   The number of values to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException if {@code pOffset} or {@code pLength} is negative, or if
+     *                                   {@code pOffset + pLength} is greater than the length of
+     *                                   {@code pValues}.
+     */
+    static public void sort(
+        @Nonnull double[] pValues,
+        @Nonnegative int pOffset,
+        @Nonnegative int pLength)
+    {
+        requireRangeWithinBounds(pOffset, pLength, pValues.length);
+        if (pLength < RADIX_THRESHOLD)
+        {
+            Arrays.sort(pValues, pOffset, pOffset + pLength);
+            return;
+        }
+
+        long[] aKeys = toKeys(pValues, pOffset, pLength);
+        radixSort(aKeys, 0, pLength, new long[pLength], null, null);
+        fromKeys(aKeys, pValues, pOffset);
+    }
+
+
+    /**
+     * Sort an array of {@code int} values in ascending order, using multiple threads in the
+     * common {@code ForkJoinPool} for large arrays. The values are divided into chunks, and the
+     * counting and distribution of each pass are performed on the chunks in parallel.
+     *
+     * @param pValues   The array to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    static public void parallelSort(@Nonnull int[] pValues)
+    {
+        int aNumChunks = numParallelChunks(pValues.length);
+        if (aNumChunks > 1)
+            parallelRadixSort(pValues, aNumChunks);
+        else
+            sort(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Sort an array of {@code long} values in ascending order, using multiple threads in the
+     * common {@code ForkJoinPool} for large arrays. The values are divided into chunks, and the
+     * counting and distribution of each pass are performed on the chunks in parallel.
+     *
+     * @param pValues   The array to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    static public void parallelSort(@Nonnull long[] pValues)
+    {
+        int aNumChunks = numParallelChunks(pValues.length);
+        if (aNumChunks > 1)
+            parallelRadixSort(pValues, aNumChunks);
+        else
+            sort(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Sort an array of {@code double} values in ascending order, using multiple threads in the
+     * common {@code ForkJoinPool} for large arrays. The values are converted to {@code long} keys
+     * that are sorted in a temporary array, which requires additional memory of 16 bytes per
+     * value.
+     *
+     * @param pValues   The array to sort.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    static public void parallelSort(@Nonnull double[] pValues)
+    {
+        int aNumChunks = numParallelChunks(pValues.length);
+        if (aNumChunks > 1)
+        {
+            long[] aKeys = toKeys(pValues, 0, pValues.length);
+            parallelRadixSort(aKeys, aNumChunks);
+            fromKeys(aKeys, pValues, 0);
+        }
+        else
+            sort(pValues, 0, pValues.length);
+    }
+
+
+    /**
+     * Create a new sequence with the values of an {@code IntSequence} sorted in ascending order.
+     *
+     * @param pSequence The sequence with the values to sort.
+     *
+     * @return  A new {@code IntSequence}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public IntSequence sorted(@Nonnull IntSequence pSequence)
+    {
+        int[] aValues = PrimitiveSequences.toArray(pSequence);
+        sort(aValues, 0, aValues.length);
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Create a new sequence with the values of a {@code LongSequence} sorted in ascending order.
+     *
+     * @param pSequence The sequence with the values to sort.
+     *
+     * @return  A new {@code LongSequence}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public LongSequence sorted(@Nonnull LongSequence pSequence)
+    {
+        long[] aValues = PrimitiveSequences.toArray(pSequence);
+        sort(aValues, 0, aValues.length);
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Create a new sequence with the values of a {@code DoubleSequence} sorted in ascending
+     * order.
+     *
+     * @param pSequence The sequence with the values to sort.
+     *
+     * @return  A new {@code DoubleSequence}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public DoubleSequence sorted(@Nonnull DoubleSequence pSequence)
+    {
+        double[] aValues = PrimitiveSequences.toArray(pSequence);
+        sort(aValues, 0, aValues.length);
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Get the permutation that sorts the values of an {@code IntSequence} in ascending order.
+     * The sort is stable; equal values keep their relative order.
+     *
+     * @param pSequence The sequence with the values to sort.
+     *
+     * @return  A new {@code IntSequence} where the value at index <i>i</i> is the index in
+     *          {@code pSequence} of the <i>i</i>th smallest value. Never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public IntSequence sortedIndexes(@Nonnull IntSequence pSequence)
+    {
+        int aSize = pSequence.size();
+        int[] aKeys = PrimitiveSequences.toArray(pSequence);
+        int[] aIndexes = identityPermutation(aSize);
+        radixSort(aKeys, 0, aSize, new int[aSize], aIndexes, new int[aSize]);
+        return PrimitiveSequences.wrap(aIndexes);
+    }
+
+
+    /**
+     * Get the permutation that sorts the values of a {@code LongSequence} in ascending order.
+     * The sort is stable; equal values keep their relative order.
+     *
+     * @param pSequence The sequence with the values to sort.
+     *
+     * @return  A new {@code IntSequence} where the value at index <i>i</i> is the index in
+     *          {@code pSequence} of the <i>i</i>th smallest value. Never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public IntSequence sortedIndexes(@Nonnull LongSequence pSequence)
+    {
+        int aSize = pSequence.size();
+        long[] aKeys = PrimitiveSequences.toArray(pSequence);
+        int[] aIndexes = identityPermutation(aSize);
+        radixSort(aKeys, 0, aSize, new long[aSize], aIndexes, new int[aSize]);
+        return PrimitiveSequences.wrap(aIndexes);
+    }
+
+
+    /**
+     * Get the permutation that sorts the values of a {@code DoubleSequence} in ascending order.
+     * The sort is stable; equal values keep their relative order.
+     *
+     * @param pSequence The sequence with the values to sort.
+     *
+     * @return  A new {@code IntSequence} where the value at index <i>i</i> is the index in
+     *          {@code pSequence} of the <i>i</i>th smallest value. Never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public IntSequence sortedIndexes(@Nonnull DoubleSequence pSequence)
+    {
+        int aSize = pSequence.size();
+        long[] aKeys = new long[aSize];
+        for (int i=0; i<aSize; i++)
+            aKeys[i] = toKey(pSequence.valueAt(i));
+
+        int[] aIndexes = identityPermutation(aSize);
+        radixSort(aKeys, 0, aSize, new long[aSize], aIndexes, new int[aSize]);
+        return PrimitiveSequences.wrap(aIndexes);
+    }
+
+
+    /**
+     * Sort a range of an array of {@code int} values, optionally moving the elements of an index
+     * array along with the values.
+     *
+     * @param pValues           The values to sort.
+     * @param pOffset           The index of the first value to sort.
+     * @param pLength           The number of values to sort.
+     * @param pBuffer           A buffer with at least {@code pLength} elements.
+     * @param pIndexes          The indexes to move along with the values, or null. If non-null,
+     *                          this array must have {@code pLength} elements and
+     *                          {@code pOffset} must be 0.
+     * @param pIndexBuffer      A buffer for the indexes, null if {@code pIndexes} is null.
+     */
+    static private void radixSort(
+        @Nonnull int[] pValues,
+        int pOffset,
+        int pLength,
+        @Nonnull int[] pBuffer,
+        int[] pIndexes,
+        int[] pIndexBuffer)
+    {
+        if (pLength == 0)
+            return;
+
+        // Collect the counts of all digits in one pass. The sign bit is flipped to make the
+        // unsigned order of the digits match the signed order of the values.
+        int[][] aCounts = new int[Integer.BYTES][RADIX];
+        for (int i=pOffset; i<pOffset+pLength; i++)
+        {
+            int aKey = pValues[i] ^ Integer.MIN_VALUE;
+            for (int d=0; d<Integer.BYTES; d++)
+                aCounts[d][(aKey >>> (d * DIGIT_BITS)) & DIGIT_MASK]++;
+        }
+
+        int[] aSource = pValues, aDestination = pBuffer;
+        int aSourceOffset = pOffset, aDestinationOffset = 0;
+        int[] aSourceIndexes = pIndexes, aDestinationIndexes = pIndexBuffer;
+        int aFirstKey = pValues[pOffset] ^ Integer.MIN_VALUE;
+        for (int d=0; d<Integer.BYTES; d++)
+        {
+            int aShift = d * DIGIT_BITS;
+            int[] aOffsets = aCounts[d];
+            if (aOffsets[(aFirstKey >>> aShift) & DIGIT_MASK] == pLength)
+                // All values have the same digit, the pass wouldn't change their order.
+                continue;
+
+            toStartOffsets(aOffsets, aDestinationOffset);
+            for (int i=0; i<pLength; i++)
+            {
+                int aValue = aSource[aSourceOffset + i];
+                int aDigit = ((aValue ^ Integer.MIN_VALUE) >>> aShift) & DIGIT_MASK;
+                int aPosition = aOffsets[aDigit]++;
+                aDestination[aPosition] = aValue;
+                if (aSourceIndexes != null)
+                    aDestinationIndexes[aPosition - aDestinationOffset] = aSourceIndexes[i];
+            }
+
+            int[] aTemp = aSource;
+            aSource = aDestination;
+            aDestination = aTemp;
+            int aTempOffset = aSourceOffset;
+            aSourceOffset = aDestinationOffset;
+            aDestinationOffset = aTempOffset;
+            aTemp = aSourceIndexes;
+            aSourceIndexes = aDestinationIndexes;
+            aDestinationIndexes = aTemp;
+        }
+
+        if (aSource != pValues)
+            System.arraycopy(aSource, aSourceOffset, pValues, pOffset, pLength);
+        if (aSourceIndexes != pIndexes)
+            System.arraycopy(aSourceIndexes, 0, pIndexes, 0, pLength);
+    }
+
+
+    /**
+     * Sort a range of an array of {@code long} values, optionally moving the elements of an index
+     * array along with the values.
+     *
+     * @param pValues           The values to sort.
+     * @param pOffset           The index of the first value to sort.
+     * @param pLength           The number of values to sort.
+     * @param pBuffer           A buffer with at least {@code pLength} elements.
+     * @param pIndexes          The indexes to move along with the values, or null. If non-null,
+     *                          this array must have {@code pLength} elements and
+     *                          {@code pOffset} must be 0.
+     * @param pIndexBuffer      A buffer for the indexes, null if {@code pIndexes} is null.
+     */
+    static private void radixSort(
+        @Nonnull long[] pValues,
+        int pOffset,
+        int pLength,
+        @Nonnull long[] pBuffer,
+        int[] pIndexes,
+        int[] pIndexBuffer)
+    {
+        if (pLength == 0)
+            return;
+
+        int[][] aCounts = new int[Long.BYTES][RADIX];
+        for (int i=pOffset; i<pOffset+pLength; i++)
+        {
+            long aKey = pValues[i] ^ Long.MIN_VALUE;
+            for (int d=0; d<Long.BYTES; d++)
+                aCounts[d][(int) (aKey >>> (d * DIGIT_BITS)) & DIGIT_MASK]++;
+        }
+
+        long[] aSource = pValues, aDestination = pBuffer;
+        int aSourceOffset = pOffset, aDestinationOffset = 0;
+        int[] aSourceIndexes = pIndexes, aDestinationIndexes = pIndexBuffer;
+        long aFirstKey = pValues[pOffset] ^ Long.MIN_VALUE;
+        for (int d=0; d<Long.BYTES; d++)
+        {
+            int aShift = d * DIGIT_BITS;
+            int[] aOffsets = aCounts[d];
+            if (aOffsets[(int) (aFirstKey >>> aShift) & DIGIT_MASK] == pLength)
+                continue;
+
+            toStartOffsets(aOffsets, aDestinationOffset);
+            for (int i=0; i<pLength; i++)
+            {
+                long aValue = aSource[aSourceOffset + i];
+                int aDigit = (int) ((aValue ^ Long.MIN_VALUE) >>> aShift) & DIGIT_MASK;
+                int aPosition = aOffsets[aDigit]++;
+                aDestination[aPosition] = aValue;
+                if (aSourceIndexes != null)
+                    aDestinationIndexes[aPosition - aDestinationOffset] = aSourceIndexes[i];
+            }
+
+            long[] aTemp = aSource;
+            aSource = aDestination;
+            aDestination = aTemp;
+            int aTempOffset = aSourceOffset;
+            aSourceOffset = aDestinationOffset;
+            aDestinationOffset = aTempOffset;
+            int[] aTempIndexes = aSourceIndexes;
+            aSourceIndexes = aDestinationIndexes;
+            aDestinationIndexes = aTempIndexes;
+        }
+
+        if (aSource != pValues)
+            System.arraycopy(aSource, aSourceOffset, pValues, pOffset, pLength);
+        if (aSourceIndexes != pIndexes)
+            System.arraycopy(aSourceIndexes, 0, pIndexes, 0, pLength);
+    }
+
+
+    /**
+     * Sort an array of {@code int} values with the counting and distribution of each pass
+     * performed on chunks of the array in parallel. Package private for unit test purposes.
+     *
+     * @param pValues       The values to sort.
+     * @param pNumChunks    The number of chunks to divide the values into.
+     */
+    static void parallelRadixSort(@Nonnull int[] pValues, int pNumChunks)
+    {
+        int aLength = pValues.length;
+        int[] aSource = pValues, aDestination = new int[aLength];
+        int[][] aCounts = new int[pNumChunks][];
+        for (int d=0; d<Integer.BYTES; d++)
+        {
+            int aShift = d * DIGIT_BITS;
+            int[] aChunkSource = aSource, aChunkDestination = aDestination;
+            parallelForEachChunk(pNumChunks, c -> {
+                int[] aChunkCounts = new int[RADIX];
+                int aEnd = chunkStart(c + 1, pNumChunks, aLength);
+                for (int i=chunkStart(c, pNumChunks, aLength); i<aEnd; i++)
+                    aChunkCounts[((aChunkSource[i] ^ Integer.MIN_VALUE) >>> aShift) & DIGIT_MASK]++;
+                aCounts[c] = aChunkCounts;
+            });
+
+            if (!toChunkStartOffsets(aCounts, aLength))
+                // All values have the same digit, the pass wouldn't change their order.
+                continue;
+
+            parallelForEachChunk(pNumChunks, c -> {
+                int[] aOffsets = aCounts[c];
+                int aEnd = chunkStart(c + 1, pNumChunks, aLength);
+                for (int i=chunkStart(c, pNumChunks, aLength); i<aEnd; i++)
+                {
+                    int aValue = aChunkSource[i];
+                    int aDigit = ((aValue ^ Integer.MIN_VALUE) >>> aShift) & DIGIT_MASK;
+                    aChunkDestination[aOffsets[aDigit]++] = aValue;
+                }
+            });
+
+            aSource = aChunkDestination;
+            aDestination = aChunkSource;
+        }
+
+        if (aSource != pValues)
+            System.arraycopy(aSource, 0, pValues, 0, aLength);
+    }
+
+
+    /**
+     * Sort an array of {@code long} values with the counting and distribution of each pass
+     * performed on chunks of the array in parallel. Package private for unit test purposes.
+     *
+     * @param pValues       The values to sort.
+     * @param pNumChunks    The number of chunks to divide the values into.
+     */
+    static void parallelRadixSort(@Nonnull long[] pValues, int pNumChunks)
+    {
+        int aLength = pValues.length;
+        long[] aSource = pValues, aDestination = new long[aLength];
+        int[][] aCounts = new int[pNumChunks][];
+        for (int d=0; d<Long.BYTES; d++)
+        {
+            int aShift = d * DIGIT_BITS;
+            long[] aChunkSource = aSource, aChunkDestination = aDestination;
+            parallelForEachChunk(pNumChunks, c -> {
+                int[] aChunkCounts = new int[RADIX];
+                int aEnd = chunkStart(c + 1, pNumChunks, aLength);
+                for (int i=chunkStart(c, pNumChunks, aLength); i<aEnd; i++)
+                {
+                    long aKey = aChunkSource[i] ^ Long.MIN_VALUE;
+                    aChunkCounts[(int) (aKey >>> aShift) & DIGIT_MASK]++;
+                }
+                aCounts[c] = aChunkCounts;
+            });
+
+            if (!toChunkStartOffsets(aCounts, aLength))
+                continue;
+
+            parallelForEachChunk(pNumChunks, c -> {
+                int[] aOffsets = aCounts[c];
+                int aEnd = chunkStart(c + 1, pNumChunks, aLength);
+                for (int i=chunkStart(c, pNumChunks, aLength); i<aEnd; i++)
+                {
+                    long aValue = aChunkSource[i];
+                    int aDigit = (int) ((aValue ^ Long.MIN_VALUE) >>> aShift) & DIGIT_MASK;
+                    aChunkDestination[aOffsets[aDigit]++] = aValue;
+                }
+            });
+
+            aSource = aChunkDestination;
+            aDestination = aChunkSource;
+        }
+
+        if (aSource != pValues)
+            System.arraycopy(aSource, 0, pValues, 0, aLength);
+    }
+
+
+    /**
+     * Convert the digit counts of one pass into the offsets in the destination array where each
+     * digit's values start.
+     *
+     * @param pCounts   The count of each digit. On return, this array contains the start offsets.
+     * @param pBase     The offset of the first value in the destination array.
+     */
+    static private void toStartOffsets(@Nonnull int[] pCounts, int pBase)
+    {
+        int aOffset = pBase;
+        for (int i=0; i<RADIX; i++)
+        {
+            int aCount = pCounts[i];
+            pCounts[i] = aOffset;
+            aOffset += aCount;
+        }
+    }
+
+
+    /**
+     * Convert the digit counts of each chunk in one pass into the offsets in the destination array
+     * where each chunk's values with each digit start. The values with a digit from a chunk are
+     * placed after the values with the same digit from the preceding chunks, which keeps the sort
+     * stable.
+     *
+     * @param pCounts   The count of each digit in each chunk. On return, this array contains the
+     *                  start offsets.
+     * @param pLength   The total number of values.
+     *
+     * @return  True if the pass should be performed, false if all values have the same digit.
+     */
+    static private boolean toChunkStartOffsets(@Nonnull int[][] pCounts, int pLength)
+    {
+        int aOffset = 0;
+        for (int i=0; i<RADIX; i++)
+        {
+            int aDigitStart = aOffset;
+            for (int[] aChunkCounts : pCounts)
+            {
+                int aCount = aChunkCounts[i];
+                aChunkCounts[i] = aOffset;
+                aOffset += aCount;
+            }
+
+            if (aOffset - aDigitStart == pLength)
+                return false;
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Get the number of chunks to divide an array into when sorting it in parallel.
+     *
+     * @param pLength   The length of the array.
+     *
+     * @return  The number of chunks, 1 if the array should be sorted sequentially.
+     */
+    static private int numParallelChunks(int pLength)
+    {
+        int aParallelism = ForkJoinPool.getCommonPoolParallelism();
+        if (pLength < PARALLEL_THRESHOLD || aParallelism < 2)
+            return 1;
+
+        return Math.min(aParallelism * 4, pLength / MIN_CHUNK_SIZE);
+    }
+
+
+    /**
+     * Get the index of the first value in a chunk.
+     *
+     * @param pChunk        The index of the chunk.
+     * @param pNumChunks    The total number of chunks.
+     * @param pLength       The total number of values.
+     *
+     * @return  The index of the chunk's first value, or {@code pLength} if {@code pChunk} equals
+     *          {@code pNumChunks}.
+     */
+    static private int chunkStart(int pChunk, int pNumChunks, int pLength)
+    {
+        return (int) ((long) pChunk * pLength / pNumChunks);
+    }
+
+
+    /**
+     * Perform an action for each chunk index in parallel in the common {@code ForkJoinPool}, and
+     * wait for all actions to complete.
+     *
+     * @param pNumChunks    The number of chunks.
+     * @param pAction       The action to perform for each chunk index.
+     */
+    static private void parallelForEachChunk(int pNumChunks, @Nonnull IntConsumer pAction)
+    {
+        ForkJoinPool.commonPool().invoke(new ChunkAction(0, pNumChunks, requireNonNull(pAction)));
+    }
+
+
+    /**
+     * Create an array with the values 0 to {@code pSize - 1}.
+     *
+     * @param pSize The size of the array.
+     *
+     * @return  A new array, never null.
+     */
+    @Nonnull
+    static private int[] identityPermutation(int pSize)
+    {
+        int[] aIndexes = new int[pSize];
+        for (int i=0; i<pSize; i++)
+            aIndexes[i] = i;
+
+        return aIndexes;
+    }
+
+
+    /**
+     * Convert a {@code double} value to a {@code long} key with the same signed order as the
+     * order defined by {@link Double#compare(double, double)}. The conversion is its own inverse
+     * for all values except non-canonical {@code NaN} values, which are mapped to the canonical
+     * {@code NaN}.
+     *
+     * @param pValue    The value to convert.
+     *
+     * @return  The key.
+     */
+    static private long toKey(double pValue)
+    {
+        long aBits = Double.doubleToLongBits(pValue);
+        return aBits ^ ((aBits >> 63) & Long.MAX_VALUE);
+    }
+
+
+    /**
+     * Convert a range of {@code double} values to sort keys.
+     *
+     * @param pValues   The values.
+     * @param pOffset   The index of the first value to convert.
+     * @param pLength   The number of values to convert.
+     *
+     * @return  A new array with the keys, never null.
+     */
+    @Nonnull
+    static private long[] toKeys(@Nonnull double[] pValues, int pOffset, int pLength)
+    {
+        long[] aKeys = new long[pLength];
+        for (int i=0; i<pLength; i++)
+            aKeys[i] = toKey(pValues[pOffset + i]);
+
+        return aKeys;
+    }
+
+
+    /**
+     * Convert sort keys back to {@code double} values.
+     *
+     * @param pKeys     The keys.
+     * @param pValues   The array to store the values in.
+     * @param pOffset   The index in {@code pValues} to store the first value at.
+     */
+    static private void fromKeys(@Nonnull long[] pKeys, @Nonnull double[] pValues, int pOffset)
+    {
+        for (int i=0; i<pKeys.length; i++)
+        {
+            long aKey = pKeys[i];
+            pValues[pOffset + i] = Double.longBitsToDouble(aKey ^ ((aKey >> 63) & Long.MAX_VALUE));
+        }
+    }
+
+
+    /**
+     * A fork-join action that performs an action for a range of chunk indexes, splitting the range
+     * into sub-actions until it contains a single chunk.
+     */
+    static private class ChunkAction extends RecursiveAction
+    {
+        static private final long serialVersionUID = 1L;
+
+        private final int fFrom;
+        private final int fTo;
+        private final transient IntConsumer fAction;
+
+        ChunkAction(int pFrom, int pTo, @Nonnull IntConsumer pAction)
+        {
+            fFrom = pFrom;
+            fTo = pTo;
+            fAction = pAction;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (fTo - fFrom == 1)
+                fAction.accept(fFrom);
+            else
+            {
+                int aMiddle = (fFrom + fTo) >>> 1;
+                invokeAll(
+                    new ChunkAction(fFrom, aMiddle, fAction),
+                    new ChunkAction(aMiddle, fTo, fAction));
+            }
+        }
+    }
+}
@@ -1,11 +1,14 @@
 /*
- * Copyright 2013, 2017, 2021-2022 Peter Franzen. All rights reserved.
+ * Copyright 2013, 2017, 2021-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
 package org.myire.collection;
 
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 import javax.annotation.Nonnegative;
 import javax.annotation.Nonnull;
@@ -59,4 +62,65 @@ public interface Sequence<E> extends Iterable<E>
     {
         return Iterators.sequenceIterator(this);
     }
+
+
+    /**
+     * Create a {@code Spliterator} over the elements in this sequence. The returned
+     * {@code Spliterator} reports the characteristics {@code ORDERED}, {@code SIZED}, and
+     * {@code SUBSIZED}, and splits on index ranges.
+     *<p>
+     * Note that a class implementing both {@code Sequence} and {@code java.util.Collection}
+     * inherits unrelated default implementations of this method and of {@link #stream()}, and
+     * will not compile unless it overrides each of these methods that it doesn't inherit from a
+     * superclass. Such a class can typically delegate to
+     * {@code Collection.super.spliterator()} and {@code Collection.super.stream()}.
+     *
+     * @return  A new {@code Spliterator}, never null.
+     */
+    @Override
+    @Nonnull
+    default Spliterator<E> spliterator()
+    {
+        return SequenceSpliterators.spliterator(this);
+    }
+
+    /**
+     * Get a view of the elements in this sequence between {@code pFromIndex}, inclusive, and
+     * {@code pToIndex}, exclusive. The returned sequence is backed by this sequence; no elements
+     * are copied, and replacing an element in the underlying structure will also replace the
+     * element in the view. The size of the view is fixed when it is created, and its behavior is
+     * unspecified if the size of this sequence is reduced to less than {@code pToIndex}.
+     *<p>
+     * Taking a sub-sequence of a sub-sequence returns a view of the original sequence, not a view
+     * of a view.
+     *
+     * @param pFromIndex    The index of the first element in the sub-sequence.
+     * @param pToIndex      The index after the last element in the sub-sequence.
+     *
+     * @return  A sequence with the elements in the specified range, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than {@link #size()}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    default Sequence<E> subSequence(@Nonnegative int pFromIndex, @Nonnegative int pToIndex)
+    {
+        return Sequences.subSequence(this, pFromIndex, pToIndex);
+    }
+
+    /**
+     * Create a sequential {@code Stream} with the elements in this sequence as its source. Call
+     * {@code parallel()} on the returned stream to process the elements in parallel.
+     *<p>
+     * See {@link #spliterator()} for a note about classes implementing both {@code Sequence} and
+     * {@code java.util.Collection}.
+     *
+     * @return  A new {@code Stream}, never null.
+     */
+    @Nonnull
+    default Stream<E> stream()
+    {
+        return StreamSupport.stream(spliterator(), false);
+    }
 }
@@ -0,0 +1,1048 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+import org.myire.util.ByteArrayBuilder;
+import org.myire.util.MalformedDataException;
+
+
+/**
+ * Binary encoding and decoding of primitive sequences. An encoded sequence consists of a 13 byte
+ * header followed by the encoded values. The header contains a format byte, the number of values
+ * as a 4 byte integer, and the length of the encoded values in bytes as an 8 byte integer. All
+ * multi-byte quantities are stored in big-endian byte order.
+ *<p>
+ * The values are encoded in one of two ways, see {@link Encoding}:
+ *<ul>
+ * <li>With a fixed width, 4 bytes for {@code int} values and 8 bytes for {@code long} and
+ *     {@code double} values. The values are copied in bulk through the views of a
+ *     {@code ByteBuffer}, and encoding takes advantage of sequences that pass their values in
+ *     array chunks, see {@link IntSequence#forEachChunk(org.myire.util.IntArrayConsumer)}.</li>
+ * <li>As zigzag encoded variable length integers, which for values of small magnitude, positive
+ *     or negative, use 1 or 2 bytes per value. This encoding is available for {@code int} and
+ *     {@code long} values.</li>
+ *</ul>
+ * Encoded sequences can be appended to a {@code ByteArrayBuilder} or written to a
+ * {@code WritableByteChannel}, and decoded from a {@code ByteBuffer} or read from a
+ * {@code ReadableByteChannel}. Reading from a channel never reads past the end of the encoded
+ * sequence, which means that several sequences can be written to and read from the same channel.
+ * The decoded values are returned in array-backed sequences.
+ */
+public final class SequenceCodec
+{
+    /**
+     * The encodings of the values in a sequence.
+     */
+    public enum Encoding
+    {
+        /** Values are encoded with 4 or 8 bytes each, depending on their type. */
+        FIXED_WIDTH,
+
+        /** Values are zigzag encoded and stored as variable length integers of 1 to 10 bytes. */
+        ZIGZAG_VARINT
+    }
+
+
+    static final int HEADER_LENGTH = 1 + Integer.BYTES + Long.BYTES;
+
+    // The format byte of the header.
+    static final byte INT_FIXED_WIDTH = 1;
+    static final byte INT_VARINT = 2;
+    static final byte LONG_FIXED_WIDTH = 3;
+    static final byte LONG_VARINT = 4;
+    static final byte DOUBLE_FIXED_WIDTH = 5;
+
+    // The maximum length of a variable length encoded long.
+    static private final int MAX_VARINT_LENGTH = 10;
+
+    // The capacity of the buffers used when writing to and reading from channels, and when
+    // appending to byte array builders.
+    static private final int BUFFER_CAPACITY = 1 << 16;
+
+    // The initial capacity of the value arrays when reading from channels. The arrays are grown
+    // as values are read, since the size in the header can't be trusted before the payload has
+    // been read.
+    static private final int INITIAL_READ_CAPACITY = 1 << 10;
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private SequenceCodec()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Encode an {@code IntSequence} and append it to a {@code ByteArrayBuilder}.
+     *
+     * @param pValues       The values to encode.
+     * @param pEncoding     The encoding to use for the values.
+     * @param pDestination  The builder to append the encoded sequence to.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void encode(
+        @Nonnull IntSequence pValues,
+        @Nonnull Encoding pEncoding,
+        @Nonnull ByteArrayBuilder pDestination)
+    {
+        requireNonNull(pDestination);
+        encode(pValues, pEncoding, newBuilderEncoder(pDestination));
+    }
+
+
+    /**
+     * Encode a {@code LongSequence} and append it to a {@code ByteArrayBuilder}.
+     *
+     * @param pValues       The values to encode.
+     * @param pEncoding     The encoding to use for the values.
+     * @param pDestination  The builder to append the encoded sequence to.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void encode(
+        @Nonnull LongSequence pValues,
+        @Nonnull Encoding pEncoding,
+        @Nonnull ByteArrayBuilder pDestination)
+    {
+        requireNonNull(pDestination);
+        encode(pValues, pEncoding, newBuilderEncoder(pDestination));
+    }
+
+
+    /**
+     * Encode a {@code DoubleSequence} with fixed width values and append it to a
+     * {@code ByteArrayBuilder}.
+     *
+     * @param pValues       The values to encode.
+     * @param pDestination  The builder to append the encoded sequence to.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void encode(
+        @Nonnull DoubleSequence pValues,
+        @Nonnull ByteArrayBuilder pDestination)
+    {
+        requireNonNull(pDestination);
+        encode(pValues, newBuilderEncoder(pDestination));
+    }
+
+
+    /**
+     * Encode an {@code IntSequence} and write it to a {@code WritableByteChannel}.
+     *
+     * @param pValues       The values to encode.
+     * @param pEncoding     The encoding to use for the values.
+     * @param pDestination  The channel to write the encoded sequence to.
+     *
+     * @throws IOException if writing to the channel fails.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void write(
+        @Nonnull IntSequence pValues,
+        @Nonnull Encoding pEncoding,
+        @Nonnull WritableByteChannel pDestination) throws IOException
+    {
+        requireNonNull(pDestination);
+        try
+        {
+            encode(pValues, pEncoding, newChannelEncoder(pDestination));
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+
+    /**
+     * Encode a {@code LongSequence} and write it to a {@code WritableByteChannel}.
+     *
+     * @param pValues       The values to encode.
+     * @param pEncoding     The encoding to use for the values.
+     * @param pDestination  The channel to write the encoded sequence to.
+     *
+     * @throws IOException if writing to the channel fails.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void write(
+        @Nonnull LongSequence pValues,
+        @Nonnull Encoding pEncoding,
+        @Nonnull WritableByteChannel pDestination) throws IOException
+    {
+        requireNonNull(pDestination);
+        try
+        {
+            encode(pValues, pEncoding, newChannelEncoder(pDestination));
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+
+    /**
+     * Encode a {@code DoubleSequence} with fixed width values and write it to a
+     * {@code WritableByteChannel}.
+     *
+     * @param pValues       The values to encode.
+     * @param pDestination  The channel to write the encoded sequence to.
+     *
+     * @throws IOException if writing to the channel fails.
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static public void write(
+        @Nonnull DoubleSequence pValues,
+        @Nonnull WritableByteChannel pDestination) throws IOException
+    {
+        requireNonNull(pDestination);
+        try
+        {
+            encode(pValues, newChannelEncoder(pDestination));
+        }
+        catch (UncheckedIOException e)
+        {
+            throw e.getCause();
+        }
+    }
+
+
+    /**
+     * Decode an {@code IntSequence} from a {@code ByteBuffer}. The sequence is decoded from the
+     * buffer's position, which is advanced past the encoded sequence. The byte order of the
+     * buffer is ignored.
+     *
+     * @param pSource   The buffer to decode the sequence from.
+     *
+     * @return  A new array-backed {@code IntSequence} with the decoded values, never null.
+     *
+     * @throws MalformedDataException if the buffer doesn't contain an encoded {@code IntSequence}
+     *                                at its position.
+     * @throws NullPointerException if {@code pSource} is null.
+     */
+    @Nonnull
+    static public IntSequence decodeIntSequence(@Nonnull ByteBuffer pSource)
+        throws MalformedDataException
+    {
+        Header aHeader = Header.decode(pSource, INT_FIXED_WIDTH, INT_VARINT);
+        ByteBuffer aPayload = aHeader.payloadOf(pSource);
+        int[] aValues = new int[aHeader.fSize];
+        if (aHeader.fFormat == INT_FIXED_WIDTH)
+            aPayload.asIntBuffer().get(aValues);
+        else
+        {
+            for (int i=0; i<aValues.length; i++)
+                aValues[i] = unzigzag(getVarInt(aPayload));
+
+            requireFullyDecoded(aPayload);
+        }
+
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Decode a {@code LongSequence} from a {@code ByteBuffer}. The sequence is decoded from the
+     * buffer's position, which is advanced past the encoded sequence. The byte order of the
+     * buffer is ignored.
+     *
+     * @param pSource   The buffer to decode the sequence from.
+     *
+     * @return  A new array-backed {@code LongSequence} with the decoded values, never null.
+     *
+     * @throws MalformedDataException if the buffer doesn't contain an encoded
+     *                                {@code LongSequence} at its position.
+     * @throws NullPointerException if {@code pSource} is null.
+     */
+    @Nonnull
+    static public LongSequence decodeLongSequence(@Nonnull ByteBuffer pSource)
+        throws MalformedDataException
+    {
+        Header aHeader = Header.decode(pSource, LONG_FIXED_WIDTH, LONG_VARINT);
+        ByteBuffer aPayload = aHeader.payloadOf(pSource);
+        long[] aValues = new long[aHeader.fSize];
+        if (aHeader.fFormat == LONG_FIXED_WIDTH)
+            aPayload.asLongBuffer().get(aValues);
+        else
+        {
+            for (int i=0; i<aValues.length; i++)
+                aValues[i] = unzigzag(getVarLong(aPayload));
+
+            requireFullyDecoded(aPayload);
+        }
+
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Decode a {@code DoubleSequence} from a {@code ByteBuffer}. The sequence is decoded from the
+     * buffer's position, which is advanced past the encoded sequence. The byte order of the
+     * buffer is ignored.
+     *
+     * @param pSource   The buffer to decode the sequence from.
+     *
+     * @return  A new array-backed {@code DoubleSequence} with the decoded values, never null.
+     *
+     * @throws MalformedDataException if the buffer doesn't contain an encoded
+     *                                {@code DoubleSequence} at its position.
+     * @throws NullPointerException if {@code pSource} is null.
+     */
+    @Nonnull
+    static public DoubleSequence decodeDoubleSequence(@Nonnull ByteBuffer pSource)
+        throws MalformedDataException
+    {
+        Header aHeader = Header.decode(pSource, DOUBLE_FIXED_WIDTH, DOUBLE_FIXED_WIDTH);
+        ByteBuffer aPayload = aHeader.payloadOf(pSource);
+        double[] aValues = new double[aHeader.fSize];
+        aPayload.asDoubleBuffer().get(aValues);
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Read an encoded {@code IntSequence} from a {@code ReadableByteChannel}. No bytes after the
+     * encoded sequence are read from the channel.
+     *
+     * @param pSource   The channel to read the sequence from.
+     *
+     * @return  A new array-backed {@code IntSequence} with the decoded values, never null.
+     *
+     * @throws IOException if reading from the channel fails, or if the end of the channel is
+     *                     reached before the entire sequence has been read.
+     * @throws MalformedDataException if the channel doesn't contain an encoded
+     *                                {@code IntSequence}.
+     * @throws NullPointerException if {@code pSource} is null.
+     */
+    @Nonnull
+    static public IntSequence readIntSequence(@Nonnull ReadableByteChannel pSource)
+        throws IOException, MalformedDataException
+    {
+        ChannelReader aReader = new ChannelReader(pSource);
+        Header aHeader = aReader.readHeader(INT_FIXED_WIDTH, INT_VARINT);
+        int aSize = aHeader.fSize;
+        int[] aValues = new int[Math.min(aSize, INITIAL_READ_CAPACITY)];
+        if (aHeader.fFormat == INT_FIXED_WIDTH)
+        {
+            for (int i=0; i<aSize; )
+            {
+                ByteBuffer aBuffer = aReader.require(Integer.BYTES);
+                if (i == aValues.length)
+                    aValues = Arrays.copyOf(aValues, grownCapacity(i, aSize));
+
+                int aCount = Math.min(aValues.length - i, aBuffer.remaining() / Integer.BYTES);
+                aBuffer.asIntBuffer().get(aValues, i, aCount);
+                aBuffer.position(aBuffer.position() + aCount * Integer.BYTES);
+                i += aCount;
+            }
+        }
+        else
+        {
+            for (int i=0; i<aSize; i++)
+            {
+                ByteBuffer aBuffer = aReader.requireVarint();
+                if (i == aValues.length)
+                    aValues = Arrays.copyOf(aValues, grownCapacity(i, aSize));
+
+                aValues[i] = unzigzag(getVarInt(aBuffer));
+            }
+        }
+
+        aReader.requireFullyRead();
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Read an encoded {@code LongSequence} from a {@code ReadableByteChannel}. No bytes after the
+     * encoded sequence are read from the channel.
+     *
+     * @param pSource   The channel to read the sequence from.
+     *
+     * @return  A new array-backed {@code LongSequence} with the decoded values, never null.
+     *
+     * @throws IOException if reading from the channel fails, or if the end of the channel is
+     *                     reached before the entire sequence has been read.
+     * @throws MalformedDataException if the channel doesn't contain an encoded
+     *                                {@code LongSequence}.
+     * @throws NullPointerException if {@code pSource} is null.
+     */
+    @Nonnull
+    static public LongSequence readLongSequence(@Nonnull ReadableByteChannel pSource)
+        throws IOException, MalformedDataException
+    {
+        ChannelReader aReader = new ChannelReader(pSource);
+        Header aHeader = aReader.readHeader(LONG_FIXED_WIDTH, LONG_VARINT);
+        int aSize = aHeader.fSize;
+        long[] aValues = new long[Math.min(aSize, INITIAL_READ_CAPACITY)];
+        if (aHeader.fFormat == LONG_FIXED_WIDTH)
+        {
+            for (int i=0; i<aSize; )
+            {
+                ByteBuffer aBuffer = aReader.require(Long.BYTES);
+                if (i == aValues.length)
+                    aValues = Arrays.copyOf(aValues, grownCapacity(i, aSize));
+
+                int aCount = Math.min(aValues.length - i, aBuffer.remaining() / Long.BYTES);
+                aBuffer.asLongBuffer().get(aValues, i, aCount);
+                aBuffer.position(aBuffer.position() + aCount * Long.BYTES);
+                i += aCount;
+            }
+        }
+        else
+        {
+            for (int i=0; i<aSize; i++)
+            {
+                ByteBuffer aBuffer = aReader.requireVarint();
+                if (i == aValues.length)
+                    aValues = Arrays.copyOf(aValues, grownCapacity(i, aSize));
+
+                aValues[i] = unzigzag(getVarLong(aBuffer));
+            }
+        }
+
+        aReader.requireFullyRead();
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Read an encoded {@code DoubleSequence} from a {@code ReadableByteChannel}. No bytes after
+     * the encoded sequence are read from the channel.
+     *
+     * @param pSource   The channel to read the sequence from.
+     *
+     * @return  A new array-backed {@code DoubleSequence} with the decoded values, never null.
+     *
+     * @throws IOException if reading from the channel fails, or if the end of the channel is
+     *                     reached before the entire sequence has been read.
+     * @throws MalformedDataException if the channel doesn't contain an encoded
+     *                                {@code DoubleSequence}.
+     * @throws NullPointerException if {@code pSource} is null.
+     */
+    @Nonnull
+    static public DoubleSequence readDoubleSequence(@Nonnull ReadableByteChannel pSource)
+        throws IOException, MalformedDataException
+    {
+        ChannelReader aReader = new ChannelReader(pSource);
+        Header aHeader = aReader.readHeader(DOUBLE_FIXED_WIDTH, DOUBLE_FIXED_WIDTH);
+        int aSize = aHeader.fSize;
+        double[] aValues = new double[Math.min(aSize, INITIAL_READ_CAPACITY)];
+        for (int i=0; i<aSize; )
+        {
+            ByteBuffer aBuffer = aReader.require(Double.BYTES);
+            if (i == aValues.length)
+                aValues = Arrays.copyOf(aValues, grownCapacity(i, aSize));
+
+            int aCount = Math.min(aValues.length - i, aBuffer.remaining() / Double.BYTES);
+            aBuffer.asDoubleBuffer().get(aValues, i, aCount);
+            aBuffer.position(aBuffer.position() + aCount * Double.BYTES);
+            i += aCount;
+        }
+
+        aReader.requireFullyRead();
+        return PrimitiveSequences.wrap(aValues);
+    }
+
+
+    /**
+     * Encode an {@code IntSequence}.
+     *
+     * @param pValues   The values to encode.
+     * @param pEncoding The encoding to use for the values.
+     * @param pEncoder  The encoder to put the encoded sequence into.
+     */
+    static private void encode(
+        @Nonnull IntSequence pValues,
+        @Nonnull Encoding pEncoding,
+        @Nonnull Encoder pEncoder)
+    {
+        requireNonNull(pEncoding);
+        int aSize = pValues.size();
+        if (pEncoding == Encoding.FIXED_WIDTH)
+        {
+            pEncoder.putHeader(INT_FIXED_WIDTH, aSize, (long) aSize * Integer.BYTES);
+            pValues.forEachChunk(pEncoder::putInts);
+        }
+        else
+        {
+            long aPayloadLength = 0;
+            for (int i=0; i<aSize; i++)
+                aPayloadLength += varintLength(zigzag(pValues.valueAt(i)));
+
+            pEncoder.putHeader(INT_VARINT, aSize, aPayloadLength);
+            for (int i=0; i<aSize; i++)
+                pEncoder.putVarint(zigzag(pValues.valueAt(i)));
+        }
+
+        pEncoder.flush();
+    }
+
+
+    /**
+     * Encode a {@code LongSequence}.
+     *
+     * @param pValues   The values to encode.
+     * @param pEncoding The encoding to use for the values.
+     * @param pEncoder  The encoder to put the encoded sequence into.
+     */
+    static private void encode(
+        @Nonnull LongSequence pValues,
+        @Nonnull Encoding pEncoding,
+        @Nonnull Encoder pEncoder)
+    {
+        requireNonNull(pEncoding);
+        int aSize = pValues.size();
+        if (pEncoding == Encoding.FIXED_WIDTH)
+        {
+            pEncoder.putHeader(LONG_FIXED_WIDTH, aSize, (long) aSize * Long.BYTES);
+            pValues.forEachChunk(pEncoder::putLongs);
+        }
+        else
+        {
+            long aPayloadLength = 0;
+            for (int i=0; i<aSize; i++)
+                aPayloadLength += varintLength(zigzag(pValues.valueAt(i)));
+
+            pEncoder.putHeader(LONG_VARINT, aSize, aPayloadLength);
+            for (int i=0; i<aSize; i++)
+                pEncoder.putVarint(zigzag(pValues.valueAt(i)));
+        }
+
+        pEncoder.flush();
+    }
+
+
+    /**
+     * Encode a {@code DoubleSequence}.
+     *
+     * @param pValues   The values to encode.
+     * @param pEncoder  The encoder to put the encoded sequence into.
+     */
+    static private void encode(@Nonnull DoubleSequence pValues, @Nonnull Encoder pEncoder)
+    {
+        int aSize = pValues.size();
+        pEncoder.putHeader(DOUBLE_FIXED_WIDTH, aSize, (long) aSize * Double.BYTES);
+        pValues.forEachChunk(pEncoder::putDoubles);
+        pEncoder.flush();
+    }
+
+
+    /**
+     * Create an {@code Encoder} that appends the encoded bytes to a {@code ByteArrayBuilder}.
+     *
+     * @param pDestination  The builder to append to.
+     *
+     * @return  A new {@code Encoder}, never null.
+     */
+    @Nonnull
+    static private Encoder newBuilderEncoder(@Nonnull ByteArrayBuilder pDestination)
+    {
+        return new Encoder(b -> pDestination.append(b.array(), b.position(), b.remaining()));
+    }
+
+
+    /**
+     * Create an {@code Encoder} that writes the encoded bytes to a {@code WritableByteChannel}.
+     *
+     * @param pDestination  The channel to write to.
+     *
+     * @return  A new {@code Encoder}, never null.
+     */
+    @Nonnull
+    static private Encoder newChannelEncoder(@Nonnull WritableByteChannel pDestination)
+    {
+        return new Encoder(b -> {
+            while (b.hasRemaining())
+                pDestination.write(b);
+        });
+    }
+
+
+    /**
+     * Get the capacity to grow a full value array to when reading a sequence from a channel. The
+     * capacity is doubled, but never beyond the number of values in the sequence.
+     *
+     * @param pCapacity The current capacity of the array.
+     * @param pSize     The number of values in the sequence.
+     *
+     * @return  The new capacity.
+     */
+    static private int grownCapacity(int pCapacity, int pSize)
+    {
+        return (int) Math.min(pSize, 2L * pCapacity);
+    }
+
+
+    /**
+     * Zigzag encode an {@code int}, mapping values of small magnitude to small unsigned values.
+     *
+     * @param pValue    The value to encode.
+     *
+     * @return  The encoded value as an unsigned 32 bit value.
+     */
+    static private long zigzag(int pValue)
+    {
+        return ((pValue << 1) ^ (pValue >> 31)) & 0xffffffffL;
+    }
+
+
+    /**
+     * Zigzag encode a {@code long}, mapping values of small magnitude to small unsigned values.
+     *
+     * @param pValue    The value to encode.
+     *
+     * @return  The encoded value as an unsigned 64 bit value.
+     */
+    static private long zigzag(long pValue)
+    {
+        return (pValue << 1) ^ (pValue >> 63);
+    }
+
+
+    /**
+     * Decode a zigzag encoded {@code int}.
+     *
+     * @param pValue    The encoded value.
+     *
+     * @return  The decoded value.
+     */
+    static private int unzigzag(int pValue)
+    {
+        return (pValue >>> 1) ^ -(pValue & 1);
+    }
+
+
+    /**
+     * Decode a zigzag encoded {@code long}.
+     *
+     * @param pValue    The encoded value.
+     *
+     * @return  The decoded value.
+     */
+    static private long unzigzag(long pValue)
+    {
+        return (pValue >>> 1) ^ -(pValue & 1);
+    }
+
+
+    /**
+     * Get the number of bytes needed to store an unsigned value as a variable length integer.
+     *
+     * @param pValue    The unsigned value.
+     *
+     * @return  The number of bytes, between 1 and 10.
+     */
+    static private int varintLength(long pValue)
+    {
+        return (Long.SIZE - Long.numberOfLeadingZeros(pValue | 1) + 6) / 7;
+    }
+
+
+    /**
+     * Get a variable length encoded unsigned {@code int} from a buffer.
+     *
+     * @param pBuffer   The buffer to get the value from.
+     *
+     * @return  The value.
+     *
+     * @throws MalformedDataException if the buffer doesn't contain a valid variable length
+     *                                encoded unsigned {@code int} at its position.
+     */
+    static private int getVarInt(@Nonnull ByteBuffer pBuffer) throws MalformedDataException
+    {
+        long aValue = getVarLong(pBuffer);
+        if ((aValue >>> Integer.SIZE) != 0)
+            throw new MalformedDataException("Variable length int out of range: " + aValue);
+
+        return (int) aValue;
+    }
+
+
+    /**
+     * Get a variable length encoded unsigned {@code long} from a buffer.
+     *
+     * @param pBuffer   The buffer to get the value from.
+     *
+     * @return  The value.
+     *
+     * @throws MalformedDataException if the buffer doesn't contain a valid variable length
+     *                                encoded unsigned {@code long} at its position.
+     */
+    static private long getVarLong(@Nonnull ByteBuffer pBuffer) throws MalformedDataException
+    {
+        try
+        {
+            long aValue = 0;
+            for (int aShift=0; aShift<Long.SIZE; aShift+=7)
+            {
+                byte aByte = pBuffer.get();
+                aValue |= (long) (aByte & 0x7f) << aShift;
+                if (aByte >= 0)
+                    return aValue;
+            }
+
+            throw new MalformedDataException("Variable length long exceeds 10 bytes");
+        }
+        catch (BufferUnderflowException e)
+        {
+            throw new MalformedDataException("Truncated variable length long", e);
+        }
+    }
+
+
+    /**
+     * Check that all bytes of a payload have been decoded.
+     *
+     * @param pPayload  The payload.
+     *
+     * @throws MalformedDataException if the payload has remaining bytes.
+     */
+    static private void requireFullyDecoded(@Nonnull ByteBuffer pPayload)
+        throws MalformedDataException
+    {
+        if (pPayload.hasRemaining())
+            throw new MalformedDataException(pPayload.remaining() + " trailing payload bytes");
+    }
+
+
+    /**
+     * The header of an encoded sequence.
+     */
+    static private final class Header
+    {
+        final byte fFormat;
+        final int fSize;
+        final long fPayloadLength;
+
+        private Header(byte pFormat, int pSize, long pPayloadLength)
+        {
+            fFormat = pFormat;
+            fSize = pSize;
+            fPayloadLength = pPayloadLength;
+        }
+
+        /**
+         * Decode and validate a header.
+         *
+         * @param pSource           The buffer to decode the header from. Its position is
+         *                          advanced past the header.
+         * @param pFixedWidthFormat The expected format byte for fixed width values.
+         * @param pVarintFormat     The expected format byte for variable length values.
+         *
+         * @return  The decoded header, never null.
+         *
+         * @throws MalformedDataException if the buffer doesn't contain a valid header with one of
+         *                                the expected formats.
+         */
+        @Nonnull
+        static Header decode(
+            @Nonnull ByteBuffer pSource,
+            byte pFixedWidthFormat,
+            byte pVarintFormat) throws MalformedDataException
+        {
+            if (pSource.remaining() < HEADER_LENGTH)
+                throw new MalformedDataException("Truncated header");
+
+            ByteBuffer aHeader = pSource.duplicate().order(ByteOrder.BIG_ENDIAN);
+            byte aFormat = aHeader.get();
+            int aSize = aHeader.getInt();
+            long aPayloadLength = aHeader.getLong();
+            pSource.position(pSource.position() + HEADER_LENGTH);
+
+            if (aFormat != pFixedWidthFormat && aFormat != pVarintFormat)
+                throw new MalformedDataException("Unexpected format: " + aFormat);
+            if (aSize < 0)
+                throw new MalformedDataException("Negative size: " + aSize);
+
+            long aMinLength = aSize;
+            long aMaxLength = (long) aSize * MAX_VARINT_LENGTH;
+            if (aFormat == pFixedWidthFormat)
+            {
+                aMinLength = (long) aSize * fixedWidth(aFormat);
+                aMaxLength = aMinLength;
+            }
+
+            if (aPayloadLength < aMinLength || aPayloadLength > aMaxLength)
+                throw new MalformedDataException(
+                    "Invalid payload length " + aPayloadLength + " for " + aSize + " values");
+
+            return new Header(aFormat, aSize, aPayloadLength);
+        }
+
+        /**
+         * Get the payload described by this header from a buffer, and advance the buffer's
+         * position past the payload.
+         *
+         * @param pSource   The buffer positioned at the start of the payload.
+         *
+         * @return  A big-endian buffer with the payload, never null.
+         *
+         * @throws MalformedDataException if {@code pSource} has fewer remaining bytes than the
+         *                                payload length.
+         */
+        @Nonnull
+        ByteBuffer payloadOf(@Nonnull ByteBuffer pSource) throws MalformedDataException
+        {
+            if (pSource.remaining() < fPayloadLength)
+                throw new MalformedDataException("Truncated payload");
+
+            ByteBuffer aPayload = pSource.duplicate().order(ByteOrder.BIG_ENDIAN);
+            aPayload.limit(aPayload.position() + (int) fPayloadLength);
+            pSource.position(aPayload.limit());
+            return aPayload;
+        }
+
+        static private int fixedWidth(byte pFormat)
+        {
+            return pFormat == INT_FIXED_WIDTH ? Integer.BYTES : Long.BYTES;
+        }
+    }
+
+
+    /**
+     * A destination for the bytes of an {@code Encoder}.
+     */
+    @FunctionalInterface
+    private interface Sink
+    {
+        /**
+         * Consume the remaining bytes in a heap buffer.
+         *
+         * @param pBuffer   The buffer, with an array offset of 0.
+         *
+         * @throws IOException if consuming the bytes fails.
+         */
+        void consume(@Nonnull ByteBuffer pBuffer) throws IOException;
+    }
+
+
+    /**
+     * Encodes values into a buffer that is passed to a {@code Sink} when it is full.
+     */
+    static private final class Encoder
+    {
+        private final ByteBuffer fBuffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+        private final Sink fSink;
+
+        Encoder(@Nonnull Sink pSink)
+        {
+            fSink = pSink;
+        }
+
+        void putHeader(byte pFormat, @Nonnegative int pSize, @Nonnegative long pPayloadLength)
+        {
+            fBuffer.put(pFormat).putInt(pSize).putLong(pPayloadLength);
+        }
+
+        void putInts(@Nonnull int[] pValues, int pOffset, int pLength)
+        {
+            while (pLength > 0)
+            {
+                ensureRemaining(Integer.BYTES);
+                int aCount = Math.min(pLength, fBuffer.remaining() / Integer.BYTES);
+                fBuffer.asIntBuffer().put(pValues, pOffset, aCount);
+                fBuffer.position(fBuffer.position() + aCount * Integer.BYTES);
+                pOffset += aCount;
+                pLength -= aCount;
+            }
+        }
+
+        void putLongs(@Nonnull long[] pValues, int pOffset, int pLength)
+        {
+            while (pLength > 0)
+            {
+                ensureRemaining(Long.BYTES);
+                int aCount = Math.min(pLength, fBuffer.remaining() / Long.BYTES);
+                fBuffer.asLongBuffer().put(pValues, pOffset, aCount);
+                fBuffer.position(fBuffer.position() + aCount * Long.BYTES);
+                pOffset += aCount;
+                pLength -= aCount;
+            }
+        }
+
+        void putDoubles(@Nonnull double[] pValues, int pOffset, int pLength)
+        {
+            while (pLength > 0)
+            {
+                ensureRemaining(Double.BYTES);
+                int aCount = Math.min(pLength, fBuffer.remaining() / Double.BYTES);
+                fBuffer.asDoubleBuffer().put(pValues, pOffset, aCount);
+                fBuffer.position(fBuffer.position() + aCount * Double.BYTES);
+                pOffset += aCount;
+                pLength -= aCount;
+            }
+        }
+
+        void putVarint(long pValue)
+        {
+            ensureRemaining(MAX_VARINT_LENGTH);
+            while ((pValue & ~0x7fL) != 0)
+            {
+                fBuffer.put((byte) ((pValue & 0x7f) | 0x80));
+                pValue >>>= 7;
+            }
+
+            fBuffer.put((byte) pValue);
+        }
+
+        /**
+         * Pass the bytes in the buffer to the sink and clear the buffer.
+         *
+         * @throws UncheckedIOException if the sink throws an {@code IOException}.
+         */
+        void flush()
+        {
+            fBuffer.flip();
+            try
+            {
+                if (fBuffer.hasRemaining())
+                    fSink.consume(fBuffer);
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+
+            fBuffer.clear();
+        }
+
+        private void ensureRemaining(int pNumBytes)
+        {
+            if (fBuffer.remaining() < pNumBytes)
+                flush();
+        }
+    }
+
+
+    /**
+     * Reads an encoded sequence from a channel through a buffer, without reading past the end of
+     * the encoded sequence.
+     */
+    static private final class ChannelReader
+    {
+        private final ReadableByteChannel fChannel;
+        private final ByteBuffer fBuffer = ByteBuffer.allocate(BUFFER_CAPACITY);
+
+        // The number of bytes of the encoded sequence that haven't been read from the channel.
+        private long fUnread = HEADER_LENGTH;
+
+        ChannelReader(@Nonnull ReadableByteChannel pChannel)
+        {
+            fChannel = requireNonNull(pChannel);
+            fBuffer.limit(0);
+        }
+
+        /**
+         * Read and validate the header.
+         *
+         * @param pFixedWidthFormat The expected format byte for fixed width values.
+         * @param pVarintFormat     The expected format byte for variable length values.
+         *
+         * @return  The header, never null.
+         *
+         * @throws IOException if reading from the channel fails or reaches the end of it.
+         * @throws MalformedDataException if the header is invalid.
+         */
+        @Nonnull
+        Header readHeader(byte pFixedWidthFormat, byte pVarintFormat)
+            throws IOException, MalformedDataException
+        {
+            Header aHeader =
+                Header.decode(require(HEADER_LENGTH), pFixedWidthFormat, pVarintFormat);
+            fUnread = aHeader.fPayloadLength;
+            return aHeader;
+        }
+
+        /**
+         * Make sure the buffer has at least a number of remaining bytes, reading from the channel
+         * if necessary.
+         *
+         * @param pNumBytes The number of bytes, at most the buffer's capacity.
+         *
+         * @return  The buffer, with at least {@code pNumBytes} remaining bytes.
+         *
+         * @throws IOException if reading from the channel fails or reaches the end of it.
+         * @throws MalformedDataException if the encoded sequence has fewer unread bytes.
+         */
+        @Nonnull
+        ByteBuffer require(int pNumBytes) throws IOException, MalformedDataException
+        {
+            if (fBuffer.remaining() >= pNumBytes)
+                return fBuffer;
+
+            if (fBuffer.remaining() + fUnread < pNumBytes)
+                throw new MalformedDataException("Truncated payload");
+
+            fBuffer.compact();
+            while (fBuffer.position() < pNumBytes)
+            {
+                // Don't read past the end of the encoded sequence.
+                int aLimit = fBuffer.limit();
+                fBuffer.limit(fBuffer.position() + (int) Math.min(fBuffer.remaining(), fUnread));
+                int aNumRead = fChannel.read(fBuffer);
+                fBuffer.limit(aLimit);
+                if (aNumRead < 0)
+                    throw new EOFException("End of channel reached before end of sequence");
+
+                fUnread -= aNumRead;
+            }
+
+            fBuffer.flip();
+            return fBuffer;
+        }
+
+        /**
+         * Make sure the buffer contains the next variable length value, or the rest of the
+         * encoded sequence if it is shorter than the maximum length of a value.
+         *
+         * @return  The buffer.
+         *
+         * @throws IOException if reading from the channel fails or reaches the end of it.
+         * @throws MalformedDataException if the encoded sequence has no unread bytes.
+         */
+        @Nonnull
+        ByteBuffer requireVarint() throws IOException, MalformedDataException
+        {
+            long aAvailable = fBuffer.remaining() + fUnread;
+            if (aAvailable == 0)
+                throw new MalformedDataException("Truncated payload");
+
+            return require((int) Math.min(MAX_VARINT_LENGTH, aAvailable));
+        }
+
+        /**
+         * Check that all bytes of the encoded sequence have been decoded.
+         *
+         * @throws MalformedDataException if there are bytes left.
+         */
+        void requireFullyRead() throws MalformedDataException
+        {
+            long aRemaining = fBuffer.remaining() + fUnread;
+            if (aRemaining > 0)
+                throw new MalformedDataException(aRemaining + " trailing payload bytes");
+        }
+    }
+}
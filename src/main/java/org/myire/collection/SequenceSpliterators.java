@@ -0,0 +1,373 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.function.DoubleConsumer;
+import java.util.function.IntConsumer;
+import java.util.function.LongConsumer;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+
+
+/**
+ * Factory methods for {@code Spliterator} implementations that traverse and split sequences by
+ * index.
+ *<p>
+ * The spliterators returned by the methods in this class are late-binding; the size of the
+ * sequence is read on the first traversal, split, or size estimate, not when the spliterator is
+ * created. They report the characteristics {@code ORDERED}, {@code SIZED}, and {@code SUBSIZED},
+ * and split by halving their index range, which makes them suitable as sources for parallel
+ * streams.
+ *<p>
+ * The behavior of the spliterators is unspecified if the size of the sequence changes after the
+ * spliterator has been bound.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public final class SequenceSpliterators
+{
+    static private final int CHARACTERISTICS =
+        Spliterator.ORDERED | Spliterator.SIZED | Spliterator.SUBSIZED;
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private SequenceSpliterators()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Create a {@code Spliterator} for the elements of a {@code Sequence}. The elements are
+     * retrieved with {@link Sequence#elementAt(int)}.
+     *
+     * @param pSequence The sequence to create a {@code Spliterator} for.
+     * @param <T>       The type of the elements returned by the {@code Spliterator}.
+     *
+     * @return  A new {@code Spliterator}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public <T> Spliterator<T> spliterator(@Nonnull Sequence<T> pSequence)
+    {
+        return new ReferenceSpliterator<>(pSequence, 0, -1);
+    }
+
+
+    /**
+     * Create a {@code Spliterator.OfInt} for the values of an {@code IntSequence}. The values are
+     * retrieved with {@link IntSequence#valueAt(int)}.
+     *
+     * @param pSequence The sequence to create a {@code Spliterator} for.
+     *
+     * @return  A new {@code Spliterator.OfInt}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public Spliterator.OfInt spliterator(@Nonnull IntSequence pSequence)
+    {
+        return new IntSpliterator(pSequence, 0, -1);
+    }
+
+
+    /**
+     * Create a {@code Spliterator.OfLong} for the values of a {@code LongSequence}. The values are
+     * retrieved with {@link LongSequence#valueAt(int)}.
+     *
+     * @param pSequence The sequence to create a {@code Spliterator} for.
+     *
+     * @return  A new {@code Spliterator.OfLong}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public Spliterator.OfLong spliterator(@Nonnull LongSequence pSequence)
+    {
+        return new LongSpliterator(pSequence, 0, -1);
+    }
+
+
+    /**
+     * Create a {@code Spliterator.OfDouble} for the values of a {@code DoubleSequence}. The values
+     * are retrieved with {@link DoubleSequence#valueAt(int)}.
+     *
+     * @param pSequence The sequence to create a {@code Spliterator} for.
+     *
+     * @return  A new {@code Spliterator.OfDouble}, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    @Nonnull
+    static public Spliterator.OfDouble spliterator(@Nonnull DoubleSequence pSequence)
+    {
+        return new DoubleSpliterator(pSequence, 0, -1);
+    }
+
+
+    /**
+     * Base class for spliterators that traverse a range of indexes in a sequence.
+     *
+     * @param <S>   The type of sequence.
+     */
+    static abstract private class IndexRangeSpliterator<S extends Sequence<?>>
+    {
+        protected final S fSequence;
+        protected int fIndex;
+        private int fFence;
+
+        /**
+         * Create a new {@code IndexRangeSpliterator}.
+         *
+         * @param pSequence The sequence to traverse.
+         * @param pIndex    The first index to traverse.
+         * @param pFence    One past the last index to traverse, or -1 to bind the fence to the
+         *                  size of the sequence on first use.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        IndexRangeSpliterator(@Nonnull S pSequence, @Nonnegative int pIndex, int pFence)
+        {
+            fSequence = requireNonNull(pSequence);
+            fIndex = pIndex;
+            fFence = pFence;
+        }
+
+        /**
+         * Get the fence of this spliterator, binding it to the sequence's size if it hasn't been
+         * bound.
+         *
+         * @return  One past the last index to traverse.
+         */
+        protected int getFence()
+        {
+            int aFence = fFence;
+            if (aFence < 0)
+                aFence = fFence = fSequence.size();
+
+            return aFence;
+        }
+
+        /**
+         * Split off the lower half of the remaining index range.
+         *
+         * @return  The index where the lower half starts, or -1 if the range is too small to split.
+         *          This spliterator's range is reduced to the upper half on success.
+         */
+        protected int splitLowerHalf()
+        {
+            int aLow = fIndex;
+            int aMid = (aLow + getFence()) >>> 1;
+            if (aLow >= aMid)
+                return -1;
+
+            fIndex = aMid;
+            return aLow;
+        }
+
+        public long estimateSize()
+        {
+            return getFence() - fIndex;
+        }
+
+        public int characteristics()
+        {
+            return CHARACTERISTICS;
+        }
+    }
+
+
+    /**
+     * A {@code Spliterator} for the elements of a {@code Sequence}.
+     *
+     * @param <E>   The type of elements in the sequence.
+     */
+    static private class ReferenceSpliterator<E>
+        extends IndexRangeSpliterator<Sequence<E>>
+        implements Spliterator<E>
+    {
+        ReferenceSpliterator(@Nonnull Sequence<E> pSequence, @Nonnegative int pIndex, int pFence)
+        {
+            super(pSequence, pIndex, pFence);
+        }
+
+        @Override
+        public boolean tryAdvance(@Nonnull Consumer<? super E> pAction)
+        {
+            requireNonNull(pAction);
+            if (fIndex < getFence())
+            {
+                pAction.accept(fSequence.elementAt(fIndex++));
+                return true;
+            }
+            else
+                return false;
+        }
+
+        @Override
+        public void forEachRemaining(@Nonnull Consumer<? super E> pAction)
+        {
+            requireNonNull(pAction);
+            int aFence = getFence();
+            for (int i=fIndex; i<aFence; i++)
+                pAction.accept(fSequence.elementAt(i));
+
+            fIndex = aFence;
+        }
+
+        @Override
+        public Spliterator<E> trySplit()
+        {
+            int aLow = splitLowerHalf();
+            return aLow >= 0 ? new ReferenceSpliterator<>(fSequence, aLow, fIndex) : null;
+        }
+    }
+
+
+    /**
+     * A {@code Spliterator.OfInt} for the values of an {@code IntSequence}.
+     */
+    static private class IntSpliterator
+        extends IndexRangeSpliterator<IntSequence>
+        implements Spliterator.OfInt
+    {
+        IntSpliterator(@Nonnull IntSequence pSequence, @Nonnegative int pIndex, int pFence)
+        {
+            super(pSequence, pIndex, pFence);
+        }
+
+        @Override
+        public boolean tryAdvance(@Nonnull IntConsumer pAction)
+        {
+            requireNonNull(pAction);
+            if (fIndex < getFence())
+            {
+                pAction.accept(fSequence.valueAt(fIndex++));
+                return true;
+            }
+            else
+                return false;
+        }
+
+        @Override
+        public void forEachRemaining(@Nonnull IntConsumer pAction)
+        {
+            requireNonNull(pAction);
+            int aFence = getFence();
+            for (int i=fIndex; i<aFence; i++)
+                pAction.accept(fSequence.valueAt(i));
+
+            fIndex = aFence;
+        }
+
+        @Override
+        public Spliterator.OfInt trySplit()
+        {
+            int aLow = splitLowerHalf();
+            return aLow >= 0 ? new IntSpliterator(fSequence, aLow, fIndex) : null;
+        }
+    }
+
+
+    /**
+     * A {@code Spliterator.OfLong} for the values of a {@code LongSequence}.
+     */
+    static private class LongSpliterator
+        extends IndexRangeSpliterator<LongSequence>
+        implements Spliterator.OfLong
+    {
+        LongSpliterator(@Nonnull LongSequence pSequence, @Nonnegative int pIndex, int pFence)
+        {
+            super(pSequence, pIndex, pFence);
+        }
+
+        @Override
+        public boolean tryAdvance(@Nonnull LongConsumer pAction)
+        {
+            requireNonNull(pAction);
+            if (fIndex < getFence())
+            {
+                pAction.accept(fSequence.valueAt(fIndex++));
+                return true;
+            }
+            else
+                return false;
+        }
+
+        @Override
+        public void forEachRemaining(@Nonnull LongConsumer pAction)
+        {
+            requireNonNull(pAction);
+            int aFence = getFence();
+            for (int i=fIndex; i<aFence; i++)
+                pAction.accept(fSequence.valueAt(i));
+
+            fIndex = aFence;
+        }
+
+        @Override
+        public Spliterator.OfLong trySplit()
+        {
+            int aLow = splitLowerHalf();
+            return aLow >= 0 ? new LongSpliterator(fSequence, aLow, fIndex) : null;
+        }
+    }
+
+
+    /**
+     * A {@code Spliterator.OfDouble} for the values of a {@code DoubleSequence}.
+     */
+    static private class DoubleSpliterator
+        extends IndexRangeSpliterator<DoubleSequence>
+        implements Spliterator.OfDouble
+    {
+        DoubleSpliterator(@Nonnull DoubleSequence pSequence, @Nonnegative int pIndex, int pFence)
+        {
+            super(pSequence, pIndex, pFence);
+        }
+
+        @Override
+        public boolean tryAdvance(@Nonnull DoubleConsumer pAction)
+        {
+            requireNonNull(pAction);
+            if (fIndex < getFence())
+            {
+                pAction.accept(fSequence.valueAt(fIndex++));
+                return true;
+            }
+            else
+                return false;
+        }
+
+        @Override
+        public void forEachRemaining(@Nonnull DoubleConsumer pAction)
+        {
+            requireNonNull(pAction);
+            int aFence = getFence();
+            for (int i=fIndex; i<aFence; i++)
+                pAction.accept(fSequence.valueAt(i));
+
+            fIndex = aFence;
+        }
+
+        @Override
+        public Spliterator.OfDouble trySplit()
+        {
+            int aLow = splitLowerHalf();
+            return aLow >= 0 ? new DoubleSpliterator(fSequence, aLow, fIndex) : null;
+        }
+    }
+}
@@ -5,11 +5,20 @@
  */
 package org.myire.collection;
 
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
 import java.util.function.BiPredicate;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
 import static java.util.Objects.requireNonNull;
 
 import javax.annotation.Nonnegative;
@@ -224,6 +233,171 @@ public final class Sequences
     }
 
 
+    /**
+     * Create a view of a sequence where each element is the result of applying a function to the
+     * corresponding element in the underlying sequence. The function is applied lazily each time an
+     * element of the view is accessed; no elements are copied or cached.
+     *
+     * @param pSequence The underlying sequence.
+     * @param pMapper   The function to apply to the elements of the underlying sequence.
+     *
+     * @param <T>   The underlying sequence's element type.
+     * @param <R>   The view's element type.
+     *
+     * @return  A new {@code Sequence}, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public <T, R> Sequence<R> map(
+        @Nonnull Sequence<? extends T> pSequence,
+        @Nonnull Function<? super T, ? extends R> pMapper)
+    {
+        return new MappedSequence<>(pSequence, pMapper);
+    }
+
+
+    /**
+     * Create an {@code IntSequence} view of a sequence where each value is the result of applying
+     * a function to the corresponding element in the underlying sequence. The function is applied
+     * lazily each time a value of the view is accessed; no values are copied or cached.
+     *
+     * @param pSequence The underlying sequence.
+     * @param pMapper   The function to apply to the elements of the underlying sequence.
+     *
+     * @param <T>   The underlying sequence's element type.
+     *
+     * @return  A new {@code IntSequence}, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public <T> IntSequence mapToInt(
+        @Nonnull Sequence<? extends T> pSequence,
+        @Nonnull ToIntFunction<? super T> pMapper)
+    {
+        return new IntMappedSequence<>(pSequence, pMapper);
+    }
+
+
+    /**
+     * Create a view of the concatenation of a number of sequences. The view contains the elements
+     * of the first sequence followed by the elements of the second sequence, and so on.
+     *<p>
+     * Accessing an element by index locates the underlying sequence with a binary search over the
+     * sequences' start indexes, which are calculated when the view is created. The view will
+     * therefore not work as expected if the size of an underlying sequence changes after the view
+     * has been created.
+     *
+     * @param pSequences    The sequences to concatenate.
+     *
+     * @param <T>   The view's element type.
+     *
+     * @return  A sequence with the elements of all sequences, never null.
+     *
+     * @throws NullPointerException if {@code pSequences} or any of its elements is null.
+     * @throws IllegalArgumentException if the total size of the sequences is greater than
+     *                                  {@code Integer.MAX_VALUE}.
+     */
+    @SafeVarargs
+    @Nonnull
+    static public <T> Sequence<T> concat(@Nonnull Sequence<? extends T>... pSequences)
+    {
+        // Empty sequences are excluded to make the start indexes strictly increasing.
+        @SuppressWarnings("unchecked")
+        Sequence<? extends T>[] aSequences =
+            (Sequence<? extends T>[]) new Sequence<?>[pSequences.length];
+        int[] aOffsets = new int[aSequences.length + 1];
+        int aNumSequences = 0;
+        long aTotalSize = 0;
+        for (Sequence<? extends T> aSequence : pSequences)
+        {
+            int aSize = aSequence.size();
+            if (aSize > 0)
+            {
+                aOffsets[aNumSequences] = (int) aTotalSize;
+                aSequences[aNumSequences++] = aSequence;
+                aTotalSize += aSize;
+                if (aTotalSize > Integer.MAX_VALUE)
+                    throw new IllegalArgumentException("Total size too large: " + aTotalSize);
+            }
+        }
+
+        if (aNumSequences == 0)
+            return emptySequence();
+        else if (aNumSequences == 1)
+            return upCast(aSequences[0]);
+
+        aOffsets[aNumSequences] = (int) aTotalSize;
+        return new ConcatenatedSequence<>(
+            Arrays.copyOf(aSequences, aNumSequences),
+            Arrays.copyOf(aOffsets, aNumSequences + 1));
+    }
+
+
+    /**
+     * Create a view of the elements in a sequence that match a predicate.
+     *<p>
+     * The predicate is not evaluated when the view is created. The first time the view is
+     * accessed, the predicate is evaluated for all elements in the underlying sequence, and the
+     * indexes of the matching elements are stored in a selection {@code IntSequence}. All
+     * subsequent accesses use that selection to access the underlying sequence directly.
+     * Consequently, the view will not reflect changes to the underlying sequence's size, nor
+     * changes to which elements match the predicate, after it has been accessed for the first
+     * time.
+     *<p>
+     * If the view is accessed by multiple threads before the selection has been created, the
+     * predicate may be evaluated more than once for each element.
+     *
+     * @param pSequence     The underlying sequence.
+     * @param pPredicate    The predicate that elements must match to be included in the view.
+     *
+     * @param <T>   The sequence's element type.
+     *
+     * @return  A new {@code Sequence}, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public <T> Sequence<T> filter(
+        @Nonnull Sequence<? extends T> pSequence,
+        @Nonnull Predicate<? super T> pPredicate)
+    {
+        return new FilteredSequence<>(pSequence, pPredicate);
+    }
+
+
+    /**
+     * Create a view of a range of the elements in a sequence. If the sequence is a view created by
+     * this method, the returned view will refer directly to the underlying sequence of that view.
+     *
+     * @param pSequence     The sequence to create a view of.
+     * @param pFromIndex    The index of the first element in the view.
+     * @param pToIndex      The index after the last element in the view.
+     * @param <T>           The sequence's element type.
+     *
+     * @return  A sequence with the elements in the specified range, never null.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than the size of {@code pSequence}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Nonnull
+    static <T> Sequence<T> subSequence(
+        @Nonnull Sequence<T> pSequence,
+        @Nonnegative int pFromIndex,
+        @Nonnegative int pToIndex)
+    {
+        int aLength = pToIndex - pFromIndex;
+        requireRangeWithinBounds(pFromIndex, aLength, pSequence.size());
+        if (aLength == 0)
+            return emptySequence();
+        else
+            return new SubSequence<>(pSequence, pFromIndex, aLength);
+    }
+
+
     /**
      * Immutable implementation of an empty {@code Sequence}.
      *
@@ -258,6 +432,21 @@ public final class Sequences
         {
             return Collections.emptyIterator();
         }
+
+        @Override
+        @Nonnull
+        public Spliterator<E> spliterator()
+        {
+            return Spliterators.emptySpliterator();
+        }
+
+        @Override
+        @Nonnull
+        public Sequence<E> subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 0);
+            return this;
+        }
     }
 
 
@@ -308,6 +497,14 @@ public final class Sequences
         {
             return Iterators.singletonIterator(fElement);
         }
+
+        @Override
+        @Nonnull
+        public Sequence<E> subSequence(int pFromIndex, int pToIndex)
+        {
+            requireRangeWithinBounds(pFromIndex, pToIndex - pFromIndex, 1);
+            return pFromIndex < pToIndex ? this : emptySequence();
+        }
     }
 
 
@@ -357,6 +554,15 @@ public final class Sequences
         {
             return Iterators.unmodifiableIterator(fList.iterator());
         }
+
+        @Override
+        @Nonnull
+        @SuppressWarnings("unchecked")
+        public Spliterator<E> spliterator()
+        {
+            // Spliterators don't allow elements to be added, the cast is safe.
+            return (Spliterator<E>) fList.spliterator();
+        }
     }
 
 
@@ -421,5 +627,379 @@ public final class Sequences
         {
             return Iterators.arrayIterator(fElements, fOffset, fLength);
         }
+
+        @Override
+        @Nonnull
+        public Spliterator<E> spliterator()
+        {
+            return Spliterators.spliterator(
+                fElements,
+                fOffset,
+                fOffset + fLength,
+                Spliterator.ORDERED);
+        }
+
+        @Override
+        @Nonnull
+        public Sequence<E> subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            return new ArraySequence<>(fElements, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A view of a range of the elements in another {@code Sequence}.
+     *
+     * @param <E>   The sequence's element type.
+     */
+    static private class SubSequence<E> implements Sequence<E>
+    {
+        private final Sequence<E> fSequence;
+        private final int fOffset;
+        private final int fLength;
+
+        /**
+         * Create a new {@code SubSequence}. The range is assumed to have been checked against the
+         * bounds of the underlying sequence.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pOffset   The index in the underlying sequence of the view's first element.
+         * @param pLength   The number of elements in the view.
+         *
+         * @throws NullPointerException if {@code pSequence} is null.
+         */
+        SubSequence(
+            @Nonnull Sequence<E> pSequence,
+            @Nonnegative int pOffset,
+            @Nonnegative int pLength)
+        {
+            fSequence = requireNonNull(pSequence);
+            fOffset = pOffset;
+            fLength = pLength;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fLength;
+        }
+
+        @Override
+        public E elementAt(int pIndex)
+        {
+            if (pIndex >= 0 && pIndex < fLength)
+                return fSequence.elementAt(fOffset + pIndex);
+            else
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull Consumer<? super E> pAction)
+        {
+            requireNonNull(pAction);
+            for (int i=0; i<fLength; i++)
+                pAction.accept(fSequence.elementAt(fOffset + i));
+        }
+
+        @Override
+        @Nonnull
+        public Sequence<E> subSequence(int pFromIndex, int pToIndex)
+        {
+            int aLength = pToIndex - pFromIndex;
+            requireRangeWithinBounds(pFromIndex, aLength, fLength);
+            if (aLength == 0)
+                return emptySequence();
+            else
+                return new SubSequence<>(fSequence, fOffset + pFromIndex, aLength);
+        }
+    }
+
+
+    /**
+     * A view of a {@code Sequence} where a function is applied to each element.
+     *
+     * @param <T>   The underlying sequence's element type.
+     * @param <R>   The view's element type.
+     */
+    static private class MappedSequence<T, R> implements Sequence<R>
+    {
+        private final Sequence<? extends T> fSequence;
+        private final Function<? super T, ? extends R> fMapper;
+
+        /**
+         * Create a new {@code MappedSequence}.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pMapper   The function to apply to the underlying sequence's elements.
+         *
+         * @throws NullPointerException if any of the parameters is null.
+         */
+        MappedSequence(
+            @Nonnull Sequence<? extends T> pSequence,
+            @Nonnull Function<? super T, ? extends R> pMapper)
+        {
+            fSequence = requireNonNull(pSequence);
+            fMapper = requireNonNull(pMapper);
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fSequence.size();
+        }
+
+        @Override
+        public R elementAt(int pIndex)
+        {
+            return fMapper.apply(fSequence.elementAt(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull Consumer<? super R> pAction)
+        {
+            requireNonNull(pAction);
+            fSequence.forEach(e -> pAction.accept(fMapper.apply(e)));
+        }
+
+        @Override
+        @Nonnull
+        public Sequence<R> subSequence(int pFromIndex, int pToIndex)
+        {
+            return new MappedSequence<>(fSequence.subSequence(pFromIndex, pToIndex), fMapper);
+        }
+    }
+
+
+    /**
+     * An {@code IntSequence} view of a {@code Sequence} where a function is applied to each
+     * element.
+     *
+     * @param <T>   The underlying sequence's element type.
+     */
+    static private class IntMappedSequence<T> implements IntSequence
+    {
+        private final Sequence<? extends T> fSequence;
+        private final ToIntFunction<? super T> fMapper;
+
+        /**
+         * Create a new {@code IntMappedSequence}.
+         *
+         * @param pSequence The underlying sequence.
+         * @param pMapper   The function to apply to the underlying sequence's elements.
+         *
+         * @throws NullPointerException if any of the parameters is null.
+         */
+        IntMappedSequence(
+            @Nonnull Sequence<? extends T> pSequence,
+            @Nonnull ToIntFunction<? super T> pMapper)
+        {
+            fSequence = requireNonNull(pSequence);
+            fMapper = requireNonNull(pMapper);
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fSequence.size();
+        }
+
+        @Override
+        public int valueAt(int pIndex)
+        {
+            return fMapper.applyAsInt(fSequence.elementAt(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull IntConsumer pAction)
+        {
+            requireNonNull(pAction);
+            fSequence.forEach(e -> pAction.accept(fMapper.applyAsInt(e)));
+        }
+
+        @Override
+        @Nonnull
+        public PrimitiveIterator.OfInt iterator()
+        {
+            return PrimitiveIterators.sequenceIterator(this);
+        }
+
+        @Override
+        @Nonnull
+        public IntSequence subSequence(int pFromIndex, int pToIndex)
+        {
+            return new IntMappedSequence<>(fSequence.subSequence(pFromIndex, pToIndex), fMapper);
+        }
+    }
+
+
+    /**
+     * A view of the concatenation of a number of non-empty sequences.
+     *
+     * @param <E>   The sequence's element type.
+     */
+    static private class ConcatenatedSequence<E> implements Sequence<E>
+    {
+        private final Sequence<? extends E>[] fSequences;
+
+        // The index in the view of the first element of each underlying sequence, followed by the
+        // size of the view.
+        private final int[] fOffsets;
+
+        /**
+         * Create a new {@code ConcatenatedSequence}.
+         *
+         * @param pSequences    The underlying sequences, none of which may be empty.
+         * @param pOffsets      The start index of each underlying sequence, followed by the total
+         *                      size.
+         */
+        ConcatenatedSequence(@Nonnull Sequence<? extends E>[] pSequences, @Nonnull int[] pOffsets)
+        {
+            fSequences = pSequences;
+            fOffsets = pOffsets;
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return fOffsets[fSequences.length];
+        }
+
+        @Override
+        public E elementAt(int pIndex)
+        {
+            if (pIndex < 0 || pIndex >= size())
+                throw new IndexOutOfBoundsException(String.valueOf(pIndex));
+
+            int aSequence = Arrays.binarySearch(fOffsets, 0, fSequences.length, pIndex);
+            if (aSequence < 0)
+                aSequence = -aSequence - 2;
+
+            return fSequences[aSequence].elementAt(pIndex - fOffsets[aSequence]);
+        }
+
+        @Override
+        public void forEach(@Nonnull Consumer<? super E> pAction)
+        {
+            requireNonNull(pAction);
+            for (Sequence<? extends E> aSequence : fSequences)
+                aSequence.forEach(pAction);
+        }
+
+        @Override
+        @Nonnull
+        public Iterator<E> iterator()
+        {
+            return new Iterator<E>()
+            {
+                private int fNextSequence;
+                private Iterator<? extends E> fIterator = Collections.emptyIterator();
+
+                @Override
+                public boolean hasNext()
+                {
+                    while (!fIterator.hasNext())
+                    {
+                        if (fNextSequence >= fSequences.length)
+                            return false;
+
+                        fIterator = fSequences[fNextSequence++].iterator();
+                    }
+
+                    return true;
+                }
+
+                @Override
+                public E next()
+                {
+                    if (hasNext())
+                        return fIterator.next();
+                    else
+                        throw new NoSuchElementException();
+                }
+            };
+        }
+    }
+
+
+    /**
+     * A view of the elements in a {@code Sequence} that match a predicate.
+     *
+     * @param <E>   The sequence's element type.
+     */
+    static private class FilteredSequence<E> implements Sequence<E>
+    {
+        private final Sequence<? extends E> fSequence;
+        private final Predicate<? super E> fPredicate;
+
+        // The indexes of the matching elements in the underlying sequence, created on first use.
+        private volatile IntSequence fSelection;
+
+        /**
+         * Create a new {@code FilteredSequence}.
+         *
+         * @param pSequence     The underlying sequence.
+         * @param pPredicate    The predicate that elements must match.
+         *
+         * @throws NullPointerException if any of the parameters is null.
+         */
+        FilteredSequence(
+            @Nonnull Sequence<? extends E> pSequence,
+            @Nonnull Predicate<? super E> pPredicate)
+        {
+            fSequence = requireNonNull(pSequence);
+            fPredicate = requireNonNull(pPredicate);
+        }
+
+        @Override
+        @Nonnegative
+        public int size()
+        {
+            return selection().size();
+        }
+
+        @Override
+        public E elementAt(int pIndex)
+        {
+            return fSequence.elementAt(selection().valueAt(pIndex));
+        }
+
+        @Override
+        public void forEach(@Nonnull Consumer<? super E> pAction)
+        {
+            requireNonNull(pAction);
+            selection().forEach((int i) -> pAction.accept(fSequence.elementAt(i)));
+        }
+
+        /**
+         * Get the indexes of the elements that match the predicate, creating them if this is the
+         * first call.
+         *
+         * @return  The selection, never null.
+         */
+        @Nonnull
+        private IntSequence selection()
+        {
+            IntSequence aSelection = fSelection;
+            if (aSelection == null)
+            {
+                int aSize = fSequence.size();
+                IntSequenceBuilder aBuilder = new IntSequenceBuilder(Math.min(aSize, 16));
+                for (int i=0; i<aSize; i++)
+                    if (fPredicate.test(fSequence.elementAt(i)))
+                        aBuilder.append(i);
+
+                aSelection = aBuilder.toSequence();
+                fSelection = aSelection;
+            }
+
+            return aSelection;
+        }
     }
 }
@@ -0,0 +1,61 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnull;
+
+import org.myire.util.ShortConsumer;
+
+
+/**
+ * An iterator specialized for {@code short} values, in the same way as
+ * {@code PrimitiveIterator.OfInt} is specialized for {@code int} values.
+ */
+public interface ShortIterator extends PrimitiveIterator<Short, ShortConsumer>
+{
+    /**
+     * Get the next {@code short} value in the iteration.
+     *
+     * @return  The next {@code short} value in the iteration.
+     *
+     * @throws NoSuchElementException if the iteration has no more values.
+     */
+    short nextShort();
+
+    /**
+     * Get the next value in the iteration boxed in a {@code Short}.
+     *
+     * @return  The next value in the iteration, never null.
+     *
+     * @throws NoSuchElementException if the iteration has no more values.
+     */
+    @Override
+    @Nonnull
+    default Short next()
+    {
+        return Short.valueOf(nextShort());
+    }
+
+    /**
+     * Pass each remaining value to an action until all values have been processed or the action
+     * throws an exception.
+     *
+     * @param pAction   The action to pass the values to.
+     *
+     * @throws NullPointerException if {@code pAction} is null.
+     */
+    @Override
+    default void forEachRemaining(@Nonnull ShortConsumer pAction)
+    {
+        requireNonNull(pAction);
+        while (hasNext())
+            pAction.accept(nextShort());
+    }
+}
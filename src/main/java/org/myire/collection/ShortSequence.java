@@ -0,0 +1,80 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.util.ShortConsumer;
+
+
+/**
+ * A {@code ShortSequence} provides positional (indexed), read-only access to a sequence of
+ * {@code short} values. It is a primitive specialization of {@link Sequence} for {@code short}
+ * values.
+ */
+public interface ShortSequence extends PrimitiveSequence<Short, ShortConsumer>
+{
+    /**
+     * Get the {@code short} value at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the value to get.
+     *
+     * @return  The {@code short} value at the specified position in this sequence.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    short valueAt(@Nonnegative int pIndex);
+
+    /**
+     * Get the {@code Short} element at a specific position in this sequence.
+     *
+     * @param pIndex    The index of the element to get.
+     *
+     * @return  The value at the specified position in this sequence wrapped in a {@code Short},
+     *          never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pIndex} is less than 0 or greater than or equal
+     *                                   to {@link #size()}.
+     */
+    @Nonnull
+    @Override
+    default Short elementAt(@Nonnegative int pIndex)
+    {
+        return Short.valueOf(valueAt(pIndex));
+    }
+
+    /**
+     * Return a {@code ShortIterator} for the values in this sequence.
+     *
+     * @return  A {@code ShortIterator}, never null.
+     */
+    @Override
+    @Nonnull
+    ShortIterator iterator();
+
+    /**
+     * Get a view of the values in this sequence between {@code pFromIndex}, inclusive, and
+     * {@code pToIndex}, exclusive. The returned sequence is backed by this sequence; no values are
+     * copied.
+     *
+     * @param pFromIndex    The index of the first value in the sub-sequence.
+     * @param pToIndex      The index after the last value in the sub-sequence.
+     *
+     * @return  A {@code ShortSequence} with the values in the specified range, never null.
+     *
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative, or if {@code pToIndex}
+     *                                   is greater than {@link #size()}, or if
+     *                                   {@code pFromIndex} is greater than {@code pToIndex}.
+     */
+    @Override
+    @Nonnull
+    default ShortSequence subSequence(@Nonnegative int pFromIndex, @Nonnegative int pToIndex)
+    {
+        return CompactSequences.subSequence(this, pFromIndex, pToIndex);
+    }
+}
@@ -0,0 +1,692 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Collection;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+
+import org.myire.annotation.Unreachable;
+
+
+/**
+ * Search and merge algorithms for primitive sequences with values sorted in ascending order. The
+ * algorithms access the values through {@code valueAt} and work with any sequence without boxing
+ * the values.
+ *<p>
+ * The results of the methods in this class are undefined if a sequence passed to them isn't
+ * sorted in ascending order.
+ *<p>
+ * The intersection, union and difference methods treat the sequences as multisets, i.e. a value
+ * that occurs more than once is handled as multiple values, like the corresponding algorithms in
+ * the C++ standard library. When one sequence is much larger than the other, the methods
+ * iterate over the smaller sequence and locate its values in the larger sequence with a galloping
+ * search, which makes the time complexity proportional to <i>m</i>&nbsp;log(<i>n</i>/<i>m</i>)
+ * rather than <i>m</i>&nbsp;+&nbsp;<i>n</i>, where <i>m</i> is the size of the smaller sequence.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public final class SortedSequences
+{
+    // The size ratio between the larger and the smaller sequence from which a galloping search is
+    // used rather than a linear merge.
+    static private final int GALLOPING_THRESHOLD = 16;
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private SortedSequences()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Search for a value in a sorted {@code IntSequence} using a binary search.
+     *
+     * @param pSequence The sequence to search.
+     * @param pKey      The value to search for.
+     *
+     * @return  The index of the first occurrence of the value, if it is contained in the
+     *          sequence, otherwise <tt>(-(<i>insertion point</i>) - 1)</tt>, where the insertion
+     *          point is the index of the first value greater than the key, or the size of the
+     *          sequence if all values are less than the key. This guarantees that the return value
+     *          will be &gt;= 0 if and only if the key is found.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    static public int binarySearch(@Nonnull IntSequence pSequence, int pKey)
+    {
+        int aIndex = lowerBound(pSequence, -1, pSequence.size(), pKey);
+        return searchResult(pSequence, aIndex, pKey);
+    }
+
+
+    /**
+     * Search for a value in a sorted {@code LongSequence} using a binary search.
+     *
+     * @param pSequence The sequence to search.
+     * @param pKey      The value to search for.
+     *
+     * @return  The index of the first occurrence of the value, if it is contained in the
+     *          sequence, otherwise <tt>(-(<i>insertion point</i>) - 1)</tt>, where the insertion
+     *          point is the index of the first value greater than the key, or the size of the
+     *          sequence if all values are less than the key.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     */
+    static public int binarySearch(@Nonnull LongSequence pSequence, long pKey)
+    {
+        int aIndex = lowerBound(pSequence, -1, pSequence.size(), pKey);
+        return searchResult(pSequence, aIndex, pKey);
+    }
+
+
+    /**
+     * Search for a value in a sorted {@code IntSequence} using a galloping search, also known as
+     * exponential search. The search starts at a specified index and probes the values at
+     * exponentially increasing distances from that index until a value not less than the key is
+     * found, after which a binary search is performed in the last probed range. This makes the
+     * search proportional to the logarithm of the distance between the start index and the
+     * value's position rather than to the logarithm of the sequence's size, which is beneficial
+     * when a sequence is searched for increasing keys.
+     *
+     * @param pSequence     The sequence to search.
+     * @param pFromIndex    The index to start the search at. Values before this index are not
+     *                      searched.
+     * @param pKey          The value to search for.
+     *
+     * @return  The index of the first occurrence of the value at or after {@code pFromIndex}, if
+     *          it is found, otherwise <tt>(-(<i>insertion point</i>) - 1)</tt>, where the
+     *          insertion point is the index of the first value at or after {@code pFromIndex}
+     *          that is greater than the key, or the size of the sequence if there is no such
+     *          value.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative or greater than the size
+     *                                   of the sequence.
+     */
+    static public int gallopingSearch(@Nonnull IntSequence pSequence, int pFromIndex, int pKey)
+    {
+        if (pFromIndex < 0 || pFromIndex > pSequence.size())
+            throw new IndexOutOfBoundsException(String.valueOf(pFromIndex));
+
+        int aIndex = gallop(pSequence, pFromIndex, pKey);
+        return searchResult(pSequence, aIndex, pKey);
+    }
+
+
+    /**
+     * Search for a value in a sorted {@code LongSequence} using a galloping search, also known as
+     * exponential search. See {@link #gallopingSearch(IntSequence, int, int)} for details.
+     *
+     * @param pSequence     The sequence to search.
+     * @param pFromIndex    The index to start the search at. Values before this index are not
+     *                      searched.
+     * @param pKey          The value to search for.
+     *
+     * @return  The index of the first occurrence of the value at or after {@code pFromIndex}, if
+     *          it is found, otherwise <tt>(-(<i>insertion point</i>) - 1)</tt>.
+     *
+     * @throws NullPointerException if {@code pSequence} is null.
+     * @throws IndexOutOfBoundsException if {@code pFromIndex} is negative or greater than the size
+     *                                   of the sequence.
+     */
+    static public int gallopingSearch(@Nonnull LongSequence pSequence, int pFromIndex, long pKey)
+    {
+        if (pFromIndex < 0 || pFromIndex > pSequence.size())
+            throw new IndexOutOfBoundsException(String.valueOf(pFromIndex));
+
+        int aIndex = gallop(pSequence, pFromIndex, pKey);
+        return searchResult(pSequence, aIndex, pKey);
+    }
+
+
+    /**
+     * Merge a number of sorted {@code LongSequence} instances into a {@code LongSequenceBuilder}.
+     * The merged values are appended to the builder in ascending order. Duplicate values, both
+     * within a sequence and across sequences, are retained.
+     *<p>
+     * The merge keeps the current value of each non-empty sequence in a binary heap, making the
+     * time complexity proportional to <i>n</i>&nbsp;log(<i>k</i>), where <i>n</i> is the total
+     * number of values and <i>k</i> is the number of sequences.
+     *
+     * @param pSequences    The sequences to merge.
+     * @param pBuilder      The builder to append the merged values to.
+     *
+     * @return  {@code pBuilder}.
+     *
+     * @throws NullPointerException if any of the parameters is null, or if {@code pSequences}
+     *                              contains a null element.
+     */
+    @Nonnull
+    static public LongSequenceBuilder merge(
+        @Nonnull Collection<? extends LongSequence> pSequences,
+        @Nonnull LongSequenceBuilder pBuilder)
+    {
+        requireNonNull(pBuilder);
+
+        // Put the non-empty sequences into a heap ordered by the sequences' current values.
+        LongSequence[] aSequences = new LongSequence[pSequences.size()];
+        int[] aPositions = new int[aSequences.length];
+        long[] aHeads = new long[aSequences.length];
+        int aHeapSize = 0;
+        for (LongSequence aSequence : pSequences)
+        {
+            if (aSequence.size() > 0)
+            {
+                aSequences[aHeapSize] = aSequence;
+                aHeads[aHeapSize] = aSequence.valueAt(0);
+                aHeapSize++;
+            }
+        }
+
+        for (int i=(aHeapSize >>> 1) - 1; i>=0; i--)
+            siftDown(aSequences, aPositions, aHeads, i, aHeapSize);
+
+        while (aHeapSize > 1)
+        {
+            // Append the smallest current value and advance its sequence. Exhausted sequences are
+            // replaced with the last sequence in the heap.
+            LongSequence aSequence = aSequences[0];
+            pBuilder.append(aHeads[0]);
+            int aPosition = aPositions[0] + 1;
+            if (aPosition < aSequence.size())
+            {
+                aPositions[0] = aPosition;
+                aHeads[0] = aSequence.valueAt(aPosition);
+            }
+            else
+            {
+                aHeapSize--;
+                aSequences[0] = aSequences[aHeapSize];
+                aPositions[0] = aPositions[aHeapSize];
+                aHeads[0] = aHeads[aHeapSize];
+                aSequences[aHeapSize] = null;
+            }
+
+            siftDown(aSequences, aPositions, aHeads, 0, aHeapSize);
+        }
+
+        if (aHeapSize == 1)
+        {
+            // Only one sequence left, append its remaining values directly.
+            LongSequence aSequence = aSequences[0];
+            int aSize = aSequence.size();
+            for (int i=aPositions[0]; i<aSize; i++)
+                pBuilder.append(aSequence.valueAt(i));
+        }
+
+        return pBuilder;
+    }
+
+
+    /**
+     * Get the intersection of two sorted {@code IntSequence} instances. A value that occurs
+     * <i>m</i> times in the first sequence and <i>n</i> times in the second sequence will occur
+     * min(<i>m</i>,&nbsp;<i>n</i>) times in the intersection.
+     *
+     * @param pFirst    The first sequence.
+     * @param pSecond   The second sequence.
+     *
+     * @return  A new sequence with the values contained in both sequences, in ascending order,
+     *          never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public IntSequence intersection(
+        @Nonnull IntSequence pFirst,
+        @Nonnull IntSequence pSecond)
+    {
+        // The intersection is symmetric, let the smaller sequence be the first.
+        if (pFirst.size() > pSecond.size())
+        {
+            IntSequence aTmp = pFirst;
+            pFirst = pSecond;
+            pSecond = aTmp;
+        }
+
+        int aFirstSize = pFirst.size();
+        int aSecondSize = pSecond.size();
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(aFirstSize);
+        if (useGalloping(aFirstSize, aSecondSize))
+        {
+            int aSecondIndex = 0;
+            for (int i=0; i<aFirstSize && aSecondIndex<aSecondSize; i++)
+            {
+                int aValue = pFirst.valueAt(i);
+                aSecondIndex = gallop(pSecond, aSecondIndex, aValue);
+                if (aSecondIndex < aSecondSize && pSecond.valueAt(aSecondIndex) == aValue)
+                {
+                    aBuilder.append(aValue);
+                    aSecondIndex++;
+                }
+            }
+        }
+        else
+        {
+            int aFirstIndex = 0, aSecondIndex = 0;
+            while (aFirstIndex < aFirstSize && aSecondIndex < aSecondSize)
+            {
+                int aFirstValue = pFirst.valueAt(aFirstIndex);
+                int aSecondValue = pSecond.valueAt(aSecondIndex);
+                if (aFirstValue < aSecondValue)
+                    aFirstIndex++;
+                else if (aFirstValue > aSecondValue)
+                    aSecondIndex++;
+                else
+                {
+                    aBuilder.append(aFirstValue);
+                    aFirstIndex++;
+                    aSecondIndex++;
+                }
+            }
+        }
+
+        return aBuilder.toSequence();
+    }
+
+
+    /**
+     * Get the union of two sorted {@code IntSequence} instances. A value that occurs <i>m</i>
+     * times in the first sequence and <i>n</i> times in the second sequence will occur
+     * max(<i>m</i>,&nbsp;<i>n</i>) times in the union.
+     *
+     * @param pFirst    The first sequence.
+     * @param pSecond   The second sequence.
+     *
+     * @return  A new sequence with the values contained in any of the sequences, in ascending
+     *          order, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public IntSequence union(@Nonnull IntSequence pFirst, @Nonnull IntSequence pSecond)
+    {
+        // The union is symmetric, let the smaller sequence be the first.
+        if (pFirst.size() > pSecond.size())
+        {
+            IntSequence aTmp = pFirst;
+            pFirst = pSecond;
+            pSecond = aTmp;
+        }
+
+        int aFirstSize = pFirst.size();
+        int aSecondSize = pSecond.size();
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(aFirstSize + aSecondSize);
+        int aFirstIndex = 0, aSecondIndex = 0;
+        if (useGalloping(aFirstSize, aSecondSize))
+        {
+            // Copy the runs of values in the second sequence between the values of the first.
+            for (; aFirstIndex<aFirstSize; aFirstIndex++)
+            {
+                int aValue = pFirst.valueAt(aFirstIndex);
+                int aRunEnd = gallop(pSecond, aSecondIndex, aValue);
+                appendRange(aBuilder, pSecond, aSecondIndex, aRunEnd);
+                aBuilder.append(aValue);
+                aSecondIndex = aRunEnd;
+                if (aSecondIndex < aSecondSize && pSecond.valueAt(aSecondIndex) == aValue)
+                    aSecondIndex++;
+            }
+        }
+        else
+        {
+            while (aFirstIndex < aFirstSize && aSecondIndex < aSecondSize)
+            {
+                int aFirstValue = pFirst.valueAt(aFirstIndex);
+                int aSecondValue = pSecond.valueAt(aSecondIndex);
+                if (aFirstValue < aSecondValue)
+                {
+                    aBuilder.append(aFirstValue);
+                    aFirstIndex++;
+                }
+                else if (aFirstValue > aSecondValue)
+                {
+                    aBuilder.append(aSecondValue);
+                    aSecondIndex++;
+                }
+                else
+                {
+                    aBuilder.append(aFirstValue);
+                    aFirstIndex++;
+                    aSecondIndex++;
+                }
+            }
+
+            appendRange(aBuilder, pFirst, aFirstIndex, aFirstSize);
+        }
+
+        appendRange(aBuilder, pSecond, aSecondIndex, aSecondSize);
+        return aBuilder.toSequence();
+    }
+
+
+    /**
+     * Get the difference between two sorted {@code IntSequence} instances. A value that occurs
+     * <i>m</i> times in the first sequence and <i>n</i> times in the second sequence will occur
+     * max(<i>m</i>&nbsp;-&nbsp;<i>n</i>,&nbsp;0) times in the difference.
+     *
+     * @param pFirst    The sequence to subtract values from.
+     * @param pSecond   The sequence with the values to subtract.
+     *
+     * @return  A new sequence with the values in {@code pFirst} that are not contained in
+     *          {@code pSecond}, in ascending order, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static public IntSequence difference(
+        @Nonnull IntSequence pFirst,
+        @Nonnull IntSequence pSecond)
+    {
+        int aFirstSize = pFirst.size();
+        int aSecondSize = pSecond.size();
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(aFirstSize);
+        int aFirstIndex = 0, aSecondIndex = 0;
+        if (useGalloping(aFirstSize, aSecondSize))
+        {
+            // Few values to subtract from, locate each of them in the second sequence.
+            for (; aFirstIndex<aFirstSize; aFirstIndex++)
+            {
+                int aValue = pFirst.valueAt(aFirstIndex);
+                aSecondIndex = gallop(pSecond, aSecondIndex, aValue);
+                if (aSecondIndex < aSecondSize && pSecond.valueAt(aSecondIndex) == aValue)
+                    aSecondIndex++;
+                else
+                    aBuilder.append(aValue);
+            }
+        }
+        else if (useGalloping(aSecondSize, aFirstSize))
+        {
+            // Few values to subtract, copy the runs of values in the first sequence between them.
+            for (; aSecondIndex<aSecondSize; aSecondIndex++)
+            {
+                int aValue = pSecond.valueAt(aSecondIndex);
+                int aRunEnd = gallop(pFirst, aFirstIndex, aValue);
+                appendRange(aBuilder, pFirst, aFirstIndex, aRunEnd);
+                aFirstIndex = aRunEnd;
+                if (aFirstIndex < aFirstSize && pFirst.valueAt(aFirstIndex) == aValue)
+                    aFirstIndex++;
+            }
+
+            appendRange(aBuilder, pFirst, aFirstIndex, aFirstSize);
+        }
+        else
+        {
+            while (aFirstIndex < aFirstSize && aSecondIndex < aSecondSize)
+            {
+                int aFirstValue = pFirst.valueAt(aFirstIndex);
+                int aSecondValue = pSecond.valueAt(aSecondIndex);
+                if (aFirstValue < aSecondValue)
+                {
+                    aBuilder.append(aFirstValue);
+                    aFirstIndex++;
+                }
+                else if (aFirstValue > aSecondValue)
+                    aSecondIndex++;
+                else
+                {
+                    aFirstIndex++;
+                    aSecondIndex++;
+                }
+            }
+
+            appendRange(aBuilder, pFirst, aFirstIndex, aFirstSize);
+        }
+
+        return aBuilder.toSequence();
+    }
+
+
+    /**
+     * Check if the values of a smaller sequence should be located in a larger sequence with a
+     * galloping search rather than by a linear merge of the two sequences.
+     *
+     * @param pSmallerSize  The size of the smaller sequence.
+     * @param pLargerSize   The size of the larger sequence.
+     *
+     * @return  True if galloping should be used, false if not.
+     */
+    static private boolean useGalloping(
+        @Nonnegative int pSmallerSize,
+        @Nonnegative int pLargerSize)
+    {
+        return pSmallerSize > 0 && pLargerSize / pSmallerSize >= GALLOPING_THRESHOLD;
+    }
+
+
+    /**
+     * Get the index of the first value not less than a key in a sorted {@code IntSequence},
+     * starting at a specified index and probing at exponentially increasing distances.
+     *
+     * @param pSequence     The sequence to search.
+     * @param pFromIndex    The index to start searching at.
+     * @param pKey          The value to search for.
+     *
+     * @return  The index of the first value at or after {@code pFromIndex} that is not less than
+     *          {@code pKey}, or the size of the sequence if there is no such value.
+     */
+    static private int gallop(
+        @Nonnull IntSequence pSequence,
+        @Nonnegative int pFromIndex,
+        int pKey)
+    {
+        int aSize = pSequence.size();
+        if (pFromIndex >= aSize || pSequence.valueAt(pFromIndex) >= pKey)
+            return pFromIndex;
+
+        // The value at aLow is always less than the key, the step is capped to not go beyond the
+        // end of the sequence.
+        int aLow = pFromIndex;
+        int aRemaining = aSize - pFromIndex;
+        int aStep = 1;
+        int aHigh = pFromIndex + aStep;
+        while (aHigh < aSize && pSequence.valueAt(aHigh) < pKey)
+        {
+            aLow = aHigh;
+            aStep = aStep < aRemaining >>> 1 ? aStep << 1 : aRemaining;
+            aHigh = pFromIndex + aStep;
+        }
+
+        return lowerBound(pSequence, aLow, aHigh, pKey);
+    }
+
+
+    /**
+     * Get the index of the first value not less than a key in a sorted {@code LongSequence},
+     * starting at a specified index and probing at exponentially increasing distances.
+     *
+     * @param pSequence     The sequence to search.
+     * @param pFromIndex    The index to start searching at.
+     * @param pKey          The value to search for.
+     *
+     * @return  The index of the first value at or after {@code pFromIndex} that is not less than
+     *          {@code pKey}, or the size of the sequence if there is no such value.
+     */
+    static private int gallop(
+        @Nonnull LongSequence pSequence,
+        @Nonnegative int pFromIndex,
+        long pKey)
+    {
+        int aSize = pSequence.size();
+        if (pFromIndex >= aSize || pSequence.valueAt(pFromIndex) >= pKey)
+            return pFromIndex;
+
+        int aLow = pFromIndex;
+        int aRemaining = aSize - pFromIndex;
+        int aStep = 1;
+        int aHigh = pFromIndex + aStep;
+        while (aHigh < aSize && pSequence.valueAt(aHigh) < pKey)
+        {
+            aLow = aHigh;
+            aStep = aStep < aRemaining >>> 1 ? aStep << 1 : aRemaining;
+            aHigh = pFromIndex + aStep;
+        }
+
+        return lowerBound(pSequence, aLow, aHigh, pKey);
+    }
+
+
+    /**
+     * Get the index of the first value not less than a key in a range of a sorted
+     * {@code IntSequence}.
+     *
+     * @param pSequence The sequence to search.
+     * @param pLow      An index whose value is known to be less than the key, or -1.
+     * @param pHigh     An index whose value is known to be not less than the key, or the size of
+     *                  the sequence.
+     * @param pKey      The value to search for.
+     *
+     * @return  The index of the first value in the range ({@code pLow}, {@code pHigh}] that is not
+     *          less than the key.
+     */
+    static private int lowerBound(@Nonnull IntSequence pSequence, int pLow, int pHigh, int pKey)
+    {
+        while (pHigh - pLow > 1)
+        {
+            int aMid = (pLow + pHigh) >>> 1;
+            if (pSequence.valueAt(aMid) < pKey)
+                pLow = aMid;
+            else
+                pHigh = aMid;
+        }
+
+        return pHigh;
+    }
+
+
+    /**
+     * Get the index of the first value not less than a key in a range of a sorted
+     * {@code LongSequence}.
+     *
+     * @param pSequence The sequence to search.
+     * @param pLow      An index whose value is known to be less than the key, or -1.
+     * @param pHigh     An index whose value is known to be not less than the key, or the size of
+     *                  the sequence.
+     * @param pKey      The value to search for.
+     *
+     * @return  The index of the first value in the range ({@code pLow}, {@code pHigh}] that is not
+     *          less than the key.
+     */
+    static private int lowerBound(@Nonnull LongSequence pSequence, int pLow, int pHigh, long pKey)
+    {
+        while (pHigh - pLow > 1)
+        {
+            int aMid = (pLow + pHigh) >>> 1;
+            if (pSequence.valueAt(aMid) < pKey)
+                pLow = aMid;
+            else
+                pHigh = aMid;
+        }
+
+        return pHigh;
+    }
+
+
+    /**
+     * Convert the index of the first value not less than a key to a search result.
+     *
+     * @param pSequence The sequence that was searched.
+     * @param pIndex    The index of the first value not less than the key.
+     * @param pKey      The key that was searched for.
+     *
+     * @return  {@code pIndex} if the value at that index equals the key, otherwise
+     *          {@code -pIndex - 1}.
+     */
+    static private int searchResult(@Nonnull IntSequence pSequence, int pIndex, int pKey)
+    {
+        if (pIndex < pSequence.size() && pSequence.valueAt(pIndex) == pKey)
+            return pIndex;
+        else
+            return -pIndex - 1;
+    }
+
+
+    /**
+     * Convert the index of the first value not less than a key to a search result.
+     *
+     * @param pSequence The sequence that was searched.
+     * @param pIndex    The index of the first value not less than the key.
+     * @param pKey      The key that was searched for.
+     *
+     * @return  {@code pIndex} if the value at that index equals the key, otherwise
+     *          {@code -pIndex - 1}.
+     */
+    static private int searchResult(@Nonnull LongSequence pSequence, int pIndex, long pKey)
+    {
+        if (pIndex < pSequence.size() && pSequence.valueAt(pIndex) == pKey)
+            return pIndex;
+        else
+            return -pIndex - 1;
+    }
+
+
+    /**
+     * Restore the heap property of a subtree in the heap used by
+     * {@link #merge(Collection, LongSequenceBuilder)}.
+     *
+     * @param pSequences    The sequences in the heap.
+     * @param pPositions    The current position in each sequence.
+     * @param pHeads        The value at the current position in each sequence.
+     * @param pIndex        The index of the subtree's root.
+     * @param pHeapSize     The number of sequences in the heap.
+     */
+    static private void siftDown(
+        @Nonnull LongSequence[] pSequences,
+        @Nonnull int[] pPositions,
+        @Nonnull long[] pHeads,
+        int pIndex,
+        int pHeapSize)
+    {
+        LongSequence aSequence = pSequences[pIndex];
+        int aPosition = pPositions[pIndex];
+        long aHead = pHeads[pIndex];
+        int aHalf = pHeapSize >>> 1;
+        while (pIndex < aHalf)
+        {
+            int aChild = 2 * pIndex + 1;
+            int aRight = aChild + 1;
+            if (aRight < pHeapSize && pHeads[aRight] < pHeads[aChild])
+                aChild = aRight;
+
+            if (aHead <= pHeads[aChild])
+                break;
+
+            pSequences[pIndex] = pSequences[aChild];
+            pPositions[pIndex] = pPositions[aChild];
+            pHeads[pIndex] = pHeads[aChild];
+            pIndex = aChild;
+        }
+
+        pSequences[pIndex] = aSequence;
+        pPositions[pIndex] = aPosition;
+        pHeads[pIndex] = aHead;
+    }
+
+
+    /**
+     * Append a range of the values in an {@code IntSequence} to an {@code IntSequenceBuilder}.
+     *
+     * @param pBuilder      The builder to append to.
+     * @param pSequence     The sequence with the values to append.
+     * @param pFromIndex    The index of the first value to append.
+     * @param pToIndex      The index after the last value to append.
+     */
+    static private void appendRange(
+        @Nonnull IntSequenceBuilder pBuilder,
+        @Nonnull IntSequence pSequence,
+        int pFromIndex,
+        int pToIndex)
+    {
+        for (int i=pFromIndex; i<pToIndex; i++)
+            pBuilder.append(pSequence.valueAt(i));
+    }
+}
@@ -1,12 +1,17 @@
 /*
- * Copyright 2017 Peter Franzen. All rights reserved.
+ * Copyright 2017, 2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
 package org.myire.concurrent;
 
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import static java.util.Objects.requireNonNull;
 
 import javax.annotation.Nonnull;
@@ -64,6 +69,159 @@ public final class Awaitables
     }
 
 
+    /**
+     * Create an {@code Awaitable} that waits for a {@code Future} to complete. The
+     * {@code Future}'s condition is true when it has completed normally, exceptionally, or by
+     * being cancelled.
+     *
+     * @param pFuture   The {@code Future} that the {@code await} methods wait for.
+     *
+     * @return  A new {@code Awaitable}, never null.
+     *
+     * @throws NullPointerException if {@code pFuture} is null.
+     */
+    @Nonnull
+    static public Awaitable wrap(@Nonnull Future<?> pFuture)
+    {
+        return new FutureAwaitable(pFuture);
+    }
+
+
+    /**
+     * Create an {@code Awaitable} that waits for the conditions of all of a number of other
+     * {@code Awaitable} instances to become true. The other instances are waited for one at a
+     * time in the calling thread. A timed wait passes the time remaining until a single deadline
+     * to each of the other instances, which means that the total waiting time never exceeds the
+     * specified time.
+     *
+     * @param pAwaitables   The {@code Awaitable} instances to wait for.
+     *
+     * @return  A new {@code Awaitable}, never null.
+     *
+     * @throws NullPointerException if {@code pAwaitables} is null or contains null elements.
+     */
+    @Nonnull
+    static public Awaitable allOf(@Nonnull Awaitable... pAwaitables)
+    {
+        return new AllOfAwaitable(pAwaitables);
+    }
+
+
+    /**
+     * Create an {@code Awaitable} that waits for any of a number of futures to complete. The
+     * {@code Awaitable} is driven by completion callbacks registered with the futures, see
+     * {@link PollableFuture#anyOf(Collection)}. The futures that haven't completed are not
+     * cancelled when the first future completes, see {@link #anyOf(Collection, boolean)}.
+     *
+     * @param pFutures  The futures to wait for.
+     *
+     * @return  A new {@code Awaitable}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pFutures} is empty.
+     */
+    @Nonnull
+    static public Awaitable anyOf(@Nonnull Collection<? extends PollableFuture<?>> pFutures)
+    {
+        return anyOf(pFutures, false);
+    }
+
+
+    /**
+     * Create an {@code Awaitable} that waits for any of a number of futures to complete. The
+     * {@code Awaitable} is driven by completion callbacks registered with the futures, see
+     * {@link PollableFuture#anyOf(Collection, boolean)}.
+     *
+     * @param pFutures          The futures to wait for.
+     * @param pCancelRemaining  If true, the futures that haven't completed are cancelled with
+     *                          {@code cancel(true)} when the first future completes.
+     *
+     * @return  A new {@code Awaitable}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pFutures} is empty.
+     */
+    @Nonnull
+    static public Awaitable anyOf(
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures,
+        boolean pCancelRemaining)
+    {
+        return wrap(PollableFuture.anyOf(pFutures, pCancelRemaining));
+    }
+
+
+    /**
+     * Create an {@code Awaitable} that waits for a number of futures to complete normally, or for
+     * so many futures to complete exceptionally that the number cannot be reached. The
+     * {@code Awaitable} is driven by completion callbacks registered with the futures that count
+     * down a single shared counter, see {@link PollableFuture#quorum(int, Collection)}. The
+     * futures that haven't completed are not cancelled when the outcome is decided, see
+     * {@link #quorum(int, Collection, boolean)}.
+     *<p>
+     * Waiting for all futures is done by passing the number of futures as {@code pCount}.
+     *
+     * @param pCount    The number of futures that must complete normally.
+     * @param pFutures  The futures to wait for.
+     *
+     * @return  A new {@code Awaitable}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pCount} is negative or greater than the number
+     *                                  of futures.
+     */
+    @Nonnull
+    static public Awaitable quorum(
+        int pCount,
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures)
+    {
+        return quorum(pCount, pFutures, false);
+    }
+
+
+    /**
+     * Create an {@code Awaitable} that waits for a number of futures to complete normally, or for
+     * so many futures to complete exceptionally that the number cannot be reached. The
+     * {@code Awaitable} is driven by completion callbacks registered with the futures that count
+     * down a single shared counter, see {@link PollableFuture#quorum(int, Collection, boolean)}.
+     *<p>
+     * Waiting for all futures is done by passing the number of futures as {@code pCount}.
+     *
+     * @param pCount            The number of futures that must complete normally.
+     * @param pFutures          The futures to wait for.
+     * @param pCancelRemaining  If true, the futures that haven't completed are cancelled with
+     *                          {@code cancel(true)} when the outcome is decided.
+     *
+     * @return  A new {@code Awaitable}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pCount} is negative or greater than the number
+     *                                  of futures.
+     */
+    @Nonnull
+    static public Awaitable quorum(
+        int pCount,
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures,
+        boolean pCancelRemaining)
+    {
+        return wrap(PollableFuture.quorum(pCount, pFutures, pCancelRemaining));
+    }
+
+
+    /**
+     * Check if the current thread's interrupted status is set and throw an
+     * {@code InterruptedException} if that is the case. The interrupted status of the thread will
+     * be cleared by this method.
+     *
+     * @throws InterruptedException if the current thread's interrupted status was set when this
+     *                              method was called.
+     */
+    static private void checkInterrupted() throws InterruptedException
+    {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+    }
+
+
     /**
      * Implementation of {@code Awaitable} that waits for {@code CountDownLatch}'s count to reach
      * zero.
@@ -134,20 +292,114 @@ public final class Awaitables
             pUnit.timedJoin(fThread, pTimeout);
             return !fThread.isAlive();
         }
+    }
+
+
+    /**
+     * Implementation of {@code Awaitable} that waits for a {@code Future} to complete.
+     */
+    @ThreadSafe
+    static private class FutureAwaitable implements Awaitable
+    {
+        private final Future<?> fFuture;
+
+        /**
+         * Create a new {@code FutureAwaitable}.
+         *
+         * @param pFuture   The {@code Future} that the {@code await} methods wait for.
+         *
+         * @throws NullPointerException if {@code pFuture} is null.
+         */
+        FutureAwaitable(@Nonnull Future<?> pFuture)
+        {
+            fFuture = requireNonNull(pFuture);
+        }
+
+        @Override
+        public void await() throws InterruptedException
+        {
+            checkInterrupted();
+            try
+            {
+                fFuture.get();
+            }
+            catch (ExecutionException | CancellationException ignore)
+            {
+                // Completed exceptionally or cancelled, which also means done.
+            }
+        }
+
+        @Override
+        public boolean await(long pTimeout, @Nonnull TimeUnit pUnit) throws InterruptedException
+        {
+            checkInterrupted();
+            if (fFuture.isDone())
+                return true;
 
+            try
+            {
+                fFuture.get(pTimeout, pUnit);
+                return true;
+            }
+            catch (ExecutionException | CancellationException ignore)
+            {
+                // Completed exceptionally or cancelled, which also means done.
+                return true;
+            }
+            catch (TimeoutException ignore)
+            {
+                return false;
+            }
+        }
+    }
+
+
+    /**
+     * Implementation of {@code Awaitable} that waits for all of a number of {@code Awaitable}
+     * instances.
+     */
+    @ThreadSafe
+    static private class AllOfAwaitable implements Awaitable
+    {
+        private final Awaitable[] fAwaitables;
 
         /**
-         * Check if the current thread's interrupted status is set and throw an
-         * {@code InterruptedException} if that is the case. The interrupted status of the thread
-         * will be cleared by this method.
+         * Create a new {@code AllOfAwaitable}.
+         *
+         * @param pAwaitables   The {@code Awaitable} instances that the {@code await} methods wait
+         *                      for.
          *
-         * @throws InterruptedException if the current thread's interrupted status was set when this
-         *                              method was called.
+         * @throws NullPointerException if {@code pAwaitables} is null or contains null elements.
          */
-        static private void checkInterrupted() throws InterruptedException
+        AllOfAwaitable(@Nonnull Awaitable[] pAwaitables)
+        {
+            fAwaitables = pAwaitables.clone();
+            for (Awaitable aAwaitable : fAwaitables)
+                requireNonNull(aAwaitable);
+        }
+
+        @Override
+        public void await() throws InterruptedException
         {
-            if (Thread.interrupted())
-                throw new InterruptedException();
+            checkInterrupted();
+            for (Awaitable aAwaitable : fAwaitables)
+                aAwaitable.await();
+        }
+
+        @Override
+        public boolean await(long pTimeout, @Nonnull TimeUnit pUnit) throws InterruptedException
+        {
+            checkInterrupted();
+            long aDeadline = System.nanoTime() + pUnit.toNanos(pTimeout);
+            for (Awaitable aAwaitable : fAwaitables)
+            {
+                // An elapsed deadline still lets an instance whose condition is true return true.
+                long aRemaining = aDeadline - System.nanoTime();
+                if (!aAwaitable.await(aRemaining, TimeUnit.NANOSECONDS))
+                    return false;
+            }
+
+            return true;
         }
     }
 }
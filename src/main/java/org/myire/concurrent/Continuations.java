@@ -0,0 +1,514 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.Collection;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+import org.myire.annotation.Unreachable;
+
+
+/**
+ * Utility methods for invoking completion callbacks, chaining continuations, and combining
+ * {@code PollableFuture} instances.
+ */
+final class Continuations
+{
+    /**
+     * An executor that runs tasks in the calling thread.
+     */
+    static final Executor DIRECT_EXECUTOR = Runnable::run;
+
+    /**
+     * The pool of daemon threads that wait for futures that can't notify when they complete.
+     */
+    static private final Executor WAITING_EXECUTOR =
+        Executors.newCachedThreadPool(new DaemonThreadFactory("future-waiter-", true));
+
+
+    /**
+     * Private constructor to disallow instantiations of utility method class.
+     */
+    @Unreachable
+    private Continuations()
+    {
+        // Empty default ctor, defined to override access scope.
+    }
+
+
+    /**
+     * Invoke a completion callback with the outcome of a {@code Future}, waiting for the
+     * {@code Future} to complete if necessary. An interruption while waiting does not abort the
+     * wait, but the interrupt status of the current thread is restored before the callback is
+     * invoked.
+     *
+     * @param pFuture   The {@code Future}.
+     * @param pAction   The callback.
+     *
+     * @param <T>   The result type of {@code pFuture}.
+     */
+    static <T> void invokeWithOutcome(
+        @Nonnull Future<T> pFuture,
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction)
+    {
+        T aValue = null;
+        Throwable aFailure = null;
+        boolean aWasInterrupted = false;
+        for (;;)
+        {
+            try
+            {
+                aValue = pFuture.get();
+                break;
+            }
+            catch (InterruptedException e)
+            {
+                aWasInterrupted = true;
+            }
+            catch (ExecutionException e)
+            {
+                aFailure = e.getCause();
+                break;
+            }
+            catch (CancellationException e)
+            {
+                aFailure = e;
+                break;
+            }
+        }
+
+        if (aWasInterrupted)
+            Thread.currentThread().interrupt();
+
+        invoke(pAction, aValue, aFailure);
+    }
+
+
+    /**
+     * Invoke a completion callback. Any exception thrown by the callback is passed to the
+     * uncaught exception handler of the current thread, since there is no caller that can handle
+     * it.
+     *
+     * @param pAction   The callback.
+     * @param pValue    The result of the completed future, null if it didn't complete normally.
+     * @param pFailure  The exception that completed the future, null if it completed normally.
+     *
+     * @param <T>   The result type of the future.
+     */
+    static <T> void invoke(
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+        @Nullable T pValue,
+        @Nullable Throwable pFailure)
+    {
+        try
+        {
+            pAction.accept(pValue, pFailure);
+        }
+        catch (Throwable t)
+        {
+            reportUncaught(t);
+        }
+    }
+
+
+    /**
+     * Pass a task to an executor. If the executor rejects the task, the exception is passed to
+     * the uncaught exception handler of the current thread.
+     *
+     * @param pExecutor The executor.
+     * @param pTask     The task.
+     */
+    static void execute(@Nonnull Executor pExecutor, @Nonnull Runnable pTask)
+    {
+        try
+        {
+            pExecutor.execute(pTask);
+        }
+        catch (Throwable t)
+        {
+            reportUncaught(t);
+        }
+    }
+
+
+    /**
+     * Register a completion callback with a {@code Future} that can't notify when it completes.
+     * The callback is invoked in the calling thread if the {@code Future} already is complete.
+     * Otherwise a task that waits for the {@code Future} to complete is passed to a pool of daemon
+     * threads, and the callback is passed to an executor when the wait is over. The calling thread
+     * never waits for the {@code Future}, not even if the executor runs tasks in the calling
+     * thread.
+     *
+     * @param pFuture   The {@code Future}.
+     * @param pAction   The callback.
+     * @param pExecutor The executor to pass the callback to.
+     *
+     * @param <T>   The result type of {@code pFuture}.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static <T> void awaitCompletion(
+        @Nonnull Future<T> pFuture,
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+        @Nonnull Executor pExecutor)
+    {
+        requireNonNull(pAction);
+        requireNonNull(pExecutor);
+        if (pFuture.isDone())
+            invokeWithOutcome(pFuture, pAction);
+        else
+            execute(
+                WAITING_EXECUTOR,
+                () -> invokeWithOutcome(
+                    pFuture,
+                    (v, t) -> execute(pExecutor, () -> invoke(pAction, v, t))));
+    }
+
+
+    /**
+     * Register a completion callback with a {@code CompletableFuture}. The callback is invoked
+     * in the calling thread if the {@code CompletableFuture} already is complete, otherwise it is
+     * passed to an executor when the {@code CompletableFuture} completes.
+     *<p>
+     * A dependent stage of a {@code CompletableFuture} reports the failure of its source wrapped
+     * in a {@code CompletionException}. Such a wrapper is replaced with its cause before the
+     * callback is invoked, which makes the callback see the same exception as {@code get()}
+     * reports as the cause of its {@code ExecutionException}.
+     *
+     * @param pFuture   The {@code CompletableFuture}.
+     * @param pAction   The callback.
+     * @param pExecutor The executor to pass the callback to.
+     *
+     * @param <T>   The result type of {@code pFuture}.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    static <T> void onComplete(
+        @Nonnull CompletableFuture<T> pFuture,
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+        @Nonnull Executor pExecutor)
+    {
+        requireNonNull(pAction);
+        requireNonNull(pExecutor);
+        BiConsumer<T, Throwable> aInvocation = (v, t) -> invoke(pAction, v, unwrap(t));
+        if (pFuture.isDone())
+            pFuture.whenComplete(aInvocation);
+        else
+            pFuture.whenCompleteAsync(aInvocation, pExecutor);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that is completed with the result of applying a function to
+     * the result of another {@code PollableFuture}.
+     *
+     * @param pSource   The future whose result the function is applied to.
+     * @param pFunction The function.
+     * @param pExecutor The executor to apply the function with if {@code pSource} isn't
+     *                  complete.
+     *
+     * @param <T>   The result type of {@code pSource}.
+     * @param <U>   The result type of the returned future.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static <T, U> PollableFuture<U> map(
+        @Nonnull PollableFuture<T> pSource,
+        @Nonnull Function<? super T, ? extends U> pFunction,
+        @Nonnull Executor pExecutor)
+    {
+        requireNonNull(pFunction);
+        FutureResult<U> aDependent = new FutureResult<>();
+        pSource.onComplete(
+            (v, t) -> {
+                if (t != null)
+                    propagateFailure(t, aDependent);
+                else
+                {
+                    try
+                    {
+                        aDependent.setResult(pFunction.apply(v));
+                    }
+                    catch (Throwable e)
+                    {
+                        aDependent.setException(e);
+                    }
+                }
+            },
+            pExecutor);
+
+        return aDependent;
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that is completed with the result of the future returned by
+     * a function applied to the result of another {@code PollableFuture}.
+     *
+     * @param pSource   The future whose result the function is applied to.
+     * @param pFunction The function.
+     * @param pExecutor The executor to apply the function with if {@code pSource} isn't
+     *                  complete, and to complete the returned future with if the future returned
+     *                  by the function isn't complete.
+     *
+     * @param <T>   The result type of {@code pSource}.
+     * @param <U>   The result type of the returned future.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    static <T, U> PollableFuture<U> flatMap(
+        @Nonnull PollableFuture<T> pSource,
+        @Nonnull Function<? super T, ? extends PollableFuture<U>> pFunction,
+        @Nonnull Executor pExecutor)
+    {
+        requireNonNull(pFunction);
+        FutureResult<U> aDependent = new FutureResult<>();
+        pSource.onComplete(
+            (v, t) -> {
+                if (t != null)
+                {
+                    propagateFailure(t, aDependent);
+                    return;
+                }
+
+                try
+                {
+                    requireNonNull(pFunction.apply(v)).onComplete(
+                        (u, f) -> {
+                            if (f != null)
+                                propagateFailure(f, aDependent);
+                            else
+                                aDependent.setResult(u);
+                        },
+                        pExecutor);
+                }
+                catch (Throwable e)
+                {
+                    aDependent.setException(e);
+                }
+            },
+            pExecutor);
+
+        return aDependent;
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that completes normally when a number of other futures have
+     * completed normally, or exceptionally when so many of the other futures have failed that the
+     * number cannot be reached. The outcome is tracked with two shared counters that are counted
+     * down by completion callbacks registered with the other futures, which means that the calling
+     * thread never waits for the other futures.
+     *
+     * @param pCount            The number of futures that must complete normally.
+     * @param pFutures          The futures.
+     * @param pCancelRemaining  If true, the futures that haven't completed are cancelled when the
+     *                          returned future completes or is cancelled.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pCount} is negative or greater than the number
+     *                                  of futures.
+     */
+    @Nonnull
+    static PollableFuture<Void> quorum(
+        int pCount,
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures,
+        boolean pCancelRemaining)
+    {
+        PollableFuture<?>[] aFutures = toArray(pFutures);
+        if (pCount < 0 || pCount > aFutures.length)
+            throw new IllegalArgumentException(
+                "Invalid quorum " + pCount + " for " + aFutures.length + " futures");
+
+        FutureResult<Void> aCombined = newCombinedFuture(aFutures, pCancelRemaining);
+        if (pCount == 0)
+        {
+            aCombined.setResult(null);
+            return aCombined;
+        }
+
+        AtomicInteger aRemainingSuccesses = new AtomicInteger(pCount);
+        AtomicInteger aRemainingFailures = new AtomicInteger(aFutures.length - pCount + 1);
+        for (PollableFuture<?> aFuture : aFutures)
+        {
+            aFuture.onComplete(
+                (v, t) -> {
+                    if (t == null)
+                    {
+                        if (aRemainingSuccesses.decrementAndGet() == 0)
+                            aCombined.setResult(null);
+                    }
+                    else if (aRemainingFailures.decrementAndGet() == 0)
+                        propagateFailure(t, aCombined);
+                },
+                DIRECT_EXECUTOR);
+        }
+
+        return aCombined;
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that completes with the outcome of the first of a number of
+     * other futures to complete.
+     *
+     * @param pFutures          The futures.
+     * @param pCancelRemaining  If true, the futures that haven't completed are cancelled when the
+     *                          returned future completes or is cancelled.
+     *
+     * @param <T>   The result type.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pFutures} is empty.
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    static <T> PollableFuture<T> anyOf(
+        @Nonnull Collection<? extends PollableFuture<? extends T>> pFutures,
+        boolean pCancelRemaining)
+    {
+        PollableFuture<?>[] aFutures = toArray(pFutures);
+        if (aFutures.length == 0)
+            throw new IllegalArgumentException("No futures");
+
+        FutureResult<T> aCombined = newCombinedFuture(aFutures, pCancelRemaining);
+        for (PollableFuture<?> aFuture : aFutures)
+        {
+            ((PollableFuture<? extends T>) aFuture).onComplete(
+                (v, t) -> {
+                    if (t == null)
+                        aCombined.setResult(v);
+                    else
+                        propagateFailure(t, aCombined);
+                },
+                DIRECT_EXECUTOR);
+        }
+
+        return aCombined;
+    }
+
+
+    /**
+     * Create a {@code FutureResult} that combines the outcomes of a number of futures, optionally
+     * cancelling those futures when it completes.
+     *
+     * @param pFutures          The futures.
+     * @param pCancelRemaining  If true, the futures are cancelled when the returned future
+     *                          completes. Cancelling a future that has completed has no effect.
+     *
+     * @param <T>   The result type of the returned future.
+     *
+     * @return  A new {@code FutureResult}, never null.
+     */
+    @Nonnull
+    static private <T> FutureResult<T> newCombinedFuture(
+        @Nonnull PollableFuture<?>[] pFutures,
+        boolean pCancelRemaining)
+    {
+        FutureResult<T> aCombined = new FutureResult<>();
+        if (pCancelRemaining)
+            aCombined.onComplete(
+                (v, t) -> {
+                    for (PollableFuture<?> aFuture : pFutures)
+                        aFuture.cancel(true);
+                },
+                DIRECT_EXECUTOR);
+
+        return aCombined;
+    }
+
+
+    /**
+     * Copy the futures in a collection to an array.
+     *
+     * @param pFutures  The futures.
+     *
+     * @return  A new array with the futures, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     */
+    @Nonnull
+    static private PollableFuture<?>[] toArray(
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures)
+    {
+        PollableFuture<?>[] aFutures = pFutures.toArray(new PollableFuture<?>[0]);
+        for (PollableFuture<?> aFuture : aFutures)
+            requireNonNull(aFuture);
+
+        return aFutures;
+    }
+
+
+    /**
+     * Complete a dependent future with the failure of the future it depends on. A cancellation
+     * is propagated as a cancellation, any other failure as an exceptional completion.
+     *
+     * @param pFailure      The failure.
+     * @param pDependent    The dependent future.
+     */
+    static private void propagateFailure(
+        @Nonnull Throwable pFailure,
+        @Nonnull FutureResult<?> pDependent)
+    {
+        if (pFailure instanceof CancellationException)
+            pDependent.cancel();
+        else
+            pDependent.setException(pFailure);
+    }
+
+
+    /**
+     * Get the cause of a {@code CompletionException}.
+     *
+     * @param pFailure  The failure reported by a {@code CompletableFuture}, possibly null.
+     *
+     * @return  The cause of {@code pFailure} if it is a {@code CompletionException} with a
+     *          non-null cause, otherwise {@code pFailure}.
+     */
+    @Nullable
+    static private Throwable unwrap(@Nullable Throwable pFailure)
+    {
+        if (pFailure instanceof CompletionException && pFailure.getCause() != null)
+            return pFailure.getCause();
+        else
+            return pFailure;
+    }
+
+
+    /**
+     * Pass a throwable to the uncaught exception handler of the current thread.
+     *
+     * @param pThrowable    The throwable.
+     */
+    static private void reportUncaught(@Nonnull Throwable pThrowable)
+    {
+        Thread aThread = Thread.currentThread();
+        aThread.getUncaughtExceptionHandler().uncaughtException(aThread, pThrowable);
+    }
+}
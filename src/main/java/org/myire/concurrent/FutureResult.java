@@ -1,5 +1,5 @@
 /*
- * Copyright 2011, 2021-2022 Peter Franzen. All rights reserved.
+ * Copyright 2011, 2021-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
@@ -7,11 +7,14 @@ package org.myire.concurrent;
 
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionException;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.BiConsumer;
+import static java.util.Objects.requireNonNull;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -35,6 +38,14 @@ import javax.annotation.concurrent.ThreadSafe;
  *     with a call to {@link #setException(Throwable)}, not if it was cancelled.</li>
  *</ul>
  *<p>
+ * The completion state is held in a single volatile field that is set with a compare-and-set
+ * operation. A successful completion stores the result directly in that field, with a shared
+ * sentinel representing a {@code null} result, which means that completing normally doesn't
+ * allocate any objects. Threads blocked in {@code get()} and callbacks registered with
+ * {@link #onComplete(BiConsumer, Executor)} are kept in a lock-free stack. The blocked threads are
+ * parked until the future is completed, and the callbacks are passed to their executors in the
+ * order they were registered.
+ *<p>
  * Instances of this class are safe for use by multiple threads.
  *
  * @param <T>   The type of the result this future will hold.
@@ -44,8 +55,29 @@ import javax.annotation.concurrent.ThreadSafe;
 @ThreadSafe
 public class FutureResult<T> implements PollableFuture<T>
 {
-    private final CountDownLatch fLatch = new CountDownLatch(1);
-    private final AtomicReference<Completion<T>> fCompletionRef = new AtomicReference<>();
+    // The result field value representing a successful completion with a null result.
+    static private final Object NULL_RESULT = new Object();
+
+    // The result field value representing a cancellation.
+    static private final Failure CANCELLED = new Failure(null);
+
+    @SuppressWarnings("rawtypes")
+    static private final AtomicReferenceFieldUpdater<FutureResult, Object> RESULT_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(FutureResult.class, Object.class, "fResult");
+
+    // The top of the stack of a completed instance, nodes can no longer be pushed.
+    static private final Node RELEASED = new Waiter(null);
+
+    @SuppressWarnings("rawtypes")
+    static private final AtomicReferenceFieldUpdater<FutureResult, Node> WAITERS_UPDATER =
+        AtomicReferenceFieldUpdater.newUpdater(FutureResult.class, Node.class, "fWaiters");
+
+    // Null if not completed, NULL_RESULT or the result if completed normally, a Failure instance
+    // if completed exceptionally or cancelled.
+    private volatile Object fResult;
+
+    // The top of the stack of waiting threads and callbacks, RELEASED when completed.
+    private volatile Node fWaiters;
 
 
     /**
@@ -75,7 +107,7 @@ public class FutureResult<T> implements PollableFuture<T>
      */
     public boolean cancel()
     {
-        return setCompletion(new Completion<>());
+        return complete(CANCELLED);
     }
 
 
@@ -87,8 +119,7 @@ public class FutureResult<T> implements PollableFuture<T>
     @Override
     public boolean isCancelled()
     {
-        Completion<T> aResult = fCompletionRef.get();
-        return aResult != null && aResult.wasCancelled();
+        return fResult == CANCELLED;
     }
 
 
@@ -102,7 +133,7 @@ public class FutureResult<T> implements PollableFuture<T>
     @Override
     public boolean isDone()
     {
-        return fCompletionRef.get() != null;
+        return fResult != null;
     }
 
 
@@ -114,8 +145,8 @@ public class FutureResult<T> implements PollableFuture<T>
      */
     public boolean completedExceptionally()
     {
-        Completion<T> aResult = fCompletionRef.get();
-        return aResult != null && aResult.completedExceptionally();
+        Object aResult = fResult;
+        return aResult instanceof Failure && aResult != CANCELLED;
     }
 
 
@@ -135,8 +166,7 @@ public class FutureResult<T> implements PollableFuture<T>
     @Override
     public T get() throws InterruptedException, ExecutionException
     {
-        fLatch.await();
-        return getResult();
+        return reportResult(awaitResult(false, 0));
     }
 
 
@@ -164,8 +194,9 @@ public class FutureResult<T> implements PollableFuture<T>
     public T get(long pTimeout, @Nonnull TimeUnit pUnit)
             throws InterruptedException, ExecutionException, TimeoutException
     {
-        if (fLatch.await(pTimeout, pUnit))
-            return getResult();
+        Object aResult = awaitResult(true, pUnit.toNanos(pTimeout));
+        if (aResult != null)
+            return reportResult(aResult);
         else
             throw new TimeoutException();
     }
@@ -187,8 +218,52 @@ public class FutureResult<T> implements PollableFuture<T>
     @Override
     public T getNow(@Nullable T pNotCompletedValue)
     {
-        Completion<T> aCompletion = fCompletionRef.get();
-        return aCompletion != null ? aCompletion.getCompletedResult() : pNotCompletedValue;
+        Object aResult = fResult;
+        if (aResult == null)
+            return pNotCompletedValue;
+
+        if (aResult instanceof Failure)
+        {
+            if (aResult == CANCELLED)
+                throw new CancellationException();
+            else
+                throw new CompletionException(((Failure) aResult).fCause);
+        }
+
+        return unmask(aResult);
+    }
+
+
+    /**
+     * Register a callback to invoke when this future completes. If this future already is
+     * complete, the callback is invoked in the calling thread before this method returns,
+     * otherwise it is passed to {@code pExecutor} by the thread that completes this future.
+     * Callbacks are passed to their executors in the order they were registered.
+     *<p>
+     * Registering a callback doesn't block, and doesn't use a thread while waiting for the
+     * completion.
+     *
+     * @param pAction   The callback.
+     * @param pExecutor The executor to invoke the callback with if this future isn't complete.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Override
+    public void onComplete(
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+        @Nonnull Executor pExecutor)
+    {
+        requireNonNull(pAction);
+        requireNonNull(pExecutor);
+        if (fResult == null)
+        {
+            Callback<T> aCallback = new Callback<>(pAction, pExecutor);
+            if (push(aCallback))
+                return;
+        }
+
+        // Completed, either before the call or while pushing.
+        invoke(pAction, fResult);
     }
 
 
@@ -201,7 +276,7 @@ public class FutureResult<T> implements PollableFuture<T>
      */
     public boolean setResult(@Nullable T pResult)
     {
-        return setCompletion(new Completion<>(pResult));
+        return complete(pResult != null ? pResult : NULL_RESULT);
     }
 
 
@@ -212,26 +287,28 @@ public class FutureResult<T> implements PollableFuture<T>
      * @param pCause    The underlying cause of the {@code ExecutionException}.
      *
      * @return  True if the exception was set, false if this instance already has been completed.
+     *
+     * @throws NullPointerException if {@code pCause} is null.
      */
     public boolean setException(@Nonnull Throwable pCause)
     {
-        return setCompletion(new Completion<>(pCause));
+        return complete(new Failure(requireNonNull(pCause)));
     }
 
 
     /**
-     * Set the completion of this {@code Future} unless it has already been set.
+     * Set the completion state of this {@code Future} unless it has already been set, and release
+     * any threads waiting for the completion.
      *
-     * @param pCompletion   The completion.
+     * @param pResult   The value of the result field representing the completion.
      *
      * @return  True if the completion was set, false if this instance already has been completed.
      */
-    private boolean setCompletion(@Nonnull Completion<T> pCompletion)
+    private boolean complete(@Nonnull Object pResult)
     {
-        if (fCompletionRef.compareAndSet(null, pCompletion))
+        if (RESULT_UPDATER.compareAndSet(this, null, pResult))
         {
-            // Release threads blocked in a call to get().
-            fLatch.countDown();
+            releaseWaiters();
             return true;
         }
         else
@@ -240,126 +317,309 @@ public class FutureResult<T> implements PollableFuture<T>
 
 
     /**
-     * Get the result of this {@code Future}.
+     * Wait if necessary for this instance to be completed.
+     *
+     * @param pTimed    If true, wait at most {@code pNanos} nanoseconds.
+     * @param pNanos    The maximum time to wait if {@code pTimed} is true.
+     *
+     * @return  The value of the result field, or null if the wait timed out.
+     *
+     * @throws InterruptedException if the current thread is interrupted on entry or while waiting.
+     */
+    @Nullable
+    private Object awaitResult(boolean pTimed, long pNanos) throws InterruptedException
+    {
+        if (Thread.interrupted())
+            throw new InterruptedException();
+
+        Object aResult = fResult;
+        if (aResult != null || (pTimed && pNanos <= 0))
+            return aResult;
+
+        long aDeadline = pTimed ? System.nanoTime() + pNanos : 0;
+        Waiter aWaiter = new Waiter(Thread.currentThread());
+        boolean aIsPushed = false;
+        while ((aResult = fResult) == null)
+        {
+            if (!aIsPushed)
+            {
+                // Check the result again after pushing, the push fails if this instance has been
+                // completed.
+                aIsPushed = push(aWaiter);
+                continue;
+            }
+
+            if (pTimed)
+            {
+                long aRemaining = aDeadline - System.nanoTime();
+                if (aRemaining <= 0)
+                {
+                    removeWaiter(aWaiter);
+                    return fResult;
+                }
+
+                LockSupport.parkNanos(this, aRemaining);
+            }
+            else
+                LockSupport.park(this);
+
+            if (Thread.interrupted())
+            {
+                removeWaiter(aWaiter);
+                throw new InterruptedException();
+            }
+        }
+
+        return aResult;
+    }
+
+
+    /**
+     * Push a node onto the stack of waiters, unless this instance has been completed.
+     *
+     * @param pNode The node to push.
+     *
+     * @return  True if the node was pushed, false if this instance has been completed.
+     */
+    private boolean push(@Nonnull Node pNode)
+    {
+        for (;;)
+        {
+            Node aTop = fWaiters;
+            if (aTop == RELEASED)
+                return false;
+
+            pNode.fNext = aTop;
+            if (WAITERS_UPDATER.compareAndSet(this, aTop, pNode))
+                return true;
+        }
+    }
+
+
+    /**
+     * Replace the stack of waiters with the released marker, unpark the waiting threads, and then
+     * invoke the callbacks in the order they were pushed.
+     *<p>
+     * Threads that timed out or were interrupted may still be unlinking themselves from the
+     * released stack, which is why the stack isn't reversed in place. Such unlinking never
+     * affects the callbacks.
+     */
+    private void releaseWaiters()
+    {
+        Node aTop = WAITERS_UPDATER.getAndSet(this, RELEASED);
+
+        int aNumCallbacks = 0;
+        for (Node aNode = aTop; aNode != null; aNode = aNode.fNext)
+        {
+            if (aNode instanceof Waiter)
+                ((Waiter) aNode).release();
+            else
+                aNumCallbacks++;
+        }
+
+        if (aNumCallbacks == 0)
+            return;
+
+        Callback<?>[] aCallbacks = new Callback<?>[aNumCallbacks];
+        for (Node aNode = aTop; aNode != null && aNumCallbacks > 0; aNode = aNode.fNext)
+        {
+            if (aNode instanceof Callback)
+                aCallbacks[--aNumCallbacks] = (Callback<?>) aNode;
+        }
+
+        Object aResult = fResult;
+        for (Callback<?> aCallback : aCallbacks)
+            aCallback.release(aResult);
+    }
+
+
+    /**
+     * Remove a waiter that timed out or was interrupted from the stack. The waiter is first marked
+     * as removed by clearing its thread, after which the stack is traversed and all removed
+     * waiters are unlinked. The traversal is restarted if it races with another removal. Callbacks
+     * are never removed.
+     *
+     * @param pWaiter   The waiter to remove.
+     */
+    private void removeWaiter(@Nonnull Waiter pWaiter)
+    {
+        pWaiter.fThread = null;
+        retry:
+        for (;;)
+        {
+            Node aPredecessor = null;
+            for (Node aNode = fWaiters; aNode != null && aNode != RELEASED; aNode = aNode.fNext)
+            {
+                if (!aNode.isRemoved())
+                    aPredecessor = aNode;
+                else if (aPredecessor != null)
+                {
+                    aPredecessor.fNext = aNode.fNext;
+                    if (aPredecessor.isRemoved())
+                        continue retry;
+                }
+                else if (!WAITERS_UPDATER.compareAndSet(this, aNode, aNode.fNext))
+                    continue retry;
+            }
+
+            return;
+        }
+    }
+
+
+    /**
+     * Invoke a callback with the result represented by a value of the result field.
+     *
+     * @param pAction   The callback.
+     * @param pResult   The non-null value of the result field.
+     *
+     * @param <T>   The result type.
+     */
+    static private <T> void invoke(
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+        @Nonnull Object pResult)
+    {
+        if (pResult instanceof Failure)
+        {
+            Throwable aFailure =
+                pResult == CANCELLED ? new CancellationException() : ((Failure) pResult).fCause;
+            Continuations.invoke(pAction, null, aFailure);
+        }
+        else
+            Continuations.invoke(pAction, FutureResult.<T>unmask(pResult), null);
+    }
+
+
+    /**
+     * Get the result represented by a value of the result field.
+     *
+     * @param pResult   The non-null value of the result field.
      *
      * @return  The result. The returned value will be {@code null} if and only if this instance was
      *          completed with a {@code null} result.
      *
-     * @throws ExecutionException       if the result of this future was an exception rather than a
-     *                                  message.
+     * @throws ExecutionException       if this {@code Future} was completed with an exception.
      * @throws CancellationException    if this {@code Future} was cancelled before the result was
      *                                  set.
-     * @throws NullPointerException     if this {@code Future} has not been completed.
      */
-    private T getResult() throws ExecutionException
+    private T reportResult(@Nonnull Object pResult) throws ExecutionException
     {
-        return fCompletionRef.get().getResult();
+        if (pResult instanceof Failure)
+        {
+            if (pResult == CANCELLED)
+                throw new CancellationException();
+            else
+                throw new ExecutionException(((Failure) pResult).fCause);
+        }
+
+        return unmask(pResult);
     }
 
 
     /**
-     * Inner class holding the completion of a {@code FutureResult}.
+     * Get the result represented by the value of the result field of a normally completed
+     * instance.
      *
-     * @param <T>   The type of the completed result.
+     * @param pResult   The value of the result field.
+     *
+     * @return  The result, null if {@code pResult} is the null result sentinel.
      */
-    static private class Completion<T>
+    @SuppressWarnings("unchecked")
+    static private <T> T unmask(@Nonnull Object pResult)
     {
-        private final T fResult;
-        private final Throwable fException;
-        private final boolean fWasCancelled;
+        return pResult != NULL_RESULT ? (T) pResult : null;
+    }
 
-        /**
-         * Create a new successful {@code Completion}.
-         *
-         * @param pResult   The result of the successful completion.
-         */
-        Completion(@Nullable T pResult)
+
+    /**
+     * The value of the result field of an instance that completed exceptionally or was cancelled.
+     */
+    static private final class Failure
+    {
+        final Throwable fCause;
+
+        Failure(@Nullable Throwable pCause)
         {
-            fResult = pResult;
-            fException = null;
-            fWasCancelled = false;
+            fCause = pCause;
         }
+    }
+
+
+    /**
+     * A node in the stack of threads and callbacks waiting for the completion of a
+     * {@code FutureResult}.
+     */
+    static private abstract class Node
+    {
+        volatile Node fNext;
 
         /**
-         * Create a new {@code Completion} for a result that threw an exception.
+         * Check if this node has been removed from the stack without being released.
          *
-         * @param pException    The thrown exception.
+         * @return  True if this node has been removed, false if not.
          */
-        Completion(@Nullable Throwable pException)
+        abstract boolean isRemoved();
+    }
+
+
+    /**
+     * A thread blocked in a call to {@code get}. The thread is cleared when the waiter is
+     * released or removed.
+     */
+    static private final class Waiter extends Node
+    {
+        volatile Thread fThread;
+
+        Waiter(@Nullable Thread pThread)
         {
-            fException = pException;
-            fResult = null;
-            fWasCancelled = false;
+            fThread = pThread;
         }
 
-        /**
-         * Create a new {@code Completion} that was cancelled.
-         */
-        Completion()
+        @Override
+        boolean isRemoved()
         {
-            fResult = null;
-            fException = null;
-            fWasCancelled = true;
+            return fThread == null;
         }
 
-        /**
-         * Get the result with which the {@code Future} was completed.
-         *
-         * @return  The result. The returned value will be {@code null} if and only if this instance
-         *          was created with {@code null} result.
-         *
-         * @throws ExecutionException       if the {@code Future} was completed by a thrown
-         *                                  exception.
-         * @throws CancellationException    if the {@code Future} was completed by a cancellation.
-         */
-        T getResult() throws ExecutionException
+        void release()
         {
-            if (fException != null)
-                throw new ExecutionException(fException);
-            else if (fWasCancelled)
-                throw new CancellationException();
-            else
-                return fResult;
+            Thread aThread = fThread;
+            if (aThread != null)
+            {
+                fThread = null;
+                LockSupport.unpark(aThread);
+            }
         }
+    }
 
-        /**
-         * Get the result with which the {@code Future} was completed.
-         *
-         * @return  The result. The returned value will be {@code null} if and only if this instance
-         *          was created with {@code null} result.
-         *
-         * @throws CompletionException      if the {@code Future} was completed by a thrown
-         *                                  exception.
-         * @throws CancellationException    if the {@code Future} was completed by a cancellation.
-         */
-        T getCompletedResult()
+
+    /**
+     * A callback registered with {@code onComplete}.
+     *
+     * @param <T>   The result type.
+     */
+    static private final class Callback<T> extends Node
+    {
+        private final BiConsumer<? super T, ? super Throwable> fAction;
+        private final Executor fExecutor;
+
+        Callback(
+            @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+            @Nonnull Executor pExecutor)
         {
-            if (fException != null)
-                throw new CompletionException(fException);
-            else if (fWasCancelled)
-                throw new CancellationException();
-            else
-                return fResult;
+            fAction = pAction;
+            fExecutor = pExecutor;
         }
 
-        /**
-         * Return whether the {@code Future} was completed due to a thrown exception or not.
-         *
-         * @return  True if the {@code Future} was completed with a thrown exception, false if not.
-         */
-        boolean completedExceptionally()
+        @Override
+        boolean isRemoved()
         {
-            return fException != null;
+            return false;
         }
 
-        /**
-         * Return whether the {@code Future} was completed due to a cancellation or not.
-         *
-         * @return  True if the {@code Future} was completed with a cancellation, false if not.
-         */
-        boolean wasCancelled()
+        void release(@Nonnull Object pResult)
         {
-            return fWasCancelled;
+            Continuations.execute(fExecutor, () -> invoke(fAction, pResult));
         }
     }
 }
@@ -6,6 +6,10 @@
 package org.myire.concurrent;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+
+import javax.annotation.Nonnull;
 
 
 /**
@@ -15,5 +19,21 @@ import java.util.concurrent.CompletableFuture;
  */
 public class PollableCompletableFuture<T> extends CompletableFuture<T> implements PollableFuture<T>
 {
-    // No additional methods.
+    /**
+     * Register a callback to invoke when this future completes. The callback is registered with
+     * {@code whenComplete} if this future already is complete, otherwise with
+     * {@code whenCompleteAsync} and {@code pExecutor}.
+     *
+     * @param pAction   The callback.
+     * @param pExecutor The executor to invoke the callback with if this future isn't complete.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Override
+    public void onComplete(
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+        @Nonnull Executor pExecutor)
+    {
+        Continuations.onComplete(this, pAction, pExecutor);
+    }
 }
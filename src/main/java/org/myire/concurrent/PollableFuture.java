@@ -5,14 +5,18 @@
  */
 package org.myire.concurrent;
 
+import java.util.Collection;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
 import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
+import java.util.function.Function;
 import static java.util.Objects.requireNonNull;
 
 import javax.annotation.Nonnull;
@@ -22,6 +26,12 @@ import javax.annotation.Nonnull;
  * Extension of {@code Future} that adds the {@link #getNow(Object)} method introduced by
  * {@link CompletableFuture}. This interface can be used to expose the {@code getNow()} method
  * without exposing the methods that completes the {@code CompletableFuture}.
+ *<p>
+ * The interface also adds completion callbacks, see {@link #onComplete(BiConsumer, Executor)}, and
+ * continuations that create new futures from the result of this future, see
+ * {@link #map(Function)} and {@link #flatMap(Function)}. The continuations correspond to
+ * {@code thenApply} and {@code thenCompose} in {@code CompletableFuture}, but have different names
+ * to allow {@code CompletableFuture} subclasses to implement this interface.
  *
  * @param <T>   The result type returned by this future.
  */
@@ -44,39 +54,359 @@ public interface PollableFuture<T> extends Future<T>
 
 
     /**
-     * Create a {@code PollableFuture} that delegates all calls to another {@code Future}.
+     * Register a callback to invoke when this future completes. The callback is passed the result
+     * and null if this future completes normally, or null and the exception if it completes
+     * exceptionally. If this future is cancelled, the callback is passed a
+     * {@code CancellationException}.
+     *<p>
+     * If this future already is complete, the callback is invoked in the calling thread before
+     * this method returns, otherwise it is passed to {@code pExecutor} when this future
+     * completes. Any exception thrown by the callback, or thrown by the executor when rejecting
+     * the callback, is passed to the uncaught exception handler of the thread invoking the
+     * callback or passing it to the executor.
+     *<p>
+     * The default implementation has no way of being notified when this future completes. If this
+     * future isn't complete, a task that waits for the completion in a call to {@link #get()} is
+     * passed to a shared pool of daemon threads, and the callback is passed to {@code pExecutor}
+     * when the wait is over. The calling thread never waits, not even if {@code pExecutor} runs
+     * tasks in the calling thread. Implementations that can be notified should override this
+     * method.
+     *
+     * @param pAction   The callback.
+     * @param pExecutor The executor to invoke the callback with if this future isn't complete.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    default void onComplete(
+        @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+        @Nonnull Executor pExecutor)
+    {
+        Continuations.awaitCompletion(this, pAction, pExecutor);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that is completed with the result of applying a function to
+     * the result of this future. The function is invoked in the thread that completes this
+     * future, or in the calling thread if this future already is complete. If this future uses
+     * the default implementation of {@link #onComplete(BiConsumer, Executor)}, the function is
+     * invoked in the thread that waits for this future to complete, and this method never blocks.
+     *<p>
+     * If this future completes exceptionally, the returned future is completed with the same
+     * exception, and if this future is cancelled, the returned future is cancelled. Cancelling
+     * the returned future does not affect this future.
+     *
+     * @param pFunction The function to apply to the result of this future.
+     *
+     * @param <U>   The result type of the returned future.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFunction} is null.
+     */
+    @Nonnull
+    default <U> PollableFuture<U> map(@Nonnull Function<? super T, ? extends U> pFunction)
+    {
+        return map(pFunction, Continuations.DIRECT_EXECUTOR);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that is completed with the result of applying a function to
+     * the result of this future. The function is invoked with an executor, or in the calling
+     * thread if this future already is complete.
+     *<p>
+     * If this future completes exceptionally, the returned future is completed with the same
+     * exception, and if this future is cancelled, the returned future is cancelled. Cancelling
+     * the returned future does not affect this future.
+     *
+     * @param pFunction The function to apply to the result of this future.
+     * @param pExecutor The executor to invoke the function with if this future isn't complete.
+     *
+     * @param <U>   The result type of the returned future.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    default <U> PollableFuture<U> map(
+        @Nonnull Function<? super T, ? extends U> pFunction,
+        @Nonnull Executor pExecutor)
+    {
+        return Continuations.map(this, pFunction, pExecutor);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that is completed with the result of the future returned by
+     * a function applied to the result of this future. The function is invoked in the thread that
+     * completes this future, or in the calling thread if this future already is complete. If this
+     * future uses the default implementation of {@link #onComplete(BiConsumer, Executor)}, the
+     * function is invoked in the thread that waits for this future to complete, and this method
+     * never blocks.
+     *<p>
+     * If this future or the future returned by the function completes exceptionally, the returned
+     * future is completed with the same exception, and if any of them is cancelled, the returned
+     * future is cancelled. Cancelling the returned future does not affect the other futures.
+     *
+     * @param pFunction The function to apply to the result of this future.
+     *
+     * @param <U>   The result type of the returned future.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFunction} is null.
+     */
+    @Nonnull
+    default <U> PollableFuture<U> flatMap(
+        @Nonnull Function<? super T, ? extends PollableFuture<U>> pFunction)
+    {
+        return flatMap(pFunction, Continuations.DIRECT_EXECUTOR);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that is completed with the result of the future returned by
+     * a function applied to the result of this future. The function is invoked with an executor,
+     * or in the calling thread if this future already is complete.
+     *<p>
+     * If this future or the future returned by the function completes exceptionally, the returned
+     * future is completed with the same exception, and if any of them is cancelled, the returned
+     * future is cancelled. Cancelling the returned future does not affect the other futures.
+     *
+     * @param pFunction The function to apply to the result of this future.
+     * @param pExecutor The executor to invoke the function with if this future isn't complete.
+     *
+     * @param <U>   The result type of the returned future.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    @Nonnull
+    default <U> PollableFuture<U> flatMap(
+        @Nonnull Function<? super T, ? extends PollableFuture<U>> pFunction,
+        @Nonnull Executor pExecutor)
+    {
+        return Continuations.flatMap(this, pFunction, pExecutor);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that delegates all calls to another {@code Future}. If the
+     * other {@code Future} is a {@code PollableFuture}, it is returned as is, which keeps its
+     * implementation of {@link #onComplete(BiConsumer, Executor)}.
      *
      * @param pDelegate The {@code Future} to delegate all calls to.
      *
      * @param <T> The result type returned by the created {@code PollableFuture}.
      *
-     * @return  A new {@code PollableFuture}, never null.
+     * @return  A new {@code PollableFuture}, or {@code pDelegate} if it is a
+     *          {@code PollableFuture}, never null.
      *
      * @throws NullPointerException if {@code pDelegate} is null.
      */
     static <T> PollableFuture<T> of(Future<T> pDelegate)
     {
+        if (pDelegate instanceof PollableFuture)
+            return (PollableFuture<T>) pDelegate;
+
         return new DelegatingPollableFuture<>(pDelegate, PollableFuture::pollNow);
     }
 
 
     /**
-     * Create a {@code PollableFuture} that delegates all calls to a {@code CompletableFuture}.
+     * Create a {@code PollableFuture} that delegates all calls to a {@code CompletableFuture}. If
+     * the {@code CompletableFuture} is a {@code PollableFuture}, it is returned as is.
      *
      * @param pDelegate The {@code CompletableFuture} to delegate all calls to.
      *
      * @param <T> The result type returned by the created {@code PollableFuture}.
      *
-     * @return  A new {@code PollableFuture}, never null.
+     * @return  A new {@code PollableFuture}, or {@code pDelegate} if it is a
+     *          {@code PollableFuture}, never null.
      *
      * @throws NullPointerException if {@code pDelegate} is null.
      */
     static <T> PollableFuture<T> of(CompletableFuture<T> pDelegate)
     {
+        if (pDelegate instanceof PollableFuture)
+            return (PollableFuture<T>) pDelegate;
+
         return new DelegatingPollableFuture<>(pDelegate, CompletableFuture::getNow);
     }
 
 
+    /**
+     * Create a {@code PollableFuture} that completes normally with a null result when all of a
+     * number of other futures have completed normally. The other futures are not cancelled when
+     * the returned future completes, see {@link #allOf(Collection, boolean)}.
+     *
+     * @param pFutures  The futures.
+     *
+     * @return  A new {@code PollableFuture}, never null. If {@code pFutures} is empty, the
+     *          returned future is complete.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     */
+    @Nonnull
+    static PollableFuture<Void> allOf(@Nonnull Collection<? extends PollableFuture<?>> pFutures)
+    {
+        return allOf(pFutures, false);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that completes normally with a null result when all of a
+     * number of other futures have completed normally. If any of the other futures completes
+     * exceptionally or is cancelled, the returned future is completed the same way without
+     * waiting for the remaining futures.
+     *<p>
+     * The returned future is completed by callbacks registered with the other futures through
+     * {@link #onComplete(BiConsumer, Executor)}, and the calling thread never waits for the other
+     * futures. Only other futures that use the default implementation of {@code onComplete} occupy
+     * a thread, from a shared pool of daemon threads, while they are waited for.
+     *<p>
+     * If {@code pCancelRemaining} is true, the other futures that haven't completed are cancelled
+     * with {@code cancel(true)} when the returned future completes or is cancelled. This
+     * interrupts the threads running those futures, and should only be requested for futures that
+     * aren't shared with other consumers.
+     *
+     * @param pFutures          The futures.
+     * @param pCancelRemaining  If true, the futures that haven't completed are cancelled when the
+     *                          returned future completes or is cancelled.
+     *
+     * @return  A new {@code PollableFuture}, never null. If {@code pFutures} is empty, the
+     *          returned future is complete.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     */
+    @Nonnull
+    static PollableFuture<Void> allOf(
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures,
+        boolean pCancelRemaining)
+    {
+        return Continuations.quorum(pFutures.size(), pFutures, pCancelRemaining);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that completes with the outcome of the first of a number of
+     * other futures to complete. The other futures are not cancelled when the returned future
+     * completes, see {@link #anyOf(Collection, boolean)}.
+     *
+     * @param pFutures  The futures.
+     *
+     * @param <T>   The result type.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pFutures} is empty.
+     */
+    @Nonnull
+    static <T> PollableFuture<T> anyOf(
+        @Nonnull Collection<? extends PollableFuture<? extends T>> pFutures)
+    {
+        return anyOf(pFutures, false);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that completes with the outcome of the first of a number of
+     * other futures to complete, normally, exceptionally or by being cancelled.
+     *<p>
+     * The returned future is completed by callbacks registered with the other futures through
+     * {@link #onComplete(BiConsumer, Executor)}, and the calling thread never waits for the other
+     * futures. Only other futures that use the default implementation of {@code onComplete} occupy
+     * a thread, from a shared pool of daemon threads, while they are waited for.
+     *<p>
+     * If {@code pCancelRemaining} is true, the other futures that haven't completed are cancelled
+     * with {@code cancel(true)} when the returned future completes or is cancelled. This
+     * interrupts the threads running those futures, and should only be requested for futures that
+     * aren't shared with other consumers.
+     *
+     * @param pFutures          The futures.
+     * @param pCancelRemaining  If true, the futures that haven't completed are cancelled when the
+     *                          returned future completes or is cancelled.
+     *
+     * @param <T>   The result type.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pFutures} is empty.
+     */
+    @Nonnull
+    static <T> PollableFuture<T> anyOf(
+        @Nonnull Collection<? extends PollableFuture<? extends T>> pFutures,
+        boolean pCancelRemaining)
+    {
+        return Continuations.anyOf(pFutures, pCancelRemaining);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that completes normally with a null result when a number of
+     * other futures have completed normally. The other futures are not cancelled when the returned
+     * future completes, see {@link #quorum(int, Collection, boolean)}.
+     *
+     * @param pCount    The number of futures that must complete normally.
+     * @param pFutures  The futures.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pCount} is negative or greater than the number
+     *                                  of futures.
+     */
+    @Nonnull
+    static PollableFuture<Void> quorum(
+        int pCount,
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures)
+    {
+        return quorum(pCount, pFutures, false);
+    }
+
+
+    /**
+     * Create a {@code PollableFuture} that completes normally with a null result when a number of
+     * other futures have completed normally. If so many of the other futures complete
+     * exceptionally or are cancelled that the number no longer can be reached, the returned future
+     * is completed the same way as the future that made the number unreachable.
+     *<p>
+     * The returned future is completed by callbacks registered with the other futures through
+     * {@link #onComplete(BiConsumer, Executor)}, and the calling thread never waits for the other
+     * futures. Only other futures that use the default implementation of {@code onComplete} occupy
+     * a thread, from a shared pool of daemon threads, while they are waited for.
+     *<p>
+     * If {@code pCancelRemaining} is true, the other futures that haven't completed are cancelled
+     * with {@code cancel(true)} when the returned future completes or is cancelled. This
+     * interrupts the threads running those futures, and should only be requested for futures that
+     * aren't shared with other consumers.
+     *
+     * @param pCount            The number of futures that must complete normally.
+     * @param pFutures          The futures.
+     * @param pCancelRemaining  If true, the futures that haven't completed are cancelled when the
+     *                          returned future completes or is cancelled.
+     *
+     * @return  A new {@code PollableFuture}, never null.
+     *
+     * @throws NullPointerException if {@code pFutures} is null or contains null elements.
+     * @throws IllegalArgumentException if {@code pCount} is negative or greater than the number
+     *                                  of futures.
+     */
+    @Nonnull
+    static PollableFuture<Void> quorum(
+        int pCount,
+        @Nonnull Collection<? extends PollableFuture<?>> pFutures,
+        boolean pCancelRemaining)
+    {
+        return Continuations.quorum(pCount, pFutures, pCancelRemaining);
+    }
+
+
     /**
      * Poll a {@code Future} and return the value of its {@code get()} method if it is completed,
      * otherwise returned the specified not completed value.
@@ -177,5 +507,16 @@ public interface PollableFuture<T> extends Future<T>
         {
             return fPollFunction.apply(fDelegate, pNotCompletedValue);
         }
+
+        @Override
+        public void onComplete(
+            @Nonnull BiConsumer<? super T, ? super Throwable> pAction,
+            @Nonnull Executor pExecutor)
+        {
+            if (fDelegate instanceof CompletableFuture)
+                Continuations.onComplete((CompletableFuture<T>) fDelegate, pAction, pExecutor);
+            else
+                PollableFuture.super.onComplete(pAction, pExecutor);
+        }
     }
 }
@@ -0,0 +1,485 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnegative;
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import javax.annotation.concurrent.ThreadSafe;
+
+import org.myire.util.TimeSource;
+import static org.myire.util.Numbers.requireNonNegative;
+
+
+/**
+ * A {@code TaskRunner} that restarts its task when the task fails by throwing from its
+ * {@code run()} method. The task is restarted in the same execution thread after a delay
+ * determined by a {@link RestartPolicy}; the delay grows exponentially with the number of
+ * consecutive failures up to a maximum, optionally with random jitter, and the restart rate can be
+ * capped to a maximum number of restarts within a time period.
+ *<p>
+ * The task execution thread runs until the task's {@code run()} method returns normally or
+ * {@link #stopTask()} is called. This includes the time spent waiting for a restart, during which
+ * {@link #isRunning()} returns true. A task that fails after {@link #stopTask()} has been called
+ * is not restarted, even if the task cleared the interrupted status of the execution thread, e.g.
+ * by catching an {@code InterruptedException} and throwing another exception. Neither is a task
+ * that fails when the execution thread has its interrupted status set for another reason, or a
+ * task failing with a {@code VirtualMachineError}. Such failures are passed to the thread's
+ * uncaught exception handler, as in the superclass.
+ *<p>
+ * The consecutive failure count that determines the backoff is reset when the task has run for at
+ * least the policy's maximum delay before failing. Elapsed times are measured with the
+ * {@code TimeSource} specified in the constructor. A restart is never delayed by more than the
+ * policy's maximum delay or the period of its restart rate cap, even if that time source steps
+ * backwards.
+ *<p>
+ * Subclasses can override {@link #onTaskFailure(Throwable, long)} to get notified when the task
+ * fails and is about to be restarted, and {@link #awaitRestartDelay(long)} to change how the delay
+ * before a restart is waited for.
+ *<p>
+ * Instances of this class are safe for use by multiple threads.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+@ThreadSafe
+public class SupervisedTaskRunner extends TaskRunner
+{
+    private final RestartPolicy fPolicy;
+    private final TimeSource fTimeSource;
+    private final AtomicInteger fRestartCount = new AtomicInteger();
+    private volatile Throwable fLastFailure;
+
+    // Set when stopTask() is called, and cleared when a new execution thread is started. The lock
+    // serializes the updates with the starting and stopping in the superclass.
+    private volatile boolean fStopRequested;
+    private final Object fStopLock = new Object();
+
+    // The times of the most recent restarts in a circular buffer, null if the restart rate isn't
+    // capped. Only accessed from the task execution thread.
+    private final long[] fRestartTimes;
+    private int fNextRestartTimeIndex;
+
+
+    /**
+     * Create a new {@code SupervisedTaskRunner}. The task's thread factory will be a
+     * {@code UserThreadFactory} with the class name of {@code pTask} as base name for the thread,
+     * and elapsed times will be measured with {@code System.nanoTime()}.
+     *
+     * @param pTask     The task to run.
+     * @param pPolicy   The policy for restarting the task when it fails.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    public SupervisedTaskRunner(@Nonnull Runnable pTask, @Nonnull RestartPolicy pPolicy)
+    {
+        this(
+            pTask,
+            new UserThreadFactory(pTask.getClass().getSimpleName(), false),
+            pPolicy,
+            TimeSource.NanoTimeSource.INSTANCE);
+    }
+
+
+    /**
+     * Create a new {@code SupervisedTaskRunner}.
+     *
+     * @param pTask             The task to run.
+     * @param pThreadFactory    The thread factory to create the task execution thread with.
+     * @param pPolicy           The policy for restarting the task when it fails.
+     * @param pTimeSource       The source for the time used to measure how long the task has run
+     *                          and to cap the restart rate.
+     *
+     * @throws NullPointerException if any of the parameters is null.
+     */
+    public SupervisedTaskRunner(
+        @Nonnull Runnable pTask,
+        @Nonnull ThreadFactory pThreadFactory,
+        @Nonnull RestartPolicy pPolicy,
+        @Nonnull TimeSource pTimeSource)
+    {
+        super(pTask, pThreadFactory);
+        fPolicy = requireNonNull(pPolicy);
+        fTimeSource = requireNonNull(pTimeSource);
+        fRestartTimes = pPolicy.fMaxRestarts > 0 ? new long[pPolicy.fMaxRestarts] : null;
+    }
+
+
+    /**
+     * Get the number of times the task has been restarted after a failure. Starting the task with
+     * {@link #startTask()} is not counted as a restart.
+     *
+     * @return  The number of restarts.
+     */
+    public int getRestartCount()
+    {
+        return fRestartCount.get();
+    }
+
+
+    /**
+     * Get the most recent exception thrown by the task.
+     *
+     * @return  The most recent exception thrown by the task, or null if the task hasn't failed.
+     */
+    public Throwable getLastFailure()
+    {
+        return fLastFailure;
+    }
+
+
+    /**
+     * Start running the task, see {@link TaskRunner#startTask()}.
+     *
+     * @return  An {@code Awaitable} that awaits the task execution thread to call the task's
+     *          {@code run()} method.
+     */
+    @Override
+    @Nonnull
+    public Awaitable startTask()
+    {
+        synchronized (fStopLock)
+        {
+            if (!isRunning())
+                fStopRequested = false;
+
+            return super.startTask();
+        }
+    }
+
+
+    /**
+     * Stop the task, see {@link TaskRunner#stopTask()}. A task that fails after this method has
+     * been called is not restarted, not even if it has cleared the interrupted status of the
+     * execution thread.
+     *
+     * @throws InterruptedException if the calling thread is interrupted while waiting for the task
+     *                              execution thread to terminate.
+     */
+    @Override
+    public void stopTask() throws InterruptedException
+    {
+        synchronized (fStopLock)
+        {
+            fStopRequested = true;
+            super.stopTask();
+        }
+    }
+
+
+    /**
+     * Execute the task, and restart it according to the restart policy each time it fails.
+     *
+     * @param pTask The task to execute.
+     *
+     * @throws NullPointerException if {@code pTask} is null.
+     */
+    @Override
+    protected void executeTask(@Nonnull Runnable pTask)
+    {
+        int aConsecutiveFailures = 0;
+        for (;;)
+        {
+            long aStartTime = currentNanos();
+            try
+            {
+                pTask.run();
+                return;
+            }
+            catch (Throwable t)
+            {
+                fLastFailure = t;
+                if (t instanceof VirtualMachineError || isStopping())
+                    throw t;
+
+                long aFailureTime = currentNanos();
+                if (aFailureTime - aStartTime >= fPolicy.fMaxDelayNanos)
+                    aConsecutiveFailures = 0;
+
+                aConsecutiveFailures++;
+                if (!awaitRestart(t, aFailureTime, aConsecutiveFailures))
+                    return;
+            }
+
+            fRestartCount.incrementAndGet();
+        }
+    }
+
+
+    /**
+     * Get notified that the task has failed and is about to be restarted. This method is called
+     * from the task execution thread before the restart delay starts. This implementation does
+     * nothing, subclasses may want to override to log the failure.
+     *
+     * @param pFailure            The exception thrown by the task.
+     * @param pRestartDelayNanos  The number of nanoseconds until the task is restarted.
+     *
+     * @throws NullPointerException if {@code pFailure} is null.
+     */
+    protected void onTaskFailure(
+            @SuppressWarnings("unused") @Nonnull Throwable pFailure,
+            @SuppressWarnings("unused") long pRestartDelayNanos)
+    {
+        // No-op.
+    }
+
+
+    /**
+     * Wait before restarting the task. This method is called from the task execution thread. This
+     * implementation sleeps for the specified time, subclasses may override to wait in another way.
+     *
+     * @param pDelayNanos   The number of nanoseconds to wait.
+     *
+     * @throws InterruptedException if the current thread is interrupted while waiting.
+     */
+    protected void awaitRestartDelay(long pDelayNanos) throws InterruptedException
+    {
+        TimeUnit.NANOSECONDS.sleep(pDelayNanos);
+    }
+
+
+    /**
+     * Wait before restarting a failed task.
+     *
+     * @param pFailure              The exception thrown by the task.
+     * @param pFailureTime          The time of the failure, in nanoseconds.
+     * @param pConsecutiveFailures  The number of consecutive failures, including this one.
+     *
+     * @return  True if the task should be restarted, false if the task was stopped while waiting.
+     */
+    private boolean awaitRestart(
+        @Nonnull Throwable pFailure,
+        long pFailureTime,
+        int pConsecutiveFailures)
+    {
+        long aDelay =
+            fPolicy.getDelayNanos(pConsecutiveFailures, ThreadLocalRandom.current().nextDouble());
+        if (fRestartTimes != null && fRestartCount.get() >= fRestartTimes.length)
+        {
+            // Don't restart before the period has elapsed since the oldest of the most recent
+            // restarts. That never takes longer than the period, unless the time source has
+            // stepped backwards.
+            long aEarliestRestart = fRestartTimes[fNextRestartTimeIndex] + fPolicy.fPeriodNanos;
+            long aRateDelay = Math.min(aEarliestRestart - pFailureTime, fPolicy.fPeriodNanos);
+            aDelay = Math.max(aDelay, aRateDelay);
+        }
+
+        onTaskFailure(pFailure, aDelay);
+
+        try
+        {
+            awaitRestartDelay(aDelay);
+        }
+        catch (InterruptedException e)
+        {
+            // Restore the interrupted status and let the execution thread terminate.
+            Thread.currentThread().interrupt();
+            return false;
+        }
+
+        // The task may have been stopped by an overridden awaitRestartDelay() that doesn't throw.
+        if (isStopping())
+            return false;
+
+        if (fRestartTimes != null)
+        {
+            fRestartTimes[fNextRestartTimeIndex] = currentNanos();
+            fNextRestartTimeIndex = (fNextRestartTimeIndex + 1) % fRestartTimes.length;
+        }
+
+        return true;
+    }
+
+
+    /**
+     * Check if the task is being stopped, either by a call to {@link #stopTask()} or by the
+     * execution thread having its interrupted status set.
+     *
+     * @return  True if the task should not be restarted.
+     */
+    private boolean isStopping()
+    {
+        return fStopRequested || Thread.currentThread().isInterrupted();
+    }
+
+
+    private long currentNanos()
+    {
+        return fTimeSource.getCurrentTimeInUnit(TimeUnit.NANOSECONDS);
+    }
+
+
+    /**
+     * The policy for restarting a failed task in a {@code SupervisedTaskRunner}. The delay before
+     * the n:th consecutive restart is {@code initialDelay * multiplier^(n-1)}, limited to the
+     * maximum delay. If the policy has a jitter {@code j}, the delay is then reduced by a random
+     * fraction in the range {@code [0, j)}.
+     *<p>
+     * A policy can also cap the restart rate to at most {@code maxRestarts} restarts within a time
+     * period, in which case a restart that would exceed the rate is delayed until it doesn't.
+     *<p>
+     * Instances are created with {@link #exponentialBackoff(long, long, TimeUnit)} and configured
+     * with the {@code with} methods, each of which returns a new instance.
+     */
+    @Immutable
+    static public final class RestartPolicy
+    {
+        final long fInitialDelayNanos;
+        final long fMaxDelayNanos;
+        final double fMultiplier;
+        final double fJitter;
+        final int fMaxRestarts;
+        final long fPeriodNanos;
+
+        private RestartPolicy(
+            long pInitialDelayNanos,
+            long pMaxDelayNanos,
+            double pMultiplier,
+            double pJitter,
+            int pMaxRestarts,
+            long pPeriodNanos)
+        {
+            fInitialDelayNanos = pInitialDelayNanos;
+            fMaxDelayNanos = pMaxDelayNanos;
+            fMultiplier = pMultiplier;
+            fJitter = pJitter;
+            fMaxRestarts = pMaxRestarts;
+            fPeriodNanos = pPeriodNanos;
+        }
+
+        /**
+         * Create a policy with exponential backoff. The delay is doubled for each consecutive
+         * failure, there is no jitter, and the restart rate is not capped.
+         *
+         * @param pInitialDelay The delay before the first restart.
+         * @param pMaxDelay     The maximum delay before a restart.
+         * @param pUnit         The time unit of the delays.
+         *
+         * @return  A new {@code RestartPolicy}, never null.
+         *
+         * @throws IllegalArgumentException if any of the delays is negative, or if
+         *                                  {@code pMaxDelay} is less than {@code pInitialDelay}.
+         * @throws NullPointerException     if {@code pUnit} is null.
+         */
+        @Nonnull
+        static public RestartPolicy exponentialBackoff(
+            @Nonnegative long pInitialDelay,
+            @Nonnegative long pMaxDelay,
+            @Nonnull TimeUnit pUnit)
+        {
+            long aInitialDelay = pUnit.toNanos(requireNonNegative(pInitialDelay));
+            long aMaxDelay = pUnit.toNanos(requireNonNegative(pMaxDelay));
+            if (aMaxDelay < aInitialDelay)
+                throw new IllegalArgumentException(
+                    "Max delay " + pMaxDelay + " is less than initial delay " + pInitialDelay);
+
+            return new RestartPolicy(aInitialDelay, aMaxDelay, 2.0, 0.0, 0, 0);
+        }
+
+        /**
+         * Create a copy of this policy with another multiplier for the delay of consecutive
+         * restarts.
+         *
+         * @param pMultiplier   The multiplier, at least 1.
+         *
+         * @return  A new {@code RestartPolicy}, never null.
+         *
+         * @throws IllegalArgumentException if {@code pMultiplier} is less than 1 or not a number.
+         */
+        @Nonnull
+        public RestartPolicy withMultiplier(double pMultiplier)
+        {
+            if (!(pMultiplier >= 1.0))
+                throw new IllegalArgumentException("Invalid multiplier " + pMultiplier);
+
+            return new RestartPolicy(
+                fInitialDelayNanos,
+                fMaxDelayNanos,
+                pMultiplier,
+                fJitter,
+                fMaxRestarts,
+                fPeriodNanos);
+        }
+
+        /**
+         * Create a copy of this policy with another jitter.
+         *
+         * @param pJitter   The maximum fraction of a delay to randomly subtract from it, in the
+         *                  range {@code [0, 1]}.
+         *
+         * @return  A new {@code RestartPolicy}, never null.
+         *
+         * @throws IllegalArgumentException if {@code pJitter} is outside the range {@code [0, 1]}.
+         */
+        @Nonnull
+        public RestartPolicy withJitter(double pJitter)
+        {
+            if (!(pJitter >= 0.0 && pJitter <= 1.0))
+                throw new IllegalArgumentException("Invalid jitter " + pJitter);
+
+            return new RestartPolicy(
+                fInitialDelayNanos,
+                fMaxDelayNanos,
+                fMultiplier,
+                pJitter,
+                fMaxRestarts,
+                fPeriodNanos);
+        }
+
+        /**
+         * Create a copy of this policy that caps the restart rate.
+         *
+         * @param pMaxRestarts  The maximum number of restarts within {@code pPeriod}.
+         * @param pPeriod       The period.
+         * @param pUnit         The time unit of {@code pPeriod}.
+         *
+         * @return  A new {@code RestartPolicy}, never null.
+         *
+         * @throws IllegalArgumentException if {@code pMaxRestarts} is less than 1 or if
+         *                                  {@code pPeriod} is negative.
+         * @throws NullPointerException     if {@code pUnit} is null.
+         */
+        @Nonnull
+        public RestartPolicy withMaxRestartRate(
+            int pMaxRestarts,
+            @Nonnegative long pPeriod,
+            @Nonnull TimeUnit pUnit)
+        {
+            if (pMaxRestarts < 1)
+                throw new IllegalArgumentException("Invalid max restarts " + pMaxRestarts);
+
+            long aPeriod = pUnit.toNanos(requireNonNegative(pPeriod));
+            return new RestartPolicy(
+                fInitialDelayNanos,
+                fMaxDelayNanos,
+                fMultiplier,
+                fJitter,
+                pMaxRestarts,
+                aPeriod);
+        }
+
+        /**
+         * Get the delay before a restart.
+         *
+         * @param pConsecutiveFailures  The number of consecutive failures, at least 1.
+         * @param pRandom               A random value in the range {@code [0, 1)} to compute the
+         *                              jitter from.
+         *
+         * @return  The delay in nanoseconds.
+         */
+        long getDelayNanos(int pConsecutiveFailures, double pRandom)
+        {
+            double aDelay = fInitialDelayNanos * Math.pow(fMultiplier, pConsecutiveFailures - 1);
+            aDelay = Math.min(aDelay, fMaxDelayNanos);
+            return (long) (aDelay * (1.0 - fJitter * pRandom));
+        }
+    }
+}
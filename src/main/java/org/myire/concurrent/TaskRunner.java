@@ -1,5 +1,5 @@
 /*
- * Copyright 2006, 2009-2011, 2017 Peter Franzen. All rights reserved.
+ * Copyright 2006, 2009-2011, 2017, 2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
@@ -25,13 +25,17 @@ import javax.annotation.concurrent.ThreadSafe;
  * it checks the current thread's interrupt status at regular intervals to detect if the task should
  * be explicitly terminated.
  *<p>
- * The task execution thread is created by a thread factory specified in the constructor. The
- * characteristics of this thread can further be tuned by overriding
- * {@link #prepareExecutionThread(Thread)}. That method is called from the thread that calls
- * {@link #startTask()} before the task execution thread is started. The default implementation of
- * {@link #prepareExecutionThread(Thread)} set the thread's {@code Thread.UncaughtExceptionHandler}
- * to {@link #onUncaughtException(Thread, Throwable)}, which by default does nothing. Subclasses may
- * want to override this method to take action when the task terminates abnormally.
+ * The task execution thread is created by a thread factory specified in the constructor. A
+ * {@code TaskRunner} can also be constructed to run its task in a virtual thread created by a
+ * {@link VirtualThreadFactory}, which is useful when many instances run blocking tasks at the same
+ * time. Virtual threads are only available on Java 21 and later, on earlier runtimes such instances
+ * run their tasks in daemon platform threads. The characteristics of this thread can further be
+ * tuned by overriding {@link #prepareExecutionThread(Thread)}. That method is called from the
+ * thread that calls {@link #startTask()} before the task execution thread is started. The default
+ * implementation of {@link #prepareExecutionThread(Thread)} set the thread's
+ * {@code Thread.UncaughtExceptionHandler} to {@link #onUncaughtException(Thread, Throwable)}, which
+ * by default does nothing. Subclasses may want to override this method to take action when the
+ * task terminates abnormally.
  *<p>
  * This class is intended to be used for long-running tasks that may need to be stopped explicitly.
  * It is not intended to be used for repeated execution of many short-lived tasks, since a new
@@ -79,6 +83,25 @@ public class TaskRunner implements Awaitable
     }
 
 
+    /**
+     * Create a new {@code TaskRunner} that optionally runs its task in a virtual thread. If
+     * {@code pVirtualThread} is true, the task's thread factory will be a
+     * {@code VirtualThreadFactory}, otherwise it will be a {@code UserThreadFactory}. In both cases
+     * the class name of {@code pTask} is used as base name for the thread.
+     *
+     * @param pTask             The task to run.
+     * @param pVirtualThread    If true, run the task in a virtual thread if the runtime supports
+     *                          virtual threads, otherwise in a daemon platform thread. If false,
+     *                          run the task in a user platform thread.
+     *
+     * @throws NullPointerException if {@code pTask} is null.
+     */
+    public TaskRunner(@Nonnull Runnable pTask, boolean pVirtualThread)
+    {
+        this(pTask, newThreadFactory(pTask.getClass().getSimpleName(), pVirtualThread));
+    }
+
+
     /**
      * Create a new {@code TaskRunner}.
      *
@@ -279,6 +302,44 @@ public class TaskRunner implements Awaitable
     }
 
 
+    /**
+     * Execute the task passed to the constructor. This method is called from the task execution
+     * thread after it has signalled that it has started, and the thread terminates when this method
+     * returns or throws.
+     *<p>
+     * This base implementation simply calls the task's {@code run()} method. Subclasses may
+     * override this method to add behaviour around the execution of the task, for instance to run
+     * it again after a failure.
+     *
+     * @param pTask The task to execute.
+     *
+     * @throws NullPointerException if {@code pTask} is null.
+     */
+    protected void executeTask(@Nonnull Runnable pTask)
+    {
+        pTask.run();
+    }
+
+
+    /**
+     * Create the thread factory for a task execution thread.
+     *
+     * @param pBaseName         The base name for the thread.
+     * @param pVirtualThread    If true, create a {@code VirtualThreadFactory}, otherwise create a
+     *                          {@code UserThreadFactory}.
+     *
+     * @return  A new thread factory, never null.
+     */
+    @Nonnull
+    static private ThreadFactory newThreadFactory(@Nonnull String pBaseName, boolean pVirtualThread)
+    {
+        if (pVirtualThread)
+            return new VirtualThreadFactory(pBaseName, false);
+        else
+            return new UserThreadFactory(pBaseName, false);
+    }
+
+
     /**
      * Run the task passed to the constructor. This method is called from the task execution thread.
      */
@@ -289,6 +350,6 @@ public class TaskRunner implements Awaitable
         fThreadStartLatch.countDown();
 
         // Run the task.
-        fTask.run();
+        executeTask(fTask);
     }
 }
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.UndeclaredThrowableException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import static java.util.Objects.requireNonNull;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+
+
+/**
+ * Thread factory that creates virtual threads when the runtime supports them, i.e. when running on
+ * Java 21 or later. On earlier runtimes, and on runtimes where virtual threads are a preview
+ * feature that hasn't been enabled, the factory falls back to creating daemon platform threads in
+ * the thread group of the thread that calls {@link #newThread(Runnable)}.
+ *<p>
+ * Virtual threads are always daemon threads with normal priority, and the fallback threads are
+ * daemon threads to preserve those semantics as far as possible. Whether virtual threads are
+ * created can be checked with {@link #isVirtualThreadSupported()}.
+ *<p>
+ * The virtual thread API is accessed through method handles looked up when this class is
+ * initialized, since the classes in this library are targeted for Java 8.
+ *<p>
+ * The created threads are given a fixed name with an optional thread number suffix.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+@Immutable
+public class VirtualThreadFactory implements ThreadFactory
+{
+    // Handles for Thread.ofVirtual(), Thread.Builder.name(String) and
+    // Thread.Builder.unstarted(Runnable), all null if virtual threads aren't supported.
+    static private final MethodHandle OF_VIRTUAL;
+    static private final MethodHandle NAME;
+    static private final MethodHandle UNSTARTED;
+
+    static
+    {
+        MethodHandle aOfVirtual = null;
+        MethodHandle aName = null;
+        MethodHandle aUnstarted = null;
+        try
+        {
+            MethodHandles.Lookup aLookup = MethodHandles.publicLookup();
+            Class<?> aBuilderClass = Class.forName("java.lang.Thread$Builder");
+            Class<?> aOfVirtualClass = Class.forName("java.lang.Thread$Builder$OfVirtual");
+            aOfVirtual =
+                aLookup.findStatic(
+                    Thread.class,
+                    "ofVirtual",
+                    MethodType.methodType(aOfVirtualClass));
+            aName =
+                aLookup.findVirtual(
+                    aBuilderClass,
+                    "name",
+                    MethodType.methodType(aBuilderClass, String.class));
+            aUnstarted =
+                aLookup.findVirtual(
+                    aBuilderClass,
+                    "unstarted",
+                    MethodType.methodType(Thread.class, Runnable.class));
+
+            // A preview feature that hasn't been enabled throws UnsupportedOperationException.
+            aOfVirtual.invoke();
+        }
+        catch (Throwable ignore)
+        {
+            aOfVirtual = null;
+            aName = null;
+            aUnstarted = null;
+        }
+
+        OF_VIRTUAL = aOfVirtual;
+        NAME = aName;
+        UNSTARTED = aUnstarted;
+    }
+
+    private final String fBaseName;
+    private final AtomicInteger fNextThreadNumber = new AtomicInteger(1);
+    private final boolean fAppendThreadNumber;
+
+
+    /**
+     * Create a new {@code VirtualThreadFactory}.
+     *
+     * @param pBaseName             The base name for all created threads.
+     * @param pAppendThreadNumber   If true, the thread number will be appended to the base thread
+     *                              name prefix. If false, the thread names will consist only of the
+     *                              base name. The thread number is a sequential number assigned to
+     *                              each created thread, starting with 1.
+     *
+     * @throws NullPointerException if {@code pBaseName} is null.
+     */
+    public VirtualThreadFactory(@Nonnull String pBaseName, boolean pAppendThreadNumber)
+    {
+        fBaseName = requireNonNull(pBaseName);
+        fAppendThreadNumber = pAppendThreadNumber;
+    }
+
+
+    /**
+     * Check if the runtime supports virtual threads.
+     *
+     * @return  True if the threads created by instances of this class are virtual threads, false if
+     *          they are daemon platform threads.
+     */
+    static public boolean isVirtualThreadSupported()
+    {
+        return OF_VIRTUAL != null;
+    }
+
+
+    /**
+     * Create a new virtual thread, or a new daemon platform thread if the runtime doesn't support
+     * virtual threads.
+     *
+     * @param pTarget   The runnable be executed by the thread.
+     *
+     * @return  A new thread, never null.
+     */
+    @Override
+    @Nonnull
+    public Thread newThread(@Nullable Runnable pTarget)
+    {
+        String aThreadName = fBaseName;
+        int aThreadNumber = fNextThreadNumber.getAndIncrement();
+        if (fAppendThreadNumber)
+            aThreadName = fBaseName + aThreadNumber;
+
+        if (OF_VIRTUAL != null)
+            return newVirtualThread(pTarget, aThreadName);
+
+        Thread aThread = new Thread(pTarget, aThreadName);
+        if (!aThread.isDaemon())
+            aThread.setDaemon(true);
+
+        return aThread;
+    }
+
+
+    /**
+     * Get the number of threads created by this thread factory.
+     *
+     * @return  The number of created threads.
+     */
+    public int getNumCreatedThreads()
+    {
+        return fNextThreadNumber.get() - 1;
+    }
+
+
+    /**
+     * Create an unstarted virtual thread. Must only be called if virtual threads are supported.
+     *
+     * @param pTarget       The runnable be executed by the thread.
+     * @param pThreadName   The name of the thread.
+     *
+     * @return  A new virtual thread, never null.
+     */
+    @Nonnull
+    static private Thread newVirtualThread(@Nullable Runnable pTarget, @Nonnull String pThreadName)
+    {
+        // Virtual threads require a non-null task, a platform thread with a null target does
+        // nothing when started.
+        Runnable aTarget = pTarget != null ? pTarget : () -> {};
+        try
+        {
+            Object aBuilder = NAME.invoke(OF_VIRTUAL.invoke(), pThreadName);
+            return (Thread) UNSTARTED.invoke(aBuilder, aTarget);
+        }
+        catch (RuntimeException | Error e)
+        {
+            throw e;
+        }
+        catch (Throwable t)
+        {
+            // The builder methods don't throw any checked exceptions.
+            throw new UndeclaredThrowableException(t);
+        }
+    }
+}
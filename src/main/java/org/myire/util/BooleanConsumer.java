@@ -0,0 +1,22 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.util;
+
+
+/**
+ * An operation that accepts a single {@code boolean} argument and returns no result. This is the
+ * {@code boolean}-consuming primitive specialization of {@code java.util.function.Consumer}.
+ */
+@FunctionalInterface
+public interface BooleanConsumer
+{
+    /**
+     * Perform this operation on the given argument.
+     *
+     * @param pValue    The input argument.
+     */
+    void accept(boolean pValue);
+}
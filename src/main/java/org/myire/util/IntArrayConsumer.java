@@ -0,0 +1,41 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.util;
+
+import javax.annotation.Nonnull;
+
+
+/**
+ * A consumer of a (range of a) {@code int} array.
+ */
+@FunctionalInterface
+public interface IntArrayConsumer
+{
+    /**
+     * Consume all values in a {@code int} array.
+     *
+     * @param pValues   The values.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     */
+    default void accept(@Nonnull int[] pValues)
+    {
+        accept(pValues, 0, pValues.length);
+    }
+
+    /**
+     * Consume the values in a range of a {@code int} array.
+     *
+     * @param pValues   The values.
+     * @param pOffset   The offset of the first value to consume.
+     * @param pLength   The number of values to consume.
+     *
+     * @throws NullPointerException if {@code pValues} is null.
+     * @throws IndexOutOfBoundsException    if {@code pOffset} or {@code pLength} specify an invalid
+     *                                      range in {@code pValues}.
+     */
+    void accept(@Nonnull int[] pValues, int pOffset, int pLength);
+}
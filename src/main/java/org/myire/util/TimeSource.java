@@ -1,5 +1,5 @@
 /*
- * Copyright 2019, 2021 Peter Franzen. All rights reserved.
+ * Copyright 2019, 2021, 2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
@@ -68,4 +68,29 @@ public interface TimeSource
             return TimeUnit.MILLISECONDS;
         }
     }
+
+
+    /**
+     * {@code TimeSource} implementation that returns {@code System.nanoTime()}. The values are only
+     * meaningful as differences between two calls, but unlike the values of
+     * {@link CurrentMillisTimeSource} they are not affected by changes to the system clock.
+     */
+    class NanoTimeSource implements TimeSource
+    {
+        /** Reusable instance. */
+        static public final TimeSource INSTANCE = new NanoTimeSource();
+
+        @Override
+        public long getCurrentTime()
+        {
+            return System.nanoTime();
+        }
+
+        @Override
+        @Nonnull
+        public TimeUnit getTimeUnit()
+        {
+            return TimeUnit.NANOSECONDS;
+        }
+    }
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.myire.util.AlphaCodes;
+
+
+/**
+ * Unit tests for {@code AlphaCodeSequence}.
+ */
+public class AlphaCodeSequenceTest
+{
+    @Test
+    public void copyOfThrowsForNullSequence()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> AlphaCodeSequence.copyOf(null)
+        );
+    }
+
+
+    @Test
+    public void copyOfThrowsForNullElement()
+    {
+        // Given
+        Sequence<String> aCodes = Sequences.wrap(Arrays.asList("SE", null));
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> AlphaCodeSequence.copyOf(aCodes)
+        );
+    }
+
+
+    @Test
+    public void encodeThrowsForInvalidLength()
+    {
+        assertThrows(IllegalArgumentException.class, () -> AlphaCodeSequence.encode("A"));
+        assertThrows(IllegalArgumentException.class, () -> AlphaCodeSequence.encode("ABCDE"));
+        assertThrows(IllegalArgumentException.class, () -> AlphaCodeSequence.encode(""));
+    }
+
+
+    @Test
+    public void encodeThrowsForInvalidCharacter()
+    {
+        assertThrows(IllegalArgumentException.class, () -> AlphaCodeSequence.encode("A\u0000"));
+        assertThrows(IllegalArgumentException.class, () -> AlphaCodeSequence.encode("A\u0100B"));
+    }
+
+
+    @Test
+    public void encodeUsesAlphaCodes()
+    {
+        assertEquals(AlphaCodes.encodeAlpha2("sv"), AlphaCodeSequence.encode("sv"));
+        assertEquals(AlphaCodes.encodeAlpha3("EUR"), AlphaCodeSequence.encode("EUR"));
+        assertEquals(AlphaCodes.encodeAlpha4("XHEL"), AlphaCodeSequence.encode("XHEL"));
+    }
+
+
+    @Test
+    public void codesOfDifferentLengthsAreDecoded()
+    {
+        // Given
+        List<String> aCodes = Arrays.asList("SE", "SWE", "XSTO", "sv", "\u00ff\u00ff", "EUR");
+
+        // When
+        AlphaCodeSequence aSequence = AlphaCodeSequence.copyOf(Sequences.wrap(aCodes));
+
+        // Then
+        assertEquals(aCodes.size(), aSequence.size());
+        for (int i=0; i<aCodes.size(); i++)
+        {
+            assertEquals(aCodes.get(i), aSequence.elementAt(i));
+            assertEquals(AlphaCodeSequence.encode(aCodes.get(i)), aSequence.encodedValueAt(i));
+        }
+    }
+
+
+    @Test
+    public void forEachAndIteratorDecodeAllCodes()
+    {
+        // Given
+        List<String> aCodes = Arrays.asList("USD", "GBP", "JP", "EUR", "USD");
+        AlphaCodeSequence aSequence = AlphaCodeSequence.copyOf(Sequences.wrap(aCodes));
+
+        // When
+        List<String> aForEachCodes = new ArrayList<>();
+        aSequence.forEach(aForEachCodes::add);
+        List<String> aIteratedCodes = new ArrayList<>();
+        aSequence.iterator().forEachRemaining(aIteratedCodes::add);
+
+        // Then
+        assertEquals(aCodes, aForEachCodes);
+        assertEquals(aCodes, aIteratedCodes);
+    }
+
+
+    @Test
+    public void equalCodesHaveEqualEncodedValues()
+    {
+        // Given
+        AlphaCodeSequence aSequence =
+            AlphaCodeSequence.copyOf(Sequences.wrap(Arrays.asList("NOK", "SEK", "NOK")));
+
+        // Then
+        IntSequence aValues = aSequence.getEncodedValues();
+        assertEquals(aValues.valueAt(0), aValues.valueAt(2));
+        assertEquals(1, aValues.count(v -> v == AlphaCodeSequence.encode("SEK")));
+    }
+
+
+    @Test
+    public void valueAtThrowsForInvalidIndex()
+    {
+        // Given
+        AlphaCodeSequence aSequence =
+            AlphaCodeSequence.copyOf(Sequences.wrap(Arrays.asList("AB", "CD")));
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.elementAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.elementAt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.encodedValueAt(2));
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the {@code BooleanSequence} implementations created by
+ * {@code CompactSequences}.
+ */
+public class BooleanSequenceTest
+{
+    @Test
+    public void emptySequenceHasNoValues()
+    {
+        // When
+        BooleanSequence aSequence = CompactSequences.emptyBooleanSequence();
+
+        // Then
+        assertEquals(0, aSequence.size());
+        assertEquals(0, aSequence.countTrue());
+        assertFalse(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(0));
+        assertSame(aSequence, CompactSequences.emptyBooleanSequence());
+    }
+
+
+    @Test
+    public void singletonContainsTheValue()
+    {
+        // When
+        BooleanSequence aTrue = CompactSequences.singleton(true);
+        BooleanSequence aFalse = CompactSequences.singleton(false);
+
+        // Then
+        assertEquals(1, aTrue.size());
+        assertTrue(aTrue.valueAt(0));
+        assertEquals(Boolean.TRUE, aTrue.elementAt(0));
+        assertEquals(1, aTrue.countTrue());
+        assertEquals(1, aFalse.size());
+        assertFalse(aFalse.valueAt(0));
+        assertEquals(0, aFalse.countTrue());
+        assertThrows(IndexOutOfBoundsException.class, () -> aTrue.valueAt(1));
+    }
+
+
+    @Test
+    public void copyOfContainsTheValues()
+    {
+        int[] aSizes = {1, 63, 64, 65, 1000};
+        for (int aSize : aSizes)
+        {
+            // Given
+            boolean[] aValues = randomBooleanValues(aSize);
+
+            // When
+            BooleanSequence aSequence = CompactSequences.copyOf(aValues);
+
+            // Then
+            assertEquals(aSize, aSequence.size());
+            int aNumTrue = 0;
+            for (int i=0; i<aSize; i++)
+            {
+                assertEquals(aValues[i], aSequence.valueAt(i));
+                if (aValues[i])
+                    aNumTrue++;
+            }
+
+            assertEquals(aNumTrue, aSequence.countTrue());
+            assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(-1));
+            assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(aSize));
+        }
+    }
+
+
+    @Test
+    public void copyOfThrowsForNullArray()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompactSequences.copyOf((boolean[]) null)
+        );
+    }
+
+
+    @Test
+    public void wrapBitsUsesTheBitSetLayout()
+    {
+        // Given
+        BitSet aBits = new BitSet();
+        aBits.set(0);
+        aBits.set(63);
+        aBits.set(64);
+        aBits.set(100);
+        aBits.set(130);
+
+        // When
+        BooleanSequence aSequence = CompactSequences.wrapBits(aBits.toLongArray(), 129);
+
+        // Then
+        assertEquals(129, aSequence.size());
+        for (int i=0; i<129; i++)
+            assertEquals(aBits.get(i), aSequence.valueAt(i));
+
+        // The bit at index 130 is outside the sequence.
+        assertEquals(4, aSequence.countTrue());
+    }
+
+
+    @Test
+    public void wrapBitsThrowsForInvalidSize()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CompactSequences.wrapBits(new long[1], 65)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CompactSequences.wrapBits(new long[1], -1)
+        );
+    }
+
+
+    @Test
+    public void wrapBitsThrowsForNullArray()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompactSequences.wrapBits(null, 0)
+        );
+    }
+
+
+    @Test
+    public void forEachPassesAllValuesInOrder()
+    {
+        // Given
+        boolean[] aValues = randomBooleanValues(130);
+        List<Boolean> aPassed = new ArrayList<>();
+
+        // When
+        CompactSequences.copyOf(aValues).forEach((boolean v) -> aPassed.add(Boolean.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length, aPassed.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(Boolean.valueOf(aValues[i]), aPassed.get(i));
+    }
+
+
+    @Test
+    public void iteratorReturnsAllValuesInOrder()
+    {
+        // Given
+        boolean[] aValues = randomBooleanValues(70);
+
+        // When
+        BooleanIterator aIterator = CompactSequences.copyOf(aValues).iterator();
+
+        // Then
+        assertEquals(Boolean.valueOf(aValues[0]), aIterator.next());
+        for (int i=1; i<aValues.length; i++)
+            assertEquals(aValues[i], aIterator.nextBoolean());
+
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::nextBoolean);
+    }
+
+
+    @Test
+    public void subSequenceContainsTheValuesInTheRange()
+    {
+        // Given
+        boolean[] aValues = randomBooleanValues(200);
+
+        // When
+        BooleanSequence aSequence = CompactSequences.copyOf(aValues)
+            .subSequence(10, 150)
+            .subSequence(50, 120);
+
+        // Then
+        assertEquals(70, aSequence.size());
+        int aNumTrue = 0;
+        for (int i=0; i<70; i++)
+        {
+            assertEquals(aValues[60 + i], aSequence.valueAt(i));
+            if (aValues[60 + i])
+                aNumTrue++;
+        }
+
+        assertEquals(aNumTrue, aSequence.countTrue());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(70));
+    }
+
+
+    @Test
+    public void subSequenceThrowsForInvalidRange()
+    {
+        // Given
+        BooleanSequence aSequence = CompactSequences.copyOf(new boolean[5]);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(0, 6));
+    }
+
+
+    static private boolean[] randomBooleanValues(int pNumValues)
+    {
+        boolean[] aValues = new boolean[pNumValues];
+        for (int i=0; i<pNumValues; i++)
+            aValues[i] = ThreadLocalRandom.current().nextBoolean();
+
+        return aValues;
+    }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.PrimitiveIterator;
+import java.util.function.LongConsumer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.mockito.Mockito.mock;
+
+import static org.myire.collection.CollectionTests.randomLongValues;
+
+
+/**
+ * Unit tests for {@code ByteBufferLongSequence}. The sequences are created with small chunks to
+ * make most sequences span several chunks.
+ */
+public class ByteBufferLongSequenceTest extends LongSequenceBaseTest
+{
+    static private final int CHUNK_SHIFT = 3;
+
+
+    @Override
+    protected LongSequence createLongSequence(long[] pValues)
+    {
+        return OffHeapSequences.copyOf(PrimitiveSequences.wrap(pValues), CHUNK_SHIFT);
+    }
+
+
+    @Test
+    public void allocateCreatesSequenceWithZeroValues()
+    {
+        // When
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(19, CHUNK_SHIFT);
+
+        // Then
+        assertEquals(19, aSequence.size());
+        assertArrayEquals(new long[19], aSequence.longStream().toArray());
+    }
+
+
+    @Test
+    public void allocateWithDefaultChunkSizeCreatesSequence()
+    {
+        // When
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(3);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        assertEquals(0, aSequence.valueAt(2));
+    }
+
+
+    @Test
+    public void allocateThrowsForNegativeSize()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> OffHeapSequences.allocateLongSequence(-1)
+        );
+    }
+
+
+    @Test
+    public void copyOfThrowsForNullSequence()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> OffHeapSequences.copyOf((LongSequence) null)
+        );
+    }
+
+
+    @Test
+    public void setValueReplacesValue()
+    {
+        // Given
+        long[] aValues = randomLongValues(40);
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(40, CHUNK_SHIFT);
+
+        // When
+        for (int i=0; i<aValues.length; i++)
+            aSequence.setValue(i, aValues[i]);
+
+        // Then
+        assertArrayEquals(aValues, aSequence.longStream().toArray());
+    }
+
+
+    @Test
+    public void setValueThrowsForInvalidIndex()
+    {
+        // Given
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(8, CHUNK_SHIFT);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.setValue(-1, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.setValue(8, 1));
+    }
+
+
+    @Test
+    public void setValuesWritesAcrossChunks()
+    {
+        // Given
+        long[] aValues = randomLongValues(20);
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(24, CHUNK_SHIFT);
+
+        // When
+        aSequence.setValues(3, aValues, 2, 18);
+
+        // Then
+        for (int i=0; i<24; i++)
+        {
+            if (i >= 3 && i < 21)
+                assertEquals(aValues[i - 1], aSequence.valueAt(i));
+            else
+                assertEquals(0, aSequence.valueAt(i));
+        }
+    }
+
+
+    @Test
+    public void setValuesThrowsForInvalidRange()
+    {
+        // Given
+        long[] aValues = randomLongValues(8);
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(8, CHUNK_SHIFT);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.setValues(-1, aValues, 0, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.setValues(4, aValues, 0, 5));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.setValues(0, aValues, 4, 5));
+    }
+
+
+    @Test
+    public void closeReleasesSequence()
+    {
+        // Given
+        ByteBufferLongSequence aSequence =
+            OffHeapSequences.copyOf(PrimitiveSequences.wrap(randomLongValues(20)));
+        assertFalse(aSequence.isClosed());
+
+        // When
+        aSequence.close();
+
+        // Then
+        assertTrue(aSequence.isClosed());
+        assertEquals(20, aSequence.size());
+    }
+
+
+    @Test
+    public void closeCanBeCalledMoreThanOnce()
+    {
+        // Given
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(10, CHUNK_SHIFT);
+
+        // When
+        aSequence.close();
+        aSequence.close();
+
+        // Then
+        assertTrue(aSequence.isClosed());
+    }
+
+
+    @Test
+    public void closedSequenceThrowsOnAccess()
+    {
+        // Given
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(10, CHUNK_SHIFT);
+
+        // When
+        aSequence.close();
+
+        // Then
+        assertThrows(IllegalStateException.class, () -> aSequence.valueAt(0));
+        assertThrows(IllegalStateException.class, () -> aSequence.setValue(0, 1));
+        assertThrows(
+            IllegalStateException.class,
+            () -> aSequence.forEach(mock(LongConsumer.class))
+        );
+        assertThrows(IllegalStateException.class, aSequence::iterator);
+    }
+
+
+    @Test
+    public void iteratorThrowsIfSequenceIsClosedDuringIteration()
+    {
+        // Given
+        ByteBufferLongSequence aSequence = OffHeapSequences.allocateLongSequence(10, CHUNK_SHIFT);
+        PrimitiveIterator.OfLong aIterator = aSequence.iterator();
+        aIterator.nextLong();
+
+        // When
+        aSequence.close();
+
+        // Then
+        assertThrows(IllegalStateException.class, aIterator::nextLong);
+    }
+}
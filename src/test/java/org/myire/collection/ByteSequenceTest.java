@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the {@code ByteSequence} implementations created by {@code CompactSequences}.
+ */
+public class ByteSequenceTest
+{
+    @Test
+    public void emptySequenceHasNoValues()
+    {
+        // When
+        ByteSequence aSequence = CompactSequences.emptyByteSequence();
+
+        // Then
+        assertEquals(0, aSequence.size());
+        assertFalse(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(0));
+        assertSame(aSequence, CompactSequences.emptyByteSequence());
+    }
+
+
+    @Test
+    public void singletonContainsTheValue()
+    {
+        // When
+        ByteSequence aSequence = CompactSequences.singleton((byte) -17);
+
+        // Then
+        assertEquals(1, aSequence.size());
+        assertEquals((byte) -17, aSequence.valueAt(0));
+        assertEquals(Byte.valueOf((byte) -17), aSequence.elementAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void wrapReturnsSequenceBackedByArray()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+
+        // When
+        ByteSequence aSequence = CompactSequences.wrap(aValues);
+        aValues[1] = (byte) 99;
+
+        // Then
+        assertEquals(aValues.length, aSequence.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aSequence.valueAt(i));
+    }
+
+
+    @Test
+    public void wrapRangeReturnsTheValuesInTheRange()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+
+        // When
+        ByteSequence aSequence = CompactSequences.wrap(aValues, 1, 3);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        for (int i=0; i<3; i++)
+            assertEquals(aValues[i + 1], aSequence.valueAt(i));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(3));
+    }
+
+
+    @Test
+    public void wrapThrowsForNullArray()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompactSequences.wrap((byte[]) null)
+        );
+    }
+
+
+    @Test
+    public void wrapThrowsForInvalidRange()
+    {
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> CompactSequences.wrap(new byte[2], 1, 2)
+        );
+    }
+
+
+    @Test
+    public void forEachPassesAllValuesInOrder()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+        List<Byte> aPassed = new ArrayList<>();
+
+        // When
+        CompactSequences.wrap(aValues).forEach((byte v) -> aPassed.add(Byte.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length, aPassed.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(Byte.valueOf(aValues[i]), aPassed.get(i));
+    }
+
+
+    @Test
+    public void iteratorReturnsAllValuesInOrder()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+
+        // When
+        ByteIterator aIterator = CompactSequences.wrap(aValues).iterator();
+
+        // Then
+        assertEquals(Byte.valueOf(aValues[0]), aIterator.next());
+        for (int i=1; i<aValues.length; i++)
+            assertEquals(aValues[i], aIterator.nextByte());
+
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::nextByte);
+    }
+
+
+    @Test
+    public void forEachRemainingPassesTheRemainingValues()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+        ByteIterator aIterator = CompactSequences.wrap(aValues).iterator();
+        aIterator.nextByte();
+        List<Byte> aPassed = new ArrayList<>();
+
+        // When
+        aIterator.forEachRemaining((byte v) -> aPassed.add(Byte.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length - 1, aPassed.size());
+        assertEquals(Byte.valueOf(aValues[aValues.length - 1]), aPassed.get(aValues.length - 2));
+    }
+
+
+    @Test
+    public void subSequenceContainsTheValuesInTheRange()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+
+        // When
+        ByteSequence aSequence = CompactSequences.wrap(aValues)
+            .subSequence(1, 4)
+            .subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void subSequenceOfViewContainsTheValuesInTheRange()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+        ByteSequence aView = CompactSequences.subSequence(CompactSequences.wrap(aValues), 1, 5);
+
+        // When
+        ByteSequence aSequence = aView.subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+        assertTrue(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(2));
+    }
+
+
+    @Test
+    public void subSequenceThrowsForInvalidRange()
+    {
+        // Given
+        byte[] aValues = new byte[]{1, -2, 3, Byte.MIN_VALUE, Byte.MAX_VALUE};
+        ByteSequence aSequence = CompactSequences.wrap(aValues);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(0, 6));
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the {@code CharSequenceView} implementations created by {@code CompactSequences}.
+ */
+public class CharSequenceViewTest
+{
+    @Test
+    public void emptySequenceHasNoValues()
+    {
+        // When
+        CharSequenceView aSequence = CompactSequences.emptyCharSequence();
+
+        // Then
+        assertEquals(0, aSequence.size());
+        assertFalse(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(0));
+        assertSame(aSequence, CompactSequences.emptyCharSequence());
+    }
+
+
+    @Test
+    public void singletonContainsTheValue()
+    {
+        // When
+        CharSequenceView aSequence = CompactSequences.singleton('x');
+
+        // Then
+        assertEquals(1, aSequence.size());
+        assertEquals('x', aSequence.valueAt(0));
+        assertEquals(Character.valueOf('x'), aSequence.elementAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void wrapReturnsSequenceBackedByArray()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+
+        // When
+        CharSequenceView aSequence = CompactSequences.wrap(aValues);
+        aValues[1] = 'Z';
+
+        // Then
+        assertEquals(aValues.length, aSequence.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aSequence.valueAt(i));
+    }
+
+
+    @Test
+    public void wrapRangeReturnsTheValuesInTheRange()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+
+        // When
+        CharSequenceView aSequence = CompactSequences.wrap(aValues, 1, 3);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        for (int i=0; i<3; i++)
+            assertEquals(aValues[i + 1], aSequence.valueAt(i));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(3));
+    }
+
+
+    @Test
+    public void wrapThrowsForNullArray()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompactSequences.wrap((char[]) null)
+        );
+    }
+
+
+    @Test
+    public void wrapThrowsForInvalidRange()
+    {
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> CompactSequences.wrap(new char[2], 1, 2)
+        );
+    }
+
+
+    @Test
+    public void forEachPassesAllValuesInOrder()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+        List<Character> aPassed = new ArrayList<>();
+
+        // When
+        CompactSequences.wrap(aValues).forEach((char v) -> aPassed.add(Character.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length, aPassed.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(Character.valueOf(aValues[i]), aPassed.get(i));
+    }
+
+
+    @Test
+    public void iteratorReturnsAllValuesInOrder()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+
+        // When
+        CharIterator aIterator = CompactSequences.wrap(aValues).iterator();
+
+        // Then
+        assertEquals(Character.valueOf(aValues[0]), aIterator.next());
+        for (int i=1; i<aValues.length; i++)
+            assertEquals(aValues[i], aIterator.nextChar());
+
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::nextChar);
+    }
+
+
+    @Test
+    public void forEachRemainingPassesTheRemainingValues()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+        CharIterator aIterator = CompactSequences.wrap(aValues).iterator();
+        aIterator.nextChar();
+        List<Character> aPassed = new ArrayList<>();
+
+        // When
+        aIterator.forEachRemaining((char v) -> aPassed.add(Character.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length - 1, aPassed.size());
+        assertEquals(
+            Character.valueOf(aValues[aValues.length - 1]),
+            aPassed.get(aValues.length - 2));
+    }
+
+
+    @Test
+    public void subSequenceContainsTheValuesInTheRange()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+
+        // When
+        CharSequenceView aSequence = CompactSequences.wrap(aValues)
+            .subSequence(1, 4)
+            .subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void subSequenceOfViewContainsTheValuesInTheRange()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+        CharSequenceView aView = CompactSequences.subSequence(CompactSequences.wrap(aValues), 1, 5);
+
+        // When
+        CharSequenceView aSequence = aView.subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+        assertTrue(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(2));
+    }
+
+
+    @Test
+    public void subSequenceThrowsForInvalidRange()
+    {
+        // Given
+        char[] aValues = new char[]{'a', 'b', 'c', 'd', 'e'};
+        CharSequenceView aSequence = CompactSequences.wrap(aValues);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(0, 6));
+    }
+
+
+    @Test
+    public void sequenceCanBeUsedAsCharSequence()
+    {
+        // Given
+        CharSequenceView aSequence = CompactSequences.wrap("xhello, worldx".toCharArray(), 1, 12);
+
+        // Then
+        assertEquals(12, aSequence.length());
+        assertEquals('h', aSequence.charAt(0));
+        assertEquals("hello, world", aSequence.toString());
+        assertEquals("hello, world", new StringBuilder().append(aSequence).toString());
+        assertEquals("world", aSequence.subSequence(7, 12).toString());
+        assertEquals("orl", aSequence.subSequence(7, 12).subSequence(1, 4).toString());
+        assertTrue(Pattern.compile("w.r").matcher(aSequence).find());
+    }
+
+
+    @Test
+    public void viewToStringReturnsTheCharacters()
+    {
+        // Given
+        CharSequenceView aSequence = CompactSequences.wrap("abcdef".toCharArray());
+
+        // When
+        CharSequenceView aView = CompactSequences.subSequence(aSequence, 1, 4);
+
+        // Then
+        assertEquals("bcd", aView.toString());
+    }
+}
@@ -0,0 +1,337 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.myire.collection.ColumnBatch.ColumnType;
+
+
+/**
+ * Unit tests for {@code ColumnBatch} and {@code ColumnBatchBuilder}.
+ */
+public class ColumnBatchTest
+{
+    static private final int[] IDS = {10, 11, 12, 13, 14};
+    static private final long[] TIMESTAMPS = {100L, 200L, 300L, 400L, 500L};
+    static private final double[] AMOUNTS = {1.5, 2.5, 3.5, 4.5, 5.5};
+    static private final String[] NAMES = {"a", "b", "c", "d", "e"};
+
+
+    @Test
+    public void addColumnThrowsForNullName()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> new ColumnBatchBuilder().addColumn(null, PrimitiveSequences.wrap(IDS))
+        );
+    }
+
+
+    @Test
+    public void addColumnThrowsForNullColumn()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> new ColumnBatchBuilder().addColumn("id", null)
+        );
+    }
+
+
+    @Test
+    public void addColumnThrowsForDuplicateName()
+    {
+        // Given
+        ColumnBatchBuilder aBuilder =
+            new ColumnBatchBuilder().addColumn("id", PrimitiveSequences.wrap(IDS));
+
+        // Then
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> aBuilder.addColumn("id", PrimitiveSequences.wrap(TIMESTAMPS))
+        );
+    }
+
+
+    @Test
+    public void addColumnThrowsForMismatchingSize()
+    {
+        // Given
+        ColumnBatchBuilder aBuilder =
+            new ColumnBatchBuilder().addColumn("id", PrimitiveSequences.wrap(IDS));
+
+        // Then
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> aBuilder.addColumn("x", PrimitiveSequences.wrap(new int[IDS.length + 1]))
+        );
+    }
+
+
+    @Test
+    public void emptyBuilderCreatesEmptyBatch()
+    {
+        // When
+        ColumnBatch aBatch = new ColumnBatchBuilder().build();
+
+        // Then
+        assertEquals(0, aBatch.getRowCount());
+        assertEquals(0, aBatch.getColumnCount());
+        assertNull(aBatch.getSelection());
+    }
+
+
+    @Test
+    public void columnsHaveTheExpectedTypes()
+    {
+        // When
+        ColumnBatch aBatch = createBatch();
+
+        // Then
+        assertEquals(IDS.length, aBatch.getRowCount());
+        assertEquals(4, aBatch.getColumnCount());
+        assertEquals(
+            Arrays.asList("id", "ts", "amount", "name"),
+            Arrays.asList(aBatch.getColumnNames().stream().toArray()));
+        assertEquals(ColumnType.INT, aBatch.getColumnType("id"));
+        assertEquals(ColumnType.LONG, aBatch.getColumnType("ts"));
+        assertEquals(ColumnType.DOUBLE, aBatch.getColumnType("amount"));
+        assertEquals(ColumnType.OBJECT, aBatch.getColumnType("name"));
+        assertTrue(aBatch.hasColumn("ts"));
+        assertFalse(aBatch.hasColumn("x"));
+    }
+
+
+    @Test
+    public void columnsWithoutSelectionAreTheAddedSequences()
+    {
+        // Given
+        IntSequence aIds = PrimitiveSequences.wrap(IDS);
+        Sequence<String> aNames = Sequences.wrap(NAMES);
+
+        // When
+        ColumnBatch aBatch = new ColumnBatchBuilder()
+            .addColumn("id", aIds)
+            .addColumn("name", aNames)
+            .build();
+
+        // Then
+        assertSame(aIds, aBatch.getIntColumn("id"));
+        assertSame(aNames, aBatch.getColumn("name"));
+    }
+
+
+    @Test
+    public void getColumnThrowsForUnknownName()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch();
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> aBatch.getColumn("x"));
+        assertThrows(IllegalArgumentException.class, () -> aBatch.getIntColumn("x"));
+        assertThrows(IllegalArgumentException.class, () -> aBatch.getColumnType("x"));
+    }
+
+
+    @Test
+    public void typedGetterThrowsForWrongType()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch();
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> aBatch.getIntColumn("ts"));
+        assertThrows(IllegalArgumentException.class, () -> aBatch.getLongColumn("amount"));
+        assertThrows(IllegalArgumentException.class, () -> aBatch.getDoubleColumn("name"));
+    }
+
+
+    @Test
+    public void projectReturnsTheSpecifiedColumns()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch().select(PrimitiveSequences.wrap(new int[]{1, 3}));
+
+        // When
+        ColumnBatch aProjection = aBatch.project("name", "id");
+
+        // Then
+        assertEquals(2, aProjection.getColumnCount());
+        assertEquals(2, aProjection.getRowCount());
+        assertEquals(
+            Arrays.asList("name", "id"),
+            Arrays.asList(aProjection.getColumnNames().stream().toArray()));
+        assertArrayEquals(new int[]{11, 13}, aProjection.getIntColumn("id").intStream().toArray());
+        assertFalse(aProjection.hasColumn("ts"));
+    }
+
+
+    @Test
+    public void projectThrowsForUnknownOrDuplicateName()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch();
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> aBatch.project("id", "x"));
+        assertThrows(IllegalArgumentException.class, () -> aBatch.project("id", "ts", "id"));
+    }
+
+
+    @Test
+    public void selectReturnsTheSelectedRows()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch();
+
+        // When
+        ColumnBatch aSelection = aBatch.select(PrimitiveSequences.wrap(new int[]{4, 0, 2}));
+
+        // Then
+        assertEquals(3, aSelection.getRowCount());
+        assertArrayEquals(new int[]{4, 0, 2}, aSelection.getSelection().intStream().toArray());
+        assertArrayEquals(new int[]{14, 10, 12}, aSelection.getIntColumn("id").intStream().toArray());
+        assertArrayEquals(
+            new long[]{500L, 100L, 300L},
+            aSelection.getLongColumn("ts").longStream().toArray());
+        assertArrayEquals(
+            new double[]{5.5, 1.5, 3.5},
+            aSelection.getDoubleColumn("amount").doubleStream().toArray());
+        assertEquals("e", aSelection.getColumn("name").elementAt(0));
+        assertEquals("c", aSelection.getColumn("name").elementAt(2));
+
+        // The original batch should be unaffected.
+        assertEquals(IDS.length, aBatch.getRowCount());
+        assertNull(aBatch.getSelection());
+    }
+
+
+    @Test
+    public void selectOfSelectionRefersToUnderlyingRows()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch().select(PrimitiveSequences.wrap(new int[]{1, 2, 3, 4}));
+
+        // When
+        ColumnBatch aSelection = aBatch.select(PrimitiveSequences.wrap(new int[]{0, 3}));
+
+        // Then
+        assertArrayEquals(new int[]{1, 4}, aSelection.getSelection().intStream().toArray());
+        assertArrayEquals(new int[]{11, 14}, aSelection.getIntColumn("id").intStream().toArray());
+    }
+
+
+    @Test
+    public void selectThrowsForInvalidRow()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch().select(PrimitiveSequences.wrap(new int[]{1, 2}));
+
+        // Then
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> aBatch.select(PrimitiveSequences.wrap(new int[]{0, 2}))
+        );
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> aBatch.select(PrimitiveSequences.wrap(new int[]{-1}))
+        );
+    }
+
+
+    @Test
+    public void selectedColumnsThrowForInvalidIndex()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch().select(PrimitiveSequences.wrap(new int[]{1, 2}));
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aBatch.getIntColumn("id").valueAt(2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBatch.getLongColumn("ts").valueAt(-1));
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> aBatch.getDoubleColumn("amount").valueAt(2)
+        );
+        assertThrows(IndexOutOfBoundsException.class, () -> aBatch.getColumn("name").elementAt(2));
+    }
+
+
+    @Test
+    public void selectedColumnsIterateOverSelectedRows()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch().select(PrimitiveSequences.wrap(new int[]{3, 1}));
+
+        // When
+        LongSequenceBuilder aTimestamps = new LongSequenceBuilder(2);
+        aBatch.getLongColumn("ts").forEach((long v) -> aTimestamps.append(v));
+        StringBuilder aNames = new StringBuilder();
+        aBatch.getColumn("name").forEach(aNames::append);
+
+        // Then
+        assertArrayEquals(new long[]{400L, 200L}, aTimestamps.getValues());
+        assertEquals("db", aNames.toString());
+        assertEquals(24, aBatch.getIntColumn("id").sum());
+    }
+
+
+    @Test
+    public void compactCopiesTheSelectedRows()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch().select(PrimitiveSequences.wrap(new int[]{2, 4}));
+
+        // When
+        ColumnBatch aCompacted = aBatch.compact();
+
+        // Then
+        assertNull(aCompacted.getSelection());
+        assertEquals(2, aCompacted.getRowCount());
+        assertArrayEquals(new int[]{12, 14}, aCompacted.getIntColumn("id").intStream().toArray());
+        assertArrayEquals(
+            new long[]{300L, 500L},
+            aCompacted.getLongColumn("ts").longStream().toArray());
+        assertArrayEquals(
+            new double[]{3.5, 5.5},
+            aCompacted.getDoubleColumn("amount").doubleStream().toArray());
+        assertEquals(
+            Arrays.asList("c", "e"),
+            Arrays.asList(aCompacted.getColumn("name").stream().toArray()));
+        assertEquals(ColumnType.OBJECT, aCompacted.getColumnType("name"));
+    }
+
+
+    @Test
+    public void compactWithoutSelectionReturnsSameBatch()
+    {
+        // Given
+        ColumnBatch aBatch = createBatch();
+
+        // Then
+        assertSame(aBatch, aBatch.compact());
+    }
+
+
+    static private ColumnBatch createBatch()
+    {
+        return new ColumnBatchBuilder()
+            .addColumn("id", PrimitiveSequences.wrap(IDS))
+            .addColumn("ts", PrimitiveSequences.wrap(TIMESTAMPS))
+            .addColumn("amount", PrimitiveSequences.wrap(AMOUNTS))
+            .addColumn("name", Sequences.wrap(NAMES))
+            .build();
+    }
+}
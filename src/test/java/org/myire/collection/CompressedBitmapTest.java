@@ -0,0 +1,346 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@code CompressedBitmap}.
+ */
+public class CompressedBitmapTest
+{
+    @Test
+    public void copyOfThrowsForNullSequence()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompressedBitmap.copyOf(null)
+        );
+    }
+
+
+    @Test
+    public void emptyBitmapHasNoValues()
+    {
+        // When
+        CompressedBitmap aBitmap = CompressedBitmap.copyOf(PrimitiveSequences.emptyIntSequence());
+
+        // Then
+        assertEquals(0, aBitmap.size());
+        assertFalse(aBitmap.iterator().hasNext());
+        assertFalse(aBitmap.contains(0));
+        assertEquals(0, aBitmap.rank(0));
+        assertEquals(-1, aBitmap.indexOf(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBitmap.valueAt(0));
+        assertThrows(NoSuchElementException.class, aBitmap::min);
+        assertThrows(NoSuchElementException.class, aBitmap::max);
+    }
+
+
+    @Test
+    public void valuesAreSortedAndDistinct()
+    {
+        // Given
+        int[] aValues = {7, -5, Integer.MAX_VALUE, 3, Integer.MIN_VALUE, -1, 0, 7, 65536, -65537};
+
+        // When
+        CompressedBitmap aBitmap = CompressedBitmap.copyOf(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        int[] aExpected = {Integer.MIN_VALUE, -65537, -5, -1, 0, 3, 7, 65536, Integer.MAX_VALUE};
+        assertArrayEquals(aExpected, aBitmap.intStream().toArray());
+        assertEquals(Integer.MIN_VALUE, aBitmap.min());
+        assertEquals(Integer.MAX_VALUE, aBitmap.max());
+    }
+
+
+    @Test
+    public void accessorsAgreeWithSortedArray()
+    {
+        // Given
+        int[] aValues = mixedValues();
+        int[] aExpected = distinctSorted(aValues);
+
+        // When
+        CompressedBitmap aBitmap = CompressedBitmap.copyOf(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertEquals(aExpected.length, aBitmap.size());
+        for (int i=0; i<aExpected.length; i++)
+        {
+            assertEquals(aExpected[i], aBitmap.valueAt(i));
+            assertEquals(i, aBitmap.indexOf(aExpected[i]));
+            assertEquals(i + 1, aBitmap.rank(aExpected[i]));
+            assertTrue(aBitmap.contains(aExpected[i]));
+        }
+    }
+
+
+    @Test
+    public void iterationAgreesWithSortedArray()
+    {
+        // Given
+        int[] aExpected = distinctSorted(mixedValues());
+        CompressedBitmap aBitmap = CompressedBitmap.copyOf(PrimitiveSequences.wrap(aExpected));
+
+        // When
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(aExpected.length);
+        aBitmap.forEach((int v) -> aBuilder.append(v));
+        PrimitiveIterator.OfInt aIterator = aBitmap.iterator();
+
+        // Then
+        assertArrayEquals(aExpected, aBuilder.getValues());
+        for (int aValue : aExpected)
+            assertEquals(aValue, aIterator.nextInt());
+
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::nextInt);
+    }
+
+
+    @Test
+    public void missingValuesAreNotContained()
+    {
+        // Given
+        int[] aValues = mixedValues();
+        int[] aExpected = distinctSorted(aValues);
+        CompressedBitmap aBitmap = CompressedBitmap.copyOf(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        for (int i=0; i<10_000; i++)
+        {
+            int aValue = ThreadLocalRandom.current().nextInt(-300_000, 300_000);
+            int aIndex = Arrays.binarySearch(aExpected, aValue);
+            assertEquals(aIndex >= 0, aBitmap.contains(aValue));
+            assertEquals(aIndex >= 0 ? aIndex : -1, aBitmap.indexOf(aValue));
+            assertEquals(aIndex >= 0 ? aIndex + 1 : -aIndex - 1, aBitmap.rank(aValue));
+        }
+    }
+
+
+    @Test
+    public void ofRangeContainsAllValuesInRange()
+    {
+        // When
+        CompressedBitmap aBitmap = CompressedBitmap.ofRange(-100_000, 200_000);
+
+        // Then
+        assertEquals(300_001, aBitmap.size());
+        assertEquals(-100_000, aBitmap.min());
+        assertEquals(200_000, aBitmap.max());
+        assertFalse(aBitmap.contains(-100_001));
+        assertTrue(aBitmap.contains(-100_000));
+        assertTrue(aBitmap.contains(65_536));
+        assertTrue(aBitmap.contains(200_000));
+        assertFalse(aBitmap.contains(200_001));
+        assertEquals(100_001, aBitmap.rank(0));
+        assertEquals(123_456, aBitmap.valueAt(223_456));
+        assertArrayEquals(
+            IntStream.rangeClosed(-100_000, 200_000).toArray(),
+            aBitmap.intStream().toArray());
+    }
+
+
+    @Test
+    public void ofRangeThrowsForInvalidRange()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CompressedBitmap.ofRange(1, 0)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> CompressedBitmap.ofRange(Integer.MIN_VALUE, Integer.MAX_VALUE)
+        );
+    }
+
+
+    @Test
+    public void denseRangeIsCompact()
+    {
+        // When
+        CompressedBitmap aBitmap = CompressedBitmap.ofRange(0, 999_999);
+
+        // Then
+        assertTrue(aBitmap.getStoredSize() < 200);
+    }
+
+
+    @Test
+    public void denseValuesAreStoredMoreCompactlyThanAnArray()
+    {
+        // Given
+        int[] aValues = new int[200_000];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = i * 2;
+
+        // When
+        CompressedBitmap aBitmap = CompressedBitmap.copyOf(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertTrue(aBitmap.getStoredSize() < aValues.length * Integer.BYTES / 8);
+    }
+
+
+    @Test
+    public void andAgreesWithReference()
+    {
+        for (int i=0; i<5; i++)
+        {
+            // Given
+            int[] aFirst = distinctSorted(mixedValues());
+            int[] aSecond = distinctSorted(mixedValues());
+
+            // When
+            CompressedBitmap aResult = bitmap(aFirst).and(bitmap(aSecond));
+
+            // Then
+            int[] aExpected = IntStream.of(aFirst).filter(v -> contains(aSecond, v)).toArray();
+            assertArrayEquals(aExpected, aResult.intStream().toArray());
+        }
+    }
+
+
+    @Test
+    public void orAgreesWithReference()
+    {
+        for (int i=0; i<5; i++)
+        {
+            // Given
+            int[] aFirst = distinctSorted(mixedValues());
+            int[] aSecond = distinctSorted(mixedValues());
+
+            // When
+            CompressedBitmap aResult = bitmap(aFirst).or(bitmap(aSecond));
+
+            // Then
+            int[] aExpected = IntStream.concat(IntStream.of(aFirst), IntStream.of(aSecond))
+                .distinct()
+                .sorted()
+                .toArray();
+            assertArrayEquals(aExpected, aResult.intStream().toArray());
+        }
+    }
+
+
+    @Test
+    public void andNotAgreesWithReference()
+    {
+        for (int i=0; i<5; i++)
+        {
+            // Given
+            int[] aFirst = distinctSorted(mixedValues());
+            int[] aSecond = distinctSorted(mixedValues());
+
+            // When
+            CompressedBitmap aResult = bitmap(aFirst).andNot(bitmap(aSecond));
+
+            // Then
+            int[] aExpected = IntStream.of(aFirst).filter(v -> !contains(aSecond, v)).toArray();
+            assertArrayEquals(aExpected, aResult.intStream().toArray());
+        }
+    }
+
+
+    @Test
+    public void setOperationsWithRangesAgreeWithReference()
+    {
+        // Given
+        CompressedBitmap aRange = CompressedBitmap.ofRange(-70_000, 70_000);
+        int[] aValues = distinctSorted(mixedValues());
+        CompressedBitmap aBitmap = bitmap(aValues);
+
+        // When
+        CompressedBitmap aAnd = aBitmap.and(aRange);
+        CompressedBitmap aAndNot = aBitmap.andNot(aRange);
+        CompressedBitmap aOr = aBitmap.or(aRange);
+
+        // Then
+        assertArrayEquals(
+            IntStream.of(aValues).filter(v -> v >= -70_000 && v <= 70_000).toArray(),
+            aAnd.intStream().toArray());
+        assertArrayEquals(
+            IntStream.of(aValues).filter(v -> v < -70_000 || v > 70_000).toArray(),
+            aAndNot.intStream().toArray());
+        assertEquals(aAndNot.size() + aRange.size(), aOr.size());
+        assertEquals(0, aRange.andNot(aRange).size());
+    }
+
+
+    @Test
+    public void andOfDisjointBitmapsIsEmpty()
+    {
+        // Given
+        CompressedBitmap aFirst = CompressedBitmap.ofRange(0, 100);
+        CompressedBitmap aSecond = CompressedBitmap.ofRange(101, 200);
+
+        // Then
+        assertEquals(0, aFirst.and(aSecond).size());
+        assertSame(aFirst.and(aSecond), aSecond.and(aFirst));
+    }
+
+
+    static private CompressedBitmap bitmap(int[] pValues)
+    {
+        return CompressedBitmap.copyOf(PrimitiveSequences.wrap(pValues));
+    }
+
+
+    static private boolean contains(int[] pSortedValues, int pValue)
+    {
+        return Arrays.binarySearch(pSortedValues, pValue) >= 0;
+    }
+
+
+    static private int[] distinctSorted(int[] pValues)
+    {
+        return IntStream.of(pValues).distinct().sorted().toArray();
+    }
+
+
+    /**
+     * Create an array with values that will be stored in array chunks, bitmap chunks, and run
+     * chunks.
+     */
+    static private int[] mixedValues()
+    {
+        ThreadLocalRandom aRandom = ThreadLocalRandom.current();
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(0);
+
+        // Sparse values.
+        for (int i=0; i<2000; i++)
+            aBuilder.append(aRandom.nextInt(-300_000, 300_000));
+
+        // Dense values in one chunk.
+        int aBase = aRandom.nextInt(-4, 4) << 16;
+        for (int i=0; i<20_000; i++)
+            aBuilder.append(aBase + aRandom.nextInt(1 << 16));
+
+        // Runs of values.
+        for (int i=0; i<20; i++)
+        {
+            int aStart = aRandom.nextInt(-300_000, 300_000);
+            int aLength = aRandom.nextInt(1, 5000);
+            for (int j=0; j<aLength; j++)
+                aBuilder.append(aStart + j);
+        }
+
+        return aBuilder.getValues();
+    }
+}
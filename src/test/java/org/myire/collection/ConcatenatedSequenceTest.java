@@ -0,0 +1,112 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for the {@code Sequence} implementation returned by
+ * {@link Sequences#concat(Sequence[])}.
+ */
+public class ConcatenatedSequenceTest extends ReferenceSequenceBaseTest
+{
+    @Override
+    @SuppressWarnings("unchecked")
+    protected Sequence<String> createSequence(String[] pElements)
+    {
+        // Split the elements into random segments, some of which may be empty.
+        List<Sequence<String>> aSegments = new ArrayList<>();
+        int aOffset = 0;
+        while (aOffset < pElements.length)
+        {
+            int aLength = ThreadLocalRandom.current().nextInt(pElements.length - aOffset + 1);
+            List<String> aSegment = Arrays.asList(pElements).subList(aOffset, aOffset + aLength);
+            aSegments.add(Sequences.wrap(aSegment));
+            aOffset += aLength;
+        }
+
+        @SuppressWarnings("unchecked")
+        Sequence<String>[] aArray = (Sequence<String>[]) new Sequence<?>[aSegments.size()];
+        return Sequences.concat(aSegments.toArray(aArray));
+    }
+
+
+    /**
+     * Calling {@code Sequences.concat} should throw a {@code NullPointerException} when passed
+     * {@code null} as argument or as one of the sequences.
+     */
+    @Test
+    public void concatThrowsForNullArguments()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.concat((Sequence<Object>[]) null)
+        );
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.concat(Sequences.emptySequence(), null)
+        );
+    }
+
+
+    /**
+     * Concatenating no sequences should return the empty sequence.
+     */
+    @Test
+    public void concatOfNoSequencesIsEmpty()
+    {
+        assertSame(Sequences.emptySequence(), Sequences.concat());
+        assertSame(
+            Sequences.emptySequence(),
+            Sequences.concat(Sequences.emptySequence(), Sequences.emptySequence()));
+    }
+
+
+    /**
+     * Concatenating a single non-empty sequence with empty sequences should return the non-empty
+     * sequence.
+     */
+    @Test
+    public void concatOfSingleNonEmptySequenceReturnsThatSequence()
+    {
+        // Given
+        Sequence<String> aSequence = Sequences.wrap(Arrays.asList("A", "B"));
+
+        // Then
+        assertSame(aSequence, Sequences.concat(Sequences.emptySequence(), aSequence));
+    }
+
+
+    /**
+     * The elements of the concatenated sequences should be accessible at the expected indexes.
+     */
+    @Test
+    public void elementsAreFoundAtTheSegmentBoundaries()
+    {
+        // Given
+        Sequence<CharSequence> aSequence = Sequences.concat(
+            Sequences.wrap(Arrays.asList("A", "B")),
+            Sequences.emptySequence(),
+            Sequences.singleton(new StringBuilder("C")),
+            Sequences.wrap(Arrays.asList("D", "E", "F")));
+
+        // Then
+        assertEquals(6, aSequence.size());
+        assertEquals("B", aSequence.elementAt(1));
+        assertEquals("C", aSequence.elementAt(2).toString());
+        assertEquals("D", aSequence.elementAt(3));
+        assertEquals("F", aSequence.elementAt(5));
+    }
+}
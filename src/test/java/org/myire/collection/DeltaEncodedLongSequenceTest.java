@@ -0,0 +1,283 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.myire.collection.CollectionTests.randomLongValues;
+
+
+/**
+ * Unit tests for {@code DeltaEncodedLongSequence}.
+ */
+public class DeltaEncodedLongSequenceTest
+{
+    @Test
+    public void encodeThrowsForNullSequence()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> DeltaEncodedLongSequence.encode(null)
+        );
+    }
+
+
+    @Test
+    public void encodeThrowsForUnsortedValues()
+    {
+        // Given
+        long[] aValues = sortedValues(200);
+        aValues[130] = aValues[129] - 1;
+
+        // Then
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> DeltaEncodedLongSequence.encode(PrimitiveSequences.wrap(aValues))
+        );
+    }
+
+
+    @Test
+    public void encodeThrowsForUnsortedFirstValueInBlock()
+    {
+        // Given
+        long[] aValues = sortedValues(200);
+        aValues[64] = aValues[63] - 1;
+
+        // Then
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> DeltaEncodedLongSequence.encode(PrimitiveSequences.wrap(aValues))
+        );
+    }
+
+
+    @Test
+    public void emptySequenceHasNoValues()
+    {
+        // When
+        DeltaEncodedLongSequence aSequence =
+            DeltaEncodedLongSequence.encode(PrimitiveSequences.emptyLongSequence());
+
+        // Then
+        assertEquals(0, aSequence.size());
+        assertFalse(aSequence.iterator().hasNext());
+        assertEquals(-1, aSequence.indexOf(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(0));
+        assertThrows(NoSuchElementException.class, aSequence::min);
+        assertThrows(NoSuchElementException.class, aSequence::max);
+    }
+
+
+    @Test
+    public void valueAtReturnsTheEncodedValues()
+    {
+        int[] aValueCounts = {1, 63, 64, 65, 1000};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = sortedValues(aValueCount);
+
+            // When
+            DeltaEncodedLongSequence aSequence = encode(aValues);
+
+            // Then
+            assertEquals(aValueCount, aSequence.size());
+            for (int i=0; i<aValueCount; i++)
+                assertEquals(aValues[i], aSequence.valueAt(i));
+        }
+    }
+
+
+    @Test
+    public void valueAtThrowsForInvalidIndex()
+    {
+        // Given
+        DeltaEncodedLongSequence aSequence = encode(sortedValues(10));
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(10));
+    }
+
+
+    @Test
+    public void forEachAndIteratorReturnTheEncodedValues()
+    {
+        // Given
+        long[] aValues = sortedValues(1000);
+        DeltaEncodedLongSequence aSequence = encode(aValues);
+
+        // When
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(1000);
+        aSequence.forEach((long v) -> aBuilder.append(v));
+        PrimitiveIterator.OfLong aIterator = aSequence.iterator();
+
+        // Then
+        assertArrayEquals(aValues, aBuilder.getValues());
+        for (long aValue : aValues)
+            assertEquals(aValue, aIterator.nextLong());
+
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::nextLong);
+    }
+
+
+    @Test
+    public void forEachChunkPassesTheDecodedBlocks()
+    {
+        int[] aValueCounts = {0, 1, 64, 1000};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = sortedValues(aValueCount);
+            DeltaEncodedLongSequence aSequence = encode(aValues);
+
+            // When
+            LongSequenceBuilder aBuilder = new LongSequenceBuilder(aValueCount);
+            aSequence.forEachChunk(aBuilder::append);
+
+            // Then
+            assertArrayEquals(aValues, aBuilder.getValues());
+        }
+    }
+
+
+    @Test
+    public void extremeValuesAreEncoded()
+    {
+        // Given
+        long[] aValues =
+            {Long.MIN_VALUE, Long.MIN_VALUE, -1, 0, 1, Long.MAX_VALUE - 1, Long.MAX_VALUE};
+
+        // When
+        DeltaEncodedLongSequence aSequence = encode(aValues);
+
+        // Then
+        assertArrayEquals(aValues, aSequence.longStream().toArray());
+        assertEquals(Long.MIN_VALUE, aSequence.min());
+        assertEquals(Long.MAX_VALUE, aSequence.max());
+    }
+
+
+    @Test
+    public void indexOfReturnsTheFirstOccurrence()
+    {
+        // Given
+        long[] aValues = sortedValues(1000);
+        DeltaEncodedLongSequence aSequence = encode(aValues);
+
+        // Then
+        for (long aValue : aValues)
+            assertEquals(firstIndexOf(aValues, aValue), aSequence.indexOf(aValue));
+    }
+
+
+    @Test
+    public void indexOfFindsDuplicatesSpanningBlocks()
+    {
+        // Given
+        long[] aValues = new long[200];
+        Arrays.fill(aValues, 60, 140, 17);
+        Arrays.fill(aValues, 140, 200, 18);
+
+        // When
+        DeltaEncodedLongSequence aSequence = encode(aValues);
+
+        // Then
+        assertEquals(0, aSequence.indexOf(0));
+        assertEquals(60, aSequence.indexOf(17));
+        assertEquals(140, aSequence.indexOf(18));
+    }
+
+
+    @Test
+    public void indexOfFindsFirstValueOfBlock()
+    {
+        // Given
+        long[] aValues = new long[128];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = i < 64 ? i : i + 100;
+
+        // When
+        DeltaEncodedLongSequence aSequence = encode(aValues);
+
+        // Then
+        assertEquals(64, aSequence.indexOf(164));
+        assertEquals(63, aSequence.indexOf(63));
+    }
+
+
+    @Test
+    public void containsReturnsFalseForMissingValues()
+    {
+        // Given
+        DeltaEncodedLongSequence aSequence = encode(new long[]{10, 20, 30});
+
+        // Then
+        assertTrue(aSequence.contains(20));
+        assertFalse(aSequence.contains(9));
+        assertFalse(aSequence.contains(25));
+        assertFalse(aSequence.contains(31));
+    }
+
+
+    @Test
+    public void denseValuesAreCompressed()
+    {
+        // Given
+        long[] aValues = new long[10_000];
+        long aValue = System.currentTimeMillis();
+        for (int i=0; i<aValues.length; i++)
+        {
+            aValue += ThreadLocalRandom.current().nextInt(100);
+            aValues[i] = aValue;
+        }
+
+        // When
+        DeltaEncodedLongSequence aSequence = encode(aValues);
+
+        // Then
+        assertTrue(aSequence.getEncodedSize() < aValues.length * Long.BYTES / 4);
+    }
+
+
+    static private DeltaEncodedLongSequence encode(long[] pValues)
+    {
+        return DeltaEncodedLongSequence.encode(PrimitiveSequences.wrap(pValues));
+    }
+
+
+    static private long[] sortedValues(int pNumValues)
+    {
+        long[] aValues = randomLongValues(pNumValues);
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] >>= ThreadLocalRandom.current().nextInt(64);
+
+        Arrays.sort(aValues);
+        return aValues;
+    }
+
+
+    static private int firstIndexOf(long[] pValues, long pValue)
+    {
+        for (int i=0; i<pValues.length; i++)
+            if (pValues[i] == pValue)
+                return i;
+
+        return -1;
+    }
+}
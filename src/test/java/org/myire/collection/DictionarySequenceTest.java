@@ -0,0 +1,172 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+
+/**
+ * Unit tests for {@code DictionarySequence} and {@code DictionarySequenceBuilder}.
+ */
+public class DictionarySequenceTest extends ReferenceSequenceBaseTest
+{
+    // Appended to the random elements to make them unique.
+    private int fNextElementSuffix;
+
+
+    /**
+     * Create a sequence from an array of elements.
+     */
+    @Override
+    protected Sequence<String> createSequence(String[] pElements)
+    {
+        return new DictionarySequenceBuilder<String>(pElements.length)
+            .append(Sequences.wrap(pElements))
+            .toSequence();
+    }
+
+
+    /**
+     * Create a random element that is distinct from all other elements created by this instance.
+     * The dictionary stores one instance of each distinct element, and the base tests require the
+     * elements of a sequence to be distinct instances.
+     */
+    @Override
+    protected String randomElement()
+    {
+        return super.randomElement() + '-' + fNextElementSuffix++;
+    }
+
+
+    /**
+     * Equal elements should be stored once in the dictionary and be given the same code.
+     */
+    @Test
+    public void equalElementsHaveTheSameCode()
+    {
+        // Given
+        String[] aElements = {"SE", "NO", new String("SE"), "DK", "NO", "SE"};
+
+        // When
+        DictionarySequence<String> aSequence = createDictionarySequence(aElements);
+
+        // Then
+        assertEquals(6, aSequence.size());
+        assertEquals(Arrays.asList("SE", "NO", "DK"), aSequence.getDictionary().stream().collect(Collectors.toList()));
+        assertArrayEquals(new int[]{0, 1, 0, 2, 1, 0}, aSequence.getCodes().intStream().toArray());
+        assertSame(aElements[0], aSequence.elementAt(2));
+        assertEquals(1, aSequence.codeAt(4));
+    }
+
+
+    /**
+     * {@code codeOf} should return the code of an element, or -1 for an element not in the
+     * dictionary.
+     */
+    @Test
+    public void codeOfReturnsTheExpectedCode()
+    {
+        // Given
+        DictionarySequence<String> aSequence =
+            createDictionarySequence(new String[]{"a", "b", "a", "c"});
+
+        // Then
+        assertEquals(0, aSequence.codeOf("a"));
+        assertEquals(2, aSequence.codeOf("c"));
+        assertEquals(-1, aSequence.codeOf("d"));
+        assertEquals(-1, aSequence.codeOf(null));
+    }
+
+
+    /**
+     * {@code indexesOf} should return the positions holding an element.
+     */
+    @Test
+    public void indexesOfReturnsTheExpectedPositions()
+    {
+        // Given
+        DictionarySequence<String> aSequence =
+            createDictionarySequence(new String[]{"a", "b", "a", "c", "a"});
+
+        // Then
+        assertArrayEquals(new int[]{0, 2, 4}, aSequence.indexesOf("a").intStream().toArray());
+        assertArrayEquals(new int[]{3}, aSequence.indexesOf("c").intStream().toArray());
+        assertEquals(0, aSequence.indexesOf("x").size());
+    }
+
+
+    /**
+     * {@code countByCode} should return the number of occurrences of each dictionary element.
+     */
+    @Test
+    public void countByCodeReturnsTheExpectedCounts()
+    {
+        // Given
+        DictionarySequence<String> aSequence =
+            createDictionarySequence(new String[]{"x", "y", "x", "z", "x", "y"});
+
+        // Then
+        assertArrayEquals(new int[]{3, 2, 1}, aSequence.countByCode());
+    }
+
+
+    /**
+     * Null elements should be stored in the dictionary like any other element.
+     */
+    @Test
+    public void nullElementsAreEncoded()
+    {
+        // When
+        DictionarySequence<String> aSequence =
+            createDictionarySequence(new String[]{null, "x", null});
+
+        // Then
+        assertNull(aSequence.elementAt(2));
+        assertEquals(0, aSequence.codeOf(null));
+        assertEquals(2, aSequence.getDictionary().size());
+    }
+
+
+    /**
+     * A sequence returned by the builder should not be affected by elements appended after it was
+     * returned.
+     */
+    @Test
+    public void sequenceIsNotAffectedBySubsequentAppends()
+    {
+        // Given
+        DictionarySequenceBuilder<String> aBuilder = new DictionarySequenceBuilder<>(2);
+        aBuilder.append("a").append("b");
+
+        // When
+        DictionarySequence<String> aSequence = aBuilder.toSequence();
+        aBuilder.append("c").append("a");
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(2, aSequence.getDictionary().size());
+        assertEquals(-1, aSequence.codeOf("c"));
+        assertEquals(4, aBuilder.getLength());
+        assertEquals(3, aBuilder.getDictionarySize());
+    }
+
+
+    static private DictionarySequence<String> createDictionarySequence(String[] pElements)
+    {
+        DictionarySequenceBuilder<String> aBuilder = new DictionarySequenceBuilder<>(0);
+        for (String aElement : pElements)
+            aBuilder.append(aElement);
+
+        return aBuilder.toSequence();
+    }
+}
@@ -0,0 +1,351 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.DoubleConsumer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.myire.collection.CollectionTests.randomDoubleValues;
+
+
+/**
+ * Unit tests for {@code DoubleRingBuffer}. The buffers to test are created with values that are
+ * evicted by the values to test, which makes the values wrap around the end of the buffer.
+ */
+public class DoubleRingBufferTest extends DoubleSequenceBaseTest
+{
+    @Override
+    protected DoubleSequence createDoubleSequence(double[] pValues)
+    {
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(Math.max(pValues.length, 1));
+        for (double aValue : randomDoubleValues(pValues.length / 3))
+            aBuffer.add(aValue);
+        for (double aValue : pValues)
+            aBuffer.add(aValue);
+
+        return aBuffer;
+    }
+
+
+    @Test
+    public void constructorThrowsForNonPositiveCapacity()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new DoubleRingBuffer(0)
+        );
+    }
+
+
+    @Test
+    public void newBufferIsEmpty()
+    {
+        // When
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(4);
+
+        // Then
+        assertEquals(4, aBuffer.getCapacity());
+        assertEquals(0, aBuffer.size());
+        assertFalse(aBuffer.isFull());
+        assertEquals(0, aBuffer.sum());
+        assertThrows(NoSuchElementException.class, aBuffer::min);
+        assertThrows(NoSuchElementException.class, aBuffer::max);
+    }
+
+
+    @Test
+    public void forEachThrowsForNullActionWhenEmpty()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(4);
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> aBuffer.forEach((DoubleConsumer) null)
+        );
+    }
+
+
+    @Test
+    public void addEvictsOldestValueWhenFull()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(3);
+
+        // When
+        aBuffer.add(1);
+        aBuffer.add(2);
+        aBuffer.add(3);
+        aBuffer.add(4);
+        aBuffer.add(5);
+
+        // Then
+        assertTrue(aBuffer.isFull());
+        assertArrayEquals(new double[]{3, 4, 5}, aBuffer.doubleStream().toArray());
+        assertEquals(3, aBuffer.valueAt(0));
+        assertEquals(12, aBuffer.sum());
+        assertEquals(3, aBuffer.min());
+        assertEquals(5, aBuffer.max());
+    }
+
+
+    @Test
+    public void runningAggregatesMatchTheValuesInTheBuffer()
+    {
+        // Given
+        int aCapacity = 1 + ThreadLocalRandom.current().nextInt(50);
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(aCapacity);
+        DoubleSequence aValues = PrimitiveSequences.wrap(randomDoubleValues(aCapacity * 20));
+
+        for (int i=0; i<aValues.size(); i++)
+        {
+            // When
+            aBuffer.add(aValues.valueAt(i));
+
+            // Then
+            DoubleSequence aWindow = aValues.subSequence(Math.max(i + 1 - aCapacity, 0), i + 1);
+            assertArrayEquals(aWindow.doubleStream().toArray(), aBuffer.doubleStream().toArray());
+            assertSumEquals(aWindow, aBuffer.sum());
+            assertEquals(aWindow.min(), aBuffer.min());
+            assertEquals(aWindow.max(), aBuffer.max());
+        }
+    }
+
+
+    @Test
+    public void minAndMaxAreMaintainedForIncreasingValues()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(4);
+
+        for (int i=0; i<20; i++)
+        {
+            // When
+            aBuffer.add(i);
+
+            // Then
+            assertEquals(Math.max(i - 3, 0), aBuffer.min());
+            assertEquals(i, aBuffer.max());
+        }
+    }
+
+
+    @Test
+    public void minAndMaxAreMaintainedForDecreasingValues()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(4);
+
+        for (int i=20; i>=0; i--)
+        {
+            // When
+            aBuffer.add(i);
+
+            // Then
+            assertEquals(i, aBuffer.min());
+            assertEquals(Math.min(i + 3, 20), aBuffer.max());
+        }
+    }
+
+
+    @Test
+    public void clearRemovesAllValues()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(2);
+        aBuffer.add(1);
+        aBuffer.add(2);
+        aBuffer.add(3);
+
+        // When
+        aBuffer.clear();
+        aBuffer.add(-4);
+
+        // Then
+        assertEquals(1, aBuffer.size());
+        assertEquals(-4, aBuffer.valueAt(0));
+        assertEquals(-4, aBuffer.sum());
+        assertEquals(-4, aBuffer.min());
+        assertEquals(-4, aBuffer.max());
+    }
+
+
+    /**
+     * {@code sum()} should return the sum of all values. The buffer's compensated sum may differ
+     * slightly from the sum calculated by adding the values in index order.
+     */
+    @Test
+    @Override
+    public void sumReturnsTheSumOfAllValues()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            double[] aValues = randomDoubleValues(aValueCount);
+
+            // When
+            double aSum = createDoubleSequence(aValues).sum();
+
+            // Then
+            assertSumEquals(PrimitiveSequences.wrap(aValues), aSum);
+        }
+    }
+
+
+    @Test
+    public void sumIsCompensatedForRoundingErrors()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(4);
+        aBuffer.add(1e16);
+
+        // When
+        aBuffer.add(1);
+        aBuffer.add(1);
+        aBuffer.add(1);
+        aBuffer.add(1);
+
+        // Then
+        assertEquals(4, aBuffer.sum());
+    }
+
+
+    @Test
+    public void nanValuesAffectAggregatesUntilEvicted()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(2);
+        aBuffer.add(1);
+
+        // When
+        aBuffer.add(Double.NaN);
+
+        // Then
+        assertTrue(Double.isNaN(aBuffer.sum()));
+        assertTrue(Double.isNaN(aBuffer.min()));
+        assertTrue(Double.isNaN(aBuffer.max()));
+
+        // When
+        aBuffer.add(2);
+
+        // Then
+        assertTrue(Double.isNaN(aBuffer.sum()));
+
+        // When
+        aBuffer.add(3);
+
+        // Then
+        assertEquals(5, aBuffer.sum());
+        assertEquals(2, aBuffer.min());
+        assertEquals(3, aBuffer.max());
+    }
+
+
+    @Test
+    public void infiniteValuesAffectSumUntilEvicted()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(3);
+        aBuffer.add(Double.POSITIVE_INFINITY);
+        aBuffer.add(1);
+
+        // Then
+        assertEquals(Double.POSITIVE_INFINITY, aBuffer.sum());
+        assertEquals(1, aBuffer.min());
+        assertEquals(Double.POSITIVE_INFINITY, aBuffer.max());
+
+        // When
+        aBuffer.add(Double.NEGATIVE_INFINITY);
+
+        // Then
+        assertTrue(Double.isNaN(aBuffer.sum()));
+        assertEquals(Double.NEGATIVE_INFINITY, aBuffer.min());
+
+        // When
+        aBuffer.add(2);
+
+        // Then
+        assertEquals(Double.NEGATIVE_INFINITY, aBuffer.sum());
+        assertEquals(Double.NEGATIVE_INFINITY, aBuffer.min());
+        assertEquals(2, aBuffer.max());
+
+        // When
+        aBuffer.add(3);
+        aBuffer.add(4);
+
+        // Then
+        assertEquals(9, aBuffer.sum());
+        assertEquals(2, aBuffer.min());
+    }
+
+
+    @Test
+    public void sumIsRecalculatedAfterOverflow()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(2);
+        aBuffer.add(Double.MAX_VALUE);
+
+        // When
+        aBuffer.add(Double.MAX_VALUE);
+
+        // Then
+        assertEquals(Double.POSITIVE_INFINITY, aBuffer.sum());
+
+        // When
+        aBuffer.add(-Double.MAX_VALUE);
+
+        // Then
+        assertEquals(0, aBuffer.sum());
+
+        // When
+        aBuffer.add(1);
+
+        // Then
+        assertEquals(1 - Double.MAX_VALUE, aBuffer.sum());
+    }
+
+
+    @Test
+    public void minAndMaxDistinguishNegativeZero()
+    {
+        // Given
+        DoubleRingBuffer aBuffer = new DoubleRingBuffer(2);
+
+        // When
+        aBuffer.add(0.0);
+        aBuffer.add(-0.0);
+
+        // Then
+        assertEquals(-0.0, aBuffer.min());
+        assertEquals(0.0, aBuffer.max());
+    }
+
+
+    static private void assertSumEquals(DoubleSequence pValues, double pActualSum)
+    {
+        double aExpectedSum = 0;
+        double aAbsoluteSum = 0;
+        int aSize = pValues.size();
+        for (int i=0; i<aSize; i++)
+        {
+            aExpectedSum += pValues.valueAt(i);
+            aAbsoluteSum += Math.abs(pValues.valueAt(i));
+        }
+
+        assertEquals(aExpectedSum, pActualSum, aAbsoluteSum * 1e-12);
+    }
+}
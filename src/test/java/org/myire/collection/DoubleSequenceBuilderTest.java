@@ -0,0 +1,259 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.myire.collection.CollectionTests.randomDoubleValues;
+
+
+/**
+ * Unit tests for {@code DoubleSequenceBuilder}. The sequences returned by
+ * {@link DoubleSequenceBuilder#toSequence()} are tested through the {@code DoubleSequenceBaseTest}
+ * tests.
+ */
+public class DoubleSequenceBuilderTest extends DoubleSequenceBaseTest
+{
+    @Override
+    protected DoubleSequence createDoubleSequence(double[] pValues)
+    {
+        return new DoubleSequenceBuilder(0).append(pValues).toSequence();
+    }
+
+
+    @Test
+    public void constructorThrowsForNegativeInitialCapacity()
+    {
+        assertThrows(
+            NegativeArraySizeException.class,
+            () -> new DoubleSequenceBuilder(-1)
+        );
+    }
+
+
+    @Test
+    public void getLengthReturnsZeroForNewInstance()
+    {
+        assertEquals(0, new DoubleSequenceBuilder(8).getLength());
+    }
+
+
+    @Test
+    public void getLengthReturnsTheNumberOfAppendedValues()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(8);
+
+        // When
+        aBuilder.append(17).append(new double[]{1, 2, 3}).append(new double[]{4, 5, 6}, 1, 1);
+
+        // Then
+        assertEquals(5, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void appendReturnsThis()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(8);
+
+        // Then
+        assertSame(aBuilder, aBuilder.append(1));
+        assertSame(aBuilder, aBuilder.append(new double[]{1}));
+        assertSame(aBuilder, aBuilder.append(new double[]{1}, 0, 1));
+        assertSame(aBuilder, aBuilder.append(PrimitiveSequences.singleton(1.0)));
+    }
+
+
+    @Test
+    public void appendBeyondInitialCapacityExpandsBuffer()
+    {
+        // Given
+        double[] aValues = randomDoubleValues(1000);
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(0);
+
+        // When
+        for (double aValue : aValues)
+            aBuilder.append(aValue);
+
+        // Then
+        assertArrayEquals(aValues, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void appendArrayRangeAppendsTheExpectedValues()
+    {
+        // Given
+        double[] aValues = randomDoubleValues(100);
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(4);
+
+        // When
+        aBuilder.append(aValues, 10, 50);
+
+        // Then
+        double[] aExpected = new double[50];
+        System.arraycopy(aValues, 10, aExpected, 0, 50);
+        assertArrayEquals(aExpected, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void appendArrayRangeThrowsForInvalidRange()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(4);
+        double[] aValues = new double[4];
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, -1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, 0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, 3, 2));
+        assertEquals(0, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void appendNullArrayThrows()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(4);
+
+        // Then
+        assertThrows(NullPointerException.class, () -> aBuilder.append((double[]) null));
+    }
+
+
+    @Test
+    public void appendSequenceAppendsAllValues()
+    {
+        // Given
+        double[] aValues = randomDoubleValues(100);
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(4).append(17);
+
+        // When
+        aBuilder.append(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertEquals(101, aBuilder.getLength());
+        assertEquals(17, aBuilder.toSequence().valueAt(0));
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i + 1));
+    }
+
+
+    @Test
+    public void appendOwnSequenceAppendsValuesAgain()
+    {
+        // Given
+        double[] aValues = randomDoubleValues(10);
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(32).append(aValues);
+
+        // When
+        aBuilder.append(aBuilder.toSequence());
+
+        // Then
+        assertEquals(20, aBuilder.getLength());
+        for (int i=0; i<aValues.length; i++)
+        {
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i));
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i + 10));
+        }
+    }
+
+
+    @Test
+    public void resetSetsLengthToZero()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(8).append(new double[]{1, 2, 3});
+
+        // When
+        DoubleSequenceBuilder aReturned = aBuilder.reset();
+
+        // Then
+        assertSame(aBuilder, aReturned);
+        assertEquals(0, aBuilder.getLength());
+        assertEquals(0, aBuilder.getValues().length);
+    }
+
+
+    @Test
+    public void resetWithMaxCapacitySetsLengthToZero()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(1024).append(new double[]{1, 2, 3});
+
+        // When
+        aBuilder.reset(8).append(4);
+
+        // Then
+        assertArrayEquals(new double[]{4}, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void resetWithNegativeMaxCapacityThrows()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(8);
+
+        // Then
+        assertThrows(NegativeArraySizeException.class, () -> aBuilder.reset(-1));
+    }
+
+
+    @Test
+    public void toSequenceIsNotAffectedByLaterAppends()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(16).append(new double[]{1, 2, 3});
+
+        // When
+        DoubleSequence aSequence = aBuilder.toSequence();
+        aBuilder.append(4);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        assertArrayEquals(new double[]{1, 2, 3}, aSequence.doubleStream().toArray());
+    }
+
+
+    @Test
+    public void toSequenceIsNotAffectedByReset()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(16).append(new double[]{1, 2, 3});
+
+        // When
+        DoubleSequence aSequence = aBuilder.toSequence();
+        aBuilder.reset().append(new double[]{7, 8, 9, 10});
+
+        // Then
+        assertArrayEquals(new double[]{1, 2, 3}, aSequence.doubleStream().toArray());
+        assertArrayEquals(new double[]{7, 8, 9, 10}, aBuilder.toSequence().doubleStream().toArray());
+    }
+
+
+    @Test
+    public void getValuesReturnsCopy()
+    {
+        // Given
+        DoubleSequenceBuilder aBuilder = new DoubleSequenceBuilder(16).append(new double[]{1, 2});
+
+        // When
+        double[] aValues = aBuilder.getValues();
+        aValues[0] = 17;
+
+        // Then
+        assertArrayEquals(new double[]{1, 2}, aBuilder.getValues());
+    }
+}
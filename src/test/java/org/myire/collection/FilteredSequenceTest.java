@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for the {@code Sequence} implementation returned by
+ * {@link Sequences#filter(Sequence, Predicate)}.
+ */
+public class FilteredSequenceTest extends ReferenceSequenceBaseTest
+{
+    @Override
+    protected Sequence<String> createSequence(String[] pElements)
+    {
+        // Interleave the elements with nulls that are filtered out.
+        String[] aElements = new String[pElements.length * 2 + 1];
+        int aIndex = 0;
+        for (String aElement : pElements)
+        {
+            if (ThreadLocalRandom.current().nextBoolean())
+                aIndex++;
+
+            aElements[aIndex++] = aElement;
+        }
+
+        return Sequences.filter(Sequences.wrap(aElements), Objects::nonNull);
+    }
+
+
+    /**
+     * Calling {@code Sequences.filter} should throw a {@code NullPointerException} when passed
+     * {@code null} as any of the arguments.
+     */
+    @Test
+    public void filterThrowsForNullArguments()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.filter(null, Objects::nonNull)
+        );
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.filter(Sequences.emptySequence(), null)
+        );
+    }
+
+
+    /**
+     * The predicate should not be evaluated until the filtered sequence is accessed, and then only
+     * once for each element.
+     */
+    @Test
+    public void predicateIsEvaluatedOnceOnFirstUse()
+    {
+        // Given
+        AtomicInteger aNumCalls = new AtomicInteger();
+        Sequence<String> aSequence = Sequences.wrap(Arrays.asList("a", "bb", "c", "dd"));
+
+        // When
+        Sequence<String> aFiltered = Sequences.filter(
+            aSequence,
+            s -> aNumCalls.incrementAndGet() > 0 && s.length() == 2);
+
+        // Then
+        assertEquals(0, aNumCalls.get());
+        assertEquals(2, aFiltered.size());
+        assertEquals("bb", aFiltered.elementAt(0));
+        assertEquals("dd", aFiltered.elementAt(1));
+        aFiltered.forEach(s -> {});
+        assertEquals(4, aNumCalls.get());
+    }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the {@code FloatSequence} implementations created by {@code CompactSequences}.
+ */
+public class FloatSequenceTest
+{
+    @Test
+    public void emptySequenceHasNoValues()
+    {
+        // When
+        FloatSequence aSequence = CompactSequences.emptyFloatSequence();
+
+        // Then
+        assertEquals(0, aSequence.size());
+        assertFalse(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(0));
+        assertSame(aSequence, CompactSequences.emptyFloatSequence());
+    }
+
+
+    @Test
+    public void singletonContainsTheValue()
+    {
+        // When
+        FloatSequence aSequence = CompactSequences.singleton(-17.5f);
+
+        // Then
+        assertEquals(1, aSequence.size());
+        assertEquals(-17.5f, aSequence.valueAt(0));
+        assertEquals(Float.valueOf(-17.5f), aSequence.elementAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void wrapReturnsSequenceBackedByArray()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+
+        // When
+        FloatSequence aSequence = CompactSequences.wrap(aValues);
+        aValues[1] = 99.25f;
+
+        // Then
+        assertEquals(aValues.length, aSequence.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aSequence.valueAt(i));
+    }
+
+
+    @Test
+    public void wrapRangeReturnsTheValuesInTheRange()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+
+        // When
+        FloatSequence aSequence = CompactSequences.wrap(aValues, 1, 3);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        for (int i=0; i<3; i++)
+            assertEquals(aValues[i + 1], aSequence.valueAt(i));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(3));
+    }
+
+
+    @Test
+    public void wrapThrowsForNullArray()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompactSequences.wrap((float[]) null)
+        );
+    }
+
+
+    @Test
+    public void wrapThrowsForInvalidRange()
+    {
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> CompactSequences.wrap(new float[2], 1, 2)
+        );
+    }
+
+
+    @Test
+    public void forEachPassesAllValuesInOrder()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+        List<Float> aPassed = new ArrayList<>();
+
+        // When
+        CompactSequences.wrap(aValues).forEach((float v) -> aPassed.add(Float.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length, aPassed.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(Float.valueOf(aValues[i]), aPassed.get(i));
+    }
+
+
+    @Test
+    public void iteratorReturnsAllValuesInOrder()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+
+        // When
+        FloatIterator aIterator = CompactSequences.wrap(aValues).iterator();
+
+        // Then
+        assertEquals(Float.valueOf(aValues[0]), aIterator.next());
+        for (int i=1; i<aValues.length; i++)
+            assertEquals(aValues[i], aIterator.nextFloat());
+
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::nextFloat);
+    }
+
+
+    @Test
+    public void forEachRemainingPassesTheRemainingValues()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+        FloatIterator aIterator = CompactSequences.wrap(aValues).iterator();
+        aIterator.nextFloat();
+        List<Float> aPassed = new ArrayList<>();
+
+        // When
+        aIterator.forEachRemaining((float v) -> aPassed.add(Float.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length - 1, aPassed.size());
+        assertEquals(Float.valueOf(aValues[aValues.length - 1]), aPassed.get(aValues.length - 2));
+    }
+
+
+    @Test
+    public void subSequenceContainsTheValuesInTheRange()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+
+        // When
+        FloatSequence aSequence = CompactSequences.wrap(aValues)
+            .subSequence(1, 4)
+            .subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void subSequenceOfViewContainsTheValuesInTheRange()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+        FloatSequence aView = CompactSequences.subSequence(CompactSequences.wrap(aValues), 1, 5);
+
+        // When
+        FloatSequence aSequence = aView.subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+        assertTrue(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(2));
+    }
+
+
+    @Test
+    public void subSequenceThrowsForInvalidRange()
+    {
+        // Given
+        float[] aValues = new float[]{1.5f, -2, Float.NaN, Float.MIN_VALUE, Float.MAX_VALUE};
+        FloatSequence aSequence = CompactSequences.wrap(aValues);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(0, 6));
+    }
+}
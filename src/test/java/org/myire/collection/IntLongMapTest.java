@@ -0,0 +1,237 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@code IntLongMap}.
+ */
+public class IntLongMapTest
+{
+    @Test
+    public void newInstanceIsEmpty()
+    {
+        // When
+        IntLongMap aMap = new IntLongMap();
+
+        // Then
+        assertEquals(0, aMap.size());
+        assertTrue(aMap.isEmpty());
+        assertEquals(0, aMap.keys().size());
+        assertEquals(0, aMap.values().size());
+    }
+
+
+    @Test
+    public void constructorThrowsForNegativeExpectedSize()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new IntLongMap(-1)
+        );
+    }
+
+
+    @Test
+    public void constructorThrowsForInvalidLoadFactor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new IntLongMap(8, 0f));
+        assertThrows(IllegalArgumentException.class, () -> new IntLongMap(8, 1f));
+        assertThrows(IllegalArgumentException.class, () -> new IntLongMap(8, Float.NaN));
+    }
+
+
+    @Test
+    public void putAddsNewKey()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap();
+
+        // When
+        boolean aIsNew = aMap.put(42, 17L);
+
+        // Then
+        assertTrue(aIsNew);
+        assertEquals(1, aMap.size());
+        assertTrue(aMap.containsKey(42));
+        assertEquals(17L, aMap.get(42, -1L));
+    }
+
+
+    @Test
+    public void putReplacesValueOfExistingKey()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap();
+        aMap.put(42, 17L);
+
+        // When
+        boolean aIsNew = aMap.put(42, 4711L);
+
+        // Then
+        assertFalse(aIsNew);
+        assertEquals(1, aMap.size());
+        assertEquals(4711L, aMap.get(42, -1L));
+    }
+
+
+    @Test
+    public void zeroKeyCanBeMapped()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap();
+
+        // When
+        aMap.put(0, 17L);
+
+        // Then
+        assertEquals(1, aMap.size());
+        assertTrue(aMap.containsKey(0));
+        assertEquals(17L, aMap.get(0, -1L));
+        assertEquals(0, aMap.keys().valueAt(0));
+
+        // When
+        assertTrue(aMap.remove(0));
+
+        // Then
+        assertFalse(aMap.containsKey(0));
+        assertTrue(aMap.isEmpty());
+    }
+
+
+    @Test
+    public void getReturnsAbsentValueForMissingKey()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap();
+        aMap.put(42, 17L);
+
+        // Then
+        assertEquals(-1L, aMap.get(43, -1L));
+        assertEquals(-1L, aMap.get(0, -1L));
+    }
+
+
+    @Test
+    public void removeReturnsFalseForMissingKey()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap();
+        aMap.put(42, 17L);
+
+        // Then
+        assertFalse(aMap.remove(43));
+        assertFalse(aMap.remove(0));
+        assertEquals(1, aMap.size());
+    }
+
+
+    @Test
+    public void clearRemovesAllKeys()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap();
+        for (int i=0; i<100; i++)
+            aMap.put(i, i * 2L);
+
+        // When
+        aMap.clear();
+
+        // Then
+        assertTrue(aMap.isEmpty());
+        for (int i=0; i<100; i++)
+            assertFalse(aMap.containsKey(i));
+    }
+
+
+    @Test
+    public void keysAndValuesAreSnapshotsInTheSameOrder()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap(4);
+        for (int i=0; i<100; i++)
+            aMap.put(i * 3, i * 2L);
+
+        // When
+        IntSequence aKeys = aMap.keys();
+        LongSequence aValues = aMap.values();
+        aMap.clear();
+
+        // Then
+        assertEquals(100, aKeys.size());
+        assertEquals(100, aValues.size());
+        for (int i=0; i<aKeys.size(); i++)
+        {
+            int aKey = aKeys.valueAt(i);
+            assertEquals(0, aKey % 3);
+            int aKeyIndex = aKey / 3;
+            assertEquals(aKeyIndex * 2L, aValues.valueAt(i));
+        }
+    }
+
+
+    @Test
+    public void keysWithCollidingLowBitsAreHandled()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap();
+
+        // When
+        for (int i=1; i<=1000; i++)
+            aMap.put(i << 16, i * 2L);
+
+        // Then
+        assertEquals(1000, aMap.size());
+        for (int i=1; i<=1000; i++)
+            assertEquals(i * 2L, aMap.get(i << 16, -1L));
+    }
+
+
+    /**
+     * Random puts and removes should give the same result as the same operations on a
+     * {@code HashMap}, which exercises expansion and the backward shift on removal.
+     */
+    @Test
+    public void randomOperationsMatchHashMap()
+    {
+        // Given
+        IntLongMap aMap = new IntLongMap(2, 0.9f);
+        Map<Integer, Long> aExpected = new HashMap<>();
+        ThreadLocalRandom aRandom = ThreadLocalRandom.current();
+
+        // When
+        for (int i=0; i<20_000; i++)
+        {
+            int aKey = aRandom.nextInt(-500, 500);
+            if (aRandom.nextInt(3) == 0)
+                assertEquals(aExpected.remove(aKey) != null, aMap.remove(aKey));
+            else
+            {
+                long aValue = aRandom.nextLong();
+                assertEquals(aExpected.put(aKey, aValue) == null, aMap.put(aKey, aValue));
+            }
+        }
+
+        // Then
+        assertEquals(aExpected.size(), aMap.size());
+        for (int aKey=-500; aKey<500; aKey++)
+        {
+            assertEquals(aExpected.containsKey(aKey), aMap.containsKey(aKey));
+            if (aExpected.containsKey(aKey))
+                assertEquals(aExpected.get(aKey), aMap.get(aKey, -1L));
+        }
+    }
+}
@@ -0,0 +1,68 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.function.ToIntFunction;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for the {@code IntSequence} implementation returned by
+ * {@link Sequences#mapToInt(Sequence, ToIntFunction)}.
+ */
+public class IntMappedSequenceTest extends IntSequenceBaseTest
+{
+    @Override
+    protected IntSequence createIntSequence(int[] pValues)
+    {
+        // Map a sequence of the values' string representations back to the values.
+        String[] aStrings = new String[pValues.length];
+        for (int i=0; i<aStrings.length; i++)
+            aStrings[i] = String.valueOf(pValues[i]);
+
+        return Sequences.mapToInt(Sequences.wrap(aStrings), Integer::parseInt);
+    }
+
+
+    /**
+     * Calling {@code Sequences.mapToInt} should throw a {@code NullPointerException} when passed
+     * {@code null} as any of the arguments.
+     */
+    @Test
+    public void mapToIntThrowsForNullArguments()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.mapToInt(null, Object::hashCode)
+        );
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.mapToInt(Sequences.emptySequence(), null)
+        );
+    }
+
+
+    /**
+     * A mapped sequence should reflect changes to the underlying sequence.
+     */
+    @Test
+    public void mappedSequenceReflectsChangesInUnderlyingSequence()
+    {
+        // Given
+        String[] aElements = {"x", "y"};
+        IntSequence aMapped = Sequences.mapToInt(Sequences.wrap(aElements), String::length);
+
+        // When
+        aElements[0] = "xxxx";
+
+        // Then
+        assertEquals(4, aMapped.valueAt(0));
+        assertEquals(5, aMapped.sum());
+    }
+}
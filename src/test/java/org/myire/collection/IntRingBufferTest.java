@@ -0,0 +1,183 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.myire.collection.CollectionTests.randomIntValues;
+
+
+/**
+ * Unit tests for {@code IntRingBuffer}. The buffers to test are created with values that are
+ * evicted by the values to test, which makes the values wrap around the end of the buffer.
+ */
+public class IntRingBufferTest extends IntSequenceBaseTest
+{
+    @Override
+    protected IntSequence createIntSequence(int[] pValues)
+    {
+        IntRingBuffer aBuffer = new IntRingBuffer(Math.max(pValues.length, 1));
+        for (int aValue : randomIntValues(pValues.length / 3))
+            aBuffer.add(aValue);
+        for (int aValue : pValues)
+            aBuffer.add(aValue);
+
+        return aBuffer;
+    }
+
+
+    @Test
+    public void constructorThrowsForNonPositiveCapacity()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new IntRingBuffer(0)
+        );
+    }
+
+
+    @Test
+    public void newBufferIsEmpty()
+    {
+        // When
+        IntRingBuffer aBuffer = new IntRingBuffer(4);
+
+        // Then
+        assertEquals(4, aBuffer.getCapacity());
+        assertEquals(0, aBuffer.size());
+        assertFalse(aBuffer.isFull());
+        assertEquals(0, aBuffer.sum());
+        assertThrows(NoSuchElementException.class, aBuffer::min);
+        assertThrows(NoSuchElementException.class, aBuffer::max);
+    }
+
+
+    @Test
+    public void forEachThrowsForNullActionWhenEmpty()
+    {
+        // Given
+        IntRingBuffer aBuffer = new IntRingBuffer(4);
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> aBuffer.forEach((IntConsumer) null)
+        );
+    }
+
+
+    @Test
+    public void addEvictsOldestValueWhenFull()
+    {
+        // Given
+        IntRingBuffer aBuffer = new IntRingBuffer(3);
+
+        // When
+        aBuffer.add(1);
+        aBuffer.add(2);
+        aBuffer.add(3);
+        aBuffer.add(4);
+        aBuffer.add(5);
+
+        // Then
+        assertTrue(aBuffer.isFull());
+        assertArrayEquals(new int[]{3, 4, 5}, aBuffer.intStream().toArray());
+        assertEquals(3, aBuffer.valueAt(0));
+        assertEquals(12, aBuffer.sum());
+        assertEquals(3, aBuffer.min());
+        assertEquals(5, aBuffer.max());
+    }
+
+
+    @Test
+    public void runningAggregatesMatchTheValuesInTheBuffer()
+    {
+        // Given
+        int aCapacity = 1 + ThreadLocalRandom.current().nextInt(50);
+        IntRingBuffer aBuffer = new IntRingBuffer(aCapacity);
+        IntSequence aValues = PrimitiveSequences.wrap(randomIntValues(aCapacity * 20));
+
+        for (int i=0; i<aValues.size(); i++)
+        {
+            // When
+            aBuffer.add(aValues.valueAt(i));
+
+            // Then
+            IntSequence aWindow = aValues.subSequence(Math.max(i + 1 - aCapacity, 0), i + 1);
+            assertArrayEquals(aWindow.intStream().toArray(), aBuffer.intStream().toArray());
+            assertEquals(aWindow.sum(), aBuffer.sum());
+            assertEquals(aWindow.min(), aBuffer.min());
+            assertEquals(aWindow.max(), aBuffer.max());
+        }
+    }
+
+
+    @Test
+    public void minAndMaxAreMaintainedForIncreasingValues()
+    {
+        // Given
+        IntRingBuffer aBuffer = new IntRingBuffer(4);
+
+        for (int i=0; i<20; i++)
+        {
+            // When
+            aBuffer.add(i);
+
+            // Then
+            assertEquals(Math.max(i - 3, 0), aBuffer.min());
+            assertEquals(i, aBuffer.max());
+        }
+    }
+
+
+    @Test
+    public void minAndMaxAreMaintainedForDecreasingValues()
+    {
+        // Given
+        IntRingBuffer aBuffer = new IntRingBuffer(4);
+
+        for (int i=20; i>=0; i--)
+        {
+            // When
+            aBuffer.add(i);
+
+            // Then
+            assertEquals(i, aBuffer.min());
+            assertEquals(Math.min(i + 3, 20), aBuffer.max());
+        }
+    }
+
+
+    @Test
+    public void clearRemovesAllValues()
+    {
+        // Given
+        IntRingBuffer aBuffer = new IntRingBuffer(2);
+        aBuffer.add(1);
+        aBuffer.add(2);
+        aBuffer.add(3);
+
+        // When
+        aBuffer.clear();
+        aBuffer.add(-4);
+
+        // Then
+        assertEquals(1, aBuffer.size());
+        assertEquals(-4, aBuffer.valueAt(0));
+        assertEquals(-4, aBuffer.sum());
+        assertEquals(-4, aBuffer.min());
+        assertEquals(-4, aBuffer.max());
+    }
+}
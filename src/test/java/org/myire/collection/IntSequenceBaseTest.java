@@ -1,23 +1,29 @@
 /*
- * Copyright 2022 Peter Franzen. All rights reserved.
+ * Copyright 2022-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
 package org.myire.collection;
 
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 import java.util.PrimitiveIterator;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.IntConsumer;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import org.myire.util.IntArrayConsumer;
+
 import static org.myire.collection.CollectionTests.randomIntegerInstance;
 import static org.myire.collection.CollectionTests.randomIntValues;
 
@@ -154,6 +160,62 @@ abstract public class IntSequenceBaseTest extends PrimitiveSequenceBaseTest<Inte
     }
 
 
+    /**
+     * {@code forEachChunk()} should pass all values in the sequence to the action, in order.
+     */
+    @Test
+    public void forEachChunkPassesAllValuesToAction()
+    {
+        int[] aValueCounts = {1, randomCollectionLength(), 1000};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            int[] aValues = randomIntValues(aValueCount);
+            IntSequenceBuilder aBuilder = new IntSequenceBuilder(aValueCount);
+
+            // When
+            createIntSequence(aValues).forEachChunk(aBuilder::append);
+
+            // Then
+            assertArrayEquals(aValues, aBuilder.toSequence().intStream().toArray());
+        }
+    }
+
+
+    /**
+     * {@code forEachChunk()} should not invoke the action for an empty sequence.
+     */
+    @Test
+    public void forEachChunkDoesNotInvokeActionForEmptySequence()
+    {
+        // Given
+        IntArrayConsumer aAction = mock(IntArrayConsumer.class);
+
+        // When
+        createIntSequence(new int[0]).forEachChunk(aAction);
+
+        // Then
+        verifyNoInteractions(aAction);
+    }
+
+
+    /**
+     * {@code forEachChunk()} should throw a {@code NullPointerException} for a null action.
+     */
+    @Test
+    public void forEachChunkThrowsForNullAction()
+    {
+        // Given
+        IntSequence aSequence = createIntSequence(randomIntValues(1));
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> aSequence.forEachChunk(null)
+        );
+    }
+
+
     /**
      * A sequence should return an iterator that iterates over the sequence's elements in the same
      * order as the elements are returned by {@code valueAt()}.
@@ -175,4 +237,232 @@ abstract public class IntSequenceBaseTest extends PrimitiveSequenceBaseTest<Inte
                 assertEquals(aSequence.valueAt(i), aIterator.nextInt());
         }
     }
+
+
+    /**
+     * A sequence's {@code int}-specialized stream should contain the sequence's values in the same
+     * order as they are returned by {@code valueAt()}.
+     */
+    @Test
+    public void intStreamContainsAllValues()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            int[] aValues = randomIntValues(aValueCount);
+
+            // When
+            int[] aStreamed = createIntSequence(aValues).intStream().toArray();
+
+            // Then
+            assertArrayEquals(aValues, aStreamed);
+        }
+    }
+
+
+    /**
+     * A reduction over a sequence's parallel {@code int}-specialized stream should include all
+     * values in the sequence.
+     */
+    @Test
+    public void parallelIntStreamReducesAllValues()
+    {
+        // Given
+        int[] aValues = randomIntValues(randomCollectionLength() * 64);
+        IntSequence aSequence = createIntSequence(aValues);
+
+        // When
+        long aSum = aSequence.intStream().parallel().asLongStream().sum();
+
+        // Then
+        assertEquals(Arrays.stream(aValues).asLongStream().sum(), aSum);
+    }
+
+    /**
+     * The values of a sub-sequence should be the values in the specified range of the sequence,
+     * also when accessed through the {@code int}-specialized methods.
+     */
+    @Test
+    public void subSequenceContainsTheValuesInTheRange()
+    {
+        // Given
+        int[] aValues = randomIntValues(randomCollectionLength() + 2);
+        IntSequence aSequence = createIntSequence(aValues);
+        int aFrom = ThreadLocalRandom.current().nextInt(aValues.length);
+        int aTo = ThreadLocalRandom.current().nextInt(aFrom, aValues.length + 1);
+
+        // When
+        IntSequence aSubSequence = aSequence.subSequence(aFrom, aTo);
+
+        // Then
+        assertArrayEquals(
+            Arrays.copyOfRange(aValues, aFrom, aTo),
+            aSubSequence.intStream().toArray());
+        PrimitiveIterator.OfInt aIterator = aSubSequence.iterator();
+        for (int i=aFrom; i<aTo; i++)
+            assertEquals(aValues[i], aIterator.nextInt());
+    }
+
+    /**
+     * {@code sum()} should return the sum of all values in the sequence.
+     */
+    @Test
+    public void sumReturnsTheSumOfAllValues()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            int[] aValues = randomIntValues(aValueCount);
+
+            // When
+            long aSum = createIntSequence(aValues).sum();
+
+            // Then
+            assertEquals(Arrays.stream(aValues).asLongStream().sum(), aSum);
+        }
+    }
+
+
+    /**
+     * {@code min()} and {@code max()} should return the smallest and largest values in the
+     * sequence.
+     */
+    @Test
+    public void minAndMaxReturnTheExpectedValues()
+    {
+        int[] aValueCounts = {1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            int[] aValues = randomIntValues(aValueCount);
+
+            // When
+            IntSequence aSequence = createIntSequence(aValues);
+
+            // Then
+            assertEquals(Arrays.stream(aValues).min().getAsInt(), aSequence.min());
+            assertEquals(Arrays.stream(aValues).max().getAsInt(), aSequence.max());
+        }
+    }
+
+
+    /**
+     * {@code min()} and {@code max()} should throw a {@code NoSuchElementException} for an empty
+     * sequence.
+     */
+    @Test
+    public void minAndMaxThrowForEmptySequence()
+    {
+        // Given
+        IntSequence aSequence = createIntSequence(new int[0]);
+
+        // Then
+        assertThrows(NoSuchElementException.class, aSequence::min);
+        assertThrows(NoSuchElementException.class, aSequence::max);
+    }
+
+
+    /**
+     * {@code count()} should return the number of values that match the predicate.
+     */
+    @Test
+    public void countReturnsTheNumberOfMatchingValues()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            int[] aValues = randomIntValues(aValueCount);
+
+            // When
+            int aCount = createIntSequence(aValues).count(v -> v > 0);
+
+            // Then
+            assertEquals(Arrays.stream(aValues).filter(v -> v > 0).count(), aCount);
+        }
+    }
+
+
+    /**
+     * {@code indexOf()} should return the index of the first occurrence of a value, and -1 for a
+     * value not in the sequence.
+     */
+    @Test
+    public void indexOfReturnsTheIndexOfTheFirstOccurrence()
+    {
+        // Given
+        int[] aValues = {3, 1, 4, 1, 5};
+        IntSequence aSequence = createIntSequence(aValues);
+
+        // Then
+        assertEquals(0, aSequence.indexOf(3));
+        assertEquals(1, aSequence.indexOf(1));
+        assertEquals(4, aSequence.indexOf(5));
+        assertEquals(-1, aSequence.indexOf(2));
+    }
+
+
+    /**
+     * {@code dot()} should return the dot product of two sequences of the same size, both when the
+     * other sequence is of the same type and when it isn't.
+     */
+    @Test
+    public void dotReturnsTheDotProduct()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            int[] aValues = randomIntValues(aValueCount);
+            int[] aOther = randomIntValues(aValueCount);
+            long aExpected = 0;
+            for (int i=0; i<aValueCount; i++)
+                aExpected += (long) aValues[i] * aOther[i];
+
+            // When
+            IntSequence aSequence = createIntSequence(aValues);
+
+            // Then
+            assertEquals(aExpected, aSequence.dot(createIntSequence(aOther)));
+            assertEquals(aExpected, aSequence.dot(PrimitiveSequences.wrap(aOther)));
+        }
+    }
+
+
+    /**
+     * {@code dot()} should silently overflow when the sum of the products doesn't fit in a
+     * {@code long}, both when the other sequence is of the same type and when it isn't.
+     */
+    @Test
+    public void dotOverflowsForExtremeValues()
+    {
+        // Given
+        int[] aValues = {Integer.MIN_VALUE, Integer.MIN_VALUE};
+        IntSequence aSequence = createIntSequence(aValues);
+
+        // Then (2 * 2^62 wraps to -2^63)
+        assertEquals(Long.MIN_VALUE, aSequence.dot(createIntSequence(aValues)));
+        assertEquals(Long.MIN_VALUE, aSequence.dot(PrimitiveSequences.wrap(aValues)));
+    }
+
+
+    /**
+     * {@code dot()} should throw an {@code IllegalArgumentException} if the sequences have
+     * different sizes.
+     */
+    @Test
+    public void dotThrowsForDifferentSizes()
+    {
+        // Given
+        IntSequence aSequence = createIntSequence(randomIntValues(3));
+        IntSequence aOther = createIntSequence(randomIntValues(2));
+
+        // Then
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> aSequence.dot(aOther)
+        );
+    }
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.myire.collection.CollectionTests.randomIntValues;
+
+
+/**
+ * Unit tests for {@code IntSequenceBuilder}. The sequences returned by
+ * {@link IntSequenceBuilder#toSequence()} are tested through the {@code IntSequenceBaseTest}
+ * tests.
+ */
+public class IntSequenceBuilderTest extends IntSequenceBaseTest
+{
+    @Override
+    protected IntSequence createIntSequence(int[] pValues)
+    {
+        return new IntSequenceBuilder(0).append(pValues).toSequence();
+    }
+
+
+    @Test
+    public void constructorThrowsForNegativeInitialCapacity()
+    {
+        assertThrows(
+            NegativeArraySizeException.class,
+            () -> new IntSequenceBuilder(-1)
+        );
+    }
+
+
+    @Test
+    public void getLengthReturnsZeroForNewInstance()
+    {
+        assertEquals(0, new IntSequenceBuilder(8).getLength());
+    }
+
+
+    @Test
+    public void getLengthReturnsTheNumberOfAppendedValues()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(8);
+
+        // When
+        aBuilder.append(17).append(new int[]{1, 2, 3}).append(new int[]{4, 5, 6}, 1, 1);
+
+        // Then
+        assertEquals(5, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void appendReturnsThis()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(8);
+
+        // Then
+        assertSame(aBuilder, aBuilder.append(1));
+        assertSame(aBuilder, aBuilder.append(new int[]{1}));
+        assertSame(aBuilder, aBuilder.append(new int[]{1}, 0, 1));
+        assertSame(aBuilder, aBuilder.append(PrimitiveSequences.singleton(1)));
+    }
+
+
+    @Test
+    public void appendBeyondInitialCapacityExpandsBuffer()
+    {
+        // Given
+        int[] aValues = randomIntValues(1000);
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(0);
+
+        // When
+        for (int aValue : aValues)
+            aBuilder.append(aValue);
+
+        // Then
+        assertArrayEquals(aValues, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void appendArrayRangeAppendsTheExpectedValues()
+    {
+        // Given
+        int[] aValues = randomIntValues(100);
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(4);
+
+        // When
+        aBuilder.append(aValues, 10, 50);
+
+        // Then
+        int[] aExpected = new int[50];
+        System.arraycopy(aValues, 10, aExpected, 0, 50);
+        assertArrayEquals(aExpected, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void appendArrayRangeThrowsForInvalidRange()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(4);
+        int[] aValues = new int[4];
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, -1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, 0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, 3, 2));
+        assertEquals(0, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void appendNullArrayThrows()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(4);
+
+        // Then
+        assertThrows(NullPointerException.class, () -> aBuilder.append((int[]) null));
+    }
+
+
+    @Test
+    public void appendSequenceAppendsAllValues()
+    {
+        // Given
+        int[] aValues = randomIntValues(100);
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(4).append(17);
+
+        // When
+        aBuilder.append(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertEquals(101, aBuilder.getLength());
+        assertEquals(17, aBuilder.toSequence().valueAt(0));
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i + 1));
+    }
+
+
+    @Test
+    public void appendOwnSequenceAppendsValuesAgain()
+    {
+        // Given
+        int[] aValues = randomIntValues(10);
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(32).append(aValues);
+
+        // When
+        aBuilder.append(aBuilder.toSequence());
+
+        // Then
+        assertEquals(20, aBuilder.getLength());
+        for (int i=0; i<aValues.length; i++)
+        {
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i));
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i + 10));
+        }
+    }
+
+
+    @Test
+    public void resetSetsLengthToZero()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(8).append(new int[]{1, 2, 3});
+
+        // When
+        IntSequenceBuilder aReturned = aBuilder.reset();
+
+        // Then
+        assertSame(aBuilder, aReturned);
+        assertEquals(0, aBuilder.getLength());
+        assertEquals(0, aBuilder.getValues().length);
+    }
+
+
+    @Test
+    public void resetWithMaxCapacitySetsLengthToZero()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(1024).append(new int[]{1, 2, 3});
+
+        // When
+        aBuilder.reset(8).append(4);
+
+        // Then
+        assertArrayEquals(new int[]{4}, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void resetWithNegativeMaxCapacityThrows()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(8);
+
+        // Then
+        assertThrows(NegativeArraySizeException.class, () -> aBuilder.reset(-1));
+    }
+
+
+    @Test
+    public void toSequenceIsNotAffectedByLaterAppends()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(16).append(new int[]{1, 2, 3});
+
+        // When
+        IntSequence aSequence = aBuilder.toSequence();
+        aBuilder.append(4);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        assertArrayEquals(new int[]{1, 2, 3}, aSequence.intStream().toArray());
+    }
+
+
+    @Test
+    public void toSequenceIsNotAffectedByReset()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(16).append(new int[]{1, 2, 3});
+
+        // When
+        IntSequence aSequence = aBuilder.toSequence();
+        aBuilder.reset().append(new int[]{7, 8, 9, 10});
+
+        // Then
+        assertArrayEquals(new int[]{1, 2, 3}, aSequence.intStream().toArray());
+        assertArrayEquals(new int[]{7, 8, 9, 10}, aBuilder.toSequence().intStream().toArray());
+    }
+
+
+    @Test
+    public void getValuesReturnsCopy()
+    {
+        // Given
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(16).append(new int[]{1, 2});
+
+        // When
+        int[] aValues = aBuilder.getValues();
+        aValues[0] = 17;
+
+        // Then
+        assertArrayEquals(new int[]{1, 2}, aBuilder.getValues());
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@code LongObjectMap}.
+ */
+public class LongObjectMapTest
+{
+    @Test
+    public void newInstanceIsEmpty()
+    {
+        // When
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+
+        // Then
+        assertEquals(0, aMap.size());
+        assertTrue(aMap.isEmpty());
+        assertEquals(0, aMap.keys().size());
+        assertEquals(0, aMap.values().size());
+    }
+
+
+    @Test
+    public void constructorThrowsForNegativeExpectedSize()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new LongObjectMap<>(-1)
+        );
+    }
+
+
+    @Test
+    public void constructorThrowsForInvalidLoadFactor()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectMap<>(8, 0f));
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectMap<>(8, 1f));
+        assertThrows(IllegalArgumentException.class, () -> new LongObjectMap<>(8, Float.NaN));
+    }
+
+
+    @Test
+    public void putAddsNewKey()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+
+        // When
+        boolean aIsNew = aMap.put(42L, "x");
+
+        // Then
+        assertTrue(aIsNew);
+        assertEquals(1, aMap.size());
+        assertTrue(aMap.containsKey(42L));
+        assertEquals("x", aMap.get(42L));
+    }
+
+
+    @Test
+    public void putReplacesValueOfExistingKey()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+        aMap.put(42L, "x");
+
+        // When
+        boolean aIsNew = aMap.put(42L, "y");
+
+        // Then
+        assertFalse(aIsNew);
+        assertEquals(1, aMap.size());
+        assertEquals("y", aMap.get(42L));
+    }
+
+
+    @Test
+    public void zeroKeyCanBeMapped()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+
+        // When
+        aMap.put(0, "x");
+
+        // Then
+        assertEquals(1, aMap.size());
+        assertTrue(aMap.containsKey(0));
+        assertEquals("x", aMap.get(0));
+        assertEquals(0, aMap.keys().valueAt(0));
+
+        // When
+        assertTrue(aMap.remove(0));
+
+        // Then
+        assertFalse(aMap.containsKey(0));
+        assertTrue(aMap.isEmpty());
+    }
+
+
+    @Test
+    public void getReturnsAbsentValueForMissingKey()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+        aMap.put(42L, "x");
+
+        // Then
+        assertEquals(null, aMap.get(43L));
+        assertEquals(null, aMap.get(0));
+    }
+
+
+    @Test
+    public void removeReturnsFalseForMissingKey()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+        aMap.put(42L, "x");
+
+        // Then
+        assertFalse(aMap.remove(43L));
+        assertFalse(aMap.remove(0));
+        assertEquals(1, aMap.size());
+    }
+
+
+    @Test
+    public void clearRemovesAllKeys()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+        for (int i=0; i<100; i++)
+            aMap.put(i, String.valueOf(i));
+
+        // When
+        aMap.clear();
+
+        // Then
+        assertTrue(aMap.isEmpty());
+        for (int i=0; i<100; i++)
+            assertFalse(aMap.containsKey(i));
+    }
+
+
+    @Test
+    public void keysAndValuesAreSnapshotsInTheSameOrder()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>(4);
+        for (int i=0; i<100; i++)
+            aMap.put(i * 3, String.valueOf(i));
+
+        // When
+        LongSequence aKeys = aMap.keys();
+        Sequence<String> aValues = aMap.values();
+        aMap.clear();
+
+        // Then
+        assertEquals(100, aKeys.size());
+        assertEquals(100, aValues.size());
+        for (int i=0; i<aKeys.size(); i++)
+        {
+            int aKey = (int) aKeys.valueAt(i);
+            assertEquals(0, aKey % 3);
+            int aKeyIndex = aKey / 3;
+            assertEquals(String.valueOf(aKeyIndex), aValues.elementAt(i));
+        }
+    }
+
+
+    @Test
+    public void keysWithCollidingLowBitsAreHandled()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>();
+
+        // When
+        for (int i=1; i<=1000; i++)
+            aMap.put((long) i << 32, String.valueOf(i));
+
+        // Then
+        assertEquals(1000, aMap.size());
+        for (int i=1; i<=1000; i++)
+            assertEquals(String.valueOf(i), aMap.get((long) i << 32));
+    }
+
+
+    /**
+     * Random puts and removes should give the same result as the same operations on a
+     * {@code HashMap}, which exercises expansion and the backward shift on removal.
+     */
+    @Test
+    public void randomOperationsMatchHashMap()
+    {
+        // Given
+        LongObjectMap<String> aMap = new LongObjectMap<>(2, 0.9f);
+        Map<Long, String> aExpected = new HashMap<>();
+        ThreadLocalRandom aRandom = ThreadLocalRandom.current();
+
+        // When
+        for (int i=0; i<20_000; i++)
+        {
+            long aKey = aRandom.nextInt(-500, 500);
+            if (aRandom.nextInt(3) == 0)
+                assertEquals(aExpected.remove(aKey) != null, aMap.remove(aKey));
+            else
+            {
+                String aValue = String.valueOf(aRandom.nextInt());
+                assertEquals(aExpected.put(aKey, aValue) == null, aMap.put(aKey, aValue));
+            }
+        }
+
+        // Then
+        assertEquals(aExpected.size(), aMap.size());
+        for (int aKey=-500; aKey<500; aKey++)
+        {
+            assertEquals(aExpected.containsKey((long) aKey), aMap.containsKey(aKey));
+            if (aExpected.containsKey((long) aKey))
+                assertEquals(aExpected.get((long) aKey), aMap.get(aKey));
+        }
+    }
+}
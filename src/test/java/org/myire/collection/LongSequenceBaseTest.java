@@ -1,23 +1,29 @@
 /*
- * Copyright 2022 Peter Franzen. All rights reserved.
+ * Copyright 2022-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
 package org.myire.collection;
 
+import java.util.Arrays;
+import java.util.NoSuchElementException;
 import java.util.PrimitiveIterator;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.LongConsumer;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
+import org.myire.util.LongArrayConsumer;
+
 import static org.myire.collection.CollectionTests.randomLongInstance;
 import static org.myire.collection.CollectionTests.randomLongValues;
 
@@ -154,6 +160,62 @@ abstract public class LongSequenceBaseTest extends PrimitiveSequenceBaseTest<Lon
     }
 
 
+    /**
+     * {@code forEachChunk()} should pass all values in the sequence to the action, in order.
+     */
+    @Test
+    public void forEachChunkPassesAllValuesToAction()
+    {
+        int[] aValueCounts = {1, randomCollectionLength(), 1000};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = randomLongValues(aValueCount);
+            LongSequenceBuilder aBuilder = new LongSequenceBuilder(aValueCount);
+
+            // When
+            createLongSequence(aValues).forEachChunk(aBuilder::append);
+
+            // Then
+            assertArrayEquals(aValues, aBuilder.toSequence().longStream().toArray());
+        }
+    }
+
+
+    /**
+     * {@code forEachChunk()} should not invoke the action for an empty sequence.
+     */
+    @Test
+    public void forEachChunkDoesNotInvokeActionForEmptySequence()
+    {
+        // Given
+        LongArrayConsumer aAction = mock(LongArrayConsumer.class);
+
+        // When
+        createLongSequence(new long[0]).forEachChunk(aAction);
+
+        // Then
+        verifyNoInteractions(aAction);
+    }
+
+
+    /**
+     * {@code forEachChunk()} should throw a {@code NullPointerException} for a null action.
+     */
+    @Test
+    public void forEachChunkThrowsForNullAction()
+    {
+        // Given
+        LongSequence aSequence = createLongSequence(randomLongValues(1));
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> aSequence.forEachChunk(null)
+        );
+    }
+
+
     /**
      * A sequence should return an iterator that iterates over the sequence's elements in the same
      * order as the elements are returned by {@code valueAt()}.
@@ -175,4 +237,215 @@ abstract public class LongSequenceBaseTest extends PrimitiveSequenceBaseTest<Lon
                 assertEquals(aSequence.valueAt(i), aIterator.nextLong());
         }
     }
+
+
+    /**
+     * A sequence's {@code long}-specialized stream should contain the sequence's values in the same
+     * order as they are returned by {@code valueAt()}.
+     */
+    @Test
+    public void longStreamContainsAllValues()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = randomLongValues(aValueCount);
+
+            // When
+            long[] aStreamed = createLongSequence(aValues).longStream().toArray();
+
+            // Then
+            assertArrayEquals(aValues, aStreamed);
+        }
+    }
+
+
+    /**
+     * A reduction over a sequence's parallel {@code long}-specialized stream should include all
+     * values in the sequence.
+     */
+    @Test
+    public void parallelLongStreamReducesAllValues()
+    {
+        // Given
+        long[] aValues = randomLongValues(randomCollectionLength() * 64);
+        LongSequence aSequence = createLongSequence(aValues);
+
+        // When
+        long aSum = aSequence.longStream().parallel().sum();
+
+        // Then
+        assertEquals(Arrays.stream(aValues).sum(), aSum);
+    }
+
+    /**
+     * The values of a sub-sequence should be the values in the specified range of the sequence,
+     * also when accessed through the {@code long}-specialized methods.
+     */
+    @Test
+    public void subSequenceContainsTheValuesInTheRange()
+    {
+        // Given
+        long[] aValues = randomLongValues(randomCollectionLength() + 2);
+        LongSequence aSequence = createLongSequence(aValues);
+        int aFrom = ThreadLocalRandom.current().nextInt(aValues.length);
+        int aTo = ThreadLocalRandom.current().nextInt(aFrom, aValues.length + 1);
+
+        // When
+        LongSequence aSubSequence = aSequence.subSequence(aFrom, aTo);
+
+        // Then
+        assertArrayEquals(
+            Arrays.copyOfRange(aValues, aFrom, aTo),
+            aSubSequence.longStream().toArray());
+        PrimitiveIterator.OfLong aIterator = aSubSequence.iterator();
+        for (int i=aFrom; i<aTo; i++)
+            assertEquals(aValues[i], aIterator.nextLong());
+    }
+
+    /**
+     * {@code sum()} should return the sum of all values in the sequence.
+     */
+    @Test
+    public void sumReturnsTheSumOfAllValues()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = randomLongValues(aValueCount);
+
+            // When
+            long aSum = createLongSequence(aValues).sum();
+
+            // Then
+            assertEquals(Arrays.stream(aValues).sum(), aSum);
+        }
+    }
+
+
+    /**
+     * {@code min()} and {@code max()} should return the smallest and largest values in the
+     * sequence.
+     */
+    @Test
+    public void minAndMaxReturnTheExpectedValues()
+    {
+        int[] aValueCounts = {1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = randomLongValues(aValueCount);
+
+            // When
+            LongSequence aSequence = createLongSequence(aValues);
+
+            // Then
+            assertEquals(Arrays.stream(aValues).min().getAsLong(), aSequence.min());
+            assertEquals(Arrays.stream(aValues).max().getAsLong(), aSequence.max());
+        }
+    }
+
+
+    /**
+     * {@code min()} and {@code max()} should throw a {@code NoSuchElementException} for an empty
+     * sequence.
+     */
+    @Test
+    public void minAndMaxThrowForEmptySequence()
+    {
+        // Given
+        LongSequence aSequence = createLongSequence(new long[0]);
+
+        // Then
+        assertThrows(NoSuchElementException.class, aSequence::min);
+        assertThrows(NoSuchElementException.class, aSequence::max);
+    }
+
+
+    /**
+     * {@code count()} should return the number of values that match the predicate.
+     */
+    @Test
+    public void countReturnsTheNumberOfMatchingValues()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = randomLongValues(aValueCount);
+
+            // When
+            int aCount = createLongSequence(aValues).count(v -> v > 0);
+
+            // Then
+            assertEquals(Arrays.stream(aValues).filter(v -> v > 0).count(), aCount);
+        }
+    }
+
+
+    /**
+     * {@code indexOf()} should return the index of the first occurrence of a value, and -1 for a
+     * value not in the sequence.
+     */
+    @Test
+    public void indexOfReturnsTheIndexOfTheFirstOccurrence()
+    {
+        // Given
+        long[] aValues = {3, 1, 4, 1, 5};
+        LongSequence aSequence = createLongSequence(aValues);
+
+        // Then
+        assertEquals(0, aSequence.indexOf(3));
+        assertEquals(1, aSequence.indexOf(1));
+        assertEquals(4, aSequence.indexOf(5));
+        assertEquals(-1, aSequence.indexOf(2));
+    }
+
+
+    /**
+     * {@code dot()} should return the dot product of two sequences of the same size, both when the
+     * other sequence is of the same type and when it isn't.
+     */
+    @Test
+    public void dotReturnsTheDotProduct()
+    {
+        int[] aValueCounts = {0, 1, randomCollectionLength()};
+        for (int aValueCount : aValueCounts)
+        {
+            // Given
+            long[] aValues = randomLongValues(aValueCount);
+            long[] aOther = randomLongValues(aValueCount);
+            long aExpected = 0;
+            for (int i=0; i<aValueCount; i++)
+                aExpected += aValues[i] * aOther[i];
+
+            // When
+            LongSequence aSequence = createLongSequence(aValues);
+
+            // Then
+            assertEquals(aExpected, aSequence.dot(createLongSequence(aOther)));
+            assertEquals(aExpected, aSequence.dot(PrimitiveSequences.wrap(aOther)));
+        }
+    }
+
+
+    /**
+     * {@code dot()} should throw an {@code IllegalArgumentException} if the sequences have
+     * different sizes.
+     */
+    @Test
+    public void dotThrowsForDifferentSizes()
+    {
+        // Given
+        LongSequence aSequence = createLongSequence(randomLongValues(3));
+        LongSequence aOther = createLongSequence(randomLongValues(2));
+
+        // Then
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> aSequence.dot(aOther)
+        );
+    }
 }
@@ -0,0 +1,259 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import static org.myire.collection.CollectionTests.randomLongValues;
+
+
+/**
+ * Unit tests for {@code LongSequenceBuilder}. The sequences returned by
+ * {@link LongSequenceBuilder#toSequence()} are tested through the {@code LongSequenceBaseTest}
+ * tests.
+ */
+public class LongSequenceBuilderTest extends LongSequenceBaseTest
+{
+    @Override
+    protected LongSequence createLongSequence(long[] pValues)
+    {
+        return new LongSequenceBuilder(0).append(pValues).toSequence();
+    }
+
+
+    @Test
+    public void constructorThrowsForNegativeInitialCapacity()
+    {
+        assertThrows(
+            NegativeArraySizeException.class,
+            () -> new LongSequenceBuilder(-1)
+        );
+    }
+
+
+    @Test
+    public void getLengthReturnsZeroForNewInstance()
+    {
+        assertEquals(0, new LongSequenceBuilder(8).getLength());
+    }
+
+
+    @Test
+    public void getLengthReturnsTheNumberOfAppendedValues()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(8);
+
+        // When
+        aBuilder.append(17).append(new long[]{1, 2, 3}).append(new long[]{4, 5, 6}, 1, 1);
+
+        // Then
+        assertEquals(5, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void appendReturnsThis()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(8);
+
+        // Then
+        assertSame(aBuilder, aBuilder.append(1));
+        assertSame(aBuilder, aBuilder.append(new long[]{1}));
+        assertSame(aBuilder, aBuilder.append(new long[]{1}, 0, 1));
+        assertSame(aBuilder, aBuilder.append(PrimitiveSequences.singleton(1L)));
+    }
+
+
+    @Test
+    public void appendBeyondInitialCapacityExpandsBuffer()
+    {
+        // Given
+        long[] aValues = randomLongValues(1000);
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(0);
+
+        // When
+        for (long aValue : aValues)
+            aBuilder.append(aValue);
+
+        // Then
+        assertArrayEquals(aValues, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void appendArrayRangeAppendsTheExpectedValues()
+    {
+        // Given
+        long[] aValues = randomLongValues(100);
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(4);
+
+        // When
+        aBuilder.append(aValues, 10, 50);
+
+        // Then
+        long[] aExpected = new long[50];
+        System.arraycopy(aValues, 10, aExpected, 0, 50);
+        assertArrayEquals(aExpected, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void appendArrayRangeThrowsForInvalidRange()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(4);
+        long[] aValues = new long[4];
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, -1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, 0, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.append(aValues, 3, 2));
+        assertEquals(0, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void appendNullArrayThrows()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(4);
+
+        // Then
+        assertThrows(NullPointerException.class, () -> aBuilder.append((long[]) null));
+    }
+
+
+    @Test
+    public void appendSequenceAppendsAllValues()
+    {
+        // Given
+        long[] aValues = randomLongValues(100);
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(4).append(17);
+
+        // When
+        aBuilder.append(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertEquals(101, aBuilder.getLength());
+        assertEquals(17, aBuilder.toSequence().valueAt(0));
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i + 1));
+    }
+
+
+    @Test
+    public void appendOwnSequenceAppendsValuesAgain()
+    {
+        // Given
+        long[] aValues = randomLongValues(10);
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(32).append(aValues);
+
+        // When
+        aBuilder.append(aBuilder.toSequence());
+
+        // Then
+        assertEquals(20, aBuilder.getLength());
+        for (int i=0; i<aValues.length; i++)
+        {
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i));
+            assertEquals(aValues[i], aBuilder.toSequence().valueAt(i + 10));
+        }
+    }
+
+
+    @Test
+    public void resetSetsLengthToZero()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(8).append(new long[]{1, 2, 3});
+
+        // When
+        LongSequenceBuilder aReturned = aBuilder.reset();
+
+        // Then
+        assertSame(aBuilder, aReturned);
+        assertEquals(0, aBuilder.getLength());
+        assertEquals(0, aBuilder.getValues().length);
+    }
+
+
+    @Test
+    public void resetWithMaxCapacitySetsLengthToZero()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(1024).append(new long[]{1, 2, 3});
+
+        // When
+        aBuilder.reset(8).append(4);
+
+        // Then
+        assertArrayEquals(new long[]{4}, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void resetWithNegativeMaxCapacityThrows()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(8);
+
+        // Then
+        assertThrows(NegativeArraySizeException.class, () -> aBuilder.reset(-1));
+    }
+
+
+    @Test
+    public void toSequenceIsNotAffectedByLaterAppends()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(16).append(new long[]{1, 2, 3});
+
+        // When
+        LongSequence aSequence = aBuilder.toSequence();
+        aBuilder.append(4);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        assertArrayEquals(new long[]{1, 2, 3}, aSequence.longStream().toArray());
+    }
+
+
+    @Test
+    public void toSequenceIsNotAffectedByReset()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(16).append(new long[]{1, 2, 3});
+
+        // When
+        LongSequence aSequence = aBuilder.toSequence();
+        aBuilder.reset().append(new long[]{7, 8, 9, 10});
+
+        // Then
+        assertArrayEquals(new long[]{1, 2, 3}, aSequence.longStream().toArray());
+        assertArrayEquals(new long[]{7, 8, 9, 10}, aBuilder.toSequence().longStream().toArray());
+    }
+
+
+    @Test
+    public void getValuesReturnsCopy()
+    {
+        // Given
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(16).append(new long[]{1, 2});
+
+        // When
+        long[] aValues = aBuilder.getValues();
+        aValues[0] = 17;
+
+        // Then
+        assertArrayEquals(new long[]{1, 2}, aBuilder.getValues());
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@code LongSet}.
+ */
+public class LongSetTest
+{
+    @Test
+    public void newInstanceIsEmpty()
+    {
+        // When
+        LongSet aSet = new LongSet();
+
+        // Then
+        assertEquals(0, aSet.size());
+        assertTrue(aSet.isEmpty());
+        assertEquals(0, aSet.values().size());
+    }
+
+
+    @Test
+    public void constructorThrowsForInvalidArguments()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new LongSet(-1));
+        assertThrows(IllegalArgumentException.class, () -> new LongSet(8, 0f));
+        assertThrows(IllegalArgumentException.class, () -> new LongSet(8, 1.5f));
+    }
+
+
+    @Test
+    public void addReturnsTrueOnlyForNewValues()
+    {
+        // Given
+        LongSet aSet = new LongSet();
+
+        // Then
+        assertTrue(aSet.add(17));
+        assertFalse(aSet.add(17));
+        assertTrue(aSet.add(0));
+        assertFalse(aSet.add(0));
+        assertEquals(2, aSet.size());
+        assertTrue(aSet.contains(17));
+        assertTrue(aSet.contains(0));
+        assertFalse(aSet.contains(18));
+    }
+
+
+    @Test
+    public void removeRemovesValue()
+    {
+        // Given
+        LongSet aSet = new LongSet();
+        aSet.add(17);
+        aSet.add(0);
+
+        // Then
+        assertTrue(aSet.remove(17));
+        assertFalse(aSet.remove(17));
+        assertTrue(aSet.remove(0));
+        assertFalse(aSet.remove(0));
+        assertTrue(aSet.isEmpty());
+    }
+
+
+    @Test
+    public void valuesIsSnapshot()
+    {
+        // Given
+        LongSet aSet = new LongSet(2);
+        for (int i=0; i<50; i++)
+            aSet.add(i);
+
+        // When
+        LongSequence aValues = aSet.values();
+        aSet.clear();
+
+        // Then
+        assertTrue(aSet.isEmpty());
+        assertEquals(50, aValues.size());
+        assertEquals(49L * 50 / 2, aValues.sum());
+    }
+
+
+    /**
+     * Random adds and removes should give the same result as the same operations on a
+     * {@code HashSet}, which exercises expansion and the backward shift on removal.
+     */
+    @Test
+    public void randomOperationsMatchHashSet()
+    {
+        // Given
+        LongSet aSet = new LongSet(2, 0.9f);
+        Set<Long> aExpected = new HashSet<>();
+        ThreadLocalRandom aRandom = ThreadLocalRandom.current();
+
+        // When
+        for (int i=0; i<20_000; i++)
+        {
+            long aValue = aRandom.nextLong(-500, 500);
+            if (aRandom.nextInt(3) == 0)
+                assertEquals(aExpected.remove(aValue), aSet.remove(aValue));
+            else
+                assertEquals(aExpected.add(aValue), aSet.add(aValue));
+        }
+
+        // Then
+        assertEquals(aExpected.size(), aSet.size());
+        LongSequence aValues = aSet.values();
+        for (int i=0; i<aValues.size(); i++)
+            assertTrue(aExpected.contains(aValues.valueAt(i)));
+    }
+}
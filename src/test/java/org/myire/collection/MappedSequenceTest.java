@@ -0,0 +1,112 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for the {@code Sequence} implementation returned by
+ * {@link Sequences#map(Sequence, Function)}.
+ */
+public class MappedSequenceTest extends ReferenceSequenceBaseTest
+{
+    @Override
+    protected Sequence<String> createSequence(String[] pElements)
+    {
+        // Map a sequence of indexes to the elements.
+        int[] aIndexes = new int[pElements.length];
+        for (int i=0; i<aIndexes.length; i++)
+            aIndexes[i] = i;
+
+        return Sequences.map(PrimitiveSequences.wrap(aIndexes), i -> pElements[i]);
+    }
+
+
+    /**
+     * Calling {@code Sequences.map} should throw a {@code NullPointerException} when passed
+     * {@code null} as any of the arguments.
+     */
+    @Test
+    public void mapThrowsForNullArguments()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.map(null, Function.identity())
+        );
+        assertThrows(
+            NullPointerException.class,
+            () -> Sequences.map(Sequences.emptySequence(), null)
+        );
+    }
+
+
+    /**
+     * The mapping function should not be applied until an element is accessed, and should be
+     * applied each time an element is accessed.
+     */
+    @Test
+    public void mapperIsAppliedLazily()
+    {
+        // Given
+        AtomicInteger aNumCalls = new AtomicInteger();
+        Sequence<String> aSequence = Sequences.wrap(Arrays.asList("a", "b", "c"));
+
+        // When
+        Sequence<String> aMapped = Sequences.map(
+            aSequence,
+            s -> { aNumCalls.incrementAndGet(); return s.toUpperCase(); });
+
+        // Then
+        assertEquals(0, aNumCalls.get());
+        assertEquals("B", aMapped.elementAt(1));
+        assertEquals("B", aMapped.elementAt(1));
+        assertEquals(2, aNumCalls.get());
+    }
+
+
+    /**
+     * A mapped sequence should reflect changes to the underlying sequence.
+     */
+    @Test
+    public void mappedSequenceReflectsChangesInUnderlyingSequence()
+    {
+        // Given
+        String[] aElements = {"x", "y"};
+        Sequence<Integer> aMapped = Sequences.map(Sequences.wrap(aElements), String::length);
+
+        // When
+        aElements[1] = "yyy";
+
+        // Then
+        assertEquals(3, aMapped.elementAt(1));
+    }
+
+
+    /**
+     * A sequence of a subtype can be mapped with a function accepting a supertype.
+     */
+    @Test
+    public void mapperCanAcceptSuperTypeOfElements()
+    {
+        // Given
+        List<String> aList = Arrays.asList("A", "BB", "CCC");
+        Function<CharSequence, Integer> aMapper = CharSequence::length;
+
+        // When
+        Sequence<Number> aMapped = Sequences.map(Sequences.wrap(aList), aMapper);
+
+        // Then
+        assertEquals(3, aMapped.elementAt(2));
+    }
+}
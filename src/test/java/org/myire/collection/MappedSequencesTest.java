@@ -0,0 +1,400 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.ReadOnlyBufferException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.myire.collection.CollectionTests.randomDoubleValues;
+import static org.myire.collection.CollectionTests.randomIntValues;
+import static org.myire.collection.CollectionTests.randomLongValues;
+
+
+/**
+ * Unit tests for {@code MappedSequences}.
+ */
+public class MappedSequencesTest
+{
+    @TempDir
+    Path fTempDir;
+
+
+    @Test
+    public void writtenIntSequenceCanBeMapped() throws IOException
+    {
+        for (ByteOrder aByteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN})
+        {
+            // Given
+            int[] aValues = randomIntValues(100_000);
+            Path aFile = fTempDir.resolve("values.bin");
+
+            // When
+            MappedSequences.write(aFile, PrimitiveSequences.wrap(aValues), aByteOrder);
+
+            // Then
+            assertEquals((long) aValues.length * Integer.BYTES, Files.size(aFile));
+            try (ByteBufferIntSequence aSequence =
+                     MappedSequences.mapIntSequence(aFile, aByteOrder))
+            {
+                assertArrayEquals(aValues, aSequence.intStream().toArray());
+            }
+        }
+    }
+
+
+    @Test
+    public void mapIntSequenceSplitsFileIntoSeveralMappings() throws IOException
+    {
+        // Given
+        int[] aValues = randomIntValues(1000);
+        Path aFile = fTempDir.resolve("values.bin");
+        MappedSequences.write(aFile, PrimitiveSequences.wrap(aValues), ByteOrder.LITTLE_ENDIAN);
+
+        // When
+        ByteBufferIntSequence aSequence =
+            MappedSequences.mapIntSequence(aFile, ByteOrder.LITTLE_ENDIAN, 4);
+
+        // Then
+        assertEquals(aValues.length, aSequence.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aSequence.valueAt(i));
+
+        aSequence.close();
+    }
+
+
+    @Test
+    public void mapIntSequenceUsesSpecifiedByteOrder() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        ByteBuffer aBuffer = ByteBuffer.allocate(Integer.BYTES).order(ByteOrder.BIG_ENDIAN);
+        aBuffer.putInt(17);
+        Files.write(aFile, aBuffer.array());
+
+        // When
+        try (ByteBufferIntSequence aSequence =
+                 MappedSequences.mapIntSequence(aFile, ByteOrder.BIG_ENDIAN))
+        {
+            // Then
+            assertEquals(17, aSequence.valueAt(0));
+        }
+    }
+
+
+    @Test
+    public void mappedIntSequenceIsReadOnly() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        IntSequence aValues = PrimitiveSequences.wrap(randomIntValues(4));
+        MappedSequences.write(aFile, aValues, ByteOrder.BIG_ENDIAN);
+
+        // When
+        try (ByteBufferIntSequence aSequence =
+                 MappedSequences.mapIntSequence(aFile, ByteOrder.BIG_ENDIAN))
+        {
+            // Then
+            assertThrows(
+                ReadOnlyBufferException.class,
+                () -> aSequence.setValue(0, 1)
+            );
+        }
+    }
+
+
+    @Test
+    public void mapIntSequenceThrowsForInvalidFileSize() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        Files.write(aFile, new byte[Integer.BYTES + 1]);
+
+        // Then
+        assertThrows(
+            IOException.class,
+            () -> MappedSequences.mapIntSequence(aFile, ByteOrder.BIG_ENDIAN)
+        );
+    }
+
+
+    @Test
+    public void writtenLongSequenceCanBeMapped() throws IOException
+    {
+        for (ByteOrder aByteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN})
+        {
+            // Given
+            long[] aValues = randomLongValues(100_000);
+            Path aFile = fTempDir.resolve("values.bin");
+
+            // When
+            MappedSequences.write(aFile, PrimitiveSequences.wrap(aValues), aByteOrder);
+
+            // Then
+            assertEquals((long) aValues.length * Long.BYTES, Files.size(aFile));
+            try (ByteBufferLongSequence aSequence =
+                     MappedSequences.mapLongSequence(aFile, aByteOrder))
+            {
+                assertArrayEquals(aValues, aSequence.longStream().toArray());
+            }
+        }
+    }
+
+
+    @Test
+    public void mapLongSequenceSplitsFileIntoSeveralMappings() throws IOException
+    {
+        // Given
+        long[] aValues = randomLongValues(1000);
+        Path aFile = fTempDir.resolve("values.bin");
+        MappedSequences.write(aFile, PrimitiveSequences.wrap(aValues), ByteOrder.LITTLE_ENDIAN);
+
+        // When
+        ByteBufferLongSequence aSequence =
+            MappedSequences.mapLongSequence(aFile, ByteOrder.LITTLE_ENDIAN, 4);
+
+        // Then
+        assertEquals(aValues.length, aSequence.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aSequence.valueAt(i));
+
+        aSequence.close();
+    }
+
+
+    @Test
+    public void mapLongSequenceUsesSpecifiedByteOrder() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        ByteBuffer aBuffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.BIG_ENDIAN);
+        aBuffer.putLong(17);
+        Files.write(aFile, aBuffer.array());
+
+        // When
+        try (ByteBufferLongSequence aSequence =
+                 MappedSequences.mapLongSequence(aFile, ByteOrder.BIG_ENDIAN))
+        {
+            // Then
+            assertEquals(17, aSequence.valueAt(0));
+        }
+    }
+
+
+    @Test
+    public void mappedLongSequenceIsReadOnly() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        LongSequence aValues = PrimitiveSequences.wrap(randomLongValues(4));
+        MappedSequences.write(aFile, aValues, ByteOrder.BIG_ENDIAN);
+
+        // When
+        try (ByteBufferLongSequence aSequence =
+                 MappedSequences.mapLongSequence(aFile, ByteOrder.BIG_ENDIAN))
+        {
+            // Then
+            assertThrows(
+                ReadOnlyBufferException.class,
+                () -> aSequence.setValue(0, 1)
+            );
+        }
+    }
+
+
+    @Test
+    public void mapLongSequenceThrowsForInvalidFileSize() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        Files.write(aFile, new byte[Long.BYTES + 1]);
+
+        // Then
+        assertThrows(
+            IOException.class,
+            () -> MappedSequences.mapLongSequence(aFile, ByteOrder.BIG_ENDIAN)
+        );
+    }
+
+
+    @Test
+    public void writtenDoubleSequenceCanBeMapped() throws IOException
+    {
+        for (ByteOrder aByteOrder : new ByteOrder[]{ByteOrder.BIG_ENDIAN, ByteOrder.LITTLE_ENDIAN})
+        {
+            // Given
+            double[] aValues = randomDoubleValues(100_000);
+            Path aFile = fTempDir.resolve("values.bin");
+
+            // When
+            MappedSequences.write(aFile, PrimitiveSequences.wrap(aValues), aByteOrder);
+
+            // Then
+            assertEquals((long) aValues.length * Double.BYTES, Files.size(aFile));
+            try (ByteBufferDoubleSequence aSequence =
+                     MappedSequences.mapDoubleSequence(aFile, aByteOrder))
+            {
+                assertArrayEquals(aValues, aSequence.doubleStream().toArray(), 0.0);
+            }
+        }
+    }
+
+
+    @Test
+    public void mapDoubleSequenceSplitsFileIntoSeveralMappings() throws IOException
+    {
+        // Given
+        double[] aValues = randomDoubleValues(1000);
+        Path aFile = fTempDir.resolve("values.bin");
+        MappedSequences.write(aFile, PrimitiveSequences.wrap(aValues), ByteOrder.LITTLE_ENDIAN);
+
+        // When
+        ByteBufferDoubleSequence aSequence =
+            MappedSequences.mapDoubleSequence(aFile, ByteOrder.LITTLE_ENDIAN, 4);
+
+        // Then
+        assertEquals(aValues.length, aSequence.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aSequence.valueAt(i), 0.0);
+
+        aSequence.close();
+    }
+
+
+    @Test
+    public void mapDoubleSequenceUsesSpecifiedByteOrder() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        ByteBuffer aBuffer = ByteBuffer.allocate(Double.BYTES).order(ByteOrder.BIG_ENDIAN);
+        aBuffer.putDouble(17);
+        Files.write(aFile, aBuffer.array());
+
+        // When
+        try (ByteBufferDoubleSequence aSequence =
+                 MappedSequences.mapDoubleSequence(aFile, ByteOrder.BIG_ENDIAN))
+        {
+            // Then
+            assertEquals(17, aSequence.valueAt(0), 0.0);
+        }
+    }
+
+
+    @Test
+    public void mappedDoubleSequenceIsReadOnly() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        DoubleSequence aValues = PrimitiveSequences.wrap(randomDoubleValues(4));
+        MappedSequences.write(aFile, aValues, ByteOrder.BIG_ENDIAN);
+
+        // When
+        try (ByteBufferDoubleSequence aSequence =
+                 MappedSequences.mapDoubleSequence(aFile, ByteOrder.BIG_ENDIAN))
+        {
+            // Then
+            assertThrows(
+                ReadOnlyBufferException.class,
+                () -> aSequence.setValue(0, 1)
+            );
+        }
+    }
+
+
+    @Test
+    public void mapDoubleSequenceThrowsForInvalidFileSize() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        Files.write(aFile, new byte[Double.BYTES + 1]);
+
+        // Then
+        assertThrows(
+            IOException.class,
+            () -> MappedSequences.mapDoubleSequence(aFile, ByteOrder.BIG_ENDIAN)
+        );
+    }
+
+
+    @Test
+    public void emptyFileIsMappedToEmptySequence() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("empty.bin");
+        MappedSequences.write(aFile, PrimitiveSequences.emptyLongSequence(), ByteOrder.BIG_ENDIAN);
+
+        // When
+        try (ByteBufferLongSequence aSequence =
+                 MappedSequences.mapLongSequence(aFile, ByteOrder.BIG_ENDIAN))
+        {
+            // Then
+            assertEquals(0, aSequence.size());
+        }
+    }
+
+
+    @Test
+    public void writeOverwritesExistingFile() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        Files.write(aFile, new byte[1000]);
+
+        // When
+        IntSequence aValues = PrimitiveSequences.wrap(new int[]{1, 2});
+        MappedSequences.write(aFile, aValues, ByteOrder.BIG_ENDIAN);
+
+        // Then
+        assertEquals(2 * Integer.BYTES, Files.size(aFile));
+    }
+
+
+    @Test
+    public void closedMappedSequenceThrowsOnAccess() throws IOException
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+        IntSequence aValues = PrimitiveSequences.wrap(new int[]{1, 2});
+        MappedSequences.write(aFile, aValues, ByteOrder.BIG_ENDIAN);
+        ByteBufferIntSequence aSequence =
+            MappedSequences.mapIntSequence(aFile, ByteOrder.BIG_ENDIAN);
+
+        // When
+        aSequence.close();
+
+        // Then
+        assertTrue(aSequence.isClosed());
+        assertThrows(
+            IllegalStateException.class,
+            () -> aSequence.valueAt(0)
+        );
+    }
+
+
+    @Test
+    public void writeThrowsForNullSequence()
+    {
+        // Given
+        Path aFile = fTempDir.resolve("values.bin");
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> MappedSequences.write(aFile, (IntSequence) null, ByteOrder.BIG_ENDIAN)
+        );
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@code OrderStatistics}.
+ */
+public class OrderStatisticsTest
+{
+    @Test
+    public void topKThrowsForNullSequence()
+    {
+        assertThrows(NullPointerException.class, () -> OrderStatistics.topK((LongSequence) null, 1));
+        assertThrows(NullPointerException.class, () -> OrderStatistics.topK((DoubleSequence) null, 1));
+    }
+
+
+    @Test
+    public void topKThrowsForNegativeK()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> OrderStatistics.topK(PrimitiveSequences.wrap(new long[]{1}), -1)
+        );
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> OrderStatistics.topK(PrimitiveSequences.wrap(new double[]{1}), -1)
+        );
+    }
+
+
+    @Test
+    public void topKReturnsLargestLongValuesInDescendingOrder()
+    {
+        for (int aK : new int[]{0, 1, 7, 100, 20_000})
+        {
+            // Given
+            long[] aValues = CollectionTests.randomLongValues(10_000);
+            long[] aSorted = aValues.clone();
+            Arrays.sort(aSorted);
+
+            // When
+            LongSequence aTop = OrderStatistics.topK(PrimitiveSequences.wrap(aValues), aK);
+
+            // Then
+            int aExpectedSize = Math.min(aK, aValues.length);
+            assertEquals(aExpectedSize, aTop.size());
+            for (int i=0; i<aExpectedSize; i++)
+                assertEquals(aSorted[aSorted.length - 1 - i], aTop.valueAt(i));
+        }
+    }
+
+
+    @Test
+    public void topKReturnsLargestDoubleValuesInDescendingOrder()
+    {
+        // Given
+        double[] aValues = CollectionTests.randomDoubleValues(10_000);
+        aValues[17] = Double.NaN;
+        double[] aSorted = aValues.clone();
+        Arrays.sort(aSorted);
+
+        // When
+        DoubleSequence aTop = OrderStatistics.topK(PrimitiveSequences.wrap(aValues), 50);
+
+        // Then
+        assertEquals(50, aTop.size());
+        assertTrue(Double.isNaN(aTop.valueAt(0)));
+        for (int i=0; i<50; i++)
+            assertEquals(aSorted[aSorted.length - 1 - i], aTop.valueAt(i));
+    }
+
+
+    @Test
+    public void topKWithResultArrayHandlesDuplicates()
+    {
+        // Given
+        long[] aValues = {5, 1, 5, 3, 5, 2, 4, 4};
+        long[] aResult = new long[5];
+
+        // When
+        int aCount = OrderStatistics.topK(PrimitiveSequences.wrap(aValues), aResult);
+
+        // Then
+        assertEquals(5, aCount);
+        assertArrayEquals(new long[]{5, 5, 5, 4, 4}, aResult);
+    }
+
+
+    @Test
+    public void topKWithLargerResultArrayReturnsAllValues()
+    {
+        // Given
+        double[] aValues = {2.0, -1.0, 3.0};
+        double[] aResult = new double[5];
+
+        // When
+        int aCount = OrderStatistics.topK(PrimitiveSequences.wrap(aValues), aResult);
+
+        // Then
+        assertEquals(3, aCount);
+        assertArrayEquals(new double[]{3.0, 2.0, -1.0}, Arrays.copyOf(aResult, aCount));
+    }
+
+
+    @Test
+    public void nthValueThrowsForInvalidRank()
+    {
+        // Given
+        LongSequence aLongs = PrimitiveSequences.wrap(new long[]{1, 2, 3});
+        DoubleSequence aDoubles = PrimitiveSequences.wrap(new double[]{1, 2, 3});
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> OrderStatistics.nthValue(aLongs, -1));
+        assertThrows(IndexOutOfBoundsException.class, () -> OrderStatistics.nthValue(aLongs, 3));
+        assertThrows(IndexOutOfBoundsException.class, () -> OrderStatistics.nthValue(aDoubles, 3));
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> OrderStatistics.nthValue(new long[5], 1, 3, 3)
+        );
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> OrderStatistics.nthValue(new double[5], 3, 3, 0)
+        );
+    }
+
+
+    @Test
+    public void nthValueAgreesWithSortedLongValues()
+    {
+        // Given
+        long[] aValues = new long[20_001];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = ThreadLocalRandom.current().nextLong(-1000, 1000);
+        long[] aSorted = aValues.clone();
+        Arrays.sort(aSorted);
+        LongSequence aSequence = PrimitiveSequences.wrap(aValues.clone());
+
+        // Then
+        for (int aN : new int[]{0, 1, 10_000, 19_800, 20_000})
+            assertEquals(aSorted[aN], OrderStatistics.nthValue(aSequence, aN));
+    }
+
+
+    @Test
+    public void nthValueAgreesWithSortedDoubleValues()
+    {
+        // Given
+        double[] aValues = CollectionTests.randomDoubleValues(5000);
+        aValues[3] = -0.0;
+        aValues[4] = 0.0;
+        aValues[5] = Double.NaN;
+        double[] aSorted = aValues.clone();
+        Arrays.sort(aSorted);
+        DoubleSequence aSequence = PrimitiveSequences.wrap(aValues);
+
+        // Then
+        for (int i=0; i<aSorted.length; i+=97)
+            assertEquals(aSorted[i], OrderStatistics.nthValue(aSequence, i));
+        assertTrue(Double.isNaN(OrderStatistics.nthValue(aSequence, 4999)));
+    }
+
+
+    @Test
+    public void nthValueOfArrayRangePartitionsRange()
+    {
+        // Given
+        long[] aValues = CollectionTests.randomLongValues(1000);
+        long[] aSorted = Arrays.copyOfRange(aValues, 100, 900);
+        Arrays.sort(aSorted);
+        long aFirst = aValues[0], aLast = aValues[999];
+
+        // When
+        long aMedian = OrderStatistics.nthValue(aValues, 100, 800, 400);
+
+        // Then
+        assertEquals(aSorted[400], aMedian);
+        assertEquals(aMedian, aValues[500]);
+        for (int i=100; i<500; i++)
+            assertTrue(aValues[i] <= aMedian);
+        for (int i=501; i<900; i++)
+            assertTrue(aValues[i] >= aMedian);
+        assertEquals(aFirst, aValues[0]);
+        assertEquals(aLast, aValues[999]);
+    }
+
+
+    @Test
+    public void nthValueOfDoubleArrayRangeSelectsValue()
+    {
+        // Given
+        double[] aValues = CollectionTests.randomDoubleValues(1000);
+        double[] aSorted = aValues.clone();
+        Arrays.sort(aSorted);
+
+        // Then
+        assertEquals(aSorted[990], OrderStatistics.nthValue(aValues, 0, 1000, 990));
+    }
+
+
+    @Test
+    public void nthValueHandlesEqualValues()
+    {
+        // Given
+        long[] aValues = new long[1000];
+        Arrays.fill(aValues, 42);
+
+        // Then
+        assertEquals(42, OrderStatistics.nthValue(PrimitiveSequences.wrap(aValues), 500));
+    }
+}
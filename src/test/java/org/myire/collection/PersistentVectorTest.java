@@ -0,0 +1,270 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for {@code PersistentVector} and {@code PersistentVectorBuilder}.
+ */
+public class PersistentVectorTest extends ReferenceSequenceBaseTest
+{
+    // Large enough to require a trie with three levels below the root.
+    static private final int LARGE_SIZE = 40_000;
+
+
+    @Override
+    protected Sequence<String> createSequence(String[] pElements)
+    {
+        return PersistentVector.copyOf(Sequences.wrap(pElements));
+    }
+
+
+    @Test
+    public void emptyVectorHasNoElements()
+    {
+        // Given
+        PersistentVector<String> aVector = PersistentVector.empty();
+
+        // Then
+        assertEquals(0, aVector.size());
+        assertFalse(aVector.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aVector.elementAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> aVector.with(0, "x"));
+        assertSame(aVector, new PersistentVectorBuilder<String>().toVector());
+    }
+
+
+    @Test
+    public void copyOfThrowsForNullSequence()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> PersistentVector.copyOf(null)
+        );
+    }
+
+
+    @Test
+    public void appendCreatesNewVector()
+    {
+        // Given
+        List<Integer> aExpected = new ArrayList<>();
+        PersistentVector<Integer> aVector = PersistentVector.empty();
+        List<PersistentVector<Integer>> aSnapshots = new ArrayList<>();
+
+        // When
+        for (int i=0; i<LARGE_SIZE; i++)
+        {
+            aVector = aVector.append(Integer.valueOf(i));
+            aExpected.add(Integer.valueOf(i));
+            if (i % 997 == 0)
+                aSnapshots.add(aVector);
+        }
+
+        // Then
+        assertElements(aExpected, aVector);
+        for (PersistentVector<Integer> aSnapshot : aSnapshots)
+            assertElements(aExpected.subList(0, aSnapshot.size()), aSnapshot);
+    }
+
+
+    @Test
+    public void withReplacesElementInNewVector()
+    {
+        // Given
+        List<Integer> aExpected = new ArrayList<>();
+        for (int i=0; i<LARGE_SIZE; i++)
+            aExpected.add(Integer.valueOf(i));
+        PersistentVector<Integer> aOriginal = PersistentVector.copyOf(Sequences.wrap(aExpected));
+        PersistentVector<Integer> aVector = aOriginal;
+
+        // When
+        List<Integer> aModified = new ArrayList<>(aExpected);
+        for (int i=0; i<2000; i++)
+        {
+            int aIndex = ThreadLocalRandom.current().nextInt(LARGE_SIZE);
+            Integer aElement = Integer.valueOf(-i);
+            aVector = aVector.with(aIndex, aElement);
+            aModified.set(aIndex, aElement);
+        }
+        aVector = aVector.with(LARGE_SIZE - 1, null);
+        aModified.set(LARGE_SIZE - 1, null);
+
+        // Then
+        assertElements(aModified, aVector);
+        assertElements(aExpected, aOriginal);
+    }
+
+
+    @Test
+    public void withThrowsForInvalidIndex()
+    {
+        // Given
+        PersistentVector<String> aVector = PersistentVector.<String>empty().append("a");
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aVector.with(-1, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> aVector.with(1, "x"));
+    }
+
+
+    @Test
+    public void iteratorReturnsAllElements()
+    {
+        // Given
+        PersistentVector<Integer> aVector = createIntegerVector(1000);
+
+        // When
+        Iterator<Integer> aIterator = aVector.iterator();
+
+        // Then
+        for (int i=0; i<1000; i++)
+            assertEquals(i, aIterator.next().intValue());
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::next);
+    }
+
+
+    @Test
+    public void builderSetModifiesElements()
+    {
+        // Given
+        PersistentVectorBuilder<Integer> aBuilder = new PersistentVectorBuilder<>();
+        for (int i=0; i<LARGE_SIZE; i++)
+            aBuilder.append(Integer.valueOf(i));
+
+        // When
+        aBuilder.set(0, null)
+            .set(5000, Integer.valueOf(-1))
+            .set(LARGE_SIZE - 1, Integer.valueOf(-2));
+        PersistentVector<Integer> aVector = aBuilder.toVector();
+
+        // Then
+        assertEquals(LARGE_SIZE, aBuilder.getLength());
+        assertNull(aVector.elementAt(0));
+        assertEquals(-1, aVector.elementAt(5000).intValue());
+        assertEquals(-2, aVector.elementAt(LARGE_SIZE - 1).intValue());
+        assertEquals(4999, aVector.elementAt(4999).intValue());
+    }
+
+
+    @Test
+    public void builderSetThrowsForInvalidIndex()
+    {
+        // Given
+        PersistentVectorBuilder<String> aBuilder = new PersistentVectorBuilder<>();
+        aBuilder.append("a");
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.set(-1, "x"));
+        assertThrows(IndexOutOfBoundsException.class, () -> aBuilder.set(1, "x"));
+    }
+
+
+    @Test
+    public void vectorIsNotAffectedBySubsequentBuilderCalls()
+    {
+        // Given
+        PersistentVectorBuilder<Integer> aBuilder = new PersistentVectorBuilder<>();
+        for (int i=0; i<LARGE_SIZE; i++)
+            aBuilder.append(Integer.valueOf(i));
+        PersistentVector<Integer> aVector = aBuilder.toVector();
+
+        // When
+        for (int i=0; i<LARGE_SIZE; i+=101)
+            aBuilder.set(i, Integer.valueOf(-i));
+        for (int i=0; i<100; i++)
+            aBuilder.append(Integer.valueOf(i));
+        PersistentVector<Integer> aSecond = aBuilder.toVector();
+
+        // Then
+        assertEquals(LARGE_SIZE, aVector.size());
+        for (int i=0; i<LARGE_SIZE; i++)
+            assertEquals(i, aVector.elementAt(i).intValue());
+        assertEquals(LARGE_SIZE + 100, aSecond.size());
+        assertEquals(-101, aSecond.elementAt(101).intValue());
+        assertEquals(99, aSecond.elementAt(LARGE_SIZE + 99).intValue());
+    }
+
+
+    @Test
+    public void toBuilderDoesNotAffectVector()
+    {
+        // Given
+        PersistentVector<Integer> aVector = createIntegerVector(LARGE_SIZE);
+
+        // When
+        PersistentVectorBuilder<Integer> aBuilder = aVector.toBuilder();
+        aBuilder.set(7, null).set(LARGE_SIZE - 1, null).append(Integer.valueOf(-1));
+        PersistentVector<Integer> aModified = aBuilder.toVector();
+
+        // Then
+        assertEquals(LARGE_SIZE, aVector.size());
+        assertEquals(7, aVector.elementAt(7).intValue());
+        assertEquals(LARGE_SIZE - 1, aVector.elementAt(LARGE_SIZE - 1).intValue());
+        assertEquals(LARGE_SIZE + 1, aModified.size());
+        assertNull(aModified.elementAt(7));
+        assertNull(aModified.elementAt(LARGE_SIZE - 1));
+        assertEquals(-1, aModified.elementAt(LARGE_SIZE).intValue());
+    }
+
+
+    @Test
+    public void persistentAndBuilderAppendsCanBeInterleaved()
+    {
+        // Given
+        PersistentVector<Integer> aVector = createIntegerVector(1056);
+
+        // When
+        PersistentVector<Integer> aAppended = aVector.append(Integer.valueOf(1056));
+        PersistentVector<Integer> aBuilt = aAppended.toBuilder()
+            .append(Integer.valueOf(1057))
+            .toVector()
+            .append(Integer.valueOf(1058));
+
+        // Then
+        assertEquals(1056, aVector.size());
+        assertEquals(1057, aAppended.size());
+        assertEquals(1059, aBuilt.size());
+        for (int i=0; i<aBuilt.size(); i++)
+            assertEquals(i, aBuilt.elementAt(i).intValue());
+    }
+
+
+    static private PersistentVector<Integer> createIntegerVector(int pSize)
+    {
+        PersistentVectorBuilder<Integer> aBuilder = new PersistentVectorBuilder<>();
+        for (int i=0; i<pSize; i++)
+            aBuilder.append(Integer.valueOf(i));
+
+        return aBuilder.toVector();
+    }
+
+
+    static private void assertElements(List<Integer> pExpected, PersistentVector<Integer> pVector)
+    {
+        assertEquals(pExpected.size(), pVector.size());
+        for (int i=0; i<pExpected.size(); i++)
+            assertEquals(pExpected.get(i), pVector.elementAt(i));
+
+        List<Integer> aElements = new ArrayList<>();
+        pVector.forEach(aElements::add);
+        assertEquals(pExpected, aElements);
+    }
+}
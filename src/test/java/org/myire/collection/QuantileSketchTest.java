@@ -0,0 +1,268 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@code QuantileSketch}.
+ */
+public class QuantileSketchTest
+{
+    static private final double ACCURACY = 0.01;
+
+
+    @Test
+    public void ctorThrowsForInvalidAccuracy()
+    {
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(0));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(-0.1));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> new QuantileSketch(1e-9));
+    }
+
+
+    @Test
+    public void emptySketchThrows()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY);
+
+        // Then
+        assertEquals(0, aSketch.getCount());
+        assertThrows(NoSuchElementException.class, () -> aSketch.quantile(0.5));
+        assertThrows(NoSuchElementException.class, aSketch::getMin);
+        assertThrows(NoSuchElementException.class, aSketch::getMax);
+    }
+
+
+    @Test
+    public void addThrowsForNonFiniteValue()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY);
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> aSketch.add(Double.NaN));
+        assertThrows(IllegalArgumentException.class, () -> aSketch.add(Double.POSITIVE_INFINITY));
+        assertEquals(0, aSketch.getCount());
+    }
+
+
+    @Test
+    public void quantileThrowsForInvalidQuantile()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY).add(1);
+
+        // Then
+        assertThrows(IllegalArgumentException.class, () -> aSketch.quantile(-0.01));
+        assertThrows(IllegalArgumentException.class, () -> aSketch.quantile(1.01));
+        assertThrows(IllegalArgumentException.class, () -> aSketch.quantile(Double.NaN));
+    }
+
+
+    @Test
+    public void singleValueIsReturnedForAllQuantiles()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY).add(1234.5);
+
+        // Then
+        assertEquals(1234.5, aSketch.quantile(0));
+        assertEquals(1234.5, aSketch.quantile(0.5));
+        assertEquals(1234.5, aSketch.quantile(1));
+    }
+
+
+    @Test
+    public void quantilesAreWithinRelativeAccuracy()
+    {
+        // Given
+        long[] aLatencies = new long[100_000];
+        for (int i=0; i<aLatencies.length; i++)
+            aLatencies[i] = (long) Math.exp(ThreadLocalRandom.current().nextDouble(5, 20));
+
+        // When
+        QuantileSketch aSketch =
+            new QuantileSketch(ACCURACY).addAll(PrimitiveSequences.wrap(aLatencies));
+
+        // Then
+        Arrays.sort(aLatencies);
+        assertEquals(aLatencies.length, aSketch.getCount());
+        assertEquals(aLatencies[0], aSketch.getMin());
+        assertEquals(aLatencies[aLatencies.length - 1], aSketch.getMax());
+        for (double aQuantile : new double[]{0, 0.1, 0.5, 0.9, 0.99, 0.999, 1})
+        {
+            double aExact = aLatencies[(int) (aQuantile * (aLatencies.length - 1))];
+            assertWithinAccuracy(aExact, aSketch.quantile(aQuantile));
+        }
+    }
+
+
+    @Test
+    public void negativeAndZeroValuesAreHandled()
+    {
+        // Given
+        double[] aValues = new double[10_001];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = i - 5000;
+
+        // When
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY).addAll(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertEquals(-5000, aSketch.quantile(0));
+        assertEquals(0, aSketch.quantile(0.5));
+        assertEquals(5000, aSketch.quantile(1));
+        assertWithinAccuracy(-4000, aSketch.quantile(0.1));
+        assertWithinAccuracy(-1, aSketch.quantile(0.4999));
+        assertWithinAccuracy(2500, aSketch.quantile(0.75));
+    }
+
+
+    @Test
+    public void mergedSketchEqualsSketchWithAllValues()
+    {
+        // Given
+        double[] aValues = CollectionTests.randomDoubleValues(20_000);
+        QuantileSketch aFirst = new QuantileSketch(ACCURACY);
+        QuantileSketch aSecond = new QuantileSketch(ACCURACY);
+        QuantileSketch aAll = new QuantileSketch(ACCURACY);
+        for (int i=0; i<aValues.length; i++)
+        {
+            (i % 3 == 0 ? aFirst : aSecond).add(aValues[i]);
+            aAll.add(aValues[i]);
+        }
+
+        // When
+        QuantileSketch aMerged = aFirst.merge(aSecond);
+
+        // Then
+        assertSame(aFirst, aMerged);
+        assertEquals(aAll.getCount(), aMerged.getCount());
+        assertEquals(aAll.getMin(), aMerged.getMin());
+        assertEquals(aAll.getMax(), aMerged.getMax());
+        for (double aQuantile = 0; aQuantile <= 1; aQuantile += 0.01)
+            assertEquals(aAll.quantile(aQuantile), aMerged.quantile(aQuantile));
+    }
+
+
+    @Test
+    public void mergeWithEmptySketchHasNoEffect()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY).add(1).add(2).add(3);
+
+        // When
+        aSketch.merge(new QuantileSketch(ACCURACY));
+        QuantileSketch aEmpty = new QuantileSketch(ACCURACY).merge(aSketch);
+
+        // Then
+        assertEquals(3, aSketch.getCount());
+        assertEquals(3, aEmpty.getCount());
+        assertWithinAccuracy(2, aEmpty.quantile(0.5));
+    }
+
+
+    @Test
+    public void mergeThrowsForDifferentAccuracy()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> new QuantileSketch(0.01).merge(new QuantileSketch(0.02))
+        );
+    }
+
+
+    @Test
+    public void clearRemovesAllValues()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY).add(100).add(-1).add(0);
+
+        // When
+        aSketch.clear().add(7);
+
+        // Then
+        assertEquals(1, aSketch.getCount());
+        assertEquals(7, aSketch.quantile(0));
+        assertEquals(7, aSketch.getMin());
+    }
+
+
+    @Test
+    public void sketchSizeIsBoundedByValueRange()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(ACCURACY);
+
+        // When
+        for (int i=0; i<1_000_000; i++)
+            aSketch.add(1 + (i % 1000));
+
+        // Then
+        assertWithinAccuracy(500, aSketch.quantile(0.5));
+        assertTrue(aSketch.quantile(0.99) <= 1000);
+    }
+
+
+    @Test
+    public void quantilesAreWithinLowestRelativeAccuracy()
+    {
+        // Given
+        double aAccuracy = QuantileSketch.MIN_RELATIVE_ACCURACY;
+        QuantileSketch aSketch = new QuantileSketch(aAccuracy).add(1).add(1e6);
+
+        // When
+        for (int i=100; i<=10100; i++)
+            aSketch.add(i);
+
+        // Then
+        double aMedian = aSketch.quantile(0.5);
+        assertTrue(Math.abs(aMedian - 5100) <= aAccuracy * 5100, "Median was " + aMedian);
+    }
+
+
+    @Test
+    public void extremeValueRangeCollapsesLowestBuckets()
+    {
+        // Given
+        QuantileSketch aSketch = new QuantileSketch(QuantileSketch.MIN_RELATIVE_ACCURACY);
+        QuantileSketch aOther = new QuantileSketch(QuantileSketch.MIN_RELATIVE_ACCURACY);
+
+        // When
+        aSketch.add(Double.MIN_NORMAL).add(1e-300).add(-Double.MAX_VALUE);
+        for (int i=0; i<100; i++)
+            aOther.add(1e300).add(Double.MAX_VALUE);
+        aSketch.merge(aOther).add(1);
+
+        // Then
+        assertEquals(204, aSketch.getCount());
+        assertTrue(aSketch.quantile(0.01) <= aSketch.quantile(0.5));
+        assertEquals(1e300, aSketch.quantile(0.5), 1e300 * QuantileSketch.MIN_RELATIVE_ACCURACY);
+        assertEquals(-Double.MAX_VALUE, aSketch.quantile(0));
+        assertEquals(Double.MAX_VALUE, aSketch.quantile(1));
+    }
+
+
+    static private void assertWithinAccuracy(double pExpected, double pActual)
+    {
+        assertTrue(
+            Math.abs(pExpected - pActual) <= ACCURACY * Math.abs(pExpected) + 1e-9,
+            "Expected " + pExpected + ", was " + pActual);
+    }
+}
@@ -0,0 +1,418 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@code RadixSort}.
+ */
+public class RadixSortTest
+{
+    @Test
+    public void sortThrowsForNullArray()
+    {
+        assertThrows(NullPointerException.class, () -> RadixSort.sort((int[]) null));
+        assertThrows(NullPointerException.class, () -> RadixSort.sort((long[]) null));
+        assertThrows(NullPointerException.class, () -> RadixSort.sort((double[]) null));
+        assertThrows(NullPointerException.class, () -> RadixSort.parallelSort((int[]) null));
+        assertThrows(NullPointerException.class, () -> RadixSort.parallelSort((long[]) null));
+        assertThrows(NullPointerException.class, () -> RadixSort.parallelSort((double[]) null));
+    }
+
+
+    @Test
+    public void sortThrowsForInvalidRange()
+    {
+        assertThrows(IndexOutOfBoundsException.class, () -> RadixSort.sort(new int[10], -1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> RadixSort.sort(new long[10], 5, 6));
+        assertThrows(IndexOutOfBoundsException.class, () -> RadixSort.sort(new double[10], 0, -1));
+    }
+
+
+    @Test
+    public void sortedThrowsForNullSequence()
+    {
+        assertThrows(NullPointerException.class, () -> RadixSort.sorted((IntSequence) null));
+        assertThrows(NullPointerException.class, () -> RadixSort.sortedIndexes((LongSequence) null));
+    }
+
+
+    @Test
+    public void intArraysAreSorted()
+    {
+        for (int aLength : new int[]{0, 1, 63, 64, 1000, 100_000})
+        {
+            // Given
+            int[] aValues = CollectionTests.randomIntValues(aLength);
+            int[] aExpected = aValues.clone();
+            Arrays.sort(aExpected);
+
+            // When
+            RadixSort.sort(aValues);
+
+            // Then
+            assertArrayEquals(aExpected, aValues);
+        }
+    }
+
+
+    @Test
+    public void intArrayWithSmallValuesIsSorted()
+    {
+        // Given
+        int[] aValues = new int[10_000];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = ThreadLocalRandom.current().nextInt(-300, 300);
+        int[] aExpected = aValues.clone();
+        Arrays.sort(aExpected);
+
+        // When
+        RadixSort.sort(aValues);
+
+        // Then
+        assertArrayEquals(aExpected, aValues);
+    }
+
+
+    @Test
+    public void intArrayRangeIsSorted()
+    {
+        // Given
+        int[] aValues = CollectionTests.randomIntValues(1000);
+        int[] aExpected = aValues.clone();
+        Arrays.sort(aExpected, 100, 900);
+
+        // When
+        RadixSort.sort(aValues, 100, 800);
+
+        // Then
+        assertArrayEquals(aExpected, aValues);
+    }
+
+
+    @Test
+    public void longArraysAreSorted()
+    {
+        for (int aLength : new int[]{0, 1, 63, 64, 1000, 100_000})
+        {
+            // Given
+            long[] aValues = CollectionTests.randomLongValues(aLength);
+            long[] aExpected = aValues.clone();
+            Arrays.sort(aExpected);
+
+            // When
+            RadixSort.sort(aValues);
+
+            // Then
+            assertArrayEquals(aExpected, aValues);
+        }
+    }
+
+
+    @Test
+    public void longArrayRangeIsSorted()
+    {
+        // Given
+        long[] aValues = CollectionTests.randomLongValues(1000);
+        long[] aExpected = aValues.clone();
+        Arrays.sort(aExpected, 10, 990);
+
+        // When
+        RadixSort.sort(aValues, 10, 980);
+
+        // Then
+        assertArrayEquals(aExpected, aValues);
+    }
+
+
+    @Test
+    public void doubleArraysAreSorted()
+    {
+        // Given
+        double[] aValues = mixedDoubleValues(10_000);
+        double[] aExpected = aValues.clone();
+        Arrays.sort(aExpected);
+
+        // When
+        RadixSort.sort(aValues);
+
+        // Then
+        assertArrayEquals(aExpected, aValues);
+    }
+
+
+    @Test
+    public void doubleArrayRangeIsSorted()
+    {
+        // Given
+        double[] aValues = mixedDoubleValues(1000);
+        double[] aExpected = aValues.clone();
+        Arrays.sort(aExpected, 50, 950);
+
+        // When
+        RadixSort.sort(aValues, 50, 900);
+
+        // Then
+        assertArrayEquals(aExpected, aValues);
+    }
+
+
+    @Test
+    public void parallelSortSortsLargeArrays()
+    {
+        // Given
+        int[] aInts = CollectionTests.randomIntValues(500_000);
+        long[] aLongs = CollectionTests.randomLongValues(500_000);
+        double[] aDoubles = mixedDoubleValues(500_000);
+        int[] aExpectedInts = aInts.clone();
+        long[] aExpectedLongs = aLongs.clone();
+        double[] aExpectedDoubles = aDoubles.clone();
+        Arrays.sort(aExpectedInts);
+        Arrays.sort(aExpectedLongs);
+        Arrays.sort(aExpectedDoubles);
+
+        // When
+        RadixSort.parallelSort(aInts);
+        RadixSort.parallelSort(aLongs);
+        RadixSort.parallelSort(aDoubles);
+
+        // Then
+        assertArrayEquals(aExpectedInts, aInts);
+        assertArrayEquals(aExpectedLongs, aLongs);
+        assertArrayEquals(aExpectedDoubles, aDoubles);
+    }
+
+
+    @Test
+    public void chunkedSortSortsArrays()
+    {
+        // Given
+        int[] aInts = CollectionTests.randomIntValues(100_003);
+        long[] aLongs = CollectionTests.randomLongValues(100_003);
+        int[] aExpectedInts = aInts.clone();
+        long[] aExpectedLongs = aLongs.clone();
+        Arrays.sort(aExpectedInts);
+        Arrays.sort(aExpectedLongs);
+
+        // When (the parallel sort methods only use chunks on machines with multiple processors)
+        RadixSort.parallelRadixSort(aInts, 7);
+        RadixSort.parallelRadixSort(aLongs, 7);
+
+        // Then
+        assertArrayEquals(aExpectedInts, aInts);
+        assertArrayEquals(aExpectedLongs, aLongs);
+    }
+
+
+    @Test
+    public void chunkedSortSkipsPassesWithEqualDigits()
+    {
+        // Given
+        int[] aValues = new int[50_000];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = ThreadLocalRandom.current().nextInt(1000);
+        int[] aExpected = aValues.clone();
+        Arrays.sort(aExpected);
+
+        // When
+        RadixSort.parallelRadixSort(aValues, 5);
+
+        // Then
+        assertArrayEquals(aExpected, aValues);
+    }
+
+
+    @Test
+    public void parallelSortSortsSmallArrays()
+    {
+        // Given
+        int[] aValues = CollectionTests.randomIntValues(500);
+        int[] aExpected = aValues.clone();
+        Arrays.sort(aExpected);
+
+        // When
+        RadixSort.parallelSort(aValues);
+
+        // Then
+        assertArrayEquals(aExpected, aValues);
+    }
+
+
+    @Test
+    public void sortingWrappedArraySortsSequence()
+    {
+        // Given
+        int[] aValues = CollectionTests.randomIntValues(1000);
+        IntSequence aSequence = PrimitiveSequences.wrap(aValues);
+
+        // When
+        RadixSort.sort(aValues);
+
+        // Then
+        for (int i=1; i<aSequence.size(); i++)
+            assertTrue(aSequence.valueAt(i - 1) <= aSequence.valueAt(i));
+    }
+
+
+    @Test
+    public void sortedReturnsNewSortedSequence()
+    {
+        // Given
+        int[] aInts = CollectionTests.randomIntValues(2000);
+        long[] aLongs = CollectionTests.randomLongValues(2000);
+        double[] aDoubles = mixedDoubleValues(2000);
+        int[] aOriginalInts = aInts.clone();
+
+        // When
+        IntSequence aSortedInts = RadixSort.sorted(PrimitiveSequences.wrap(aInts));
+        LongSequence aSortedLongs = RadixSort.sorted(PrimitiveSequences.wrap(aLongs));
+        DoubleSequence aSortedDoubles = RadixSort.sorted(PrimitiveSequences.wrap(aDoubles));
+
+        // Then
+        Arrays.sort(aInts);
+        Arrays.sort(aLongs);
+        Arrays.sort(aDoubles);
+        assertArrayEquals(aInts, aSortedInts.intStream().toArray());
+        assertArrayEquals(aLongs, aSortedLongs.longStream().toArray());
+        assertArrayEquals(aDoubles, aSortedDoubles.doubleStream().toArray());
+        assertEquals(aOriginalInts.length, aSortedInts.size());
+    }
+
+
+    @Test
+    public void sortedIndexesIsStablePermutation()
+    {
+        // Given
+        int[] aValues = new int[5000];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = ThreadLocalRandom.current().nextInt(-50, 50);
+
+        // When
+        IntSequence aIndexes = RadixSort.sortedIndexes(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertPermutation(aIndexes);
+        for (int i=1; i<aIndexes.size(); i++)
+        {
+            int aPrevious = aIndexes.valueAt(i - 1), aCurrent = aIndexes.valueAt(i);
+            assertTrue(aValues[aPrevious] < aValues[aCurrent]
+                || (aValues[aPrevious] == aValues[aCurrent] && aPrevious < aCurrent));
+        }
+    }
+
+
+    @Test
+    public void sortedIndexesOfLongsIsStablePermutation()
+    {
+        // Given
+        long[] aValues = new long[5000];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = ThreadLocalRandom.current().nextLong(-50, 50) << 40;
+
+        // When
+        IntSequence aIndexes = RadixSort.sortedIndexes(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertPermutation(aIndexes);
+        for (int i=1; i<aIndexes.size(); i++)
+        {
+            int aPrevious = aIndexes.valueAt(i - 1), aCurrent = aIndexes.valueAt(i);
+            assertTrue(aValues[aPrevious] < aValues[aCurrent]
+                || (aValues[aPrevious] == aValues[aCurrent] && aPrevious < aCurrent));
+        }
+    }
+
+
+    @Test
+    public void sortedIndexesOfDoublesOrdersSpecialValues()
+    {
+        // Given
+        double[] aValues = {
+            Double.NaN, 1.0, -0.0, Double.NEGATIVE_INFINITY, 0.0, -1.0, Double.POSITIVE_INFINITY,
+            -Double.MIN_VALUE, Double.MAX_VALUE
+        };
+
+        // When
+        IntSequence aIndexes = RadixSort.sortedIndexes(PrimitiveSequences.wrap(aValues));
+
+        // Then
+        assertArrayEquals(new int[]{3, 5, 7, 2, 4, 1, 8, 6, 0}, aIndexes.intStream().toArray());
+    }
+
+
+    @Test
+    public void sortedIndexesOfEmptySequenceIsEmpty()
+    {
+        assertEquals(0, RadixSort.sortedIndexes(PrimitiveSequences.emptyIntSequence()).size());
+    }
+
+
+    @Test
+    public void sortedIndexesCanReorderColumnBatch()
+    {
+        // Given
+        ColumnBatch aBatch = new ColumnBatchBuilder()
+            .addColumn("key", PrimitiveSequences.wrap(new long[]{30, 10, 20}))
+            .addColumn("name", Sequences.wrap(new String[]{"c", "a", "b"}))
+            .build();
+
+        // When
+        ColumnBatch aSorted = aBatch.select(RadixSort.sortedIndexes(aBatch.getLongColumn("key")));
+
+        // Then
+        assertArrayEquals(new long[]{10, 20, 30}, aSorted.getLongColumn("key").longStream().toArray());
+        assertEquals("a", aSorted.getColumn("name").elementAt(0));
+        assertEquals("c", aSorted.getColumn("name").elementAt(2));
+    }
+
+
+    static private void assertPermutation(IntSequence pIndexes)
+    {
+        boolean[] aSeen = new boolean[pIndexes.size()];
+        pIndexes.forEach((int i) -> {
+            assertTrue(!aSeen[i]);
+            aSeen[i] = true;
+        });
+    }
+
+
+    static private double[] mixedDoubleValues(int pLength)
+    {
+        ThreadLocalRandom aRandom = ThreadLocalRandom.current();
+        double[] aValues = new double[pLength];
+        for (int i=0; i<pLength; i++)
+        {
+            switch (aRandom.nextInt(20))
+            {
+                case 0:
+                    aValues[i] = Double.NaN;
+                    break;
+                case 1:
+                    aValues[i] = -0.0;
+                    break;
+                case 2:
+                    aValues[i] = 0.0;
+                    break;
+                case 3:
+                    aValues[i] = aRandom.nextBoolean() ? Double.POSITIVE_INFINITY : Double.NEGATIVE_INFINITY;
+                    break;
+                default:
+                    aValues[i] = (aRandom.nextDouble() - 0.5) * Math.pow(10, aRandom.nextInt(-10, 10));
+            }
+        }
+
+        return aValues;
+    }
+}
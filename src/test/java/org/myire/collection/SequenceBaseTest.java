@@ -1,18 +1,21 @@
 /*
- * Copyright 2013, 2015, 2017, 2020-2022 Peter Franzen. All rights reserved.
+ * Copyright 2013, 2015, 2017, 2020-2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
 package org.myire.collection;
 
 import java.util.Iterator;
+import java.util.Spliterator;
 import java.util.concurrent.ThreadLocalRandom;
 import java.util.function.Consumer;
 
 import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import static org.mockito.Mockito.verifyNoMoreInteractions;
 
@@ -169,4 +172,146 @@ abstract public class SequenceBaseTest<T> extends CollectionBaseTest<T>
             );
         }
     }
+
+
+    /**
+     * A sequence's spliterator should report the sequence's size as its exact size.
+     */
+    @Test
+    public void spliteratorIsSized()
+    {
+        int[] aElementCounts = {0, 1, randomCollectionLength()};
+        for (int aElementCount : aElementCounts)
+        {
+            // Given
+            Sequence<T> aSequence = createSequence(aElementCount);
+
+            // When
+            Spliterator<T> aSpliterator = aSequence.spliterator();
+
+            // Then
+            assertTrue(aSpliterator.hasCharacteristics(Spliterator.SIZED));
+            assertEquals(aElementCount, aSpliterator.getExactSizeIfKnown());
+        }
+    }
+
+
+    /**
+     * A sequence's stream should contain the sequence's elements in the same order as they are
+     * returned by {@code elementAt()}.
+     */
+    @Test
+    public void streamContainsAllElements()
+    {
+        int[] aElementCounts = {0, 1, randomCollectionLength()};
+        for (int aElementCount : aElementCounts)
+        {
+            // Given
+            Sequence<T> aSequence = createSequence(aElementCount);
+
+            // When
+            Object[] aStreamed = aSequence.stream().toArray();
+
+            // Then
+            assertEquals(aElementCount, aStreamed.length);
+            for (int i=0; i<aElementCount; i++)
+                assertEquals(aSequence.elementAt(i), aStreamed[i]);
+        }
+    }
+
+
+    /**
+     * A sequence's parallel stream should contain the sequence's elements in the same order as
+     * they are returned by {@code elementAt()}.
+     */
+    @Test
+    public void parallelStreamContainsAllElementsInOrder()
+    {
+        // Given
+        Sequence<T> aSequence = createSequence(randomCollectionLength() * 64);
+        Object[] aExpected = new Object[aSequence.size()];
+        for (int i=0; i<aExpected.length; i++)
+            aExpected[i] = aSequence.elementAt(i);
+
+        // When
+        Object[] aStreamed = aSequence.stream().parallel().toArray();
+
+        // Then
+        assertArrayEquals(aExpected, aStreamed);
+    }
+
+    /**
+     * {@code subSequence()} should return a view with the elements in the specified range.
+     */
+    @Test
+    public void subSequenceContainsTheElementsInTheRange()
+    {
+        int[] aElementCounts = {0, 1, randomCollectionLength()};
+        for (int aElementCount : aElementCounts)
+        {
+            // Given
+            Sequence<T> aSequence = createSequence(aElementCount);
+            int aFrom = ThreadLocalRandom.current().nextInt(aElementCount + 1);
+            int aTo = ThreadLocalRandom.current().nextInt(aFrom, aElementCount + 1);
+
+            // When
+            Sequence<T> aSubSequence = aSequence.subSequence(aFrom, aTo);
+
+            // Then
+            assertEquals(aTo - aFrom, aSubSequence.size());
+            for (int i=0; i<aSubSequence.size(); i++)
+                assertEquals(aSequence.elementAt(aFrom + i), aSubSequence.elementAt(i));
+
+            assertEquals(aTo - aFrom, aSubSequence.stream().count());
+        }
+    }
+
+
+    /**
+     * {@code subSequence()} on a sub-sequence should return a view with the elements in the range
+     * relative to the first sub-sequence.
+     */
+    @Test
+    public void nestedSubSequenceContainsTheElementsInTheRange()
+    {
+        // Given
+        int aElementCount = randomCollectionLength() + 4;
+        Sequence<T> aSequence = createSequence(aElementCount);
+
+        // When
+        Sequence<T> aSubSequence = aSequence.subSequence(1, aElementCount - 1).subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSubSequence.size());
+        assertEquals(aSequence.elementAt(2), aSubSequence.elementAt(0));
+        assertEquals(aSequence.elementAt(3), aSubSequence.elementAt(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSubSequence.elementAt(2));
+    }
+
+
+    /**
+     * {@code subSequence()} should throw an {@code IndexOutOfBoundsException} for ranges that
+     * aren't within the bounds of the sequence.
+     */
+    @Test
+    public void subSequenceThrowsForInvalidRange()
+    {
+        int[] aElementCounts = {0, 1, randomCollectionLength()};
+        for (int aElementCount : aElementCounts)
+        {
+            // Given
+            Sequence<T> aSequence = createSequence(aElementCount);
+
+            // Then
+            assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(-1, 0));
+            assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> aSequence.subSequence(0, aElementCount + 1)
+            );
+            assertThrows(
+                IndexOutOfBoundsException.class,
+                () -> aSequence.subSequence(aElementCount, aElementCount - 1)
+            );
+        }
+    }
 }
@@ -0,0 +1,555 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.myire.util.ByteArrayBuilder;
+import org.myire.util.MalformedDataException;
+
+import static org.myire.collection.CollectionTests.randomDoubleValues;
+import static org.myire.collection.CollectionTests.randomIntValues;
+import static org.myire.collection.CollectionTests.randomLongValues;
+
+
+/**
+ * Unit tests for {@code SequenceCodec}.
+ */
+public class SequenceCodecTest
+{
+    static private final int LARGE_SIZE = 50_000;
+
+    static private final int[] EXTREME_INTS = {
+        0, 1, -1, 63, 64, -64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE
+    };
+
+    static private final long[] EXTREME_LONGS = {
+        0, 1, -1, 63, 64, -64, -65, Integer.MAX_VALUE, Integer.MIN_VALUE,
+        Long.MAX_VALUE, Long.MIN_VALUE
+    };
+
+    static private final double[] EXTREME_DOUBLES = {
+        0.0, -0.0, Double.MIN_VALUE, Double.MAX_VALUE, Double.NaN,
+        Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+
+
+    @Test
+    public void encodeThrowsForNullSequence()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> SequenceCodec.encode(
+                (IntSequence) null,
+                SequenceCodec.Encoding.FIXED_WIDTH,
+                new ByteArrayBuilder(64))
+        );
+    }
+
+
+    @Test
+    public void encodeThrowsForNullEncoding()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> SequenceCodec.encode(
+                PrimitiveSequences.wrap(new long[] {1}),
+                null,
+                new ByteArrayBuilder(64))
+        );
+    }
+
+
+    @Test
+    public void encodeThrowsForNullBuilder()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> SequenceCodec.encode(PrimitiveSequences.wrap(new double[] {1}), null)
+        );
+    }
+
+
+    @Test
+    public void decodeThrowsForNullBuffer()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> SequenceCodec.decodeIntSequence(null)
+        );
+    }
+
+
+    @Test
+    public void readThrowsForNullChannel()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> SequenceCodec.readLongSequence(null)
+        );
+    }
+
+
+    @Test
+    public void emptySequencesAreEncodedAsHeaderOnly() throws MalformedDataException
+    {
+        // Given
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+
+        // When
+        SequenceCodec.encode(
+            PrimitiveSequences.wrap(new int[0]),
+            SequenceCodec.Encoding.ZIGZAG_VARINT,
+            aBuilder);
+
+        // Then
+        byte[] aBytes = aBuilder.getBytes();
+        assertEquals(SequenceCodec.HEADER_LENGTH, aBytes.length);
+        assertEquals(0, SequenceCodec.decodeIntSequence(ByteBuffer.wrap(aBytes)).size());
+    }
+
+
+    @Test
+    public void intSequenceRoundTripsThroughBuilder() throws MalformedDataException
+    {
+        for (SequenceCodec.Encoding aEncoding : SequenceCodec.Encoding.values())
+        {
+            assertIntRoundTrip(randomIntValues(LARGE_SIZE), aEncoding);
+            assertIntRoundTrip(EXTREME_INTS, aEncoding);
+        }
+    }
+
+
+    @Test
+    public void longSequenceRoundTripsThroughBuilder() throws MalformedDataException
+    {
+        for (SequenceCodec.Encoding aEncoding : SequenceCodec.Encoding.values())
+        {
+            assertLongRoundTrip(randomLongValues(LARGE_SIZE), aEncoding);
+            assertLongRoundTrip(EXTREME_LONGS, aEncoding);
+        }
+    }
+
+
+    @Test
+    public void doubleSequenceRoundTripsThroughBuilder() throws MalformedDataException
+    {
+        assertDoubleRoundTrip(randomDoubleValues(LARGE_SIZE));
+        assertDoubleRoundTrip(EXTREME_DOUBLES);
+    }
+
+
+    @Test
+    public void ringBufferIsEncodedInSequenceOrder() throws MalformedDataException
+    {
+        // Given
+        IntRingBuffer aRingBuffer = new IntRingBuffer(5);
+        for (int i=0; i<8; i++)
+            aRingBuffer.add(i);
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+
+        // When
+        SequenceCodec.encode(aRingBuffer, SequenceCodec.Encoding.FIXED_WIDTH, aBuilder);
+
+        // Then
+        ByteBuffer aBuffer = ByteBuffer.wrap(aBuilder.getBytes());
+        IntSequence aDecoded = SequenceCodec.decodeIntSequence(aBuffer);
+        assertArrayEquals(new int[] {3, 4, 5, 6, 7}, toArray(aDecoded));
+    }
+
+
+    @Test
+    public void varintEncodingUsesOneByteForSmallValues()
+    {
+        // Given
+        long[] aValues = {0, 1, -1, 63, -64};
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+
+        // When
+        SequenceCodec.encode(
+            PrimitiveSequences.wrap(aValues),
+            SequenceCodec.Encoding.ZIGZAG_VARINT,
+            aBuilder);
+
+        // Then
+        assertEquals(SequenceCodec.HEADER_LENGTH + aValues.length, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void sequencesRoundTripThroughChannel() throws IOException, MalformedDataException
+    {
+        // Given
+        int[] aInts = randomIntValues(LARGE_SIZE);
+        long[] aLongs = randomLongValues(LARGE_SIZE);
+        double[] aDoubles = randomDoubleValues(LARGE_SIZE);
+        ByteArrayOutputStream aStream = new ByteArrayOutputStream();
+
+        // When
+        try (WritableByteChannel aChannel = Channels.newChannel(aStream))
+        {
+            SequenceCodec.write(
+                PrimitiveSequences.wrap(aInts),
+                SequenceCodec.Encoding.ZIGZAG_VARINT,
+                aChannel);
+            SequenceCodec.write(
+                PrimitiveSequences.wrap(aLongs),
+                SequenceCodec.Encoding.FIXED_WIDTH,
+                aChannel);
+            SequenceCodec.write(PrimitiveSequences.wrap(aDoubles), aChannel);
+            SequenceCodec.write(
+                PrimitiveSequences.wrap(aLongs),
+                SequenceCodec.Encoding.ZIGZAG_VARINT,
+                aChannel);
+            SequenceCodec.write(
+                PrimitiveSequences.wrap(aInts),
+                SequenceCodec.Encoding.FIXED_WIDTH,
+                aChannel);
+        }
+
+        // Then
+        ByteArrayInputStream aInput = new ByteArrayInputStream(aStream.toByteArray());
+        try (ReadableByteChannel aChannel = Channels.newChannel(aInput))
+        {
+            assertArrayEquals(aInts, toArray(SequenceCodec.readIntSequence(aChannel)));
+            assertArrayEquals(aLongs, toArray(SequenceCodec.readLongSequence(aChannel)));
+            assertArrayEquals(aDoubles, toArray(SequenceCodec.readDoubleSequence(aChannel)));
+            assertArrayEquals(aLongs, toArray(SequenceCodec.readLongSequence(aChannel)));
+            assertArrayEquals(aInts, toArray(SequenceCodec.readIntSequence(aChannel)));
+            assertEquals(0, aInput.available());
+        }
+    }
+
+
+    @Test
+    public void channelAndBuilderEncodingsAreEqual() throws IOException
+    {
+        // Given
+        LongSequence aSequence = PrimitiveSequences.wrap(randomLongValues(LARGE_SIZE));
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+        ByteArrayOutputStream aStream = new ByteArrayOutputStream();
+
+        // When
+        SequenceCodec.encode(aSequence, SequenceCodec.Encoding.ZIGZAG_VARINT, aBuilder);
+        SequenceCodec.write(
+            aSequence,
+            SequenceCodec.Encoding.ZIGZAG_VARINT,
+            Channels.newChannel(aStream));
+
+        // Then
+        assertArrayEquals(aBuilder.getBytes(), aStream.toByteArray());
+    }
+
+
+    @Test
+    public void decodeAdvancesBufferPositionAndIgnoresByteOrder() throws MalformedDataException
+    {
+        // Given
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+        aBuilder.append((byte) 17);
+        SequenceCodec.encode(
+            PrimitiveSequences.wrap(EXTREME_INTS),
+            SequenceCodec.Encoding.FIXED_WIDTH,
+            aBuilder);
+        SequenceCodec.encode(
+            PrimitiveSequences.wrap(EXTREME_INTS),
+            SequenceCodec.Encoding.ZIGZAG_VARINT,
+            aBuilder);
+        ByteBuffer aBuffer = ByteBuffer.wrap(aBuilder.getBytes()).order(ByteOrder.LITTLE_ENDIAN);
+        aBuffer.position(1);
+
+        // When
+        IntSequence aFirst = SequenceCodec.decodeIntSequence(aBuffer);
+        IntSequence aSecond = SequenceCodec.decodeIntSequence(aBuffer);
+
+        // Then
+        assertArrayEquals(EXTREME_INTS, toArray(aFirst));
+        assertArrayEquals(EXTREME_INTS, toArray(aSecond));
+        assertEquals(aBuffer.limit(), aBuffer.position());
+    }
+
+
+    @Test
+    public void decodeThrowsForWrongSequenceType()
+    {
+        // Given
+        ByteBuffer aBuffer = encodeInts(EXTREME_INTS, SequenceCodec.Encoding.FIXED_WIDTH);
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeLongSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void decodeThrowsForTruncatedHeader()
+    {
+        // Given
+        ByteBuffer aBuffer = encodeInts(EXTREME_INTS, SequenceCodec.Encoding.FIXED_WIDTH);
+        aBuffer.limit(SequenceCodec.HEADER_LENGTH - 1);
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeIntSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void decodeThrowsForTruncatedPayload()
+    {
+        for (SequenceCodec.Encoding aEncoding : SequenceCodec.Encoding.values())
+        {
+            // Given
+            ByteBuffer aBuffer = encodeInts(EXTREME_INTS, aEncoding);
+            aBuffer.limit(aBuffer.limit() - 1);
+
+            // Then
+            assertThrows(
+                MalformedDataException.class,
+                () -> SequenceCodec.decodeIntSequence(aBuffer)
+            );
+        }
+    }
+
+
+    @Test
+    public void decodeThrowsForInvalidPayloadLength()
+    {
+        // Given
+        ByteBuffer aBuffer = encodeInts(EXTREME_INTS, SequenceCodec.Encoding.FIXED_WIDTH);
+        aBuffer.putLong(1 + Integer.BYTES, EXTREME_INTS.length * Integer.BYTES - 1);
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeIntSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void decodeThrowsForNegativeSize()
+    {
+        // Given
+        ByteBuffer aBuffer = encodeInts(new int[0], SequenceCodec.Encoding.FIXED_WIDTH);
+        aBuffer.putInt(1, -1);
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeIntSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void decodeThrowsForOverlongVarint()
+    {
+        // Given
+        ByteBuffer aBuffer = ByteBuffer.allocate(SequenceCodec.HEADER_LENGTH + 11);
+        aBuffer.put(SequenceCodec.LONG_VARINT).putInt(1).putLong(10);
+        for (int i=0; i<10; i++)
+            aBuffer.put((byte) 0x80);
+        aBuffer.flip();
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeLongSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void decodeThrowsForIntVarintOutOfRange()
+    {
+        // Given
+        ByteBuffer aBuffer = ByteBuffer.allocate(SequenceCodec.HEADER_LENGTH + 5);
+        aBuffer.put(SequenceCodec.INT_VARINT).putInt(1).putLong(5);
+        aBuffer.put(new byte[] {(byte) 0xff, (byte) 0xff, (byte) 0xff, (byte) 0xff, 0x1f});
+        aBuffer.flip();
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeIntSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void decodeThrowsForTrailingPayloadBytes()
+    {
+        // Given
+        ByteBuffer aBuffer = ByteBuffer.allocate(SequenceCodec.HEADER_LENGTH + 2);
+        aBuffer.put(SequenceCodec.LONG_VARINT).putInt(1).putLong(2);
+        aBuffer.put((byte) 1).put((byte) 1);
+        aBuffer.flip();
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeLongSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void readThrowsForPrematureEndOfChannel()
+    {
+        for (SequenceCodec.Encoding aEncoding : SequenceCodec.Encoding.values())
+        {
+            // Given
+            ByteBuffer aBuffer = encodeInts(randomIntValues(LARGE_SIZE), aEncoding);
+            byte[] aBytes = Arrays.copyOf(aBuffer.array(), aBuffer.limit() - 1);
+            ReadableByteChannel aChannel = Channels.newChannel(new ByteArrayInputStream(aBytes));
+
+            // Then
+            assertThrows(
+                EOFException.class,
+                () -> SequenceCodec.readIntSequence(aChannel)
+            );
+        }
+    }
+
+
+    @Test
+    public void decodeThrowsForSizeExceedingBuffer()
+    {
+        // Given
+        ByteBuffer aBuffer = ByteBuffer.allocate(SequenceCodec.HEADER_LENGTH);
+        aBuffer.put(SequenceCodec.DOUBLE_FIXED_WIDTH);
+        aBuffer.putInt(Integer.MAX_VALUE).putLong((long) Integer.MAX_VALUE * Double.BYTES);
+        aBuffer.flip();
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.decodeDoubleSequence(aBuffer)
+        );
+    }
+
+
+    @Test
+    public void readThrowsForSizeExceedingChannel()
+    {
+        for (byte aFormat : new byte[] {SequenceCodec.LONG_FIXED_WIDTH, SequenceCodec.LONG_VARINT})
+        {
+            // Given
+            ByteBuffer aBuffer = ByteBuffer.allocate(SequenceCodec.HEADER_LENGTH + Long.BYTES);
+            aBuffer.put(aFormat);
+            aBuffer.putInt(Integer.MAX_VALUE).putLong((long) Integer.MAX_VALUE * Long.BYTES);
+            aBuffer.putLong(0);
+            ReadableByteChannel aChannel =
+                Channels.newChannel(new ByteArrayInputStream(aBuffer.array()));
+
+            // Then
+            assertThrows(
+                EOFException.class,
+                () -> SequenceCodec.readLongSequence(aChannel)
+            );
+        }
+    }
+
+
+    @Test
+    public void readThrowsForWrongSequenceType()
+    {
+        // Given
+        ByteBuffer aBuffer = encodeInts(EXTREME_INTS, SequenceCodec.Encoding.ZIGZAG_VARINT);
+        ReadableByteChannel aChannel =
+            Channels.newChannel(new ByteArrayInputStream(aBuffer.array(), 0, aBuffer.limit()));
+
+        // Then
+        assertThrows(
+            MalformedDataException.class,
+            () -> SequenceCodec.readDoubleSequence(aChannel)
+        );
+    }
+
+
+    static private void assertIntRoundTrip(int[] pValues, SequenceCodec.Encoding pEncoding)
+        throws MalformedDataException
+    {
+        ByteBuffer aBuffer = encodeInts(pValues, pEncoding);
+        assertArrayEquals(pValues, toArray(SequenceCodec.decodeIntSequence(aBuffer)));
+        assertEquals(aBuffer.limit(), aBuffer.position());
+    }
+
+
+    static private void assertLongRoundTrip(long[] pValues, SequenceCodec.Encoding pEncoding)
+        throws MalformedDataException
+    {
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+        SequenceCodec.encode(PrimitiveSequences.wrap(pValues), pEncoding, aBuilder);
+        ByteBuffer aBuffer = ByteBuffer.wrap(aBuilder.getBytes());
+        assertArrayEquals(pValues, toArray(SequenceCodec.decodeLongSequence(aBuffer)));
+        assertEquals(aBuffer.limit(), aBuffer.position());
+    }
+
+
+    static private void assertDoubleRoundTrip(double[] pValues) throws MalformedDataException
+    {
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+        SequenceCodec.encode(PrimitiveSequences.wrap(pValues), aBuilder);
+        ByteBuffer aBuffer = ByteBuffer.wrap(aBuilder.getBytes());
+        assertArrayEquals(pValues, toArray(SequenceCodec.decodeDoubleSequence(aBuffer)));
+        assertEquals(aBuffer.limit(), aBuffer.position());
+    }
+
+
+    static private ByteBuffer encodeInts(int[] pValues, SequenceCodec.Encoding pEncoding)
+    {
+        ByteArrayBuilder aBuilder = new ByteArrayBuilder(64);
+        SequenceCodec.encode(PrimitiveSequences.wrap(pValues), pEncoding, aBuilder);
+        return ByteBuffer.wrap(aBuilder.getBytes());
+    }
+
+
+    static private int[] toArray(IntSequence pSequence)
+    {
+        int[] aValues = new int[pSequence.size()];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = pSequence.valueAt(i);
+        return aValues;
+    }
+
+
+    static private long[] toArray(LongSequence pSequence)
+    {
+        long[] aValues = new long[pSequence.size()];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = pSequence.valueAt(i);
+        return aValues;
+    }
+
+
+    static private double[] toArray(DoubleSequence pSequence)
+    {
+        double[] aValues = new double[pSequence.size()];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = pSequence.valueAt(i);
+        return aValues;
+    }
+}
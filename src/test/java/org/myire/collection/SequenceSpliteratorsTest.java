@@ -0,0 +1,272 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.function.IntConsumer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import static org.myire.collection.CollectionTests.randomIntValues;
+
+
+/**
+ * Unit tests for the {@code Spliterator} implementations returned by {@code SequenceSpliterators}.
+ */
+public class SequenceSpliteratorsTest
+{
+    /**
+     * A spliterator should report the {@code ORDERED}, {@code SIZED}, and {@code SUBSIZED}
+     * characteristics.
+     */
+    @Test
+    public void spliteratorHasExpectedCharacteristics()
+    {
+        // Given
+        Spliterator.OfInt aSpliterator = SequenceSpliterators.spliterator(new TestIntSequence(1, 2));
+
+        // Then
+        assertTrue(aSpliterator.hasCharacteristics(Spliterator.ORDERED));
+        assertTrue(aSpliterator.hasCharacteristics(Spliterator.SIZED));
+        assertTrue(aSpliterator.hasCharacteristics(Spliterator.SUBSIZED));
+    }
+
+
+    /**
+     * {@code trySplit()} should split off the lower half of the sequence, leaving the upper half
+     * in the original spliterator.
+     */
+    @Test
+    public void trySplitSplitsOffLowerHalf()
+    {
+        // Given
+        int[] aValues = randomIntValues(9);
+        Spliterator.OfInt aUpper = SequenceSpliterators.spliterator(new TestIntSequence(aValues));
+
+        // When
+        Spliterator.OfInt aLower = aUpper.trySplit();
+
+        // Then
+        assertNotNull(aLower);
+        assertEquals(4, aLower.estimateSize());
+        assertEquals(5, aUpper.estimateSize());
+        assertArrayEquals(Arrays.copyOfRange(aValues, 0, 4), collect(aLower));
+        assertArrayEquals(Arrays.copyOfRange(aValues, 4, 9), collect(aUpper));
+    }
+
+
+    /**
+     * {@code trySplit()} should return null when there is only one element left.
+     */
+    @Test
+    public void trySplitReturnsNullForSingleElement()
+    {
+        // Given
+        Spliterator.OfInt aSpliterator = SequenceSpliterators.spliterator(new TestIntSequence(17));
+
+        // Then
+        assertNull(aSpliterator.trySplit());
+    }
+
+
+    /**
+     * {@code tryAdvance()} should pass one value at a time to the action and return false when
+     * the values are exhausted.
+     */
+    @Test
+    public void tryAdvancePassesOneValueAtATime()
+    {
+        // Given
+        Spliterator.OfInt aSpliterator = SequenceSpliterators.spliterator(new TestIntSequence(3, 5));
+        int[] aValue = new int[1];
+
+        // Then
+        assertTrue(aSpliterator.tryAdvance((int v) -> aValue[0] = v));
+        assertEquals(3, aValue[0]);
+        assertTrue(aSpliterator.tryAdvance((int v) -> aValue[0] = v));
+        assertEquals(5, aValue[0]);
+        assertFalse(aSpliterator.tryAdvance((int v) -> aValue[0] = v));
+        assertEquals(0, aSpliterator.estimateSize());
+    }
+
+
+    /**
+     * {@code tryAdvance()} should throw a {@code NullPointerException} when passed a null action.
+     */
+    @Test
+    public void tryAdvanceThrowsForNullAction()
+    {
+        // Given
+        Spliterator.OfInt aSpliterator = SequenceSpliterators.spliterator(new TestIntSequence(1));
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> aSpliterator.tryAdvance((IntConsumer) null)
+        );
+    }
+
+
+    /**
+     * A spliterator for an empty sequence should not pass any values to the action.
+     */
+    @Test
+    public void emptySequenceSpliteratorDoesNotInvokeAction()
+    {
+        // Given
+        IntConsumer aAction = mock(IntConsumer.class);
+
+        // When
+        SequenceSpliterators.spliterator(new TestIntSequence()).forEachRemaining(aAction);
+
+        // Then
+        verifyNoInteractions(aAction);
+    }
+
+
+    /**
+     * A spliterator should bind to the size of the sequence when first used, not when created.
+     */
+    @Test
+    public void spliteratorIsLateBinding()
+    {
+        // Given
+        List<String> aList = new ArrayList<>();
+        Spliterator<String> aSpliterator = SequenceSpliterators.spliterator(new TestSequence<>(aList));
+
+        // When
+        aList.add("x");
+        aList.add("y");
+
+        // Then
+        assertEquals(2, aSpliterator.estimateSize());
+    }
+
+
+    /**
+     * The default {@code stream()} of a sequence should be sequential and contain all elements.
+     */
+    @Test
+    public void defaultStreamContainsAllElements()
+    {
+        // Given
+        Sequence<String> aSequence = new TestSequence<>(Arrays.asList("a", "b", "c"));
+
+        // Then
+        assertFalse(aSequence.stream().isParallel());
+        assertArrayEquals(new Object[]{"a", "b", "c"}, aSequence.stream().toArray());
+    }
+
+
+    /**
+     * A parallel reduction over the default {@code intStream()} of a large sequence should include
+     * all values.
+     */
+    @Test
+    public void defaultParallelIntStreamReducesAllValues()
+    {
+        // Given
+        int[] aValues = randomIntValues(100_000);
+        IntSequence aSequence = new TestIntSequence(aValues);
+
+        // When
+        long aSum = aSequence.intStream().parallel().asLongStream().sum();
+
+        // Then
+        assertEquals(Arrays.stream(aValues).asLongStream().sum(), aSum);
+    }
+
+
+    static private int[] collect(Spliterator.OfInt pSpliterator)
+    {
+        int[] aValues = new int[(int) pSpliterator.estimateSize()];
+        int[] aIndex = new int[1];
+        pSpliterator.forEachRemaining((int v) -> aValues[aIndex[0]++] = v);
+        return aValues;
+    }
+
+
+    /**
+     * {@code IntSequence} that only implements the abstract methods, relying on the default
+     * spliterator and stream implementations.
+     */
+    static private class TestIntSequence implements IntSequence
+    {
+        private final int[] fValues;
+
+        TestIntSequence(int... pValues)
+        {
+            fValues = pValues;
+        }
+
+        @Override
+        public int size()
+        {
+            return fValues.length;
+        }
+
+        @Override
+        public int valueAt(int pIndex)
+        {
+            return fValues[pIndex];
+        }
+
+        @Override
+        public void forEach(IntConsumer pAction)
+        {
+            for (int aValue : fValues)
+                pAction.accept(aValue);
+        }
+
+        @Override
+        public PrimitiveIterator.OfInt iterator()
+        {
+            return PrimitiveIterators.arrayIterator(fValues, 0, fValues.length);
+        }
+    }
+
+
+    /**
+     * {@code Sequence} backed by a list that only implements the abstract methods.
+     *
+     * @param <E>   The type of the elements.
+     */
+    static private class TestSequence<E> implements Sequence<E>
+    {
+        private final List<E> fList;
+
+        TestSequence(List<E> pList)
+        {
+            fList = pList;
+        }
+
+        @Override
+        public int size()
+        {
+            return fList.size();
+        }
+
+        @Override
+        public E elementAt(int pIndex)
+        {
+            return fList.get(pIndex);
+        }
+    }
+}
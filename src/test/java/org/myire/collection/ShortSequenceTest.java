@@ -0,0 +1,211 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the {@code ShortSequence} implementations created by {@code CompactSequences}.
+ */
+public class ShortSequenceTest
+{
+    @Test
+    public void emptySequenceHasNoValues()
+    {
+        // When
+        ShortSequence aSequence = CompactSequences.emptyShortSequence();
+
+        // Then
+        assertEquals(0, aSequence.size());
+        assertFalse(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(0));
+        assertSame(aSequence, CompactSequences.emptyShortSequence());
+    }
+
+
+    @Test
+    public void singletonContainsTheValue()
+    {
+        // When
+        ShortSequence aSequence = CompactSequences.singleton((short) -1717);
+
+        // Then
+        assertEquals(1, aSequence.size());
+        assertEquals((short) -1717, aSequence.valueAt(0));
+        assertEquals(Short.valueOf((short) -1717), aSequence.elementAt(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void wrapReturnsSequenceBackedByArray()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+
+        // When
+        ShortSequence aSequence = CompactSequences.wrap(aValues);
+        aValues[1] = (short) 999;
+
+        // Then
+        assertEquals(aValues.length, aSequence.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(aValues[i], aSequence.valueAt(i));
+    }
+
+
+    @Test
+    public void wrapRangeReturnsTheValuesInTheRange()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+
+        // When
+        ShortSequence aSequence = CompactSequences.wrap(aValues, 1, 3);
+
+        // Then
+        assertEquals(3, aSequence.size());
+        for (int i=0; i<3; i++)
+            assertEquals(aValues[i + 1], aSequence.valueAt(i));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(-1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(3));
+    }
+
+
+    @Test
+    public void wrapThrowsForNullArray()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> CompactSequences.wrap((short[]) null)
+        );
+    }
+
+
+    @Test
+    public void wrapThrowsForInvalidRange()
+    {
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> CompactSequences.wrap(new short[2], 1, 2)
+        );
+    }
+
+
+    @Test
+    public void forEachPassesAllValuesInOrder()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+        List<Short> aPassed = new ArrayList<>();
+
+        // When
+        CompactSequences.wrap(aValues).forEach((short v) -> aPassed.add(Short.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length, aPassed.size());
+        for (int i=0; i<aValues.length; i++)
+            assertEquals(Short.valueOf(aValues[i]), aPassed.get(i));
+    }
+
+
+    @Test
+    public void iteratorReturnsAllValuesInOrder()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+
+        // When
+        ShortIterator aIterator = CompactSequences.wrap(aValues).iterator();
+
+        // Then
+        assertEquals(Short.valueOf(aValues[0]), aIterator.next());
+        for (int i=1; i<aValues.length; i++)
+            assertEquals(aValues[i], aIterator.nextShort());
+
+        assertFalse(aIterator.hasNext());
+        assertThrows(NoSuchElementException.class, aIterator::nextShort);
+    }
+
+
+    @Test
+    public void forEachRemainingPassesTheRemainingValues()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+        ShortIterator aIterator = CompactSequences.wrap(aValues).iterator();
+        aIterator.nextShort();
+        List<Short> aPassed = new ArrayList<>();
+
+        // When
+        aIterator.forEachRemaining((short v) -> aPassed.add(Short.valueOf(v)));
+
+        // Then
+        assertEquals(aValues.length - 1, aPassed.size());
+        assertEquals(Short.valueOf(aValues[aValues.length - 1]), aPassed.get(aValues.length - 2));
+    }
+
+
+    @Test
+    public void subSequenceContainsTheValuesInTheRange()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+
+        // When
+        ShortSequence aSequence = CompactSequences.wrap(aValues)
+            .subSequence(1, 4)
+            .subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+    }
+
+
+    @Test
+    public void subSequenceOfViewContainsTheValuesInTheRange()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+        ShortSequence aView = CompactSequences.subSequence(CompactSequences.wrap(aValues), 1, 5);
+
+        // When
+        ShortSequence aSequence = aView.subSequence(1, 3);
+
+        // Then
+        assertEquals(2, aSequence.size());
+        assertEquals(aValues[2], aSequence.valueAt(0));
+        assertEquals(aValues[3], aSequence.valueAt(1));
+        assertTrue(aSequence.iterator().hasNext());
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.valueAt(2));
+    }
+
+
+    @Test
+    public void subSequenceThrowsForInvalidRange()
+    {
+        // Given
+        short[] aValues = new short[]{1, -2, 300, Short.MIN_VALUE, Short.MAX_VALUE};
+        ShortSequence aSequence = CompactSequences.wrap(aValues);
+
+        // Then
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(-1, 2));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(2, 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> aSequence.subSequence(0, 6));
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.collection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+
+/**
+ * Unit tests for {@code SortedSequences}.
+ */
+public class SortedSequencesTest
+{
+    @Test
+    public void binarySearchFindsFirstOccurrence()
+    {
+        // Given
+        int[] aValues = {1, 3, 3, 3, 5, 8, 8, 13};
+        IntSequence aSequence = PrimitiveSequences.wrap(aValues);
+
+        // Then
+        assertEquals(0, SortedSequences.binarySearch(aSequence, 1));
+        assertEquals(1, SortedSequences.binarySearch(aSequence, 3));
+        assertEquals(5, SortedSequences.binarySearch(aSequence, 8));
+        assertEquals(7, SortedSequences.binarySearch(aSequence, 13));
+    }
+
+
+    @Test
+    public void binarySearchReturnsInsertionPointForMissingValue()
+    {
+        // Given
+        LongSequence aSequence = PrimitiveSequences.wrap(new long[]{1, 3, 3, 5});
+
+        // Then
+        assertEquals(-1, SortedSequences.binarySearch(aSequence, 0));
+        assertEquals(-2, SortedSequences.binarySearch(aSequence, 2));
+        assertEquals(-4, SortedSequences.binarySearch(aSequence, 4));
+        assertEquals(-5, SortedSequences.binarySearch(aSequence, 6));
+        assertEquals(-1, SortedSequences.binarySearch(PrimitiveSequences.emptyLongSequence(), 6));
+    }
+
+
+    @Test
+    public void binarySearchAgreesWithArraysBinarySearch()
+    {
+        // Given
+        int[] aValues = distinctSortedValues(1000, 10);
+        IntSequence aSequence = PrimitiveSequences.wrap(aValues);
+
+        // Then
+        for (int i=-1; i<10_001; i++)
+            assertEquals(
+                Arrays.binarySearch(aValues, i),
+                SortedSequences.binarySearch(aSequence, i));
+    }
+
+
+    @Test
+    public void gallopingSearchAgreesWithBinarySearch()
+    {
+        // Given
+        long[] aValues = new long[1000];
+        for (int i=0; i<aValues.length; i++)
+            aValues[i] = i * 3;
+        LongSequence aSequence = PrimitiveSequences.wrap(aValues);
+
+        // Then
+        for (int aFromIndex=0; aFromIndex<aValues.length; aFromIndex+=37)
+        {
+            for (long aKey=aFromIndex * 3; aKey<3005; aKey++)
+            {
+                int aExpected = Arrays.binarySearch(aValues, aFromIndex, aValues.length, aKey);
+                assertEquals(
+                    aExpected,
+                    SortedSequences.gallopingSearch(aSequence, aFromIndex, aKey));
+            }
+        }
+    }
+
+
+    @Test
+    public void gallopingSearchDoesNotSearchBeforeFromIndex()
+    {
+        // Given
+        IntSequence aSequence = PrimitiveSequences.wrap(new int[]{1, 2, 3, 4, 5});
+
+        // Then
+        assertEquals(-4, SortedSequences.gallopingSearch(aSequence, 3, 2));
+        assertEquals(-6, SortedSequences.gallopingSearch(aSequence, 5, 2));
+        assertEquals(4, SortedSequences.gallopingSearch(aSequence, 2, 5));
+    }
+
+
+    @Test
+    public void gallopingSearchThrowsForInvalidFromIndex()
+    {
+        // Given
+        IntSequence aSequence = PrimitiveSequences.wrap(new int[]{1, 2, 3});
+
+        // Then
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> SortedSequences.gallopingSearch(aSequence, -1, 2)
+        );
+        assertThrows(
+            IndexOutOfBoundsException.class,
+            () -> SortedSequences.gallopingSearch(aSequence, 4, 2)
+        );
+    }
+
+
+    @Test
+    public void mergeAppendsAllValuesInOrder()
+    {
+        // Given
+        List<LongSequence> aSequences = new ArrayList<>();
+        LongSequenceBuilder aExpected = new LongSequenceBuilder(0);
+        for (int i=0; i<17; i++)
+        {
+            long[] aValues = sortedLongValues(ThreadLocalRandom.current().nextInt(200));
+            aSequences.add(PrimitiveSequences.wrap(aValues));
+            aExpected.append(aValues);
+        }
+        aSequences.add(PrimitiveSequences.emptyLongSequence());
+        long[] aExpectedValues = aExpected.getValues();
+        Arrays.sort(aExpectedValues);
+        LongSequenceBuilder aBuilder = new LongSequenceBuilder(0);
+
+        // When
+        LongSequenceBuilder aResult = SortedSequences.merge(aSequences, aBuilder);
+
+        // Then
+        assertSame(aBuilder, aResult);
+        assertArrayEquals(aExpectedValues, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void mergeRetainsDuplicates()
+    {
+        // Given
+        List<LongSequence> aSequences = Arrays.asList(
+            PrimitiveSequences.wrap(new long[]{1, 1, 4}),
+            PrimitiveSequences.wrap(new long[]{1, 4, 4}),
+            PrimitiveSequences.wrap(new long[]{2})
+        );
+
+        // When
+        LongSequenceBuilder aBuilder =
+            SortedSequences.merge(aSequences, new LongSequenceBuilder(0));
+
+        // Then
+        assertArrayEquals(new long[]{1, 1, 1, 2, 4, 4, 4}, aBuilder.getValues());
+    }
+
+
+    @Test
+    public void mergeOfNoSequencesAppendsNothing()
+    {
+        // When
+        LongSequenceBuilder aBuilder =
+            SortedSequences.merge(Collections.emptyList(), new LongSequenceBuilder(0));
+
+        // Then
+        assertEquals(0, aBuilder.getLength());
+    }
+
+
+    @Test
+    public void mergeThrowsForNullArguments()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> SortedSequences.merge(null, new LongSequenceBuilder(0))
+        );
+        assertThrows(
+            NullPointerException.class,
+            () -> SortedSequences.merge(Collections.emptyList(), null)
+        );
+        assertThrows(
+            NullPointerException.class,
+            () -> SortedSequences.merge(Collections.singleton(null), new LongSequenceBuilder(0))
+        );
+    }
+
+
+    @Test
+    public void intersectionHandlesDuplicates()
+    {
+        // Given
+        IntSequence aFirst = PrimitiveSequences.wrap(new int[]{1, 2, 2, 2, 5, 7});
+        IntSequence aSecond = PrimitiveSequences.wrap(new int[]{2, 2, 3, 5, 5, 8});
+
+        // When
+        IntSequence aIntersection = SortedSequences.intersection(aFirst, aSecond);
+
+        // Then
+        assertArrayEquals(new int[]{2, 2, 5}, aIntersection.intStream().toArray());
+    }
+
+
+    @Test
+    public void unionHandlesDuplicates()
+    {
+        // Given
+        IntSequence aFirst = PrimitiveSequences.wrap(new int[]{1, 2, 2, 2, 5, 7});
+        IntSequence aSecond = PrimitiveSequences.wrap(new int[]{2, 2, 3, 5, 5, 8});
+
+        // When
+        IntSequence aUnion = SortedSequences.union(aFirst, aSecond);
+
+        // Then
+        assertArrayEquals(new int[]{1, 2, 2, 2, 3, 5, 5, 7, 8}, aUnion.intStream().toArray());
+    }
+
+
+    @Test
+    public void differenceHandlesDuplicates()
+    {
+        // Given
+        IntSequence aFirst = PrimitiveSequences.wrap(new int[]{1, 2, 2, 2, 5, 7});
+        IntSequence aSecond = PrimitiveSequences.wrap(new int[]{2, 2, 3, 5, 5, 8});
+
+        // When
+        IntSequence aDifference = SortedSequences.difference(aFirst, aSecond);
+
+        // Then
+        assertArrayEquals(new int[]{1, 2, 7}, aDifference.intStream().toArray());
+    }
+
+
+    @Test
+    public void setOperationsHandleEmptySequences()
+    {
+        // Given
+        IntSequence aEmpty = PrimitiveSequences.emptyIntSequence();
+        IntSequence aValues = PrimitiveSequences.wrap(new int[]{1, 2, 3});
+
+        // Then
+        assertEquals(0, SortedSequences.intersection(aEmpty, aValues).size());
+        assertEquals(0, SortedSequences.intersection(aValues, aEmpty).size());
+        assertArrayEquals(
+            new int[]{1, 2, 3},
+            SortedSequences.union(aEmpty, aValues).intStream().toArray());
+        assertArrayEquals(
+            new int[]{1, 2, 3},
+            SortedSequences.union(aValues, aEmpty).intStream().toArray());
+        assertEquals(0, SortedSequences.difference(aEmpty, aValues).size());
+        assertArrayEquals(
+            new int[]{1, 2, 3},
+            SortedSequences.difference(aValues, aEmpty).intStream().toArray());
+    }
+
+
+    @Test
+    public void setOperationsWithSimilarSizesAgreeWithReference()
+    {
+        assertSetOperationsAgreeWithReference(1000, 1200);
+    }
+
+
+    @Test
+    public void setOperationsWithSmallFirstSequenceAgreeWithReference()
+    {
+        assertSetOperationsAgreeWithReference(50, 10_000);
+    }
+
+
+    @Test
+    public void setOperationsWithSmallSecondSequenceAgreeWithReference()
+    {
+        assertSetOperationsAgreeWithReference(10_000, 50);
+    }
+
+
+    @Test
+    public void setOperationsThrowForNullArguments()
+    {
+        IntSequence aEmpty = PrimitiveSequences.emptyIntSequence();
+        assertThrows(NullPointerException.class, () -> SortedSequences.intersection(null, aEmpty));
+        assertThrows(NullPointerException.class, () -> SortedSequences.intersection(aEmpty, null));
+        assertThrows(NullPointerException.class, () -> SortedSequences.union(null, aEmpty));
+        assertThrows(NullPointerException.class, () -> SortedSequences.union(aEmpty, null));
+        assertThrows(NullPointerException.class, () -> SortedSequences.difference(null, aEmpty));
+        assertThrows(NullPointerException.class, () -> SortedSequences.difference(aEmpty, null));
+    }
+
+
+    static private void assertSetOperationsAgreeWithReference(int pFirstSize, int pSecondSize)
+    {
+        // Given
+        int[] aFirstValues = sortedValues(pFirstSize, pSecondSize);
+        int[] aSecondValues = sortedValues(pSecondSize, pSecondSize);
+        IntSequence aFirst = PrimitiveSequences.wrap(aFirstValues);
+        IntSequence aSecond = PrimitiveSequences.wrap(aSecondValues);
+
+        // When
+        IntSequence aIntersection = SortedSequences.intersection(aFirst, aSecond);
+        IntSequence aUnion = SortedSequences.union(aFirst, aSecond);
+        IntSequence aDifference = SortedSequences.difference(aFirst, aSecond);
+
+        // Then
+        assertArrayEquals(
+            referenceIntersection(aFirstValues, aSecondValues),
+            aIntersection.intStream().toArray());
+        assertArrayEquals(
+            referenceUnion(aFirstValues, aSecondValues),
+            aUnion.intStream().toArray());
+        assertArrayEquals(
+            referenceDifference(aFirstValues, aSecondValues),
+            aDifference.intStream().toArray());
+    }
+
+
+    static private int[] referenceIntersection(int[] pFirst, int[] pSecond)
+    {
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(0);
+        List<Integer> aRemaining = toList(pSecond);
+        for (int aValue : pFirst)
+            if (aRemaining.remove(Integer.valueOf(aValue)))
+                aBuilder.append(aValue);
+
+        return aBuilder.getValues();
+    }
+
+
+    static private int[] referenceUnion(int[] pFirst, int[] pSecond)
+    {
+        // The union is the first sequence plus the difference between the second and the first.
+        int[] aOnlyInSecond = referenceDifference(pSecond, pFirst);
+        int[] aUnion = Arrays.copyOf(pFirst, pFirst.length + aOnlyInSecond.length);
+        System.arraycopy(aOnlyInSecond, 0, aUnion, pFirst.length, aOnlyInSecond.length);
+        Arrays.sort(aUnion);
+        return aUnion;
+    }
+
+
+    static private int[] referenceDifference(int[] pFirst, int[] pSecond)
+    {
+        IntSequenceBuilder aBuilder = new IntSequenceBuilder(0);
+        List<Integer> aRemaining = toList(pSecond);
+        for (int aValue : pFirst)
+            if (!aRemaining.remove(Integer.valueOf(aValue)))
+                aBuilder.append(aValue);
+
+        return aBuilder.getValues();
+    }
+
+
+    static private List<Integer> toList(int[] pValues)
+    {
+        List<Integer> aList = new ArrayList<>(pValues.length);
+        for (int aValue : pValues)
+            aList.add(aValue);
+
+        return aList;
+    }
+
+
+    static private int[] sortedValues(int pNumValues, int pBound)
+    {
+        int[] aValues = new int[pNumValues];
+        for (int i=0; i<pNumValues; i++)
+            aValues[i] = ThreadLocalRandom.current().nextInt(pBound);
+
+        Arrays.sort(aValues);
+        return aValues;
+    }
+
+
+    static private int[] distinctSortedValues(int pNumValues, int pMaxGap)
+    {
+        int[] aValues = new int[pNumValues];
+        int aValue = 0;
+        for (int i=0; i<pNumValues; i++)
+        {
+            aValue += 1 + ThreadLocalRandom.current().nextInt(pMaxGap);
+            aValues[i] = aValue;
+        }
+
+        return aValues;
+    }
+
+
+    static private long[] sortedLongValues(int pNumValues)
+    {
+        long[] aValues = CollectionTests.randomLongValues(pNumValues);
+        Arrays.sort(aValues);
+        return aValues;
+    }
+}
@@ -75,4 +75,23 @@ public class ArraySequenceTest extends ReferenceSequenceBaseTest
         for (int i=0; i<pArray.length; i++)
             assertSame(pArray[i], aSeq.elementAt(i));
     }
+
+
+    /**
+     * A sub-sequence of length 1 of a sequence wrapping an array should be a view that reflects
+     * changes made to the array.
+     */
+    @Test
+    public void subSequenceOfLengthOneReflectsChangesToArray()
+    {
+        // Given
+        Object[] aArray = new Object[]{"a", "b", "c"};
+        Sequence<Object> aSubSequence = Sequences.wrap(aArray).subSequence(1, 2);
+
+        // When
+        aArray[1] = "y";
+
+        // Then
+        assertEquals("y", aSubSequence.elementAt(0));
+    }
 }
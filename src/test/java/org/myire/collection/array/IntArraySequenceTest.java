@@ -75,4 +75,23 @@ public class IntArraySequenceTest extends IntSequenceBaseTest
         for (int i=0; i<pArray.length; i++)
             assertEquals(pArray[i], aSeq.valueAt(i));
     }
+
+
+    /**
+     * A sub-sequence of length 1 of a sequence wrapping an array should be a view that reflects
+     * changes made to the array.
+     */
+    @Test
+    public void subSequenceOfLengthOneReflectsChangesToArray()
+    {
+        // Given
+        int[] aArray = new int[]{1, 2, 3};
+        IntSequence aSubSequence = PrimitiveSequences.wrap(aArray).subSequence(1, 2);
+
+        // When
+        aArray[1] = 42;
+
+        // Then
+        assertEquals(42, aSubSequence.valueAt(0));
+    }
 }
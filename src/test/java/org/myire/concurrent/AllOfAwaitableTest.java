@@ -0,0 +1,85 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.mockito.ArgumentCaptor;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+
+/**
+ * Unit tests for the {@code Awaitable} implementation returned by
+ * {@link Awaitables#allOf(Awaitable...)}.
+ */
+public class AllOfAwaitableTest extends AwaitableTest
+{
+    @Override
+    protected void createAwaitableAndConditionSetter(BiConsumer<Awaitable, Runnable> pDestination)
+    {
+        CountDownLatch aFirst = new CountDownLatch(0);
+        CountDownLatch aSecond = new CountDownLatch(1);
+        pDestination.accept(
+            Awaitables.allOf(Awaitables.wrap(aFirst), Awaitables.wrap(aSecond)),
+            aSecond::countDown);
+    }
+
+
+    /**
+     * {@code allOf} should throw a {@code NullPointerException} for a null element.
+     */
+    @Test
+    public void allOfThrowsForNullElement()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> Awaitables.allOf(Awaitables.wrap(new CountDownLatch(0)), null)
+        );
+    }
+
+
+    /**
+     * A timed wait should pass the remaining time until a single deadline to each instance, and
+     * not wait for the remaining instances when one of them times out.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void timedAwaitSharesDeadline() throws InterruptedException
+    {
+        // Given
+        Awaitable aFirst = mock(Awaitable.class);
+        Awaitable aSecond = mock(Awaitable.class);
+        Awaitable aThird = mock(Awaitable.class);
+        when(aFirst.await(anyLong(), eq(TimeUnit.NANOSECONDS))).thenReturn(true);
+        long aTimeout = TimeUnit.SECONDS.toNanos(10);
+
+        // When
+        boolean aResult = Awaitables.allOf(aFirst, aSecond, aThird).await(10, TimeUnit.SECONDS);
+
+        // Then
+        ArgumentCaptor<Long> aFirstTimeout = ArgumentCaptor.forClass(Long.class);
+        ArgumentCaptor<Long> aSecondTimeout = ArgumentCaptor.forClass(Long.class);
+        verify(aFirst).await(aFirstTimeout.capture(), eq(TimeUnit.NANOSECONDS));
+        verify(aSecond).await(aSecondTimeout.capture(), eq(TimeUnit.NANOSECONDS));
+        verifyNoInteractions(aThird);
+        assertFalse(aResult);
+        assertTrue(aFirstTimeout.getValue() <= aTimeout);
+        assertTrue(aSecondTimeout.getValue() <= aFirstTimeout.getValue());
+    }
+}
@@ -5,17 +5,23 @@
  */
 package org.myire.concurrent;
 
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -50,6 +56,36 @@ public class DelegatingPollableFutureTest
     }
 
 
+    /**
+     * Calling {@code of(Future)} with a {@code PollableFuture} should return that instance, which
+     * keeps its completion callbacks.
+     */
+    @Test
+    public void ofPollableFutureReturnsArgument()
+    {
+        // Given
+        Future<String> aFuture = new FutureResult<>();
+
+        // Then
+        assertSame(aFuture, PollableFuture.of(aFuture));
+    }
+
+
+    /**
+     * Calling {@code of(CompletableFuture)} with a {@code PollableCompletableFuture} should return
+     * that instance.
+     */
+    @Test
+    public void ofPollableCompletableFutureReturnsArgument()
+    {
+        // Given
+        CompletableFuture<String> aFuture = new PollableCompletableFuture<>();
+
+        // Then
+        assertSame(aFuture, PollableFuture.of(aFuture));
+    }
+
+
     /**
      * Calls to {@code cancel} should be delegated.
      */
@@ -403,6 +439,153 @@ public class DelegatingPollableFutureTest
     }
 
 
+    /**
+     * {@code onComplete} should invoke the callback inline when the delegated {@code Future} is
+     * done.
+     *
+     * @throws ExecutionException if the test fails unexpectedly.
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void onCompleteInvokesCallbackInlineWhenFutureIsDone()
+        throws ExecutionException, InterruptedException
+    {
+        // Given
+        Future<String> aDelegate = newMockFuture();
+        when(aDelegate.isDone()).thenReturn(true);
+        when(aDelegate.get()).thenReturn("done");
+        AtomicReference<String> aValue = new AtomicReference<>();
+
+        // When
+        PollableFuture.of(aDelegate).onComplete((v, t) -> aValue.set(v), Runnable::run);
+
+        // Then
+        assertEquals("done", aValue.get());
+    }
+
+
+    /**
+     * {@code onComplete} should wait for the delegated {@code Future} in another thread when the
+     * delegate isn't done, and pass the callback to the executor when the delegate completes.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void onCompleteWaitsInOtherThreadWhenFutureIsNotDone() throws InterruptedException
+    {
+        // Given
+        Exception aException = new Exception();
+        FutureTask<String> aDelegate = new FutureTask<>(() -> { throw aException; });
+        AtomicReference<Throwable> aFailure = new AtomicReference<>();
+        BlockingQueue<Runnable> aTasks = new LinkedBlockingQueue<>();
+
+        // When
+        PollableFuture.of(aDelegate).onComplete((v, t) -> aFailure.set(t), aTasks::add);
+
+        // Then
+        assertTrue(aTasks.isEmpty());
+        aDelegate.run();
+        Runnable aTask = aTasks.poll(5, TimeUnit.SECONDS);
+        assertNotNull(aTask);
+        aTask.run();
+        assertSame(aException, aFailure.get());
+    }
+
+
+    /**
+     * {@code map} without an executor should return without waiting for a delegated
+     * {@code Future} that isn't done, and complete the returned future when the delegate
+     * completes.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void mapDoesNotBlockForFutureThatIsNotDone() throws Exception
+    {
+        // Given
+        FutureTask<String> aDelegate = new FutureTask<>(() -> "done");
+
+        // When
+        PollableFuture<Integer> aMapped = PollableFuture.of(aDelegate).map(String::length);
+
+        // Then
+        assertFalse(aMapped.isDone());
+        aDelegate.run();
+        assertEquals(4, aMapped.get(5, TimeUnit.SECONDS));
+    }
+
+
+    /**
+     * {@code flatMap} without an executor should return without waiting for a delegated
+     * {@code Future} that isn't done, and complete the returned future when the delegate
+     * completes.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void flatMapDoesNotBlockForFutureThatIsNotDone() throws Exception
+    {
+        // Given
+        FutureTask<String> aDelegate = new FutureTask<>(() -> "done");
+        FutureTask<Integer> aComposed = new FutureTask<>(() -> 17);
+
+        // When
+        PollableFuture<Integer> aMapped =
+            PollableFuture.of(aDelegate).flatMap(v -> PollableFuture.of(aComposed));
+
+        // Then
+        aDelegate.run();
+        assertFalse(aMapped.isDone());
+        aComposed.run();
+        assertEquals(17, aMapped.get(5, TimeUnit.SECONDS));
+    }
+
+
+    /**
+     * {@code onComplete} should register the callback with a delegated
+     * {@code CompletableFuture}.
+     */
+    @Test
+    public void onCompleteIsRegisteredWithCompletableFuture()
+    {
+        // Given
+        CompletableFuture<String> aDelegate = new CompletableFuture<>();
+        AtomicReference<String> aValue = new AtomicReference<>();
+        PollableFuture.of(aDelegate).onComplete((v, t) -> aValue.set(v), Runnable::run);
+
+        // When
+        aDelegate.complete("completed");
+
+        // Then
+        assertEquals("completed", aValue.get());
+    }
+
+
+    /**
+     * {@code map} on a dependent stage of a {@code CompletableFuture} should complete the returned
+     * future with the exception that failed the stage, not with the {@code CompletionException}
+     * that wraps it.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void mapOfDependentStagePropagatesUnwrappedFailure() throws InterruptedException
+    {
+        // Given
+        IllegalStateException aException = new IllegalStateException("boom");
+        CompletableFuture<String> aSource = new CompletableFuture<>();
+        CompletableFuture<String> aDependent = aSource.thenApply(v -> { throw aException; });
+        PollableFuture<Integer> aMapped = PollableFuture.of(aDependent).map(String::length);
+
+        // When
+        aSource.complete("value");
+
+        // Then
+        ExecutionException aFailure = assertThrows(ExecutionException.class, aMapped::get);
+        assertSame(aException, aFailure.getCause());
+    }
+
+
     /**
      * Mock a {@code Future<T>}, suppressing the unchecked cast.
      *
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the {@code Awaitable} implementation returned by
+ * {@link Awaitables#wrap(Future)}.
+ */
+public class FutureAwaitableTest extends AwaitableTest
+{
+    @Override
+    protected void createAwaitableAndConditionSetter(BiConsumer<Awaitable, Runnable> pDestination)
+    {
+        FutureResult<String> aFuture = new FutureResult<>();
+        pDestination.accept(Awaitables.wrap(aFuture), () -> aFuture.setResult(null));
+    }
+
+
+    /**
+     * A {@code Future} that completed exceptionally should satisfy the condition.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void exceptionallyCompletedFutureSatisfiesCondition() throws InterruptedException
+    {
+        // Given
+        FutureResult<String> aFuture = new FutureResult<>();
+        aFuture.setException(new Exception());
+
+        // Then
+        assertTrue(Awaitables.wrap(aFuture).await(0, TimeUnit.SECONDS));
+    }
+
+
+    /**
+     * A cancelled {@code Future} should satisfy the condition.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void cancelledFutureSatisfiesCondition() throws InterruptedException
+    {
+        // Given
+        FutureResult<String> aFuture = new FutureResult<>();
+        aFuture.cancel();
+
+        // When
+        Awaitables.wrap(aFuture).await();
+    }
+}
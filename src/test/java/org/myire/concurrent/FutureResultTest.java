@@ -5,15 +5,22 @@
  */
 package org.myire.concurrent;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -562,6 +569,115 @@ public class FutureResultTest
     }
 
 
+    /**
+     * The {@code get} method should return null when the {@code FutureResult} was completed with
+     * a null result.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void getReturnsNullFromSetResult() throws Exception
+    {
+        // Given
+        FutureResult<String> aResult = new FutureResult<>();
+
+        // When
+        aResult.setResult(null);
+
+        // Then
+        assertAll(
+            () -> assertNull(aResult.get()),
+            () -> assertNull(aResult.get(0, TimeUnit.MILLISECONDS)),
+            () -> assertNull(aResult.getNow("not completed"))
+        );
+    }
+
+
+    /**
+     * Completing a {@code FutureResult} should release all threads blocked in {@code get}.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void setResultReleasesAllWaitingThreads() throws InterruptedException
+    {
+        // Given (several threads call get() and are blocked)
+        String aValue = "shared";
+        FutureResult<String> aResult = new FutureResult<>();
+        List<FutureGetAction<String>> aGetActions = new ArrayList<>();
+        for (int i=0; i<8; i++)
+        {
+            FutureGetAction<String> aGetAction =
+                i % 2 == 0
+                    ? new FutureGetAction<>(aResult)
+                    : new TimedFutureGetAction<>(aResult, 1, TimeUnit.DAYS);
+            aGetAction.startAndAwaitRun();
+            aGetActions.add(aGetAction);
+        }
+
+        // When
+        aResult.setResult(aValue);
+
+        // Then
+        for (FutureGetAction<String> aGetAction : aGetActions)
+        {
+            assertTrue(aGetAction.timedJoin(10, TimeUnit.SECONDS));
+            assertEquals(aValue, aGetAction.getResult());
+        }
+    }
+
+
+    /**
+     * A thread blocked in {@code get} should be released with an {@code InterruptedException}
+     * when it is interrupted, and the {@code FutureResult} should still release other threads
+     * when completed.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void interruptedGetDoesNotAffectOtherWaiters() throws InterruptedException
+    {
+        // Given
+        String aValue = "survivor";
+        FutureResult<String> aResult = new FutureResult<>();
+        FutureGetAction<String> aInterruptedAction = new FutureGetAction<>(aResult);
+        FutureGetAction<String> aWaitingAction = new FutureGetAction<>(aResult);
+        aInterruptedAction.startAndAwaitRun();
+        aWaitingAction.startAndAwaitRun();
+
+        // When
+        aInterruptedAction.interruptRun();
+        assertTrue(aInterruptedAction.timedJoin(10, TimeUnit.SECONDS));
+        aResult.setResult(aValue);
+
+        // Then
+        assertAll(
+            () -> assertTrue(aInterruptedAction.wasInterrupted()),
+            () -> assertTrue(aWaitingAction.timedJoin(10, TimeUnit.SECONDS)),
+            () -> assertEquals(aValue, aWaitingAction.getResult())
+        );
+    }
+
+
+    /**
+     * The {@code setException} method should throw a {@code NullPointerException} for a null
+     * cause.
+     */
+    @Test
+    public void setExceptionThrowsForNullCause()
+    {
+        // Given
+        FutureResult<String> aResult = new FutureResult<>();
+
+        // Then
+        assertThrows(
+            NullPointerException.class,
+            () -> aResult.setException(null)
+        );
+        assertFalse(aResult.isDone());
+    }
+
+
     /**
      * A new {@code FutureResult} should not be completed nor cancelled.
      */
@@ -641,4 +757,263 @@ public class FutureResultTest
             () -> assertTrue(aResult.isCancelled())
         );
     }
+
+
+    /**
+     * A callback registered with a completed {@code FutureResult} should be invoked in the
+     * calling thread without using the executor.
+     */
+    @Test
+    public void onCompleteInvokesCallbackInlineWhenCompleted()
+    {
+        // Given
+        FutureResult<String> aResult = new FutureResult<>();
+        aResult.setResult("done");
+        List<Runnable> aTasks = new ArrayList<>();
+        AtomicReference<String> aValue = new AtomicReference<>();
+
+        // When
+        aResult.onComplete((v, t) -> aValue.set(v), aTasks::add);
+
+        // Then
+        assertAll(
+            () -> assertEquals("done", aValue.get()),
+            () -> assertTrue(aTasks.isEmpty())
+        );
+    }
+
+
+    /**
+     * Callbacks registered with a {@code FutureResult} that isn't completed should be passed to
+     * their executors in the order they were registered when the {@code FutureResult} completes.
+     */
+    @Test
+    public void onCompletePassesCallbacksToExecutorInRegistrationOrder()
+    {
+        // Given
+        FutureResult<String> aResult = new FutureResult<>();
+        List<Runnable> aTasks = new ArrayList<>();
+        List<String> aInvocations = new ArrayList<>();
+        for (int i=0; i<5; i++)
+        {
+            int aIndex = i;
+            aResult.onComplete((v, t) -> aInvocations.add(v + aIndex), aTasks::add);
+        }
+
+        // When
+        aResult.setResult("v");
+
+        // Then
+        assertTrue(aInvocations.isEmpty());
+        aTasks.forEach(Runnable::run);
+        assertEquals(Arrays.asList("v0", "v1", "v2", "v3", "v4"), aInvocations);
+    }
+
+
+    /**
+     * A callback should be passed the exception of a {@code FutureResult} that completed
+     * exceptionally, and a {@code CancellationException} for a cancelled {@code FutureResult}.
+     */
+    @Test
+    public void onCompletePassesFailureToCallback()
+    {
+        // Given
+        Exception aException = new IllegalStateException();
+        FutureResult<String> aFailed = new FutureResult<>();
+        FutureResult<String> aCancelled = new FutureResult<>();
+        AtomicReference<Throwable> aFailure = new AtomicReference<>();
+        AtomicReference<Throwable> aCancellation = new AtomicReference<>();
+        aFailed.onComplete((v, t) -> aFailure.set(t), Runnable::run);
+        aCancelled.onComplete((v, t) -> aCancellation.set(t), Runnable::run);
+
+        // When
+        aFailed.setException(aException);
+        aCancelled.cancel();
+
+        // Then
+        assertAll(
+            () -> assertSame(aException, aFailure.get()),
+            () -> assertTrue(aCancellation.get() instanceof CancellationException)
+        );
+    }
+
+
+    /**
+     * A callback that throws should not prevent other callbacks from being invoked, and the
+     * exception should be passed to the uncaught exception handler of the invoking thread.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void throwingCallbackDoesNotAffectOtherCallbacks() throws InterruptedException
+    {
+        // Given
+        RuntimeException aException = new RuntimeException();
+        FutureResult<String> aResult = new FutureResult<>();
+        AtomicReference<String> aValue = new AtomicReference<>();
+        AtomicReference<Throwable> aUncaught = new AtomicReference<>();
+        aResult.onComplete((v, t) -> { throw aException; }, Runnable::run);
+        aResult.onComplete((v, t) -> aValue.set(v), Runnable::run);
+        Thread aThread = new Thread(() -> aResult.setResult("still invoked"));
+        aThread.setUncaughtExceptionHandler((th, e) -> aUncaught.set(e));
+
+        // When
+        aThread.start();
+        aThread.join();
+
+        // Then
+        assertAll(
+            () -> assertEquals("still invoked", aValue.get()),
+            () -> assertSame(aException, aUncaught.get())
+        );
+    }
+
+
+    /**
+     * Callbacks registered concurrently with the completion should be invoked exactly once.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void callbacksRegisteredDuringCompletionAreInvokedOnce() throws InterruptedException
+    {
+        for (int i=0; i<100; i++)
+        {
+            // Given
+            FutureResult<String> aResult = new FutureResult<>();
+            AtomicInteger aNumInvocations = new AtomicInteger();
+            Thread aRegisteringThread = new Thread(() -> {
+                for (int j=0; j<100; j++)
+                    aResult.onComplete((v, t) -> aNumInvocations.getAndIncrement(), Runnable::run);
+            });
+
+            // When
+            aRegisteringThread.start();
+            aResult.setResult("racing");
+            aRegisteringThread.join();
+
+            // Then
+            assertEquals(100, aNumInvocations.get());
+        }
+    }
+
+
+    /**
+     * The future returned by {@code map} should complete with the result of the function.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void mapAppliesFunctionOnCompletion() throws Exception
+    {
+        // Given
+        FutureResult<String> aResult = new FutureResult<>();
+        PollableFuture<Integer> aMapped = aResult.map(String::length);
+
+        // When
+        aResult.setResult("four");
+
+        // Then
+        assertEquals(4, aMapped.get(10, TimeUnit.SECONDS));
+    }
+
+
+    /**
+     * The future returned by {@code map} should complete exceptionally when the function throws,
+     * and propagate the failure and cancellation of the original future.
+     */
+    @Test
+    public void mapPropagatesFailures()
+    {
+        // Given
+        RuntimeException aException = new RuntimeException();
+        FutureResult<String> aCompleted = new FutureResult<>();
+        aCompleted.setResult("x");
+        FutureResult<String> aFailed = new FutureResult<>();
+        aFailed.setException(aException);
+        FutureResult<String> aCancelled = new FutureResult<>();
+        aCancelled.cancel();
+
+        // When
+        PollableFuture<String> aThrowing = aCompleted.map(v -> { throw aException; });
+        PollableFuture<Integer> aMappedFailure = aFailed.map(String::length);
+        PollableFuture<Integer> aMappedCancellation = aCancelled.map(String::length);
+
+        // Then
+        assertAll(
+            () -> assertSame(
+                aException,
+                assertThrows(ExecutionException.class, aThrowing::get).getCause()),
+            () -> assertSame(
+                aException,
+                assertThrows(ExecutionException.class, aMappedFailure::get).getCause()),
+            () -> assertTrue(aMappedCancellation.isCancelled())
+        );
+    }
+
+
+    /**
+     * The future returned by {@code flatMap} should complete with the result of the future
+     * returned by the function.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void flatMapCompletesWithComposedFuture() throws Exception
+    {
+        // Given
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<Integer> aSecond = new FutureResult<>();
+        PollableFuture<Integer> aComposed = aFirst.flatMap(v -> aSecond);
+
+        // When
+        aFirst.setResult("first");
+
+        // Then
+        assertFalse(aComposed.isDone());
+        aSecond.setResult(17);
+        assertEquals(17, aComposed.get(10, TimeUnit.SECONDS));
+    }
+
+
+    /**
+     * The future returned by {@code flatMap} should be cancelled when the future returned by the
+     * function is cancelled.
+     */
+    @Test
+    public void flatMapPropagatesCancellationOfComposedFuture()
+    {
+        // Given
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<Integer> aSecond = new FutureResult<>();
+        PollableFuture<Integer> aComposed = aFirst.flatMap(v -> aSecond);
+        aFirst.setResult("first");
+
+        // When
+        aSecond.cancel();
+
+        // Then
+        assertTrue(aComposed.isCancelled());
+    }
+
+
+    /**
+     * A continuation registered with an executor should be applied by that executor.
+     */
+    @Test
+    public void mapWithExecutorAppliesFunctionInExecutor()
+    {
+        // Given
+        FutureResult<String> aResult = new FutureResult<>();
+        List<Runnable> aTasks = new ArrayList<>();
+        PollableFuture<Integer> aMapped = aResult.map(String::length, aTasks::add);
+
+        // When
+        aResult.setResult("seven");
+
+        // Then
+        assertFalse(aMapped.isDone());
+        aTasks.forEach(Runnable::run);
+        assertEquals(5, aMapped.getNow(null));
+    }
 }
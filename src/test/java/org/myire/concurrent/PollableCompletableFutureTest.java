@@ -5,9 +5,12 @@
  */
 package org.myire.concurrent;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletionException;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -651,4 +654,70 @@ public class PollableCompletableFutureTest
             () -> assertTrue(aFuture.isCancelled())
         );
     }
+
+
+    /**
+     * {@code onComplete} should invoke the callback inline when the
+     * {@code PollableCompletableFuture} already is completed.
+     */
+    @Test
+    public void onCompleteInvokesCallbackInlineWhenCompleted()
+    {
+        // Given
+        PollableCompletableFuture<String> aFuture = new PollableCompletableFuture<>();
+        aFuture.complete("done");
+        List<Runnable> aTasks = new ArrayList<>();
+        AtomicReference<String> aValue = new AtomicReference<>();
+
+        // When
+        aFuture.onComplete((v, t) -> aValue.set(v), aTasks::add);
+
+        // Then
+        assertAll(
+            () -> assertEquals("done", aValue.get()),
+            () -> assertTrue(aTasks.isEmpty())
+        );
+    }
+
+
+    /**
+     * {@code onComplete} should pass the callback to the executor when the
+     * {@code PollableCompletableFuture} completes.
+     */
+    @Test
+    public void onCompletePassesCallbackToExecutorOnCompletion()
+    {
+        // Given
+        Exception aException = new Exception();
+        PollableCompletableFuture<String> aFuture = new PollableCompletableFuture<>();
+        List<Runnable> aTasks = new ArrayList<>();
+        AtomicReference<Throwable> aFailure = new AtomicReference<>();
+        aFuture.onComplete((v, t) -> aFailure.set(t), aTasks::add);
+
+        // When
+        aFuture.completeExceptionally(aException);
+
+        // Then
+        assertEquals(1, aTasks.size());
+        aTasks.get(0).run();
+        assertSame(aException, aFailure.get());
+    }
+
+
+    /**
+     * The future returned by {@code map} should complete with the result of the function.
+     */
+    @Test
+    public void mapAppliesFunctionOnCompletion()
+    {
+        // Given
+        PollableCompletableFuture<String> aFuture = new PollableCompletableFuture<>();
+        PollableFuture<Integer> aMapped = aFuture.map(String::length);
+
+        // When
+        aFuture.complete("three");
+
+        // Then
+        assertEquals(5, aMapped.getNow(null));
+    }
 }
@@ -0,0 +1,362 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the combinators in {@link org.myire.concurrent.PollableFuture}.
+ */
+public class PollableFutureTest
+{
+    /**
+     * {@code allOf} should return a completed future for an empty collection.
+     */
+    @Test
+    public void allOfReturnsCompletedFutureForNoFutures()
+    {
+        // When
+        PollableFuture<Void> aCombined = PollableFuture.allOf(Collections.emptyList());
+
+        // Then
+        assertTrue(aCombined.isDone());
+    }
+
+
+    /**
+     * {@code allOf} should throw a {@code NullPointerException} for a null element.
+     */
+    @Test
+    public void allOfThrowsForNullElement()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> PollableFuture.allOf(Arrays.asList(new FutureResult<>(), null))
+        );
+    }
+
+
+    /**
+     * The future returned by {@code allOf} should complete when all futures have completed.
+     */
+    @Test
+    public void allOfCompletesWhenAllFuturesComplete()
+    {
+        // Given
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<Integer> aSecond = new FutureResult<>();
+        PollableFuture<Void> aCombined = PollableFuture.allOf(Arrays.asList(aFirst, aSecond));
+
+        // When
+        aFirst.setResult("first");
+
+        // Then
+        assertFalse(aCombined.isDone());
+        aSecond.setResult(2);
+        assertTrue(aCombined.isDone());
+    }
+
+
+    /**
+     * The future returned by {@code allOf} should complete exceptionally as soon as one future
+     * fails, and cancel the futures that haven't completed.
+     */
+    @Test
+    public void allOfFailsFastAndCancelsRemainingFutures()
+    {
+        // Given
+        Exception aException = new Exception();
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<String> aSecond = new FutureResult<>();
+        FutureResult<String> aThird = new FutureResult<>();
+        aFirst.setResult("first");
+        PollableFuture<Void> aCombined =
+            PollableFuture.allOf(Arrays.asList(aFirst, aSecond, aThird), true);
+
+        // When
+        aSecond.setException(aException);
+
+        // Then
+        assertAll(
+            () -> assertSame(
+                aException,
+                assertThrows(ExecutionException.class, aCombined::get).getCause()),
+            () -> assertFalse(aFirst.isCancelled()),
+            () -> assertTrue(aThird.isCancelled())
+        );
+    }
+
+
+    /**
+     * Cancelling the future returned by {@code allOf} should cancel the futures that haven't
+     * completed when requested.
+     */
+    @Test
+    public void cancellingAllOfCancelsFutures()
+    {
+        // Given
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<String> aSecond = new FutureResult<>();
+        PollableFuture<Void> aCombined =
+            PollableFuture.allOf(Arrays.asList(aFirst, aSecond), true);
+
+        // When
+        aCombined.cancel(false);
+
+        // Then
+        assertAll(
+            () -> assertTrue(aFirst.isCancelled()),
+            () -> assertTrue(aSecond.isCancelled())
+        );
+    }
+
+
+    /**
+     * The future returned by {@code anyOf} should complete with the result of the first future to
+     * complete, and cancel the other futures when requested.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void anyOfCompletesWithFirstResult() throws Exception
+    {
+        // Given
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<String> aSecond = new FutureResult<>();
+        PollableFuture<String> aCombined =
+            PollableFuture.anyOf(Arrays.asList(aFirst, aSecond), true);
+
+        // When
+        aSecond.setResult("second");
+
+        // Then
+        assertAll(
+            () -> assertEquals("second", aCombined.get()),
+            () -> assertTrue(aFirst.isCancelled())
+        );
+    }
+
+
+    /**
+     * The futures that haven't completed should not be cancelled by default when the future
+     * returned by {@code anyOf} completes or the future returned by {@code allOf} is cancelled.
+     */
+    @Test
+    public void remainingFuturesAreNotCancelledByDefault()
+    {
+        // Given
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<String> aSecond = new FutureResult<>();
+        FutureResult<String> aThird = new FutureResult<>();
+        PollableFuture<String> aAny = PollableFuture.anyOf(Arrays.asList(aFirst, aSecond));
+        PollableFuture<Void> aAll = PollableFuture.allOf(Arrays.asList(aFirst, aThird));
+
+        // When
+        aSecond.setResult("second");
+        aAll.cancel(true);
+
+        // Then
+        assertAll(
+            () -> assertEquals("second", aAny.getNow(null)),
+            () -> assertFalse(aFirst.isDone()),
+            () -> assertFalse(aThird.isDone())
+        );
+    }
+
+
+    /**
+     * The future returned by {@code anyOf} should complete immediately if one of the futures
+     * already is complete.
+     */
+    @Test
+    public void anyOfCompletesImmediatelyForCompletedFuture()
+    {
+        // Given
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<String> aSecond = new FutureResult<>();
+        aSecond.setResult("done");
+
+        // When
+        PollableFuture<String> aCombined = PollableFuture.anyOf(Arrays.asList(aFirst, aSecond));
+
+        // Then
+        assertEquals("done", aCombined.getNow(null));
+    }
+
+
+    /**
+     * The future returned by {@code quorum} should complete when the specified number of futures
+     * have completed normally, ignoring failures that don't make the number unreachable.
+     */
+    @Test
+    public void quorumCompletesWhenCountIsReached()
+    {
+        // Given
+        List<FutureResult<String>> aFutures = newFutures(5);
+        PollableFuture<Void> aCombined = PollableFuture.quorum(3, aFutures);
+
+        // When
+        aFutures.get(0).setResult("0");
+        aFutures.get(1).setException(new Exception());
+        aFutures.get(2).setResult("2");
+        aFutures.get(3).setException(new Exception());
+
+        // Then
+        assertFalse(aCombined.isDone());
+        aFutures.get(4).setResult("4");
+        assertAll(
+            () -> assertTrue(aCombined.isDone()),
+            () -> assertFalse(aCombined.isCancelled())
+        );
+    }
+
+
+    /**
+     * The future returned by {@code quorum} should fail when so many futures have failed that the
+     * number cannot be reached, and cancel the remaining futures when requested.
+     */
+    @Test
+    public void quorumFailsWhenCountIsUnreachable()
+    {
+        // Given
+        Exception aException = new Exception();
+        List<FutureResult<String>> aFutures = newFutures(4);
+        PollableFuture<Void> aCombined = PollableFuture.quorum(3, aFutures, true);
+
+        // When
+        aFutures.get(0).setException(new Exception());
+        aFutures.get(1).setException(aException);
+
+        // Then
+        assertAll(
+            () -> assertSame(
+                aException,
+                assertThrows(ExecutionException.class, aCombined::get).getCause()),
+            () -> assertTrue(aFutures.get(2).isCancelled()),
+            () -> assertTrue(aFutures.get(3).isCancelled())
+        );
+    }
+
+
+    /**
+     * {@code quorum} should throw an {@code IllegalArgumentException} for a negative count.
+     */
+    @Test
+    public void quorumThrowsForNegativeCount()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> PollableFuture.quorum(-1, newFutures(1))
+        );
+    }
+
+
+    /**
+     * The future returned by {@code allOf} should complete when many futures are completed
+     * concurrently.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void allOfCompletesWhenFuturesCompleteConcurrently() throws Exception
+    {
+        // Given
+        List<FutureResult<String>> aFutures = newFutures(64);
+        PollableFuture<Void> aCombined = PollableFuture.allOf(aFutures);
+        ExecutorService aExecutor = Executors.newFixedThreadPool(8);
+
+        try
+        {
+            // When
+            for (FutureResult<String> aFuture : aFutures)
+                aExecutor.execute(() -> aFuture.setResult("shard"));
+
+            // Then
+            aCombined.get(10, TimeUnit.SECONDS);
+        }
+        finally
+        {
+            aExecutor.shutdown();
+        }
+    }
+
+
+    /**
+     * {@code allOf} should return without waiting for futures that can't notify when they
+     * complete, and the returned future should complete when those futures complete.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void allOfDoesNotBlockForPlainFutures() throws Exception
+    {
+        // Given
+        FutureTask<String> aFirst = new FutureTask<>(() -> "first");
+        FutureTask<String> aSecond = new FutureTask<>(() -> "second");
+        List<PollableFuture<String>> aFutures =
+            Arrays.asList(PollableFuture.of(aFirst), PollableFuture.of(aSecond));
+
+        // When
+        PollableFuture<Void> aCombined = PollableFuture.allOf(aFutures);
+
+        // Then
+        assertFalse(aCombined.isDone());
+        aFirst.run();
+        aSecond.run();
+        aCombined.get(5, TimeUnit.SECONDS);
+    }
+
+
+    /**
+     * {@code anyOf} should return without waiting for a future that can't notify when it
+     * completes, and the returned future should complete when that future completes.
+     *
+     * @throws Exception if the test fails unexpectedly.
+     */
+    @Test
+    public void anyOfDoesNotBlockForPlainFuture() throws Exception
+    {
+        // Given
+        FutureTask<String> aFirst = new FutureTask<>(() -> "first");
+        FutureResult<String> aSecond = new FutureResult<>();
+
+        // When
+        PollableFuture<String> aCombined =
+            PollableFuture.anyOf(Arrays.asList(PollableFuture.of(aFirst), aSecond));
+
+        // Then
+        assertFalse(aCombined.isDone());
+        aFirst.run();
+        assertEquals("first", aCombined.get(5, TimeUnit.SECONDS));
+    }
+
+
+    static private List<FutureResult<String>> newFutures(int pNumFutures)
+    {
+        List<FutureResult<String>> aFutures = new ArrayList<>();
+        for (int i=0; i<pNumFutures; i++)
+            aFutures.add(new FutureResult<>());
+
+        return aFutures;
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiConsumer;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for the {@code Awaitable} implementation returned by
+ * {@link Awaitables#quorum(int, Collection)}.
+ */
+public class QuorumAwaitableTest extends AwaitableTest
+{
+    @Override
+    protected void createAwaitableAndConditionSetter(BiConsumer<Awaitable, Runnable> pDestination)
+    {
+        FutureResult<String> aFirst = new FutureResult<>();
+        FutureResult<String> aSecond = new FutureResult<>();
+        FutureResult<String> aThird = new FutureResult<>();
+        aFirst.setResult("first");
+        pDestination.accept(
+            Awaitables.quorum(2, Arrays.asList(aFirst, aSecond, aThird)),
+            () -> aThird.setResult("third"));
+    }
+
+
+    /**
+     * {@code quorum} should throw an {@code IllegalArgumentException} if the count is greater than
+     * the number of futures.
+     */
+    @Test
+    public void quorumThrowsForTooLargeCount()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Awaitables.quorum(2, Collections.singletonList(new FutureResult<>()))
+        );
+    }
+
+
+    /**
+     * {@code anyOf} should throw an {@code IllegalArgumentException} for an empty collection.
+     */
+    @Test
+    public void anyOfThrowsForNoFutures()
+    {
+        assertThrows(
+            IllegalArgumentException.class,
+            () -> Awaitables.anyOf(Collections.emptyList())
+        );
+    }
+
+
+    /**
+     * {@code quorum} should return without waiting for futures that can't notify when they
+     * complete, and the returned {@code Awaitable} should be released when the futures complete.
+     *
+     * @throws InterruptedException if the test is interrupted.
+     */
+    @Test
+    public void quorumDoesNotBlockForPlainFutures() throws InterruptedException
+    {
+        // Given
+        FutureTask<String> aFirst = new FutureTask<>(() -> "first");
+        FutureTask<String> aSecond = new FutureTask<>(() -> "second");
+        List<PollableFuture<String>> aFutures =
+            Arrays.asList(PollableFuture.of(aFirst), PollableFuture.of(aSecond));
+
+        // When
+        Awaitable aAwaitable = Awaitables.quorum(2, aFutures);
+
+        // Then
+        aFirst.run();
+        aSecond.run();
+        assertTrue(aAwaitable.await(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,554 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.verify;
+
+import org.myire.concurrent.SupervisedTaskRunner.RestartPolicy;
+import org.myire.util.TimeSource;
+
+
+/**
+ * Unit tests for {@link org.myire.concurrent.SupervisedTaskRunner}.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public class SupervisedTaskRunnerTest
+{
+    static private final long MILLIS = TimeUnit.MILLISECONDS.toNanos(1);
+    static private final RestartPolicy POLICY =
+        RestartPolicy.exponentialBackoff(100, 1000, TimeUnit.MILLISECONDS);
+
+
+    /**
+     * The constructor should throw a {@code NullPointerException} when passed a null task.
+     */
+    @Test
+    public void ctorThrowsForNullTask()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () ->
+                new SupervisedTaskRunner(null, POLICY)
+        );
+    }
+
+
+    /**
+     * The constructor should throw a {@code NullPointerException} when passed a null policy.
+     */
+    @Test
+    public void ctorThrowsForNullPolicy()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () ->
+                new SupervisedTaskRunner(() -> {}, null)
+        );
+    }
+
+
+    /**
+     * The constructor should throw a {@code NullPointerException} when passed a null thread
+     * factory.
+     */
+    @Test
+    public void ctorThrowsForNullThreadFactory()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () ->
+                new SupervisedTaskRunner(() -> {}, null, POLICY, new ManualTimeSource())
+        );
+    }
+
+
+    /**
+     * The constructor should throw a {@code NullPointerException} when passed a null time source.
+     */
+    @Test
+    public void ctorThrowsForNullTimeSource()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () ->
+                new SupervisedTaskRunner(
+                    () -> {},
+                    new UserThreadFactory("x", false),
+                    POLICY,
+                    null)
+        );
+    }
+
+
+    /**
+     * {@code RestartPolicy.exponentialBackoff()} should throw an {@code IllegalArgumentException}
+     * for invalid delays.
+     */
+    @Test
+    public void exponentialBackoffThrowsForInvalidDelays()
+    {
+        assertAll(
+            () -> assertThrows(
+                IllegalArgumentException.class,
+                () -> RestartPolicy.exponentialBackoff(-1, 10, TimeUnit.SECONDS)),
+            () -> assertThrows(
+                IllegalArgumentException.class,
+                () -> RestartPolicy.exponentialBackoff(0, -1, TimeUnit.SECONDS)),
+            () -> assertThrows(
+                IllegalArgumentException.class,
+                () -> RestartPolicy.exponentialBackoff(11, 10, TimeUnit.SECONDS))
+        );
+    }
+
+
+    /**
+     * {@code RestartPolicy.exponentialBackoff()} should throw a {@code NullPointerException} for a
+     * null time unit.
+     */
+    @Test
+    public void exponentialBackoffThrowsForNullUnit()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () -> RestartPolicy.exponentialBackoff(1, 10, null)
+        );
+    }
+
+
+    /**
+     * The {@code with} methods of {@code RestartPolicy} should throw an
+     * {@code IllegalArgumentException} for invalid arguments.
+     */
+    @Test
+    public void withMethodsThrowForInvalidArguments()
+    {
+        assertAll(
+            () -> assertThrows(IllegalArgumentException.class, () -> POLICY.withMultiplier(0.5)),
+            () -> assertThrows(
+                IllegalArgumentException.class,
+                () -> POLICY.withMultiplier(Double.NaN)),
+            () -> assertThrows(IllegalArgumentException.class, () -> POLICY.withJitter(-0.1)),
+            () -> assertThrows(IllegalArgumentException.class, () -> POLICY.withJitter(1.1)),
+            () -> assertThrows(
+                IllegalArgumentException.class,
+                () -> POLICY.withMaxRestartRate(0, 1, TimeUnit.SECONDS)),
+            () -> assertThrows(
+                IllegalArgumentException.class,
+                () -> POLICY.withMaxRestartRate(1, -1, TimeUnit.SECONDS))
+        );
+    }
+
+
+    /**
+     * The restart delay should grow with the multiplier for each consecutive failure and be
+     * limited by the maximum delay.
+     */
+    @Test
+    public void delayGrowsExponentiallyUpToMaxDelay()
+    {
+        // Given
+        RestartPolicy aPolicy = POLICY.withMultiplier(3);
+
+        // Then
+        assertAll(
+            () -> assertEquals(100 * MILLIS, aPolicy.getDelayNanos(1, 0.5)),
+            () -> assertEquals(300 * MILLIS, aPolicy.getDelayNanos(2, 0.5)),
+            () -> assertEquals(900 * MILLIS, aPolicy.getDelayNanos(3, 0.5)),
+            () -> assertEquals(1000 * MILLIS, aPolicy.getDelayNanos(4, 0.5)),
+            () -> assertEquals(1000 * MILLIS, aPolicy.getDelayNanos(Integer.MAX_VALUE, 0.5))
+        );
+    }
+
+
+    /**
+     * The jitter should reduce the restart delay by a fraction of the random value.
+     */
+    @Test
+    public void jitterReducesDelay()
+    {
+        // Given
+        RestartPolicy aPolicy = POLICY.withJitter(0.5);
+
+        // Then
+        assertAll(
+            () -> assertEquals(100 * MILLIS, aPolicy.getDelayNanos(1, 0.0)),
+            () -> assertEquals(75 * MILLIS, aPolicy.getDelayNanos(1, 0.5)),
+            () -> assertEquals(800 * MILLIS, aPolicy.getDelayNanos(5, 0.4))
+        );
+    }
+
+
+    /**
+     * A task that completes normally should not be restarted.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void taskThatCompletesNormallyIsNotRestarted() throws InterruptedException
+    {
+        // Given
+        AtomicInteger aNumRuns = new AtomicInteger();
+        RecordingRunner aRunner = new RecordingRunner(aNumRuns::incrementAndGet, POLICY);
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+        assertAll(
+            () -> assertEquals(1, aNumRuns.get()),
+            () -> assertEquals(0, aRunner.getRestartCount()),
+            () -> assertNull(aRunner.getLastFailure())
+        );
+    }
+
+
+    /**
+     * A failing task should be restarted with exponential backoff until it completes normally.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void failingTaskIsRestartedWithBackoff() throws InterruptedException
+    {
+        // Given
+        FailingTask aTask = new FailingTask(5);
+        RecordingRunner aRunner = new RecordingRunner(aTask, POLICY);
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+        assertAll(
+            () -> assertEquals(6, aTask.fNumRuns.get()),
+            () -> assertEquals(5, aRunner.getRestartCount()),
+            () -> assertSame(aTask.fLastFailure, aRunner.getLastFailure()),
+            () -> assertEquals(
+                Arrays.asList(
+                    100 * MILLIS, 200 * MILLIS, 400 * MILLIS, 800 * MILLIS, 1000 * MILLIS),
+                aRunner.fDelays)
+        );
+    }
+
+
+    /**
+     * The backoff should be reset when the task has run for at least the maximum delay before
+     * failing.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void backoffIsResetAfterLongRun() throws InterruptedException
+    {
+        // Given
+        FailingTask aTask = new FailingTask(3);
+        RecordingRunner aRunner = new RecordingRunner(aTask, POLICY);
+        aTask.fTimeSource = aRunner.fTimeSource;
+        aTask.fRunTimes = new long[] {0, 1000 * MILLIS, 0};
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(100 * MILLIS, 100 * MILLIS, 200 * MILLIS), aRunner.fDelays);
+    }
+
+
+    /**
+     * A restart that would exceed the maximum restart rate should be delayed until it doesn't.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void restartRateIsCapped() throws InterruptedException
+    {
+        // Given
+        RestartPolicy aPolicy =
+            RestartPolicy.exponentialBackoff(0, 0, TimeUnit.SECONDS)
+                .withMaxRestartRate(2, 10, TimeUnit.SECONDS);
+        FailingTask aTask = new FailingTask(5);
+        RecordingRunner aRunner = new RecordingRunner(aTask, aPolicy);
+        aTask.fTimeSource = aRunner.fTimeSource;
+        aTask.fRunTimes = new long[] {0, 0, 1000 * MILLIS, 0, 0};
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+        assertAll(
+            () -> assertEquals(5, aRunner.getRestartCount()),
+            () -> assertEquals(
+                Arrays.asList(0L, 0L, 9000 * MILLIS, 0L, 10000 * MILLIS),
+                aRunner.fDelays)
+        );
+    }
+
+
+    /**
+     * A restart delayed by the rate cap should not wait longer than the period when the time
+     * source steps backwards.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void restartRateDelayIsLimitedWhenTimeStepsBackwards() throws InterruptedException
+    {
+        // Given
+        RestartPolicy aPolicy =
+            RestartPolicy.exponentialBackoff(0, 0, TimeUnit.SECONDS)
+                .withMaxRestartRate(1, 10, TimeUnit.SECONDS);
+        FailingTask aTask = new FailingTask(2);
+        RecordingRunner aRunner = new RecordingRunner(aTask, aPolicy);
+        aTask.fTimeSource = aRunner.fTimeSource;
+        aTask.fRunTimes = new long[] {0, -TimeUnit.HOURS.toNanos(1)};
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+        assertEquals(Arrays.asList(0L, 10000 * MILLIS), aRunner.fDelays);
+    }
+
+
+    /**
+     * {@code onTaskFailure()} should be called with the failure and the restart delay.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void failureCallsOnTaskFailure() throws InterruptedException
+    {
+        // Given
+        FailingTask aTask = new FailingTask(1);
+        RecordingRunner aRunner = spy(new RecordingRunner(aTask, POLICY));
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+        verify(aRunner).onTaskFailure(aTask.fLastFailure, 100 * MILLIS);
+    }
+
+
+    /**
+     * {@code stopTask()} should terminate the execution thread while it waits for a restart.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void stopTaskTerminatesRestartDelay() throws InterruptedException
+    {
+        // Given
+        FailingTask aTask = new FailingTask(1);
+        RestartPolicy aPolicy = RestartPolicy.exponentialBackoff(1, 1, TimeUnit.HOURS);
+        SupervisedTaskRunner aRunner = new SupervisedTaskRunner(aTask, aPolicy);
+        aRunner.startTask();
+        while (aRunner.getLastFailure() == null)
+            Thread.yield();
+
+        // When
+        aRunner.stopTask();
+
+        // Then
+        assertAll(
+            () -> assertFalse(aRunner.isRunning()),
+            () -> assertEquals(1, aTask.fNumRuns.get()),
+            () -> assertEquals(0, aRunner.getRestartCount())
+        );
+    }
+
+
+    /**
+     * {@code stopTask()} should terminate a task that clears the interrupted status by catching
+     * the {@code InterruptedException} and throwing another exception, without restarting it.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void stopTaskTerminatesTaskThatSwallowsInterrupt() throws InterruptedException
+    {
+        // Given
+        Runnable aTask = () -> {
+            try
+            {
+                Thread.sleep(TimeUnit.HOURS.toMillis(1));
+            }
+            catch (InterruptedException e)
+            {
+                throw new IllegalStateException(e);
+            }
+        };
+        SupervisedTaskRunner aRunner = new SupervisedTaskRunner(aTask, POLICY);
+        aRunner.startTask().await();
+        Thread aStopper = new Thread(() -> {
+            try
+            {
+                aRunner.stopTask();
+            }
+            catch (InterruptedException ignore)
+            {
+                // Let the thread terminate.
+            }
+        });
+
+        // When
+        aStopper.start();
+        aStopper.join(TimeUnit.SECONDS.toMillis(10));
+
+        // Then
+        assertAll(
+            () -> assertFalse(aStopper.isAlive()),
+            () -> assertFalse(aRunner.isRunning()),
+            () -> assertEquals(0, aRunner.getRestartCount()),
+            () -> assertTrue(aRunner.getLastFailure() instanceof IllegalStateException)
+        );
+    }
+
+
+    /**
+     * A task that fails when the execution thread is interrupted should not be restarted, and the
+     * failure should be passed to {@code onUncaughtException()}.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void taskFailingWhenInterruptedIsNotRestarted() throws InterruptedException
+    {
+        // Given
+        RuntimeException aException = new RuntimeException();
+        Runnable aTask = () -> {
+            Thread.currentThread().interrupt();
+            throw aException;
+        };
+        RecordingRunner aRunner = spy(new RecordingRunner(aTask, POLICY));
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+        assertAll(
+            () -> assertEquals(0, aRunner.getRestartCount()),
+            () -> assertSame(aException, aRunner.getLastFailure())
+        );
+        verify(aRunner).onUncaughtException(any(), same(aException));
+    }
+
+
+    /**
+     * A {@code TimeSource} with a time that only changes when advanced explicitly.
+     */
+    static private class ManualTimeSource implements TimeSource
+    {
+        private final AtomicLong fTime = new AtomicLong();
+
+        @Override
+        public long getCurrentTime()
+        {
+            return fTime.get();
+        }
+
+        @Override
+        @Nonnull
+        public TimeUnit getTimeUnit()
+        {
+            return TimeUnit.NANOSECONDS;
+        }
+
+        void advance(long pNanos)
+        {
+            fTime.addAndGet(pNanos);
+        }
+    }
+
+
+    /**
+     * A {@code SupervisedTaskRunner} with a manual time source that records the restart delays
+     * and advances the time source instead of waiting.
+     */
+    static private class RecordingRunner extends SupervisedTaskRunner
+    {
+        final ManualTimeSource fTimeSource;
+        final List<Long> fDelays = new ArrayList<>();
+
+        RecordingRunner(Runnable pTask, RestartPolicy pPolicy)
+        {
+            this(pTask, pPolicy, new ManualTimeSource());
+        }
+
+        private RecordingRunner(Runnable pTask, RestartPolicy pPolicy, ManualTimeSource pTimeSource)
+        {
+            super(pTask, new UserThreadFactory("x", false), pPolicy, pTimeSource);
+            fTimeSource = pTimeSource;
+        }
+
+        @Override
+        protected void awaitRestartDelay(long pDelayNanos)
+        {
+            fDelays.add(pDelayNanos);
+            fTimeSource.advance(pDelayNanos);
+        }
+    }
+
+
+    /**
+     * A task that fails a number of times before completing normally, optionally advancing a
+     * manual time source by a specific time for each run.
+     */
+    static private class FailingTask implements Runnable
+    {
+        final AtomicInteger fNumRuns = new AtomicInteger();
+        private final int fNumFailures;
+        volatile ManualTimeSource fTimeSource;
+        volatile long[] fRunTimes;
+        volatile RuntimeException fLastFailure;
+
+        FailingTask(int pNumFailures)
+        {
+            fNumFailures = pNumFailures;
+        }
+
+        @Override
+        public void run()
+        {
+            int aRun = fNumRuns.getAndIncrement();
+            if (fTimeSource != null && aRun < fRunTimes.length)
+                fTimeSource.advance(fRunTimes[aRun]);
+
+            if (aRun < fNumFailures)
+            {
+                fLastFailure = new RuntimeException("Failure " + aRun);
+                throw fLastFailure;
+            }
+        }
+    }
+}
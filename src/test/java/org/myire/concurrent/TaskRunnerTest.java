@@ -1,5 +1,5 @@
 /*
- * Copyright 2006, 2007, 2009-2011, 2017, 2020 Peter Franzen. All rights reserved.
+ * Copyright 2006, 2007, 2009-2011, 2017, 2020, 2023 Peter Franzen. All rights reserved.
  *
  * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
  */
@@ -76,6 +76,21 @@ public class TaskRunnerTest
     }
 
 
+    /**
+     * The constructor should throw a {@code NullPointerException} when passed a null task parameter
+     * and a virtual thread flag.
+     */
+    @Test
+    public void ctorThrowsForNullTaskAndVirtualThreadFlag()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () ->
+                new TaskRunner(null, true)
+        );
+    }
+
+
     /**
      * The {@code startTask()} method should start a new thread that executes the task.
      */
@@ -95,6 +110,50 @@ public class TaskRunnerTest
     }
 
 
+    /**
+     * A {@code TaskRunner} constructed to run its task in a virtual thread should run the task in a
+     * daemon thread, which is a virtual thread if the runtime supports it.
+     */
+    @Test
+    public void startTaskRunsTaskInDaemonThreadWhenVirtualThreadIsRequested()
+            throws InterruptedException
+    {
+        // Given
+        ConcurrentTestAction aTask = new ConcurrentTestAction();
+        TaskRunner aRunner = new TaskRunner(aTask, true);
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aTask.awaitRun(10, TimeUnit.SECONDS));
+        assertTrue(aTask.getThread().isDaemon());
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+    }
+
+
+    /**
+     * A {@code TaskRunner} constructed to not run its task in a virtual thread should run the task
+     * in a user thread.
+     */
+    @Test
+    public void startTaskRunsTaskInUserThreadWhenVirtualThreadIsNotRequested()
+            throws InterruptedException
+    {
+        // Given
+        ConcurrentTestAction aTask = new ConcurrentTestAction();
+        TaskRunner aRunner = new TaskRunner(aTask, false);
+
+        // When
+        aRunner.startTask();
+
+        // Then
+        assertTrue(aTask.awaitRun(10, TimeUnit.SECONDS));
+        assertFalse(aTask.getThread().isDaemon());
+        assertTrue(aRunner.await(10, TimeUnit.SECONDS));
+    }
+
+
     /**
      * The {@code startTask()} method should create the task execution thread using the
      * {@code ThreadFactory} passed to the constructor.
@@ -0,0 +1,177 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.concurrent;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+/**
+ * Unit tests for {@link org.myire.concurrent.VirtualThreadFactory}.
+ *
+ * @author <a href="mailto:peter@myire.org">Peter Franzen</a>
+ */
+public class VirtualThreadFactoryTest
+{
+    /**
+     * The constructor should throw a {@code NullPointerException} when passed a null base name.
+     */
+    @SuppressWarnings("unused")
+    @Test
+    public void ctorThrowsForNullBaseName()
+    {
+        assertThrows(
+            NullPointerException.class,
+            () ->
+                new VirtualThreadFactory(null, false)
+        );
+    }
+
+
+    /**
+     * {@code isVirtualThreadSupported()} should return true if and only if the runtime is Java 21
+     * or later.
+     */
+    @Test
+    public void virtualThreadsAreSupportedFromJava21()
+    {
+        // Given
+        String aVersion = System.getProperty("java.specification.version");
+        boolean aIsJava21OrLater = !aVersion.startsWith("1.") && Integer.parseInt(aVersion) >= 21;
+
+        // Then
+        assertEquals(aIsJava21OrLater, VirtualThreadFactory.isVirtualThreadSupported());
+    }
+
+
+    /**
+     * The names of the created threads should be the base name only when the factory is constructed
+     * with the append flag set to false.
+     */
+    @Test
+    public void threadNameIsBaseNameWhenAppendIsFalse()
+    {
+        // Given
+        String aBaseName = "name";
+        VirtualThreadFactory aFactory = new VirtualThreadFactory(aBaseName, false);
+
+        // When
+        Thread aThread1 = aFactory.newThread(null);
+        Thread aThread2 = aFactory.newThread(null);
+
+        // Then
+        assertAll(
+            () -> assertEquals(aBaseName, aThread1.getName()),
+            () -> assertEquals(aBaseName, aThread2.getName())
+        );
+    }
+
+
+    /**
+     * The names of the created threads should be the base name with the thread number appended when
+     * the factory is constructed with the append flag set to true.
+     */
+    @Test
+    public void threadNameEndsWithNumberWhenAppendIsTrue()
+    {
+        // Given
+        String aBaseName = "MyVirtualThread-";
+        VirtualThreadFactory aFactory = new VirtualThreadFactory(aBaseName, true);
+
+        // When
+        Thread aThread1 = aFactory.newThread(null);
+        Thread aThread2 = aFactory.newThread(null);
+
+        // Then
+        assertAll(
+            () -> assertEquals(aBaseName + "1", aThread1.getName()),
+            () -> assertEquals(aBaseName + "2", aThread2.getName())
+        );
+    }
+
+
+    /**
+     * The {@code Runnable} passed to the thread factory should be executed by the created threads.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void targetIsExecutedByThreads() throws InterruptedException
+    {
+        // Given
+        VirtualThreadFactory aFactory = new VirtualThreadFactory("AnyName", false);
+        AtomicBoolean aFlag = new AtomicBoolean(false);
+
+        // When
+        Thread aThread = aFactory.newThread(() -> aFlag.set(true));
+        aThread.start();
+        aThread.join();
+
+        // Then
+        assertTrue(aFlag.get());
+    }
+
+
+    /**
+     * A thread created with a null target should terminate without doing anything when started.
+     *
+     * @throws InterruptedException if the test thread is interrupted.
+     */
+    @Test
+    public void threadWithNullTargetCanBeStarted() throws InterruptedException
+    {
+        // Given
+        Thread aThread = new VirtualThreadFactory("AnyName", false).newThread(null);
+
+        // When
+        aThread.start();
+        aThread.join();
+
+        // Then
+        assertEquals(Thread.State.TERMINATED, aThread.getState());
+    }
+
+
+    /**
+     * The created threads should be daemon threads.
+     */
+    @Test
+    public void createdThreadsAreDaemonThreads()
+    {
+        // Given
+        VirtualThreadFactory aFactory = new VirtualThreadFactory("AnyName", false);
+
+        // When
+        Thread aThread = aFactory.newThread(() -> {});
+
+        // Then
+        assertTrue(aThread.isDaemon());
+    }
+
+
+    /**
+     * {@code getNumCreatedThreads()} should return the number of threads created by the factory.
+     */
+    @Test
+    public void getNumCreatedThreadsReturnsNumberOfCreatedThreads()
+    {
+        // Given
+        VirtualThreadFactory aFactory = new VirtualThreadFactory("AnyName", true);
+
+        // When
+        aFactory.newThread(null);
+        aFactory.newThread(null);
+        aFactory.newThread(null);
+
+        // Then
+        assertEquals(3, aFactory.getNumCreatedThreads());
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright 2023 Peter Franzen. All rights reserved.
+ *
+ * Licensed under the Apache License v2.0: http://www.apache.org/licenses/LICENSE-2.0
+ */
+package org.myire.util;
+
+/**
+ * Unit tests for {@code org.myire.util.TimeSource.NanoTimeSource}.
+ */
+public class NanoTimeSourceTest extends TimeSourceBaseTest
+{
+    @Override
+    protected TimeSource createInstance()
+    {
+        return TimeSource.NanoTimeSource.INSTANCE;
+    }
+}